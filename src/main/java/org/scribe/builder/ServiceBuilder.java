@@ -1,12 +1,34 @@
 package org.scribe.builder;
 
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
 import org.scribe.builder.api.Api;
 import org.scribe.exceptions.OAuthException;
+import org.scribe.model.Compression;
 import org.scribe.model.OAuthConfig;
 import org.scribe.model.OAuthConstants;
 import org.scribe.model.SignatureType;
 import org.scribe.oauth.OAuthService;
+import org.scribe.transport.AdaptiveTimeoutTransport;
+import org.scribe.transport.AdaptiveTimeouts;
+import org.scribe.transport.CircuitBreaker;
+import org.scribe.transport.CircuitBreakerTransport;
+import org.scribe.transport.ConcurrencyLimiter;
+import org.scribe.transport.ConcurrencyLimitingTransport;
+import org.scribe.transport.ConnectionPool;
+import org.scribe.transport.DnsCache;
+import org.scribe.transport.HttpClientTransport;
+import org.scribe.transport.HedgingPolicy;
+import org.scribe.transport.HedgingTransport;
+import org.scribe.transport.HttpTransport;
+import org.scribe.transport.PooledHttpTransport;
+import org.scribe.transport.RateLimiter;
+import org.scribe.transport.RateLimitingTransport;
+import org.scribe.transport.RetryPolicy;
+import org.scribe.transport.RetryingTransport;
+import org.scribe.transport.TlsConfig;
+import org.scribe.transport.UnixSocketTransport;
 import org.scribe.utils.Preconditions;
 
 /**
@@ -27,6 +49,20 @@ public class ServiceBuilder {
     private OutputStream debugStream;
     private Integer connectTimeout;
     private Integer readTimeout;
+    private HttpTransport transport;
+    private ConnectionPool connectionPool;
+    private DnsCache dnsCache;
+    private TlsConfig tlsConfig;
+    private Path unixSocket;
+    private Compression compression;
+    private int warmUpConnections;
+    private Executor executor;
+    private RetryPolicy retryPolicy;
+    private CircuitBreaker circuitBreaker;
+    private RateLimiter rateLimiter;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private AdaptiveTimeouts adaptiveTimeouts;
+    private HedgingPolicy hedgingPolicy;
 
     /**
      * Default constructor
@@ -34,6 +70,7 @@ public class ServiceBuilder {
     public ServiceBuilder() {
         this.callback = OAuthConstants.OUT_OF_BAND;
         this.signatureType = SignatureType.Header;
+        this.transport = HttpClientTransport.getDefault();
     }
 
     /**
@@ -52,8 +89,8 @@ public class ServiceBuilder {
         Preconditions.checkNotNull(apiClass, "Api class cannot be null");
         Api api;
         try {
-            api = apiClass.newInstance();
-        } catch (Exception e) {
+            api = apiClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
             throw new OAuthException("Error while creating the Api object", e);
         }
         return api;
@@ -172,6 +209,198 @@ public class ServiceBuilder {
         return this;
     }
 
+    /**
+     * Configures the {@link HttpTransport} the service sends its requests with. Defaults to the shared
+     * {@link HttpClientTransport}.
+     *
+     * @param transport transport for the token requests and the requests signed by the service
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder transport(final HttpTransport transport) {
+        Preconditions.checkNotNull(transport, "Transport can't be null");
+        this.transport = transport;
+        this.connectionPool = null;
+        return this;
+    }
+
+    /**
+     * Makes the service send its requests through a {@link PooledHttpTransport} backed by the given pool. The pool
+     * should not be shared with other services, so that its limits and statistics are those of this service.
+     *
+     * @param pool connection pool of the service
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder connectionPool(final ConnectionPool pool) {
+        Preconditions.checkNotNull(pool, "Connection pool can't be null");
+        this.transport = new PooledHttpTransport(pool);
+        this.connectionPool = pool;
+        return this;
+    }
+
+    /**
+     * Resolves the provider hosts through the cache. Only the {@link PooledHttpTransport} resolves hosts itself, so
+     * the service sends through one, with the pool of {@link #connectionPool(ConnectionPool)} or a pool of its own.
+     *
+     * @param cache DNS cache, possibly shared with other services
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder dnsCache(final DnsCache cache) {
+        Preconditions.checkNotNull(cache, "DNS cache can't be null");
+        this.dnsCache = cache;
+        return this;
+    }
+
+    /**
+     * Negotiates TLS with the given settings, whose session cache lets the connections of the service, and of the
+     * other services sharing them, resume earlier sessions. Like {@link #dnsCache(DnsCache)}, it makes the service
+     * send through a {@link PooledHttpTransport}, which reports the handshakes to the settings.
+     *
+     * @param config TLS settings, possibly shared with other services
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder tlsConfig(final TlsConfig config) {
+        Preconditions.checkNotNull(config, "TLS config can't be null");
+        this.tlsConfig = config;
+        return this;
+    }
+
+    /**
+     * Compresses the bodies the service exchanges as configured, and counts the bytes saved. Without it, responses are
+     * still asked for compressed and decoded, but payloads are never compressed.
+     *
+     * @param compression compression of the bodies, possibly shared with other services
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder compression(final Compression compression) {
+        Preconditions.checkNotNull(compression, "Compression can't be null");
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * Sends the requests of the service through a local proxy listening on a Unix domain socket, with a
+     * {@link UnixSocketTransport} on the pool of {@link #connectionPool(ConnectionPool)} or a pool of its own. The
+     * proxy resolves the hosts and negotiates TLS, so neither a DNS cache nor TLS settings can be configured along.
+     *
+     * @param socket path of the socket the proxy listens on
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder unixSocket(final Path socket) {
+        Preconditions.checkNotNull(socket, "Socket path can't be null");
+        this.unixSocket = socket;
+        return this;
+    }
+
+    /**
+     * Configures the {@link Executor} the asynchronous calls of the service complete on (token requests and
+     * {@link org.scribe.model.Request#sendAsync()} of signed requests). Defaults to the common fork join pool.
+     *
+     * @param executor executor for the asynchronous calls
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder executor(final Executor executor) {
+        Preconditions.checkNotNull(executor, "Executor can't be null");
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Makes the service retry failed requests as the policy allows, signing them again before each new attempt. The
+     * policy keeps the attempt statistics of the service.
+     *
+     * @param policy retry policy of the service
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder retryPolicy(final RetryPolicy policy) {
+        Preconditions.checkNotNull(policy, "Retry policy can't be null");
+        this.retryPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Guards every provider host the service calls with a circuit of the breaker, failing fast while the host is down.
+     * With a retry policy as well, each attempt goes through the breaker and no retry is made once it is open.
+     *
+     * @param breaker circuit breaker of the service
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder circuitBreaker(final CircuitBreaker breaker) {
+        Preconditions.checkNotNull(breaker, "Circuit breaker can't be null");
+        this.circuitBreaker = breaker;
+        return this;
+    }
+
+    /**
+     * Keeps the requests of the service within the quotas of the limiter: the one of the API key, and the one of the
+     * access token for the requests the service signs. Each retry attempt takes its own permits.
+     *
+     * @param limiter rate limiter of the service, possibly shared with the services of other API keys
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder rateLimiter(final RateLimiter limiter) {
+        Preconditions.checkNotNull(limiter, "Rate limiter can't be null");
+        this.rateLimiter = limiter;
+        return this;
+    }
+
+    /**
+     * Caps the calls in flight to the provider of the service with an adaptive limit of the limiter, kept under the
+     * class name of the {@link Api}. Services of other providers may share the limiter, each provider gets its own
+     * limit.
+     *
+     * @param limiter concurrency limiter of the service
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder concurrencyLimiter(final ConcurrencyLimiter limiter) {
+        Preconditions.checkNotNull(limiter, "Concurrency limiter can't be null");
+        this.concurrencyLimiter = limiter;
+        return this;
+    }
+
+    /**
+     * Derives the read timeout of every endpoint from the latency of its recent calls. Requests with a read timeout of
+     * their own, such as the one of {@link #readTimeout(int)}, keep it.
+     *
+     * @param timeouts adaptive timeouts of the service
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder adaptiveTimeouts(final AdaptiveTimeouts timeouts) {
+        Preconditions.checkNotNull(timeouts, "Adaptive timeouts can't be null");
+        this.adaptiveTimeouts = timeouts;
+        return this;
+    }
+
+    /**
+     * Sends a second copy of the requests that are slower than usual, as the policy allows, and keeps the first
+     * response. With a retry policy as well, every attempt may be hedged.
+     *
+     * @param policy hedging policy, possibly shared with other services for a global budget
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder hedgingPolicy(final HedgingPolicy policy) {
+        Preconditions.checkNotNull(policy, "Hedging policy can't be null");
+        this.hedgingPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Makes {@link #build()} open connections to the token endpoints of the provider before returning the service,
+     * as {@link OAuthService#warmUp(int)} does, so that the first authorization does not wait for them.
+     *
+     * Transports that can't open connections on their own, {@link org.scribe.transport.HttpClientTransport} among
+     * them, send unsigned HEAD requests to the token endpoints instead, as many as there are connections to open. The
+     * provider is likely to answer them with a 401 or a 405, and may count them against the quota of the application
+     * or take them for abuse; don't warm up providers that do.
+     *
+     * @param connections connections to keep ready per host
+     * @return the {@link ServiceBuilder} instance for method chaining
+     */
+    public ServiceBuilder warmUp(final int connections) {
+        Preconditions.checkArgument(connections > 0, "Connections must be positive");
+        this.warmUpConnections = connections;
+        return this;
+    }
+
     public ServiceBuilder debug() {
         this.debugStream(System.out);
         return this;
@@ -189,6 +418,50 @@ public class ServiceBuilder {
         final OAuthConfig config = new OAuthConfig(apiKey, apiSecret, callback, signatureType, scope, debugStream,
                 connectTimeout, readTimeout, grantType);
         config.setState(state);
-        return api.createService(config);
+        config.setTransport(buildTransport());
+        config.setAdaptiveTimeouts(adaptiveTimeouts);
+        config.setExecutor(executor);
+        config.setCompression(compression);
+        final OAuthService service = api.createService(config);
+        if (warmUpConnections > 0) {
+            service.warmUp(warmUpConnections);
+        }
+        return service;
+    }
+
+    private HttpTransport buildTransport() {
+        HttpTransport result = transport;
+        if (unixSocket != null) {
+            Preconditions.checkArgument(dnsCache == null && tlsConfig == null,
+                    "A DNS cache or TLS config can't be used with a Unix domain socket");
+            Preconditions.checkArgument(connectionPool != null || transport == HttpClientTransport.getDefault(),
+                    "A Unix domain socket can't be used with a custom transport");
+            result = new UnixSocketTransport(unixSocket, connectionPool == null ? new ConnectionPool()
+                    : connectionPool);
+        } else if (dnsCache != null || tlsConfig != null) {
+            Preconditions.checkArgument(connectionPool != null || transport == HttpClientTransport.getDefault(),
+                    "A DNS cache or TLS config can't be used with a custom transport");
+            result = new PooledHttpTransport(connectionPool == null ? new ConnectionPool() : connectionPool, dnsCache,
+                    tlsConfig);
+        }
+        if (adaptiveTimeouts != null) {
+            result = new AdaptiveTimeoutTransport(result, adaptiveTimeouts);
+        }
+        if (circuitBreaker != null) {
+            result = new CircuitBreakerTransport(result, circuitBreaker);
+        }
+        if (concurrencyLimiter != null) {
+            result = new ConcurrencyLimitingTransport(result, concurrencyLimiter, api.getClass().getName());
+        }
+        if (rateLimiter != null) {
+            result = new RateLimitingTransport(result, rateLimiter, apiKey);
+        }
+        if (hedgingPolicy != null) {
+            result = new HedgingTransport(result, hedgingPolicy);
+        }
+        if (retryPolicy != null) {
+            result = new RetryingTransport(result, retryPolicy);
+        }
+        return result;
     }
 }
@@ -71,7 +71,8 @@ public abstract class DefaultApi10a implements Api {
     }
 
     /**
-     * Returns the signature service.
+     * Returns the signature service, HMAC-SHA1 unless overridden, for instance with an
+     * {@link org.scribe.services.HMACSha256SignatureService} for providers requiring HMAC-SHA256.
      *
      * @return signature service
      */
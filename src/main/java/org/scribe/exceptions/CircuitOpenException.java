@@ -0,0 +1,30 @@
+package org.scribe.exceptions;
+
+/**
+ * A request was not sent because the circuit breaker of its host is open: recent calls to the host failed or were too
+ * slow, and it is left alone for a while instead of making every caller wait for it to time out.
+ */
+public class CircuitOpenException extends OAuthException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String host;
+    private final long retryInMillis;
+
+    public CircuitOpenException(final String host, final long retryInMillis) {
+        super("Circuit breaker open for " + host + ", next trial call in " + retryInMillis + " ms");
+        this.host = host;
+        this.retryInMillis = retryInMillis;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return time left before the breaker lets trial calls through, 0 if it already does and they are all taken
+     */
+    public long getRetryInMillis() {
+        return retryInMillis;
+    }
+}
@@ -0,0 +1,26 @@
+package org.scribe.exceptions;
+
+/**
+ * A request was not sent because the provider already has as many calls in flight as its concurrency limit allows.
+ */
+public class ConcurrencyLimitExceededException extends OAuthException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String provider;
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(final String provider, final int limit) {
+        super("Concurrency limit of " + provider + " reached: " + limit + " calls in flight");
+        this.provider = provider;
+        this.limit = limit;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
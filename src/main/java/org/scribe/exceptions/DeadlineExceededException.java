@@ -0,0 +1,14 @@
+package org.scribe.exceptions;
+
+/**
+ * A request was not sent, or not sent again, because the {@link org.scribe.model.Deadline} it was bound to had
+ * passed.
+ */
+public class DeadlineExceededException extends OAuthException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(final String message) {
+        super(message);
+    }
+}
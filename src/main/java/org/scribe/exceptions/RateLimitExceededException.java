@@ -0,0 +1,13 @@
+package org.scribe.exceptions;
+
+/**
+ * A request was not sent because the quota of its application or of its access token would not allow it in time.
+ */
+public class RateLimitExceededException extends OAuthException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RateLimitExceededException(final String message) {
+        super(message);
+    }
+}
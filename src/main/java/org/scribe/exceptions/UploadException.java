@@ -0,0 +1,23 @@
+package org.scribe.exceptions;
+
+import org.scribe.upload.UploadSession;
+
+/**
+ * A chunked upload stopped before the file was committed. The session it carries resumes the upload with
+ * {@link org.scribe.upload.ChunkedUploader#resume(UploadSession)}.
+ */
+public class UploadException extends OAuthException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient UploadSession session;
+
+    public UploadException(final String message, final UploadSession session, final Exception e) {
+        super(message, e);
+        this.session = session;
+    }
+
+    public UploadSession getSession() {
+        return session;
+    }
+}
@@ -13,18 +13,17 @@ import org.scribe.utils.*;
 public class BaseStringExtractorImpl implements BaseStringExtractor
 {
 
-  private static final String AMPERSAND_SEPARATED_STRING = "%s&%s&%s";
-
   /**
    * {@inheritDoc}
    */
   public String extract(OAuthRequest request)
   {
     checkPreconditions(request);
-    String verb = OAuthEncoder.encode(request.getVerb().name());
-    String url = OAuthEncoder.encode(request.getSanitizedUrl());
     String params = getSortedAndEncodedParams(request);
-    return String.format(AMPERSAND_SEPARATED_STRING, verb, url, params);
+    StringBuilder baseString = new StringBuilder(params.length() + 128);
+    OAuthEncoder.encode(request.getVerb().name(), baseString).append('&');
+    OAuthEncoder.encode(request.getSanitizedUrl(), baseString).append('&');
+    return baseString.append(params).toString();
   }
 
   private String getSortedAndEncodedParams(OAuthRequest request)
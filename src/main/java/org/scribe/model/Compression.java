@@ -0,0 +1,418 @@
+package org.scribe.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Compression of the bodies a service exchanges with its provider.
+ *
+ * Responses are asked for with "Accept-Encoding: gzip, deflate" and decoded as they are read, from
+ * {@link Response#getStream()} as well as from {@link Response#getBody()} and the other body accessors, so that a
+ * compressed body is neither held in memory nor copied before it is decoded. The Content-Encoding and Content-Length
+ * headers, which describe the body as it came over the wire, are left out of the decoded response.
+ *
+ * Payloads added with {@link Request#addPayload(String)} and its overloads can be gzipped too, for providers that
+ * accept compressed request bodies, once they are at least as long as the minimum size. Payloads held in memory are
+ * compressed when the request is sent, and sent compressed only if that made them smaller; streamed payloads are
+ * compressed as they are sent, chunked. Payloads of unknown length, form bodies and multipart bodies are sent as they
+ * are.
+ *
+ * The bytes compression kept off the wire, both ways, are counted. Requests not given a compression, by their service
+ * or with {@link Request#setCompression(Compression)}, still have their responses decoded.
+ */
+public class Compression {
+
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    public static final String ENCODINGS = "gzip, deflate";
+
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String DEFLATE = "deflate";
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder responseWireBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder payloads = new LongAdder();
+    private final LongAdder payloadBytes = new LongAdder();
+    private final LongAdder payloadWireBytes = new LongAdder();
+
+    private volatile boolean decompress = true;
+    private volatile long minPayloadSize = -1;
+
+    /**
+     * @param decompress whether responses are asked for compressed and decoded, true by default; when false, an
+     * Accept-Encoding header added to a request is left to the caller, who gets the body as it came
+     */
+    public void setDecompress(final boolean decompress) {
+        this.decompress = decompress;
+    }
+
+    public boolean isDecompress() {
+        return decompress;
+    }
+
+    /**
+     * @param bytes length from which payloads are gzipped, -1, the default, never to compress them
+     */
+    public void setMinPayloadSize(final long bytes) {
+        Preconditions.checkArgument(bytes >= -1, "Min payload size must be -1 or more");
+        this.minPayloadSize = bytes;
+    }
+
+    public long getMinPayloadSize() {
+        return minPayloadSize;
+    }
+
+    public CompressionStats getStats() {
+        return new CompressionStats(responses.sum(), responseWireBytes.sum(), responseBytes.sum(), payloads.sum(),
+                payloadBytes.sum(), payloadWireBytes.sum());
+    }
+
+    /**
+     * Asks for a compressed response and compresses the payload, unless the request already has encodings of its own.
+     */
+    void prepare(final Request request) {
+        final Map<String, String> headers = request.getHeaders();
+        if (decompress && getHeader(headers, ACCEPT_ENCODING) == null) {
+            request.addHeader(ACCEPT_ENCODING, ENCODINGS);
+        }
+        final long minSize = minPayloadSize;
+        if (minSize < 0 || !request.hasBodyContent() || request.isPayloadEncoded()
+                || getHeader(headers, CONTENT_ENCODING) != null) {
+            return;
+        }
+        final Payload payload = request.getAddedPayload();
+        if (payload == null || payload.getContentLength() < Math.max(minSize, 0)) {
+            return;
+        }
+        if (request.isStreamingBody()) {
+            request.setEncodedPayload(new GzipPayload(payload));
+        } else {
+            final byte[] bytes = request.getByteBodyContents();
+            final byte[] compressed = gzip(bytes);
+            if (compressed.length >= bytes.length) {
+                return;
+            }
+            payloads.increment();
+            payloadBytes.add(bytes.length);
+            payloadWireBytes.add(compressed.length);
+            request.setEncodedPayload(Payload.of(compressed));
+        }
+        request.addHeader(CONTENT_ENCODING, GZIP);
+    }
+
+    /**
+     * @return the response with a body decoded as it is read, the response itself if its body is not compressed
+     */
+    Response decode(final Response response) {
+        final String encoding = getHeader(response.getHeaders(), CONTENT_ENCODING);
+        if (!decompress || encoding == null || response.getStream() == null) {
+            return response;
+        }
+        final String name = encoding.trim().toLowerCase();
+        if (!GZIP.equals(name) && !X_GZIP.equals(name) && !DEFLATE.equals(name)) {
+            return response;
+        }
+        // a copy of the same kind, so that the names are still looked up ignoring case if they were
+        final Map<String, String> original = response.getHeaders();
+        final Map<String, String> headers = original instanceof SortedMap
+                ? new TreeMap<>(((SortedMap<String, String>) original).comparator()) : new HashMap<>();
+        for (final Map.Entry<String, String> header : original.entrySet()) {
+            if (header.getKey() == null || (!CONTENT_ENCODING.equalsIgnoreCase(header.getKey())
+                    && !CONTENT_LENGTH.equalsIgnoreCase(header.getKey()))) {
+                headers.put(header.getKey(), header.getValue());
+            }
+        }
+        return new Response(response.getCode(), response.getMessage(), headers,
+                new DecodingStream(response.getStream(), DEFLATE.equals(name)));
+    }
+
+    private static String getHeader(final Map<String, String> headers, final String name) {
+        final String value = headers.get(name);
+        if (value != null) {
+            return value;
+        }
+        for (final Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static byte[] gzip(final byte[] bytes) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, bytes.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot compress in memory", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes the body as it is read. The decoder is only set up on the first read, since an empty body, such as the
+     * one of a HEAD request, is not a valid compressed stream. Once the decoded body ends, the rest of the body is read
+     * too, so that the transport sees its end and can reuse the connection.
+     */
+    private final class DecodingStream extends InputStream {
+
+        private final CountingStream wire;
+        private final boolean deflate;
+        private InputStream decoder;
+        private Inflater inflater;
+        private long decoded;
+        private boolean done;
+
+        DecodingStream(final InputStream in, final boolean deflate) {
+            this.wire = new CountingStream(in);
+            this.deflate = deflate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (decoder == null) {
+                decoder = openDecoder();
+            }
+            final int read = decoder.read(b, off, len);
+            if (read < 0) {
+                drain();
+                record();
+                return -1;
+            }
+            decoded += read;
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return decoder == null || done ? 0 : decoder.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (decoder != null) {
+                    decoder.close();
+                } else {
+                    wire.close();
+                }
+            } finally {
+                if (inflater != null) {
+                    inflater.end();
+                }
+                record();
+            }
+        }
+
+        private InputStream openDecoder() throws IOException {
+            final PushbackInputStream in = new PushbackInputStream(wire, 2);
+            final byte[] head = new byte[2];
+            int read = 0;
+            for (int n; read < head.length && (n = in.read(head, read, head.length - read)) != -1;) {
+                read += n;
+            }
+            if (read == 0) {
+                return InputStream.nullInputStream();
+            }
+            in.unread(head, 0, read);
+            if (!deflate) {
+                return new GZIPInputStream(in, BUFFER_SIZE);
+            }
+            // deflate is meant to be zlib wrapped, but some servers send the raw deflate data
+            final boolean zlib = read == 2 && (head[0] & 0x0f) == 8 && (((head[0] & 0xff) << 8) | (head[1] & 0xff))
+                    % 31 == 0;
+            inflater = new Inflater(!zlib);
+            return new InflaterInputStream(in, inflater, BUFFER_SIZE);
+        }
+
+        private void drain() throws IOException {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (wire.read(buffer) != -1) {
+                // trailing bytes after the compressed data, ignored
+            }
+        }
+
+        private void record() {
+            if (!done) {
+                done = true;
+                responses.increment();
+                responseWireBytes.add(wire.count);
+                responseBytes.add(decoded);
+            }
+        }
+    }
+
+    /**
+     * Gzips the payload as it is read, chunked since its compressed length is only known once it is sent.
+     */
+    private final class GzipPayload extends Payload {
+
+        private final Payload source;
+
+        GzipPayload(final Payload source) {
+            this.source = source;
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return source.isRepeatable();
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return new GzipStream(source.openStream());
+        }
+    }
+
+    /**
+     * Gzip member over a stream: the header, the deflated bytes, then the CRC32 and the length of the bytes read.
+     */
+    private final class GzipStream extends InputStream {
+
+        private final CRC32 crc = new CRC32();
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private final InputStream deflating;
+        private byte[] pending = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+        private int position;
+        private boolean deflated;
+        private long sent;
+        private boolean done;
+
+        GzipStream(final InputStream source) {
+            this.deflating = new DeflaterInputStream(new CheckedInputStream(source, crc), deflater, BUFFER_SIZE);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                if (position < pending.length) {
+                    final int count = Math.min(len, pending.length - position);
+                    System.arraycopy(pending, position, b, off, count);
+                    position += count;
+                    sent += count;
+                    return count;
+                }
+                if (deflated) {
+                    if (!done) {
+                        done = true;
+                        payloads.increment();
+                        payloadBytes.add(deflater.getBytesRead());
+                        payloadWireBytes.add(sent);
+                    }
+                    return -1;
+                }
+                final int read = deflating.read(b, off, len);
+                if (read > 0) {
+                    sent += read;
+                    return read;
+                }
+                if (read < 0) {
+                    deflated = true;
+                    pending = trailer();
+                    position = 0;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                deflating.close();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private byte[] trailer() {
+            final long checksum = crc.getValue();
+            final long length = deflater.getBytesRead();
+            final byte[] trailer = new byte[8];
+            for (int i = 0; i < 4; i++) {
+                trailer[i] = (byte) (checksum >>> (8 * i));
+                trailer[4 + i] = (byte) (length >>> (8 * i));
+            }
+            return trailer;
+        }
+    }
+
+    private static final class CountingStream extends FilterInputStream {
+
+        private long count;
+
+        CountingStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
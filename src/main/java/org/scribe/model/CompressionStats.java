@@ -0,0 +1,80 @@
+package org.scribe.model;
+
+/**
+ * Snapshot of the bodies a {@link Compression} decoded and compressed.
+ */
+public class CompressionStats {
+
+    private final long responses;
+    private final long responseWireBytes;
+    private final long responseBytes;
+    private final long payloads;
+    private final long payloadBytes;
+    private final long payloadWireBytes;
+
+    CompressionStats(final long responses, final long responseWireBytes, final long responseBytes,
+            final long payloads, final long payloadBytes, final long payloadWireBytes) {
+        this.responses = responses;
+        this.responseWireBytes = responseWireBytes;
+        this.responseBytes = responseBytes;
+        this.payloads = payloads;
+        this.payloadBytes = payloadBytes;
+        this.payloadWireBytes = payloadWireBytes;
+    }
+
+    /**
+     * @return compressed response bodies read
+     */
+    public long getResponses() {
+        return responses;
+    }
+
+    /**
+     * @return bytes of the compressed response bodies, as received
+     */
+    public long getResponseWireBytes() {
+        return responseWireBytes;
+    }
+
+    /**
+     * @return bytes of the compressed response bodies, once decoded
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * @return request payloads sent compressed
+     */
+    public long getPayloads() {
+        return payloads;
+    }
+
+    /**
+     * @return bytes of the compressed request payloads, before compression
+     */
+    public long getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    /**
+     * @return bytes of the compressed request payloads, as sent
+     */
+    public long getPayloadWireBytes() {
+        return payloadWireBytes;
+    }
+
+    /**
+     * @return bytes that did not go over the wire, both ways, thanks to compression
+     */
+    public long getBytesSaved() {
+        return responseBytes - responseWireBytes + payloadBytes - payloadWireBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CompressionStats[responses=%d, responseBytes=%d/%d, payloads=%d, payloadBytes=%d/%d, "
+                + "saved=%d]", responses, responseWireBytes, responseBytes, payloads, payloadWireBytes, payloadBytes,
+                getBytesSaved());
+    }
+}
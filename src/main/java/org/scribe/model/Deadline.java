@@ -0,0 +1,88 @@
+package org.scribe.model;
+
+import java.util.concurrent.TimeUnit;
+import org.scribe.exceptions.DeadlineExceededException;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Time budget shared by a sequence of requests, such as the request token, access token and signed calls of a login.
+ *
+ * As a {@link RequestTuner}, it gives the request it tunes no more than the time left as connect and read timeouts,
+ * and fails it with a {@link DeadlineExceededException} once no time is left, instead of letting it start. The
+ * request stays bound to the deadline, so that a retry or a wait for a rate limit permit never outlives it either.
+ */
+public final class Deadline extends RequestTuner {
+
+    private final long expiresAt;
+
+    private Deadline(final long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @param duration budget, from now
+     * @param unit unit of the budget
+     * @return deadline expiring once the budget is spent
+     */
+    public static Deadline after(final long duration, final TimeUnit unit) {
+        Preconditions.checkArgument(duration >= 0, "Duration can't be negative");
+        // nanoTime differences overflow past about 292 years
+        return new Deadline(System.nanoTime() + Math.min(unit.toNanos(duration), Long.MAX_VALUE / 2));
+    }
+
+    /**
+     * @param unit unit of the time left
+     * @return time left before the deadline, 0 once it has passed
+     */
+    public long getRemaining(final TimeUnit unit) {
+        return unit.convert(Math.max(0, expiresAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return expiresAt - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @param tuner tuner applied first, for instance one setting the usual timeouts of token requests
+     * @return tuner applying the given one, then bounding its timeouts by the deadline
+     */
+    public RequestTuner bound(final RequestTuner tuner) {
+        Preconditions.checkNotNull(tuner, "Tuner can't be null");
+        return new RequestTuner() {
+            @Override
+            public void tune(final Request request) {
+                tuner.tune(request);
+                Deadline.this.tune(request);
+            }
+        };
+    }
+
+    /**
+     * Lowers the timeouts of the request to the time left, sets them to it when they were not set, and binds the
+     * request to the deadline.
+     *
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    @Override
+    public void tune(final Request request) {
+        final long remaining = expiresAt - System.nanoTime();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException("Deadline exceeded by "
+                    + TimeUnit.NANOSECONDS.toMillis(-remaining) + " ms before sending " + request);
+        }
+        final long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+        request.setConnectTimeout(bound(request.getConnectTimeout(), millis), TimeUnit.MILLISECONDS);
+        request.setReadTimeout(bound(request.getReadTimeout(), millis), TimeUnit.MILLISECONDS);
+        request.setDeadline(this);
+    }
+
+    private static int bound(final Long timeout, final long remaining) {
+        return (int) Math.min(Integer.MAX_VALUE, timeout == null || timeout <= 0 ? remaining
+                : Math.min(timeout, remaining));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@Deadline(remaining: %d ms)", getRemaining(TimeUnit.MILLISECONDS));
+    }
+}
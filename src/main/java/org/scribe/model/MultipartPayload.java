@@ -0,0 +1,207 @@
+package org.scribe.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.scribe.exceptions.OAuthException;
+import org.scribe.utils.Preconditions;
+
+/**
+ * multipart/form-data body, built with {@link Request#addMultipartPayload()}.
+ *
+ * Parts are written one after the other straight to the connection: text fields from memory, files and streams as they
+ * are read. The whole body is never held in memory. When every part has a known length the body is sent with a
+ * Content-Length header, otherwise it is chunked.
+ *
+ * OAuth 1.0a leaves multipart fields out of the signature base string, but some providers (Flickr uploads for example)
+ * expect the text fields to be signed. Fields added with {@link #addField(String, String)} are therefore also added to
+ * the request body parameters, fields added with {@link #addUnsignedField(String, String)} are not.
+ */
+public class MultipartPayload extends Payload {
+
+    private static final String CRLF = "\r\n";
+    private static final String DASHES = "--";
+    private static final byte[] CRLF_BYTES = CRLF.getBytes(StandardCharsets.ISO_8859_1);
+    private static final String OCTET_STREAM = "application/octet-stream";
+
+    private final String boundary;
+    private final ParameterList bodyParams;
+    private final List<Part> parts = new ArrayList<>();
+
+    MultipartPayload(final ParameterList bodyParams) {
+        this.bodyParams = bodyParams;
+        this.boundary = "SubScribe" + Long.toHexString(ThreadLocalRandom.current().nextLong())
+                + Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @return value of the Content-Type header announcing this body
+     */
+    public String getContentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    /**
+     * Adds a text field that is also part of the OAuth signature, as a body parameter.
+     *
+     * @param name field name
+     * @param value field value, sent as UTF-8
+     * @return this payload
+     */
+    public MultipartPayload addField(final String name, final String value) {
+        addUnsignedField(name, value);
+        bodyParams.add(name, value);
+        return this;
+    }
+
+    /**
+     * Adds a text field that is left out of the OAuth signature.
+     *
+     * @param name field name
+     * @param value field value, sent as UTF-8
+     * @return this payload
+     */
+    public MultipartPayload addUnsignedField(final String name, final String value) {
+        Preconditions.checkNotNull(value, "Field value can't be null");
+        parts.add(new Part(name, null, null, Payload.of(value.getBytes(StandardCharsets.UTF_8))));
+        return this;
+    }
+
+    /**
+     * Adds a file part, read when the request is sent. The file name sent is the name of the file.
+     *
+     * @param name field name
+     * @param file file to send
+     * @param contentType content type of the file, application/octet-stream if null
+     * @return this payload
+     *
+     * @throws OAuthException if the file size cannot be read
+     */
+    public MultipartPayload addFile(final String name, final Path file, final String contentType) {
+        try {
+            parts.add(new Part(name, file.getFileName().toString(), contentType, Payload.of(file)));
+        } catch (IOException ioe) {
+            throw new OAuthException("Cannot read multipart file " + file, ioe);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a part read from a stream when the request is sent. The stream is read once and closed after sending.
+     *
+     * @param name field name
+     * @param fileName file name to send, none if null
+     * @param contentType content type of the part, application/octet-stream if null
+     * @param stream part contents
+     * @param length number of bytes the stream holds, -1 if unknown (the whole body is then chunked)
+     * @return this payload
+     */
+    public MultipartPayload addStream(final String name, final String fileName, final String contentType,
+            final InputStream stream, final long length) {
+        parts.add(new Part(name, fileName, contentType, Payload.of(stream, length)));
+        return this;
+    }
+
+    @Override
+    public long getContentLength() {
+        long length = closingDelimiter().length;
+        for (final Part part : parts) {
+            final long partLength = part.body.getContentLength();
+            if (partLength < 0) {
+                return -1;
+            }
+            length += part.header.length + partLength + CRLF.length();
+        }
+        return length;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        for (final Part part : parts) {
+            if (!part.body.isRepeatable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Opens the part streams one at a time, as the previous one is exhausted.
+     */
+    @Override
+    public InputStream openStream() {
+        final List<Payload> segments = new ArrayList<>(parts.size() * 3 + 1);
+        for (final Part part : parts) {
+            segments.add(Payload.of(part.header));
+            segments.add(part.body);
+            segments.add(Payload.of(CRLF_BYTES));
+        }
+        segments.add(Payload.of(closingDelimiter()));
+        final Iterator<Payload> iterator = segments.iterator();
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return iterator.next().openStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void writeTo(final OutputStream out) throws IOException {
+        for (final Part part : parts) {
+            out.write(part.header);
+            part.body.writeTo(out);
+            out.write(CRLF_BYTES);
+        }
+        out.write(closingDelimiter());
+    }
+
+    private byte[] closingDelimiter() {
+        return (DASHES + boundary + DASHES + CRLF).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static String quote(final String value) {
+        return '"' + value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A") + '"';
+    }
+
+    private class Part {
+
+        private final byte[] header;
+        private final Payload body;
+
+        Part(final String name, final String fileName, final String contentType, final Payload body) {
+            Preconditions.checkEmptyString(name, "Part name can't be null or empty");
+            final StringBuilder builder = new StringBuilder(128);
+            builder.append(DASHES).append(boundary).append(CRLF);
+            builder.append("Content-Disposition: form-data; name=").append(quote(name));
+            if (fileName != null) {
+                builder.append("; filename=").append(quote(fileName));
+            }
+            builder.append(CRLF);
+            if (fileName != null || contentType != null) {
+                builder.append("Content-Type: ").append(contentType == null ? OCTET_STREAM : contentType).append(CRLF);
+            }
+            builder.append(CRLF);
+            this.header = builder.toString().getBytes(StandardCharsets.UTF_8);
+            this.body = body;
+        }
+    }
+}
@@ -2,6 +2,14 @@ package org.scribe.model;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import org.scribe.transport.AdaptiveTimeouts;
+import org.scribe.transport.HttpTransport;
+import org.scribe.transport.UrlConnectionTransport;
+import org.scribe.utils.Preconditions;
 
 /**
  * Parameter object that groups OAuth config values
@@ -20,6 +28,11 @@ public class OAuthConfig {
     private final Integer connectTimeout;
     private final Integer readTimeout;
     private String state;
+    private HttpTransport transport;
+    private AdaptiveTimeouts adaptiveTimeouts;
+    private Executor executor;
+    private Compression compression;
+    private volatile WarmUpStats warmUpStats;
 
     public OAuthConfig(final String key, final String secret) {
         this(key, secret, null, null, null, null, null, null, null);
@@ -103,4 +116,126 @@ public class OAuthConfig {
         return state;
     }
 
+    /**
+     * Sets the transport used for the requests created or signed by the service.
+     *
+     * @param transport transport, null to let every request use its own default
+     */
+    public void setTransport(final HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Sets the adaptive timeouts the transport of the service applies, which then replace the fixed timeout of the
+     * token requests.
+     *
+     * @param adaptiveTimeouts adaptive timeouts, null for fixed ones
+     */
+    public void setAdaptiveTimeouts(final AdaptiveTimeouts adaptiveTimeouts) {
+        this.adaptiveTimeouts = adaptiveTimeouts;
+    }
+
+    public AdaptiveTimeouts getAdaptiveTimeouts() {
+        return adaptiveTimeouts;
+    }
+
+    /**
+     * Sets the executor asynchronous requests of the service complete on.
+     *
+     * @param executor executor, null to let every request use its own default
+     */
+    public void setExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the compression of the bodies the service exchanges.
+     *
+     * @param compression compression, null to let every request use its own default
+     */
+    public void setCompression(final Compression compression) {
+        this.compression = compression;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Makes the request go through the configured transport, executor and compression, unless it already has its own.
+     *
+     * @param request request created or signed by the service
+     */
+    public void applyTransport(final Request request) {
+        if (transport != null && !request.hasTransport()) {
+            request.setTransport(transport);
+        }
+        if (executor != null && !request.hasExecutor()) {
+            request.setExecutor(executor);
+        }
+        if (compression != null && !request.hasCompression()) {
+            request.setCompression(compression);
+        }
+    }
+
+    /**
+     * Makes the request go through the configured transport, executor and compression, unless it already has its own,
+     * and records the access token it is signed with.
+     *
+     * @param request request signed by the service
+     * @param accessToken token the request is signed with
+     */
+    public void applyTransport(final Request request, final Token accessToken) {
+        applyTransport(request);
+        if (accessToken != null && !accessToken.isEmpty()) {
+            request.setAccessToken(accessToken.getToken());
+        }
+    }
+
+    /**
+     * Opens connections to the hosts of the endpoints through the transport of the service, once per host. A host
+     * that can't be connected to is counted as a failure, the others are still warmed up.
+     *
+     * @param connections connections to keep ready per host
+     * @param endpoints URLs of the endpoints the service calls first, such as its token endpoints
+     * @return outcome of the warm-up, also kept as {@link #getWarmUpStats()}
+     */
+    public WarmUpStats warmUp(final int connections, final String... endpoints) {
+        Preconditions.checkArgument(connections > 0, "Connections must be positive");
+        final HttpTransport target = transport == null ? UrlConnectionTransport.getDefault() : transport;
+        final long start = System.nanoTime();
+        final Set<String> hosts = new HashSet<>();
+        int opened = 0;
+        int failures = 0;
+        for (final String endpoint : endpoints) {
+            try {
+                final URI uri = URI.create(endpoint);
+                if (hosts.add(uri.getScheme() + "://" + uri.getAuthority())) {
+                    opened += target.warmUp(endpoint, connections);
+                }
+            } catch (IOException | RuntimeException e) {
+                log("warm-up of " + endpoint + " failed: " + e);
+                failures++;
+            }
+        }
+        final WarmUpStats stats = new WarmUpStats(hosts.size(), opened, failures, System.nanoTime() - start);
+        log("warmed up: " + stats);
+        warmUpStats = stats;
+        return stats;
+    }
+
+    /**
+     * @return outcome of the last warm-up of the service, null if it was not warmed up
+     */
+    public WarmUpStats getWarmUpStats() {
+        return warmUpStats;
+    }
 }
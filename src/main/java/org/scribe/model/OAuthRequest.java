@@ -23,7 +23,18 @@ public class OAuthRequest extends Request
   public OAuthRequest(Verb verb, String url)
   {
     super(verb, url);
-    this.oauthParameters = new HashMap<String, String>();
+    this.oauthParameters = new LinkedHashMap<String, String>();
+  }
+
+  /**
+   * Copy constructor, see {@link Request#Request(Request)}.
+   * 
+   * @param other request to copy
+   */
+  protected OAuthRequest(OAuthRequest other)
+  {
+    super(other);
+    this.oauthParameters = new LinkedHashMap<String, String>(other.oauthParameters);
   }
 
   /**
@@ -61,6 +72,12 @@ public class OAuthRequest extends Request
     return oauthParameters;
   }
 
+  @Override
+  public OAuthRequest copy()
+  {
+    return new OAuthRequest(this);
+  }
+
   @Override
   public String toString()
   {
@@ -18,7 +18,15 @@ public class Parameter implements Comparable<Parameter> {
     }
 
     public String asUrlEncodedPair() {
-        return OAuthEncoder.encode(key).concat("=").concat(OAuthEncoder.encode(value));
+        return appendUrlEncodedPair(new StringBuilder(key.length() + value.length() + 16)).toString();
+    }
+
+    /**
+     * @return the builder, with the encoded pair appended
+     */
+    StringBuilder appendUrlEncodedPair(final StringBuilder builder) {
+        OAuthEncoder.encode(key, builder).append('=');
+        return OAuthEncoder.encode(value, builder);
     }
 
     @Override
@@ -2,6 +2,7 @@ package org.scribe.model;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import org.scribe.utils.OAuthEncoder;
@@ -59,11 +60,14 @@ public class ParameterList {
             return EMPTY_STRING;
         }
 
-        final StringBuilder builder = new StringBuilder();
+        final StringBuilder builder = new StringBuilder(params.size() * 32);
         for (final Parameter p : params) {
-            builder.append('&').append(p.asUrlEncodedPair());
+            if (builder.length() > 0) {
+                builder.append('&');
+            }
+            p.appendUrlEncodedPair(builder);
         }
-        return builder.toString().substring(1);
+        return builder.toString();
     }
 
     public void addAll(final ParameterList other) {
@@ -81,6 +85,20 @@ public class ParameterList {
         }
     }
 
+    /**
+     * Removes every parameter with the given key.
+     *
+     * @param key parameter name
+     */
+    public void remove(final String key) {
+        final Iterator<Parameter> iterator = params.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().equals(key)) {
+                iterator.remove();
+            }
+        }
+    }
+
     public boolean contains(final Parameter param) {
         return params.contains(param);
     }
@@ -0,0 +1,290 @@
+package org.scribe.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Body of a {@link Request}, written by the transport straight to the connection.
+ *
+ * A payload of known length is sent with a Content-Length header, one of unknown length with chunked transfer encoding.
+ * Repeatable payloads can be sent more than once (redirects keeping the method, requests resent on a new connection),
+ * a payload backed by a caller supplied {@link InputStream} can not.
+ */
+public abstract class Payload {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * @return length of the payload in bytes, -1 if unknown
+     */
+    public abstract long getContentLength();
+
+    /**
+     * @return true if the payload can be written more than once
+     */
+    public abstract boolean isRepeatable();
+
+    /**
+     * Opens a stream over the payload bytes.
+     *
+     * @return payload bytes
+     *
+     * @throws IOException if the underlying source cannot be read
+     * @throws IllegalStateException if the payload is not repeatable and has already been consumed
+     */
+    public abstract InputStream openStream() throws IOException;
+
+    /**
+     * Writes the payload to the stream.
+     *
+     * @param out stream to write to, not closed
+     *
+     * @throws IOException if the payload cannot be read or written
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        try (InputStream in = openStream()) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Payload over an array, which is neither copied nor expected to change.
+     */
+    static Payload of(final byte[] bytes) {
+        return new ByteBufferPayload(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @param stream stream to read the payload from, closed once written
+     * @param length length of the payload, -1 if unknown
+     */
+    static Payload of(final InputStream stream, final long length) {
+        Preconditions.checkNotNull(stream, "Payload stream can't be null");
+        return new StreamPayload(stream, length);
+    }
+
+    /**
+     * Payload over the remaining bytes of the buffer. The buffer is not copied and its position is left untouched.
+     */
+    static Payload of(final ByteBuffer buffer) {
+        Preconditions.checkNotNull(buffer, "Payload buffer can't be null");
+        return new ByteBufferPayload(buffer.duplicate());
+    }
+
+    /**
+     * Payload over the channel bytes from its current position to its end. Reads are positional, the channel position
+     * is left untouched and the channel is not closed.
+     */
+    static Payload of(final FileChannel channel) throws IOException {
+        Preconditions.checkNotNull(channel, "Payload channel can't be null");
+        return new FileChannelPayload(channel, channel.position(), channel.size() - channel.position());
+    }
+
+    /**
+     * Payload over the whole file, opened each time the payload is written.
+     */
+    static Payload of(final Path path) throws IOException {
+        Preconditions.checkNotNull(path, "Payload path can't be null");
+        return new FilePayload(path, Files.size(path));
+    }
+
+    private static class StreamPayload extends Payload {
+
+        private final long length;
+        private InputStream stream;
+
+        StreamPayload(final InputStream stream, final long length) {
+            this.stream = stream;
+            this.length = length;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public synchronized InputStream openStream() {
+            if (stream == null) {
+                throw new IllegalStateException("Stream payload has already been sent");
+            }
+            final InputStream result = stream;
+            stream = null;
+            return result;
+        }
+    }
+
+    private static class ByteBufferPayload extends Payload {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferPayload(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long getContentLength() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public InputStream openStream() {
+            if (buffer.hasArray()) {
+                return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                        buffer.remaining());
+            }
+            final ByteBuffer source = buffer.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return source.hasRemaining() ? source.get() & 0xff : -1;
+                }
+
+                @Override
+                public int read(final byte[] bytes, final int offset, final int length) {
+                    if (!source.hasRemaining()) {
+                        return -1;
+                    }
+                    final int read = Math.min(length, source.remaining());
+                    source.get(bytes, offset, read);
+                    return read;
+                }
+            };
+        }
+
+        @Override
+        public void writeTo(final OutputStream out) throws IOException {
+            if (buffer.hasArray()) {
+                out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            } else {
+                super.writeTo(out);
+            }
+        }
+    }
+
+    private static class FileChannelPayload extends Payload {
+
+        private final FileChannel channel;
+        private final long position;
+        private final long length;
+
+        FileChannelPayload(final FileChannel channel, final long position, final long length) {
+            this.channel = channel;
+            this.position = position;
+            this.length = length;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new InputStream() {
+                private long offset;
+
+                @Override
+                public int read() throws IOException {
+                    final byte[] single = new byte[1];
+                    return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+                }
+
+                @Override
+                public int read(final byte[] bytes, final int off, final int len) throws IOException {
+                    if (offset >= length) {
+                        return -1;
+                    }
+                    final int read = channel.read(ByteBuffer.wrap(bytes, off, (int) Math.min(len, length - offset)),
+                            position + offset);
+                    if (read > 0) {
+                        offset += read;
+                    }
+                    return read;
+                }
+            };
+        }
+
+        /**
+         * Lets the channel move the bytes itself, without an intermediate heap buffer when the target allows it.
+         */
+        @Override
+        public void writeTo(final OutputStream out) throws IOException {
+            transfer(channel, position, length, Channels.newChannel(out));
+        }
+    }
+
+    private static class FilePayload extends Payload {
+
+        private final Path path;
+        private final long length;
+
+        FilePayload(final Path path, final long length) {
+            this.path = path;
+            this.length = length;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void writeTo(final OutputStream out) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                transfer(channel, 0, length, Channels.newChannel(out));
+            }
+        }
+    }
+
+    private static void transfer(final FileChannel channel, final long position, final long length,
+            final WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < length) {
+            final long count = channel.transferTo(position + transferred, length - transferred, target);
+            if (count <= 0) {
+                throw new IOException("File ended " + (length - transferred) + " bytes before the expected length");
+            }
+            transferred += count;
+        }
+    }
+}
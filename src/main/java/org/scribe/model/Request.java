@@ -1,16 +1,29 @@
 package org.scribe.model;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import org.scribe.exceptions.OAuthConnectionException;
 import org.scribe.exceptions.OAuthException;
+import org.scribe.transport.HttpTransport;
+import org.scribe.transport.UrlConnectionTransport;
+import org.scribe.utils.Preconditions;
 
 /**
  * Represents an HTTP Request object
@@ -19,26 +32,36 @@ import org.scribe.exceptions.OAuthException;
  */
 public class Request {
 
-    private static final String CONTENT_LENGTH = "Content-Length";
-    private static final String CONTENT_TYPE = "Content-Type";
     private static final RequestTuner NOOP = new RequestTuner() {
         @Override
         public void tune(final Request request) {
         }
     };
 
+    private static final Compression DEFAULT_COMPRESSION = new Compression();
+
     public static final String DEFAULT_CONTENT_TYPE = "application/x-www-form-urlencoded";
 
+    private static final String CONTENT_TYPE = "Content-Type";
+
     private final String url;
     private final Verb verb;
     private final ParameterList querystringParams;
     private final ParameterList bodyParams;
     private final Map<String, String> headers;
     private String payload;
-    private HttpURLConnection connection;
+    private HttpTransport transport;
+    private Executor executor;
     private String charset;
     private byte[] bytePayload;
-    private boolean connectionKeepAlive;
+    private Payload streamPayload;
+    private Payload encodedPayload;
+    private Compression compression;
+    private boolean expectContinue;
+    private Consumer<Request> signer;
+    private String accessToken;
+    private Deadline deadline;
+    private Boolean connectionKeepAlive;
     private boolean followRedirects = true;
     private Long connectTimeout;
     private Long readTimeout;
@@ -57,20 +80,57 @@ public class Request {
         this.headers = new HashMap<>();
     }
 
+    /**
+     * Creates a copy of a request, with parameters and headers of its own. The body is shared, which only a
+     * repeatable one allows to send twice.
+     *
+     * @param other request to copy
+     */
+    protected Request(final Request other) {
+        this(other.verb, other.url);
+        querystringParams.addAll(other.querystringParams);
+        bodyParams.addAll(other.bodyParams);
+        headers.putAll(other.headers);
+        payload = other.payload;
+        transport = other.transport;
+        executor = other.executor;
+        charset = other.charset;
+        bytePayload = other.bytePayload;
+        streamPayload = other.streamPayload;
+        encodedPayload = other.encodedPayload;
+        compression = other.compression;
+        expectContinue = other.expectContinue;
+        signer = other.signer;
+        accessToken = other.accessToken;
+        deadline = other.deadline;
+        connectionKeepAlive = other.connectionKeepAlive;
+        followRedirects = other.followRedirects;
+        connectTimeout = other.connectTimeout;
+        readTimeout = other.readTimeout;
+    }
+
     /**
      * Execute the request and return a {@link Response}
      *
-     * @param tuner
+     * @param tuner applied to the request before it is handed to the transport
      * @return Http Response
      *
-     * @throws RuntimeException if the connection cannot be created.
+     * @throws OAuthConnectionException if the request cannot be sent or the response cannot be read. The
+     * {@link OAuthException}s of the transport, such as those of a circuit breaker or a rate limiter refusing the
+     * request, are thrown as they are.
      */
     public Response send(final RequestTuner tuner) {
         try {
-            createConnection();
-            return doSend(tuner);
+            tuner.tune(this);
+            final Compression bodies = compression == null ? DEFAULT_COMPRESSION : compression;
+            bodies.prepare(this);
+            return bodies.decode(getTransport().execute(this));
         } catch (Exception e) {
-            throw new OAuthConnectionException(e);
+            final Throwable error = toOAuthException(e);
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            throw (RuntimeException) error;
         }
     }
 
@@ -78,55 +138,56 @@ public class Request {
         return send(NOOP);
     }
 
-    private void createConnection() throws IOException {
-        final String completeUrl = getCompleteUrl();
-        if (connection == null) {
-            System.setProperty("http.keepAlive", connectionKeepAlive ? "true" : "false");
-            connection = (HttpURLConnection) new URL(completeUrl).openConnection();
-            connection.setInstanceFollowRedirects(followRedirects);
-        }
-    }
-
     /**
-     * Returns the complete url (host + resource + encoded querystring parameters).
+     * Execute the request without blocking the calling thread
      *
-     * @return the complete url.
+     * @param tuner applied to the request before it is handed to the transport
+     * @return future of the Http Response, completed exceptionally with {@link OAuthConnectionException} if the
+     * request cannot be sent, or with the {@link OAuthException} of a transport refusing it
      */
-    public String getCompleteUrl() {
-        return querystringParams.appendTo(url);
+    public CompletableFuture<Response> sendAsync(final RequestTuner tuner) {
+        final CompletableFuture<Response> result = new CompletableFuture<>();
+        try {
+            tuner.tune(this);
+            final Compression bodies = compression == null ? DEFAULT_COMPRESSION : compression;
+            bodies.prepare(this);
+            getTransport().executeAsync(this, getExecutor()).whenComplete((response, error) -> {
+                if (error == null) {
+                    result.complete(bodies.decode(response));
+                } else {
+                    result.completeExceptionally(toOAuthException(error));
+                }
+            });
+        } catch (Exception e) {
+            result.completeExceptionally(toOAuthException(e));
+        }
+        return result;
     }
 
-    Response doSend(final RequestTuner tuner) throws IOException {
-        connection.setRequestMethod(this.verb.name());
-        if (connectTimeout != null) {
-            connection.setConnectTimeout(connectTimeout.intValue());
-        }
-        if (readTimeout != null) {
-            connection.setReadTimeout(readTimeout.intValue());
-        }
-        addHeaders(connection);
-        if (hasBodyContent()) {
-            addBody(connection, getByteBodyContents());
-        }
-        tuner.tune(this);
-        return new Response(connection);
+    public CompletableFuture<Response> sendAsync() {
+        return sendAsync(NOOP);
     }
 
-    void addHeaders(final HttpURLConnection conn) {
-        for (final String key : headers.keySet()) {
-            conn.setRequestProperty(key, headers.get(key));
+    /**
+     * Failures become {@link OAuthConnectionException}s, except the {@link OAuthException}s of the transport
+     * decorators, which are left as they are so that callers can catch them by type.
+     */
+    private static Throwable toOAuthException(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof UncheckedIOException)
+                && error.getCause() != null) {
+            error = error.getCause();
         }
+        return error instanceof Exception && !(error instanceof OAuthException)
+                ? new OAuthConnectionException((Exception) error) : error;
     }
 
-    void addBody(final HttpURLConnection conn, final byte[] content) throws IOException {
-        conn.setRequestProperty(CONTENT_LENGTH, String.valueOf(content.length));
-
-        // Set default content type if none is set.
-        if (conn.getRequestProperty(CONTENT_TYPE) == null) {
-            conn.setRequestProperty(CONTENT_TYPE, DEFAULT_CONTENT_TYPE);
-        }
-        conn.setDoOutput(true);
-        conn.getOutputStream().write(content);
+    /**
+     * Returns the complete url (host + resource + encoded querystring parameters).
+     *
+     * @return the complete url.
+     */
+    public String getCompleteUrl() {
+        return querystringParams.appendTo(url);
     }
 
     /**
@@ -159,6 +220,15 @@ public class Request {
         this.querystringParams.add(key, value);
     }
 
+    /**
+     * Removes a QueryString parameter added with {@link #addQuerystringParameter(String, String)}
+     *
+     * @param key the parameter name
+     */
+    public void removeQuerystringParameter(final String key) {
+        this.querystringParams.remove(key);
+    }
+
     public void addParameter(final String key, final String value) {
         if (hasBodyContent()) {
             bodyParams.add(key, value);
@@ -167,7 +237,7 @@ public class Request {
         }
     }
 
-    protected boolean hasBodyContent() {
+    public boolean hasBodyContent() {
         return verb.equals(Verb.PUT) || verb.equals(Verb.POST);
     }
 
@@ -190,6 +260,101 @@ public class Request {
         this.bytePayload = payload.clone();
     }
 
+    /**
+     * Streams the body from a buffer without copying it. The remaining bytes of the buffer are sent, its position is
+     * left untouched. Note: The contents are not part of the OAuth signature
+     *
+     * @param payload the body of the request
+     */
+    public void addPayload(final ByteBuffer payload) {
+        this.streamPayload = Payload.of(payload);
+    }
+
+    /**
+     * Streams the body from a stream of known length, sent with a Content-Length header. The stream is read once and
+     * closed after sending, so the request can not be resent or redirected with its body. Note: The contents are not
+     * part of the OAuth signature
+     *
+     * @param payload the body of the request
+     * @param length number of bytes the stream holds
+     */
+    public void addPayload(final InputStream payload, final long length) {
+        Preconditions.checkArgument(length >= 0, "Payload length can't be negative");
+        this.streamPayload = Payload.of(payload, length);
+    }
+
+    /**
+     * Streams the body from a stream of unknown length, sent with chunked transfer encoding. The stream is read once
+     * and closed after sending. Note: The contents are not part of the OAuth signature
+     *
+     * @param payload the body of the request
+     */
+    public void addPayload(final InputStream payload) {
+        this.streamPayload = Payload.of(payload, -1);
+    }
+
+    /**
+     * Streams the body from a file, opened when the request is sent. Note: The contents are not part of the OAuth
+     * signature
+     *
+     * @param payload the body of the request
+     *
+     * @throws OAuthException if the file size cannot be read
+     */
+    public void addPayload(final Path payload) {
+        try {
+            this.streamPayload = Payload.of(payload);
+        } catch (IOException ioe) {
+            throw new OAuthException("Cannot read payload file " + payload, ioe);
+        }
+    }
+
+    /**
+     * Streams the body from a channel, from its current position to its end. The channel position is left untouched
+     * and the channel is not closed. Note: The contents are not part of the OAuth signature
+     *
+     * @param payload the body of the request
+     *
+     * @throws OAuthException if the channel size cannot be read
+     */
+    public void addPayload(final FileChannel payload) {
+        try {
+            this.streamPayload = Payload.of(payload);
+        } catch (IOException ioe) {
+            throw new OAuthException("Cannot read payload channel", ioe);
+        }
+    }
+
+    /**
+     * Starts a multipart/form-data body, streamed part by part when the request is sent, and sets the matching
+     * Content-Type header. Text fields added to it are signed unless added as unsigned fields, see
+     * {@link MultipartPayload}.
+     *
+     * @return the multipart body, to add parts to
+     */
+    public MultipartPayload addMultipartPayload() {
+        final MultipartPayload multipart = new MultipartPayload(bodyParams);
+        addHeader(CONTENT_TYPE, multipart.getContentType());
+        this.streamPayload = multipart;
+        return multipart;
+    }
+
+    /**
+     * Whether the body is announced with "Expect: 100-continue" and only sent once the server accepts the request
+     * head. A request the server rejects, for example for a bad signature, then never uploads its body.
+     *
+     * Defaults to false
+     *
+     * @param expectContinue
+     */
+    public void setExpectContinue(final boolean expectContinue) {
+        this.expectContinue = expectContinue;
+    }
+
+    public boolean isExpectContinue() {
+        return expectContinue;
+    }
+
     /**
      * Get a {@link ParameterList} with the query string parameters.
      *
@@ -251,7 +416,17 @@ public class Request {
         }
     }
 
-    byte[] getByteBodyContents() {
+    /**
+     * Returns the body of the request as it goes over the wire
+     *
+     * @return the byte payload if any, otherwise the string payload or the form encoded body parameters
+     *
+     * @throws OAuthException if the charset chosen is not supported or the body is streamed
+     */
+    public byte[] getByteBodyContents() {
+        if (streamPayload != null) {
+            throw new OAuthException("The body is streamed and is not available as a byte array");
+        }
         if (bytePayload != null) {
             return bytePayload;
         }
@@ -263,6 +438,43 @@ public class Request {
         }
     }
 
+    /**
+     * Returns the body of the request as transports write it
+     *
+     * @return the compressed payload if any, otherwise the streamed payload if any, otherwise the bytes of {@link #getByteBodyContents()}
+     */
+    public Payload getBodyPayload() {
+        if (encodedPayload != null) {
+            return encodedPayload;
+        }
+        return streamPayload != null ? streamPayload : Payload.of(getByteBodyContents());
+    }
+
+    /**
+     * @return the payload added with {@link #addPayload(String)} or its overloads, null for form and multipart bodies
+     */
+    Payload getAddedPayload() {
+        if (streamPayload != null) {
+            return streamPayload instanceof MultipartPayload ? null : streamPayload;
+        }
+        return payload != null || bytePayload != null ? Payload.of(getByteBodyContents()) : null;
+    }
+
+    void setEncodedPayload(final Payload encodedPayload) {
+        this.encodedPayload = encodedPayload;
+    }
+
+    boolean isPayloadEncoded() {
+        return encodedPayload != null;
+    }
+
+    /**
+     * @return true if the body was added as a stream, buffer, channel or file rather than held as bytes
+     */
+    public boolean isStreamingBody() {
+        return streamPayload != null;
+    }
+
     /**
      * Returns the HTTP Verb
      *
@@ -291,7 +503,25 @@ public class Request {
     }
 
     /**
-     * Sets the connect timeout for the underlying {@link HttpURLConnection}
+     * Returns the connect timeout in milliseconds
+     *
+     * @return connect timeout or null if the transport default applies
+     */
+    public Long getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Returns the read timeout in milliseconds
+     *
+     * @return read timeout or null if the transport default applies
+     */
+    public Long getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Sets the connect timeout for the underlying connection
      *
      * @param duration duration of the timeout
      * @param unit unit of time (milliseconds, seconds, etc)
@@ -301,7 +531,7 @@ public class Request {
     }
 
     /**
-     * Sets the read timeout for the underlying {@link HttpURLConnection}
+     * Sets the read timeout for the underlying connection
      *
      * @param duration duration of the timeout
      * @param unit unit of time (milliseconds, seconds, etc)
@@ -320,17 +550,28 @@ public class Request {
     }
 
     /**
-     * Sets whether the underlying Http Connection is persistent or not.
+     * Sets whether the underlying Http Connection is persistent or not. When not set, the transport default applies:
+     * the JDK default for {@link UrlConnectionTransport}, the pool setting for
+     * {@link org.scribe.transport.PooledHttpTransport}, a persistent connection otherwise.
      *
-     * @param connectionKeepAlive
+     * Only affects this request: a non persistent connection is requested with a "Connection: close" header.
+     * {@link org.scribe.transport.HttpClientTransport}, the default transport of services, sends such requests over a
+     * connection of their own, outside of its client, unless the client has a proxy, an authenticator or a cookie
+     * handler.
      *
-     * @see <a
-     * href="http://download.oracle.com/javase/1.5.0/docs/guide/net/http-keepalive.html">http://download.oracle.com/javase/1.5.0/docs/guide/net/http-keepalive.html</a>
+     * @param connectionKeepAlive
      */
     public void setConnectionKeepAlive(final boolean connectionKeepAlive) {
         this.connectionKeepAlive = connectionKeepAlive;
     }
 
+    /**
+     * @return whether the connection should be persistent, null if the transport default applies
+     */
+    public Boolean getConnectionKeepAlive() {
+        return connectionKeepAlive;
+    }
+
     /**
      * Sets whether the underlying Http Connection follows redirects or not.
      *
@@ -344,11 +585,154 @@ public class Request {
         this.followRedirects = followRedirects;
     }
 
+    public boolean isFollowRedirects() {
+        return followRedirects;
+    }
+
+    /**
+     * Sets the {@link HttpTransport} that sends this request. Services set their own transport on the requests they
+     * create or sign, unless one was already set.
+     *
+     * @param transport transport to send the request with
+     */
+    public void setTransport(final HttpTransport transport) {
+        Preconditions.checkNotNull(transport, "Transport can't be null");
+        this.transport = transport;
+    }
+
+    /**
+     * Sets the {@link Executor} asynchronous sends complete on. Services set their own executor on the requests they
+     * create or sign, unless one was already set.
+     *
+     * @param executor executor for {@link #sendAsync(RequestTuner)}
+     */
+    public void setExecutor(final Executor executor) {
+        Preconditions.checkNotNull(executor, "Executor can't be null");
+        this.executor = executor;
+    }
+
+    /**
+     * Sets what signs the request again before it is resent. Services set it on the requests they create or sign when
+     * their signature depends on a nonce and a timestamp, which a provider would reject once replayed.
+     *
+     * @param signer replaces the signature of the request it is given, this one or a {@link #copy()}, with a fresh one
+     */
+    public void setSigner(final Consumer<Request> signer) {
+        Preconditions.checkNotNull(signer, "Signer can't be null");
+        this.signer = signer;
+    }
+
+    /**
+     * Signs the request again before it is resent, if it was signed by a service that needs it.
+     */
+    public void resign() {
+        if (signer != null) {
+            signer.accept(this);
+        }
+    }
+
+    /**
+     * Copies the request, so that the copy can be signed again and sent while this one is still being sent.
+     *
+     * @return a copy of the request
+     */
+    public Request copy() {
+        return new Request(this);
+    }
+
+    /**
+     * Sets the access token the request is signed with. Services set it on the requests they sign, so that per-token
+     * quotas can be told apart.
+     *
+     * @param accessToken value of the token, see {@link Token#getToken()}
+     */
+    public void setAccessToken(final String accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    /**
+     * @return value of the access token the request is signed with, null if it was not signed with one
+     */
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    /**
+     * Binds the request to a deadline, which transports waiting between attempts check before sending it again. Set
+     * by {@link Deadline#tune(Request)}.
+     *
+     * @param deadline deadline of the request
+     */
+    public void setDeadline(final Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return deadline the request is bound to, null if none
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public boolean hasExecutor() {
+        return executor != null;
+    }
+
+    /**
+     * Returns the {@link Executor} asynchronous sends complete on, the common {@link ForkJoinPool} if none was set
+     *
+     * @return executor
+     */
+    public Executor getExecutor() {
+        return executor == null ? ForkJoinPool.commonPool() : executor;
+    }
+
+    public boolean hasTransport() {
+        return transport != null;
+    }
+
+    /**
+     * Returns the {@link HttpTransport} that sends this request, {@link UrlConnectionTransport} if none was set
+     *
+     * @return transport
+     */
+    public HttpTransport getTransport() {
+        return transport == null ? UrlConnectionTransport.getDefault() : transport;
+    }
+
+    /**
+     * Sets the {@link Compression} of the request and response bodies. Services set their own compression on the
+     * requests they create or sign, unless one was already set. Without one, responses are still asked for compressed
+     * and decoded.
+     *
+     * @param compression compression of the bodies
+     */
+    public void setCompression(final Compression compression) {
+        Preconditions.checkNotNull(compression, "Compression can't be null");
+        this.compression = compression;
+    }
+
+    public boolean hasCompression() {
+        return compression != null;
+    }
+
+    /**
+     * @return compression of the bodies, null if none was set
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
     /*
      * We need this in order to stub the connection object for test cases
      */
     void setConnection(final HttpURLConnection connection) {
-        this.connection = connection;
+        this.transport = new UrlConnectionTransport() {
+            @Override
+            protected HttpURLConnection openConnection(final Request request) {
+                return connection;
+            }
+        };
     }
 
     @Override
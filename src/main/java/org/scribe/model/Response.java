@@ -1,7 +1,10 @@
 package org.scribe.model;
 
 import java.io.*;
-import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
 import java.util.*;
 
 import org.scribe.exceptions.*;
@@ -15,58 +18,299 @@ import org.scribe.utils.*;
 public class Response
 {
   private static final String EMPTY = "";
+  private static final String CONTENT_TYPE = "Content-Type";
+  private static final String CONTENT_LENGTH = "Content-Length";
+  private static final String CHARSET = "charset=";
+  private static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+  private static final long TRANSFER_CHUNK = 1024 * 1024;
 
   private int code;
   private String message;
   private String body;
+  private byte[] bodyBytes;
   private InputStream stream;
   private Map<String, String> headers;
 
-  Response(HttpURLConnection connection) throws IOException
+  /**
+   * Creates a response out of the parts read by an {@link org.scribe.transport.HttpTransport}
+   * 
+   * @param code HTTP status code
+   * @param message HTTP status message, <code>null</code> if unknown
+   * @param headers response headers
+   * @param stream body stream, either the regular or the error one
+   */
+  public Response(int code, String message, Map<String, String> headers, InputStream stream)
   {
-    try
+    this.code = code;
+    this.message = message;
+    this.headers = headers;
+    this.stream = stream;
+  }
+
+  /**
+   * Creates a response whose body has already been read by an {@link org.scribe.transport.HttpTransport}
+   * 
+   * @param code HTTP status code
+   * @param message HTTP status message, <code>null</code> if unknown
+   * @param headers response headers
+   * @param body body bytes, not copied
+   */
+  public Response(int code, String message, Map<String, String> headers, byte[] body)
+  {
+    this(code, message, headers, new ByteArrayInputStream(body));
+    this.bodyBytes = body;
+  }
+
+  private byte[] parseBodyBytes()
+  {
+    if (stream == null)
     {
-      connection.connect();
-      code = connection.getResponseCode();
-      message = connection.getResponseMessage();
-      headers = parseHeaders(connection);
-      stream = isSuccessful() ? connection.getInputStream() : connection.getErrorStream();
+      bodyBytes = new byte[0];
     }
-    catch (UnknownHostException e)
+    else
     {
-      throw new OAuthException("The IP address of a host could not be determined.", e);
+      bodyBytes = StreamUtils.getStreamBytes(stream, getContentLength());
     }
+    return bodyBytes;
   }
 
-  private String parseBodyContents()
+  private long getContentLength()
   {
-    body = StreamUtils.getStreamContents(getStream());
-    return body;
+    String contentLength = getHeaderIgnoringCase(CONTENT_LENGTH);
+    if (contentLength == null)
+    {
+      return -1;
+    }
+    try
+    {
+      return Long.parseLong(contentLength.trim());
+    }
+    catch (NumberFormatException e)
+    {
+      return -1;
+    }
   }
 
-  private Map<String, String> parseHeaders(HttpURLConnection conn)
+  private String getHeaderIgnoringCase(String name)
   {
-    Map<String, String> headers = new HashMap<String, String>();
-    for (String key : conn.getHeaderFields().keySet())
+    String value = headers.get(name);
+    if (value != null)
     {
-      headers.put(key, conn.getHeaderFields().get(key).get(0));
+      return value;
     }
-    return headers;
+    for (Map.Entry<String, String> header : headers.entrySet())
+    {
+      if (name.equalsIgnoreCase(header.getKey()))
+      {
+        return header.getValue();
+      }
+    }
+    return null;
   }
 
   public boolean isSuccessful()
   {
-    return getCode() >= 200 && getCode() < 400;
+    return isSuccessful(getCode());
   }
 
   /**
-   * Obtains the HTTP Response body
+   * Tells whether the status code is a successful one (2xx or 3xx)
+   * 
+   * @param code HTTP status code
+   * @return true if the body is served on the regular stream, false if on the error stream
+   */
+  public static boolean isSuccessful(int code)
+  {
+    return code >= 200 && code < 400;
+  }
+
+  /**
+   * Obtains the HTTP Response body, decoded with the charset of the Content-Type header (UTF-8 if none)
    * 
    * @return response body
    */
   public String getBody()
   {
-    return body != null ? body : parseBodyContents();
+    if (body == null)
+    {
+      body = getBody(getCharset());
+    }
+    return body;
+  }
+
+  /**
+   * Obtains the HTTP Response body decoded with the given charset
+   * 
+   * @param charset charset to decode the body with
+   * @return response body
+   */
+  public String getBody(Charset charset)
+  {
+    Preconditions.checkNotNull(charset, "Charset can't be null");
+    return new String(getBodyBytes(), charset);
+  }
+
+  /**
+   * Obtains the HTTP Response body as it came over the wire. The body is read once, into an array presized from the
+   * Content-Length header when there is one, and kept for the later calls.
+   * 
+   * @return response body bytes, not to be modified
+   */
+  public byte[] getBodyBytes()
+  {
+    return bodyBytes != null ? bodyBytes : parseBodyBytes();
+  }
+
+  /**
+   * Obtains the HTTP Response body as a read only buffer over {@link #getBodyBytes()}, without copying it
+   * 
+   * @return response body buffer
+   */
+  public ByteBuffer getBodyAsByteBuffer()
+  {
+    return ByteBuffer.wrap(getBodyBytes()).asReadOnlyBuffer();
+  }
+
+  /**
+   * Writes the HTTP Response body to a file, replacing it if it exists, without holding the body in memory: the file
+   * channel pulls the bytes from the body stream as they arrive. The body cannot be read again afterwards.
+   * 
+   * @param path file to write the body to
+   * @return bytes written and throughput
+   * 
+   * @throws OAuthException if the body cannot be read or the file written
+   */
+  public TransferStats writeTo(Path path)
+  {
+    Preconditions.checkNotNull(path, "Path can't be null");
+    try (FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING))
+    {
+      return writeTo(file);
+    }
+    catch (IOException ioe)
+    {
+      throw new OAuthException("Error while writing response body to " + path, ioe);
+    }
+  }
+
+  /**
+   * Writes the HTTP Response body to a channel, without holding the body in memory. A {@link FileChannel} pulls the
+   * bytes itself with {@link FileChannel#transferFrom}, from its current position, other channels are written through
+   * a pooled buffer. The body cannot be read again afterwards. The channel is not closed.
+   * 
+   * @param channel channel to write the body to
+   * @return bytes written and throughput
+   * 
+   * @throws OAuthException if the body cannot be read or the channel written
+   */
+  public TransferStats writeTo(WritableByteChannel channel)
+  {
+    Preconditions.checkNotNull(channel, "Channel can't be null");
+    long start = System.nanoTime();
+    try
+    {
+      long bytes;
+      if (bodyBytes != null)
+      {
+        bytes = writeFully(channel, ByteBuffer.wrap(bodyBytes));
+      }
+      else if (stream == null)
+      {
+        bytes = 0;
+      }
+      else if (channel instanceof FileChannel)
+      {
+        bytes = transferTo((FileChannel) channel);
+      }
+      else
+      {
+        bytes = copyTo(channel);
+      }
+      return new TransferStats(bytes, System.nanoTime() - start);
+    }
+    catch (IOException ioe)
+    {
+      throw new OAuthException("Error while writing response body", ioe);
+    }
+  }
+
+  private long transferTo(FileChannel file) throws IOException
+  {
+    // a stream that is a channel already (a transport may hand one out) is read without an extra copy
+    try (ReadableByteChannel source = stream instanceof ReadableByteChannel ? (ReadableByteChannel) stream
+        : Channels.newChannel(stream))
+    {
+      long start = file.position();
+      long position = start;
+      long transferred;
+      while ((transferred = file.transferFrom(source, position, TRANSFER_CHUNK)) > 0)
+      {
+        position += transferred;
+      }
+      file.position(position);
+      return position - start;
+    }
+  }
+
+  private long copyTo(WritableByteChannel channel) throws IOException
+  {
+    byte[] buffer = BufferPool.acquire();
+    try (InputStream in = stream)
+    {
+      long bytes = 0;
+      int read;
+      while ((read = in.read(buffer)) != -1)
+      {
+        bytes += writeFully(channel, ByteBuffer.wrap(buffer, 0, read));
+      }
+      return bytes;
+    }
+    finally
+    {
+      BufferPool.release(buffer);
+    }
+  }
+
+  private static long writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException
+  {
+    long bytes = buffer.remaining();
+    while (buffer.hasRemaining())
+    {
+      channel.write(buffer);
+    }
+    return bytes;
+  }
+
+  /**
+   * Obtains the charset of the body, from the charset parameter of the Content-Type header
+   * 
+   * @return body charset, UTF-8 if none is declared or the declared one is not supported
+   */
+  public Charset getCharset()
+  {
+    String contentType = getHeaderIgnoringCase(CONTENT_TYPE);
+    if (contentType == null)
+    {
+      return DEFAULT_CHARSET;
+    }
+    for (String parameter : contentType.split(";"))
+    {
+      String trimmed = parameter.trim();
+      if (trimmed.regionMatches(true, 0, CHARSET, 0, CHARSET.length()))
+      {
+        String name = trimmed.substring(CHARSET.length()).replace("\"", "").trim();
+        try
+        {
+          return Charset.forName(name);
+        }
+        catch (IllegalArgumentException e)
+        {
+          return DEFAULT_CHARSET;
+        }
+      }
+    }
+    return DEFAULT_CHARSET;
   }
 
   /**
@@ -0,0 +1,45 @@
+package org.scribe.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of writing a response body out with {@link Response#writeTo(java.nio.file.Path)}.
+ */
+public class TransferStats {
+
+    private final long bytes;
+    private final long nanos;
+
+    TransferStats(final long bytes, final long nanos) {
+        this.bytes = bytes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return bytes written
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @param unit unit of time
+     * @return time spent reading and writing the body
+     */
+    public long getDuration(final TimeUnit unit) {
+        return unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return average throughput, 0 if nothing was written
+     */
+    public double getBytesPerSecond() {
+        return nanos == 0 ? 0 : bytes * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TransferStats[bytes=%d, millis=%d, bytesPerSecond=%.0f]", bytes,
+                getDuration(TimeUnit.MILLISECONDS), getBytesPerSecond());
+    }
+}
@@ -7,5 +7,17 @@ package org.scribe.model;
  */
 public enum Verb
 {
-  GET, POST, PUT, DELETE, HEAD, OPTIONS, TRACE, PATCH
+  GET, POST, PUT, DELETE, HEAD, OPTIONS, TRACE, PATCH;
+
+  /**
+   * Tells whether sending a request twice has the same effect on the server as sending it once (RFC 7231, 4.2.2).
+   * Retries, hedges and resends on a stale connection are limited to these verbs, unless an endpoint is allowed
+   * explicitly.
+   *
+   * @return false for POST and PATCH, true for the other verbs
+   */
+  public boolean isIdempotent()
+  {
+    return this != POST && this != PATCH;
+  }
 }
@@ -0,0 +1,64 @@
+package org.scribe.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of opening the connections of a service ahead of its first requests, see
+ * {@link org.scribe.oauth.OAuthService#warmUp(int)}.
+ */
+public class WarmUpStats {
+
+    private final int hosts;
+    private final int connections;
+    private final int failures;
+    private final long nanos;
+
+    WarmUpStats(final int hosts, final int connections, final int failures, final long nanos) {
+        this.hosts = hosts;
+        this.connections = connections;
+        this.failures = failures;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return provider hosts warmed up, those of the token endpoints of the service
+     */
+    public int getHosts() {
+        return hosts;
+    }
+
+    /**
+     * @return connections opened and kept ready, a single one per host for exchanges multiplexed over HTTP/2
+     */
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return hosts that could not be connected to
+     */
+    public int getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return whether every host was connected to
+     */
+    public boolean isComplete() {
+        return failures == 0;
+    }
+
+    /**
+     * @param unit unit of time
+     * @return time the warm-up took
+     */
+    public long getDuration(final TimeUnit unit) {
+        return unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WarmUpStats[hosts=%d, connections=%d, failures=%d, duration=%d ms]", hosts,
+                connections, failures, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+}
@@ -16,6 +16,7 @@ public class LinkedIn20ServiceImpl extends OAuth20ServiceImpl {
     @Override
     public void signRequest(Token accessToken, OAuthRequest request) {
         request.addQuerystringParameter("oauth2_access_token", accessToken.getToken());
+        getConfig().applyTransport(request, accessToken);
     }
 
     @Override
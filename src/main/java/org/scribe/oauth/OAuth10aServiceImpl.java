@@ -1,8 +1,10 @@
 package org.scribe.oauth;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import org.scribe.builder.api.DefaultApi10a;
+import org.scribe.model.Deadline;
 import org.scribe.model.OAuthConfig;
 import org.scribe.model.OAuthConstants;
 import org.scribe.model.OAuthRequest;
@@ -13,6 +15,7 @@ import static org.scribe.model.SignatureType.Header;
 import static org.scribe.model.SignatureType.QueryString;
 import org.scribe.model.Token;
 import org.scribe.model.Verifier;
+import org.scribe.model.WarmUpStats;
 import org.scribe.services.Base64Encoder;
 import org.scribe.utils.MapUtils;
 
@@ -24,6 +27,7 @@ import org.scribe.utils.MapUtils;
 public class OAuth10aServiceImpl implements OAuthService {
 
     private static final String VERSION = "1.0";
+    private static final int DEFAULT_TOKEN_TIMEOUT_SECONDS = 2;
 
     private final OAuthConfig config;
     private final DefaultApi10a api;
@@ -45,10 +49,49 @@ public class OAuth10aServiceImpl implements OAuthService {
 
     @Override
     public Token getRequestToken() {
-        return getRequestToken(2, TimeUnit.SECONDS);
+        return getRequestToken(getTokenTuner());
+    }
+
+    /**
+     * The usual timeout of token requests applies, bounded by the deadline.
+     */
+    @Override
+    public Token getRequestToken(final Deadline deadline) {
+        return getRequestToken(deadline.bound(getTokenTuner()));
     }
 
     public Token getRequestToken(final RequestTuner tuner) {
+        final OAuthRequest request = createRequestTokenRequest();
+        config.log("sending request...");
+        return extractRequestToken(request.send(tuner));
+    }
+
+    @Override
+    public CompletableFuture<Token> getRequestTokenAsync() {
+        return getRequestTokenAsync(getTokenTuner());
+    }
+
+    @Override
+    public CompletableFuture<Token> getRequestTokenAsync(final Deadline deadline) {
+        return getRequestTokenAsync(deadline.bound(getTokenTuner()));
+    }
+
+    public CompletableFuture<Token> getRequestTokenAsync(final RequestTuner tuner) {
+        final OAuthRequest request = createRequestTokenRequest();
+        config.log("sending request asynchronously...");
+        return request.sendAsync(tuner).thenApply(this::extractRequestToken);
+    }
+
+    /**
+     * Token requests time out after {@value #DEFAULT_TOKEN_TIMEOUT_SECONDS} seconds, unless the timeouts of the service
+     * adapt to the latency of the provider.
+     */
+    private RequestTuner getTokenTuner() {
+        final RequestTuner adaptive = config.getAdaptiveTimeouts();
+        return adaptive == null ? new TimeoutTuner(DEFAULT_TOKEN_TIMEOUT_SECONDS, TimeUnit.SECONDS) : adaptive;
+    }
+
+    private OAuthRequest createRequestTokenRequest() {
         config.log("obtaining request token from " + api.getRequestTokenEndpoint());
         final OAuthRequest request = new OAuthRequest(api.getRequestTokenVerb(), api.getRequestTokenEndpoint());
 
@@ -56,9 +99,12 @@ public class OAuth10aServiceImpl implements OAuthService {
         request.addOAuthParameter(OAuthConstants.CALLBACK, config.getCallback());
         addOAuthParams(request, OAuthConstants.EMPTY_TOKEN);
         appendSignature(request);
+        request.setSigner(signed -> resign((OAuthRequest) signed, OAuthConstants.EMPTY_TOKEN));
+        config.applyTransport(request);
+        return request;
+    }
 
-        config.log("sending request...");
-        final Response response = request.send(tuner);
+    private Token extractRequestToken(final Response response) {
         final String body = response.getBody();
 
         config.log("response status code: " + response.getCode());
@@ -86,10 +132,40 @@ public class OAuth10aServiceImpl implements OAuthService {
 
     @Override
     public Token getAccessToken(final Token requestToken, final Verifier verifier) {
-        return getAccessToken(requestToken, verifier, 2, TimeUnit.SECONDS);
+        return getAccessToken(requestToken, verifier, getTokenTuner());
+    }
+
+    /**
+     * The usual timeout of token requests applies, bounded by the deadline.
+     */
+    @Override
+    public Token getAccessToken(final Token requestToken, final Verifier verifier, final Deadline deadline) {
+        return getAccessToken(requestToken, verifier, deadline.bound(getTokenTuner()));
     }
 
     public Token getAccessToken(final Token requestToken, final Verifier verifier, final RequestTuner tuner) {
+        final Response response = createAccessTokenRequest(requestToken, verifier).send(tuner);
+        return api.getAccessTokenExtractor().extract(response.getBody());
+    }
+
+    @Override
+    public CompletableFuture<Token> getAccessTokenAsync(final Token requestToken, final Verifier verifier) {
+        return getAccessTokenAsync(requestToken, verifier, getTokenTuner());
+    }
+
+    @Override
+    public CompletableFuture<Token> getAccessTokenAsync(final Token requestToken, final Verifier verifier,
+            final Deadline deadline) {
+        return getAccessTokenAsync(requestToken, verifier, deadline.bound(getTokenTuner()));
+    }
+
+    public CompletableFuture<Token> getAccessTokenAsync(final Token requestToken, final Verifier verifier,
+            final RequestTuner tuner) {
+        return createAccessTokenRequest(requestToken, verifier).sendAsync(tuner).thenApply(
+                response -> api.getAccessTokenExtractor().extract(response.getBody()));
+    }
+
+    private OAuthRequest createAccessTokenRequest(final Token requestToken, final Verifier verifier) {
         config.log("obtaining access token from " + api.getAccessTokenEndpoint());
         final OAuthRequest request = new OAuthRequest(api.getAccessTokenVerb(), api.getAccessTokenEndpoint());
         request.addOAuthParameter(OAuthConstants.TOKEN, requestToken.getToken());
@@ -98,8 +174,9 @@ public class OAuth10aServiceImpl implements OAuthService {
         config.log("setting token to: " + requestToken + " and verifier to: " + verifier);
         addOAuthParams(request, requestToken);
         appendSignature(request);
-        final Response response = request.send(tuner);
-        return api.getAccessTokenExtractor().extract(response.getBody());
+        request.setSigner(signed -> resign((OAuthRequest) signed, requestToken));
+        config.applyTransport(request);
+        return request;
     }
 
     /**
@@ -116,6 +193,41 @@ public class OAuth10aServiceImpl implements OAuthService {
         config.log("setting token to: " + token);
         addOAuthParams(request, token);
         appendSignature(request);
+        request.setSigner(signed -> resign((OAuthRequest) signed, token));
+        config.applyTransport(request, token);
+    }
+
+    /**
+     * Replaces the nonce, the timestamp and the signature of a request about to be resent, as providers reject a
+     * replayed nonce.
+     */
+    private void resign(final OAuthRequest request, final Token token) {
+        config.log("signing request again: " + request.getCompleteUrl());
+        if (config.getSignatureType() == QueryString) {
+            for (final String key : request.getOauthParameters().keySet()) {
+                request.removeQuerystringParameter(key);
+            }
+        }
+        // the previous signature must not end up in the new base string
+        request.getOauthParameters().remove(OAuthConstants.SIGNATURE);
+        addOAuthParams(request, token);
+        appendSignature(request);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WarmUpStats warmUp(final int connections) {
+        return config.warmUp(connections, api.getRequestTokenEndpoint(), api.getAccessTokenEndpoint());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WarmUpStats getWarmUpStats() {
+        return config.getWarmUpStats();
     }
 
     /**
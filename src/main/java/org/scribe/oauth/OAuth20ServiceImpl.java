@@ -1,13 +1,16 @@
 package org.scribe.oauth;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import org.scribe.builder.api.DefaultApi20;
+import org.scribe.model.Deadline;
 import org.scribe.model.OAuthConfig;
 import org.scribe.model.OAuthConstants;
 import org.scribe.model.OAuthRequest;
 import org.scribe.model.Response;
 import org.scribe.model.Token;
 import org.scribe.model.Verifier;
+import org.scribe.model.WarmUpStats;
 
 public class OAuth20ServiceImpl implements OAuthService {
   private static final String VERSION = "2.0";
@@ -32,6 +35,24 @@ public class OAuth20ServiceImpl implements OAuthService {
     return api.getAccessTokenExtractor().extract(response.getBody());
   }
 
+  /** {@inheritDoc} */
+  public CompletableFuture<Token> getAccessTokenAsync(Token requestToken, Verifier verifier) {
+    return createAccessTokenRequest(verifier).sendAsync().thenApply(
+        response -> api.getAccessTokenExtractor().extract(response.getBody()));
+  }
+
+  /** {@inheritDoc} */
+  public Token getAccessToken(Token requestToken, Verifier verifier, Deadline deadline) {
+    Response response = createAccessTokenRequest(verifier).send(deadline);
+    return api.getAccessTokenExtractor().extract(response.getBody());
+  }
+
+  /** {@inheritDoc} */
+  public CompletableFuture<Token> getAccessTokenAsync(Token requestToken, Verifier verifier, Deadline deadline) {
+    return createAccessTokenRequest(verifier).sendAsync(deadline).thenApply(
+        response -> api.getAccessTokenExtractor().extract(response.getBody()));
+  }
+
   protected OAuthRequest createAccessTokenRequest(final Verifier verifier) {
     final OAuthRequest request = new OAuthRequest(api.getAccessTokenVerb(), api.getAccessTokenEndpoint());
     request.addParameter(OAuthConstants.CODE, verifier.getValue());
@@ -52,6 +73,7 @@ public class OAuth20ServiceImpl implements OAuthService {
     if (config.getReadTimeout() != null) {
       request.setReadTimeout(config.getReadTimeout(), TimeUnit.MILLISECONDS);
     }
+    config.applyTransport(request);
     return request;
   }
 
@@ -60,6 +82,31 @@ public class OAuth20ServiceImpl implements OAuthService {
     throw new UnsupportedOperationException("Unsupported operation, please use 'getAuthorizationUrl' and redirect your users there");
   }
 
+  /** {@inheritDoc} */
+  public CompletableFuture<Token> getRequestTokenAsync() {
+    throw new UnsupportedOperationException("Unsupported operation, please use 'getAuthorizationUrl' and redirect your users there");
+  }
+
+  /** {@inheritDoc} */
+  public Token getRequestToken(Deadline deadline) {
+    return getRequestToken();
+  }
+
+  /** {@inheritDoc} */
+  public CompletableFuture<Token> getRequestTokenAsync(Deadline deadline) {
+    return getRequestTokenAsync();
+  }
+
+  /** {@inheritDoc} */
+  public WarmUpStats warmUp(int connections) {
+    return config.warmUp(connections, api.getAccessTokenEndpoint());
+  }
+
+  /** {@inheritDoc} */
+  public WarmUpStats getWarmUpStats() {
+    return config.getWarmUpStats();
+  }
+
   /** {@inheritDoc} */
   public String getVersion() {
     return VERSION;
@@ -68,6 +115,7 @@ public class OAuth20ServiceImpl implements OAuthService {
   /** {@inheritDoc} */
   public void signRequest(Token accessToken, OAuthRequest request) {
     request.addQuerystringParameter(OAuthConstants.ACCESS_TOKEN, accessToken.getToken());
+    config.applyTransport(request, accessToken);
   }
 
   /** {@inheritDoc} */
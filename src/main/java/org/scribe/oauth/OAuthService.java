@@ -1,8 +1,11 @@
 package org.scribe.oauth;
 
+import java.util.concurrent.CompletableFuture;
+import org.scribe.model.Deadline;
 import org.scribe.model.OAuthRequest;
 import org.scribe.model.Token;
 import org.scribe.model.Verifier;
+import org.scribe.model.WarmUpStats;
 
 /**
  * The main SubScribe object.
@@ -30,13 +33,86 @@ public interface OAuthService {
     public Token getAccessToken(Token requestToken, Verifier verifier);
 
     /**
-     * Signs am OAuth request
+     * Retrieve the request token without blocking the calling thread.
+     *
+     * @return future of the request token
+     */
+    public CompletableFuture<Token> getRequestTokenAsync();
+
+    /**
+     * Retrieve the access token without blocking the calling thread.
+     *
+     * @param requestToken request token (obtained previously)
+     * @param verifier verifier code
+     * @return future of the access token
+     */
+    public CompletableFuture<Token> getAccessTokenAsync(Token requestToken, Verifier verifier);
+
+    /**
+     * Retrieve the request token within a deadline, which the rest of the authorization can share: the request gets
+     * no more than the time left, and is not sent once the deadline has passed.
+     *
+     * @param deadline deadline of the request
+     * @return request token
+     */
+    public Token getRequestToken(Deadline deadline);
+
+    /**
+     * Retrieve the access token within a deadline.
+     *
+     * @param requestToken request token (obtained previously)
+     * @param verifier verifier code
+     * @param deadline deadline of the request
+     * @return access token
+     */
+    public Token getAccessToken(Token requestToken, Verifier verifier, Deadline deadline);
+
+    /**
+     * Retrieve the request token within a deadline without blocking the calling thread.
+     *
+     * @param deadline deadline of the request
+     * @return future of the request token
+     */
+    public CompletableFuture<Token> getRequestTokenAsync(Deadline deadline);
+
+    /**
+     * Retrieve the access token within a deadline without blocking the calling thread.
+     *
+     * @param requestToken request token (obtained previously)
+     * @param verifier verifier code
+     * @param deadline deadline of the request
+     * @return future of the access token
+     */
+    public CompletableFuture<Token> getAccessTokenAsync(Token requestToken, Verifier verifier, Deadline deadline);
+
+    /**
+     * Signs am OAuth request. A signed request is sent within a deadline with {@link OAuthRequest#send(
+     * org.scribe.model.RequestTuner)}.
      *
      * @param accessToken access token (obtained previously)
      * @param request request to sign
      */
     public void signRequest(Token accessToken, OAuthRequest request);
 
+    /**
+     * Opens connections to the hosts of the token endpoints of the provider ahead of the first authorization: resolves
+     * them, completes the TLS handshakes and keeps the connections idle in the transport of the service. Some
+     * transports send unsigned HEAD requests to the endpoints for it, see
+     * {@link org.scribe.builder.ServiceBuilder#warmUp(int)}.
+     *
+     * @param connections connections to keep ready per host
+     * @return outcome of the warm-up
+     */
+    public WarmUpStats warmUp(int connections);
+
+    /**
+     * Returns the outcome of the last warm-up, such as the one made when the service was built, for instance for a
+     * readiness probe.
+     *
+     * @return outcome of the last warm-up, null if the service was not warmed up
+     */
+    public WarmUpStats getWarmUpStats();
+
     /**
      * Returns the OAuth version of the service.
      *
@@ -1,36 +1,121 @@
 package org.scribe.services;
 
+/**
+ * Base64 encoding of signatures. The shared instance is created once, when the class is loaded, so that getting it
+ * takes no lock.
+ */
 public abstract class Base64Encoder
 {
-  private static Base64Encoder instance;
+  private static final Base64Encoder INSTANCE = new JdkBase64Encoder();
+  private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
 
-  public static synchronized Base64Encoder getInstance()
+  public static Base64Encoder getInstance()
   {
-    if (instance == null)
+    return INSTANCE;
+  }
+
+  public static String type()
+  {
+    return getInstance().getType();
+  }
+
+  /**
+   * Length of the padded encoding of the given number of bytes
+   * 
+   * @param length number of bytes to encode
+   * @return number of characters of the encoding
+   */
+  public static int getEncodedLength(int length)
+  {
+    return (length + 2) / 3 * 4;
+  }
+
+  public abstract String encode(byte[] bytes);
+
+  public abstract String getType();
+
+  /**
+   * Encodes bytes into a caller supplied array, padded and without line breaks
+   * 
+   * @param src bytes to encode
+   * @param offset index of the first byte to encode
+   * @param length number of bytes to encode
+   * @param dst array the encoding is written to, with room for {@link #getEncodedLength(int)} bytes
+   * @param dstOffset index the encoding starts at
+   * @return number of bytes written
+   */
+  public int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset)
+  {
+    checkBounds(src, offset, length, dst.length, dstOffset);
+    int out = dstOffset;
+    for (int in = offset, end = offset + length; in < end; in += 3)
     {
-      instance = createEncoderInstance();
+      int bits = group(src, in, end);
+      for (int digit = 0; digit < 4; digit++)
+      {
+        dst[out++] = (byte) digit(bits, digit, end - in);
+      }
     }
-    return instance;
+    return out - dstOffset;
   }
 
-  private static Base64Encoder createEncoderInstance()
+  /**
+   * Encodes bytes into a caller supplied array, padded and without line breaks
+   * 
+   * @param src bytes to encode
+   * @param offset index of the first byte to encode
+   * @param length number of bytes to encode
+   * @param dst array the encoding is written to, with room for {@link #getEncodedLength(int)} characters
+   * @param dstOffset index the encoding starts at
+   * @return number of characters written
+   */
+  public int encode(byte[] src, int offset, int length, char[] dst, int dstOffset)
   {
-    if (CommonsEncoder.isPresent())
+    checkBounds(src, offset, length, dst.length, dstOffset);
+    int out = dstOffset;
+    for (int in = offset, end = offset + length; in < end; in += 3)
     {
-      return new CommonsEncoder();
+      int bits = group(src, in, end);
+      for (int digit = 0; digit < 4; digit++)
+      {
+        dst[out++] = digit(bits, digit, end - in);
+      }
     }
-    else
+    return out - dstOffset;
+  }
+
+  /**
+   * @return the (up to) three bytes starting at the given index as the high bits of a 24 bit group
+   */
+  private static int group(byte[] src, int in, int end)
+  {
+    int bits = (src[in] & 0xff) << 16;
+    if (end - in > 1)
     {
-      return new DatatypeConverterEncoder();
+      bits |= (src[in + 1] & 0xff) << 8;
     }
+    if (end - in > 2)
+    {
+      bits |= src[in + 2] & 0xff;
+    }
+    return bits;
   }
 
-  public static String type()
+  /**
+   * @param remaining bytes left to encode from the start of the group, '=' pads the digits past them
+   */
+  private static char digit(int bits, int digit, int remaining)
   {
-    return getInstance().getType();
+    return digit > remaining ? '=' : ALPHABET[bits >>> 18 - 6 * digit & 0x3f];
   }
 
-  public abstract String encode(byte[] bytes);
-
-  public abstract String getType();
+  private static void checkBounds(byte[] src, int offset, int length, int dstLength, int dstOffset)
+  {
+    if (offset < 0 || length < 0 || offset + length > src.length || dstOffset < 0
+        || dstOffset + getEncodedLength(length) > dstLength)
+    {
+      throw new IndexOutOfBoundsException("Can't encode " + length + " bytes at " + offset + " into " + dstLength
+          + " at " + dstOffset);
+    }
+  }
 }
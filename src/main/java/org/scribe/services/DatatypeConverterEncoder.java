@@ -1,15 +1,15 @@
 package org.scribe.services;
 
-import javax.xml.bind.*;
-
-public class DatatypeConverterEncoder extends Base64Encoder
+/**
+ * Former JAXB based encoder. javax.xml.bind is not part of the JDK since 11, so the encoding is now done by
+ * {@link java.util.Base64}, which gives the same output.
+ * 
+ * @deprecated use {@link Base64Encoder#getInstance()} or {@link JdkBase64Encoder}, this class will be removed in the
+ * next release
+ */
+@Deprecated
+public class DatatypeConverterEncoder extends JdkBase64Encoder
 {
-  @Override
-  public String encode(byte[] bytes)
-  {
-    return DatatypeConverter.printBase64Binary(bytes);
-  }
-
   @Override
   public String getType()
   {
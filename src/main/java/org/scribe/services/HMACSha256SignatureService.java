@@ -0,0 +1,15 @@
+package org.scribe.services;
+
+/**
+ * HMAC-SHA256 implementation of {@link SignatureService}, for providers requiring it instead of HMAC-SHA1. Select it
+ * by overriding {@link org.scribe.builder.api.DefaultApi10a#getSignatureService()}.
+ */
+public class HMACSha256SignatureService extends HmacSignatureService {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final String METHOD = "HMAC-SHA256";
+
+    public HMACSha256SignatureService() {
+        super(HMAC_SHA256, METHOD);
+    }
+}
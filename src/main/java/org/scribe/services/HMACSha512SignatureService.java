@@ -0,0 +1,15 @@
+package org.scribe.services;
+
+/**
+ * HMAC-SHA512 implementation of {@link SignatureService}, for providers requiring it instead of HMAC-SHA1. Select it
+ * by overriding {@link org.scribe.builder.api.DefaultApi10a#getSignatureService()}.
+ */
+public class HMACSha512SignatureService extends HmacSignatureService {
+
+    private static final String HMAC_SHA512 = "HmacSHA512";
+    private static final String METHOD = "HMAC-SHA512";
+
+    public HMACSha512SignatureService() {
+        super(HMAC_SHA512, METHOD);
+    }
+}
@@ -0,0 +1,138 @@
+package org.scribe.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.Mac;
+import org.scribe.exceptions.OAuthSignatureException;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Signing core of the HMAC {@link SignatureService}s.
+ *
+ * The Macs come from a {@link MacCache} per algorithm, shared by all instances. Long base strings are fed to the Mac in
+ * chunks of a per-thread buffer, not as one array of their bytes, and the digest is Base64 encoded from and to
+ * per-thread arrays, so a signature allocates little more than its string.
+ */
+public abstract class HmacSignatureService implements SignatureService {
+
+    private static final Map<String, MacCache> CACHES = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final String algorithm;
+    private final String method;
+    private final MacCache macs;
+
+    /**
+     * @param algorithm JCA name of the HMAC algorithm, HmacSHA256 for instance
+     * @param method signature method sent as oauth_signature_method, HMAC-SHA256 for instance
+     */
+    protected HmacSignatureService(final String algorithm, final String method) {
+        Preconditions.checkEmptyString(algorithm, "Algorithm can't be null or empty");
+        Preconditions.checkEmptyString(method, "Signature method can't be null or empty");
+        this.algorithm = algorithm;
+        this.method = method;
+        this.macs = CACHES.computeIfAbsent(algorithm, name -> new MacCache(name, MacCache.DEFAULT_MAX_KEYS));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getSignature(final String baseString, final String apiSecret, final String tokenSecret) {
+        try {
+            Preconditions.checkEmptyString(baseString, "Base string cant be null or empty string");
+            Preconditions.checkEmptyString(apiSecret, "Api secret cant be null or empty string");
+            return doSign(baseString, macs.get(apiSecret, tokenSecret));
+        } catch (GeneralSecurityException | RuntimeException e) {
+            throw new OAuthSignatureException(baseString, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getSignatureMethod() {
+        return method;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Drops the Macs of the signing key "apiSecret&amp;tokenSecret" from the caches of every HMAC algorithm, for
+     * instance once the token is revoked.
+     *
+     * @param apiSecret consumer secret
+     * @param tokenSecret token secret, empty for none
+     */
+    public static void evict(final String apiSecret, final String tokenSecret) {
+        for (final MacCache cache : CACHES.values()) {
+            cache.evict(apiSecret, tokenSecret);
+        }
+    }
+
+    /**
+     * @return the cache of the Macs of the algorithm, shared by all instances
+     */
+    public MacCache getMacCache() {
+        return macs;
+    }
+
+    private static String doSign(final String toSign, final Mac mac) throws GeneralSecurityException {
+        final Buffers buffers = BUFFERS.get();
+        final int length;
+        try {
+            update(mac, toSign, buffers.input);
+            length = mac.getMacLength();
+            mac.doFinal(buffers.digest, 0);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            // the cached Mac is signed with again
+            mac.reset();
+            throw e;
+        }
+        final int encoded = Base64Encoder.getInstance().encode(buffers.digest, 0, length, buffers.base64, 0);
+        return new String(buffers.base64, 0, encoded, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Feeds the UTF-8 bytes of the string to the Mac. Base strings up to the size of the buffer are converted at once,
+     * which the JDK does fastest; longer ones, signing large form bodies, are streamed through the buffer rather than
+     * copied whole. Base strings are percent-encoded, hence US-ASCII, and copied a byte per character; anything else
+     * is left to the charset.
+     */
+    private static void update(final Mac mac, final String toSign, final byte[] buffer) {
+        final int length = toSign.length();
+        if (length <= buffer.length) {
+            mac.update(toSign.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        int used = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = toSign.charAt(i);
+            if (c >= 0x80) {
+                mac.update(buffer, 0, used);
+                mac.update(toSign.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buffer[used++] = (byte) c;
+            if (used == buffer.length) {
+                mac.update(buffer, 0, used);
+                used = 0;
+            }
+        }
+        mac.update(buffer, 0, used);
+    }
+
+    private static final class Buffers {
+
+        private static final int MAX_DIGEST_LENGTH = 64;
+
+        private final byte[] input = new byte[1024];
+        private final byte[] digest = new byte[MAX_DIGEST_LENGTH];
+        private final byte[] base64 = new byte[Base64Encoder.getEncodedLength(MAX_DIGEST_LENGTH)];
+    }
+}
@@ -0,0 +1,21 @@
+package org.scribe.services;
+
+import java.util.Base64;
+
+/**
+ * {@link Base64Encoder} backed by {@link java.util.Base64}, which every JDK has and which needs no lock.
+ */
+public class JdkBase64Encoder extends Base64Encoder {
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+
+    @Override
+    public String encode(final byte[] bytes) {
+        return ENCODER.encodeToString(bytes);
+    }
+
+    @Override
+    public String getType() {
+        return "java.util.Base64";
+    }
+}
@@ -0,0 +1,222 @@
+package org.scribe.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.scribe.utils.OAuthEncoder;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Initialized {@link Mac} objects of one HMAC algorithm, keyed by the secrets of the OAuth signing key, so that
+ * signing with a key used before needs neither a provider lookup nor a new key schedule.
+ *
+ * Every thread keeps its own least recently used Macs, so that a Mac is never shared while it computes a signature.
+ * A thread missing the key clones the Mac another thread initialized for it, whose inner and outer padded key states
+ * are computed already; only keys no thread signed with yet are initialized from scratch. Signatures with the
+ * consumer secret alone, as two-legged calls and the request token step make them, hit the same Mac every time.
+ *
+ * The secrets stay in the cache, inside the initialized Macs, until they are evicted as least recently used.
+ * {@link #evict(String, String)}, for instance once a token is revoked, and {@link #clear()} drop them earlier: the
+ * shared Macs at once, those of each thread the next time the thread signs with the cache. Either makes every thread
+ * clone its Macs again, so they are meant for revocations rather than for every signature.
+ */
+public final class MacCache {
+
+    public static final int DEFAULT_MAX_KEYS = 64;
+
+    private final String algorithm;
+    private final int maxKeys;
+    private final Map<Key, Mac> prototypes;
+    private final ThreadLocal<ThreadMacs> macs;
+    // bumped on every eviction, so that the threads drop their Macs
+    private volatile long generation;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder clones = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param algorithm JCA name of the algorithm, HmacSHA1 for instance
+     * @param maxKeys keys each thread keeps a Mac for, as many being kept to clone from
+     */
+    public MacCache(final String algorithm, final int maxKeys) {
+        Preconditions.checkEmptyString(algorithm, "Algorithm can't be null or empty");
+        Preconditions.checkArgument(maxKeys > 0, "Max keys must be positive");
+        this.algorithm = algorithm;
+        this.maxKeys = maxKeys;
+        this.prototypes = createLru(maxKeys);
+        this.macs = ThreadLocal.withInitial(ThreadMacs::new);
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    /**
+     * Gets the Mac of the calling thread for the signing key "apiSecret&amp;tokenSecret", ready to sign. The Mac
+     * must not be handed to another thread, and should be reset if a signature is left unfinished.
+     *
+     * @param apiSecret consumer secret
+     * @param tokenSecret token secret, empty for none
+     * @throws GeneralSecurityException if the algorithm is not available or the key is rejected
+     */
+    public Mac get(final String apiSecret, final String tokenSecret) throws GeneralSecurityException {
+        Preconditions.checkNotNull(apiSecret, "Api secret can't be null");
+        Preconditions.checkNotNull(tokenSecret, "Token secret can't be null");
+        final Key key = new Key(apiSecret, tokenSecret);
+        final Map<Key, Mac> local = macs.get().getMacs();
+        Mac mac = local.get(key);
+        if (mac != null) {
+            hits.increment();
+            return mac;
+        }
+        mac = cloneOrCreate(key);
+        local.put(key, mac);
+        return mac;
+    }
+
+    /**
+     * Drops the Macs of the signing key "apiSecret&amp;tokenSecret", for instance once the token is revoked.
+     *
+     * @param apiSecret consumer secret
+     * @param tokenSecret token secret, empty for none
+     */
+    public void evict(final String apiSecret, final String tokenSecret) {
+        Preconditions.checkNotNull(apiSecret, "Api secret can't be null");
+        Preconditions.checkNotNull(tokenSecret, "Token secret can't be null");
+        synchronized (prototypes) {
+            prototypes.remove(new Key(apiSecret, tokenSecret));
+            generation++;
+        }
+    }
+
+    /**
+     * Drops the Macs of every signing key.
+     */
+    public void clear() {
+        synchronized (prototypes) {
+            prototypes.clear();
+            generation++;
+        }
+    }
+
+    /**
+     * @return signatures served by a Mac the thread had already
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Macs cloned from the one another thread initialized
+     */
+    public long getClones() {
+        return clones.sum();
+    }
+
+    /**
+     * @return Macs initialized from scratch
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private Mac cloneOrCreate(final Key key) throws GeneralSecurityException {
+        final Mac prototype;
+        synchronized (prototypes) {
+            prototype = prototypes.get(key);
+        }
+        if (prototype != null) {
+            try {
+                synchronized (prototype) {
+                    final Mac mac = (Mac) prototype.clone();
+                    clones.increment();
+                    return mac;
+                }
+            } catch (CloneNotSupportedException e) {
+                // the provider can't clone its Macs, every thread initializes its own
+            }
+        }
+        misses.increment();
+        final Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(key.toSigningKey(), algorithm));
+        if (prototype == null) {
+            try {
+                final Mac copy = (Mac) mac.clone();
+                synchronized (prototypes) {
+                    prototypes.put(key, copy);
+                }
+            } catch (CloneNotSupportedException e) {
+                // nothing to share
+            }
+        }
+        return mac;
+    }
+
+    private static <K, V> Map<K, V> createLru(final int maxEntries) {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The Macs of a thread, as of the last eviction the thread knows about.
+     */
+    private final class ThreadMacs {
+
+        private final Map<Key, Mac> macs = createLru(maxKeys);
+        private long generation = MacCache.this.generation;
+
+        Map<Key, Mac> getMacs() {
+            final long current = MacCache.this.generation;
+            if (generation != current) {
+                macs.clear();
+                generation = current;
+            }
+            return macs;
+        }
+    }
+
+    private static final class Key {
+
+        private final String apiSecret;
+        private final String tokenSecret;
+
+        Key(final String apiSecret, final String tokenSecret) {
+            this.apiSecret = apiSecret;
+            this.tokenSecret = tokenSecret;
+        }
+
+        byte[] toSigningKey() {
+            return (OAuthEncoder.encode(apiSecret) + '&' + OAuthEncoder.encode(tokenSecret))
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) other;
+            return apiSecret.equals(key.apiSecret) && tokenSecret.equals(key.tokenSecret);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * apiSecret.hashCode() + tokenSecret.hashCode();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.scribe.services;
+
+import java.security.PrivateKey;
+
+/**
+ * RSA-SHA256 implementation of {@link SignatureService}, for providers requiring it instead of RSA-SHA1.
+ */
+public class RSASha256SignatureService extends RsaSignatureService {
+
+    private static final String METHOD = "RSA-SHA256";
+    private static final String RSA_SHA256 = "SHA256withRSA";
+
+    public RSASha256SignatureService(final PrivateKey privateKey) {
+        super(RSA_SHA256, METHOD, privateKey);
+    }
+}
@@ -0,0 +1,177 @@
+package org.scribe.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.scribe.exceptions.OAuthSignatureException;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Signing core of the RSA {@link SignatureService}s.
+ *
+ * The Signatures come from a {@link SignaturePool} per algorithm and private key, shared by the instances signing with
+ * that key, so that services created anew for every request still reuse initialized Signatures. The pools of the
+ * least recently used keys are dropped beyond {@link #MAX_KEYS}.
+ *
+ * RSA signing takes far longer than the HMAC algorithms; {@link #getSignatures(List, ForkJoinPool)} signs a batch of
+ * base strings on all the workers of a {@link ForkJoinPool}.
+ */
+public abstract class RsaSignatureService implements SignatureService {
+
+    public static final int MAX_KEYS = 16;
+
+    private static final Map<PoolKey, SignaturePool> POOLS = new LinkedHashMap<PoolKey, SignaturePool>(16, 0.75f,
+            true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<PoolKey, SignaturePool> eldest) {
+            return size() > MAX_KEYS;
+        }
+    };
+
+    private final String method;
+    private final SignaturePool signatures;
+
+    /**
+     * @param algorithm JCA name of the algorithm, SHA256withRSA for instance
+     * @param method signature method sent as oauth_signature_method, RSA-SHA256 for instance
+     * @param privateKey key to sign with
+     */
+    protected RsaSignatureService(final String algorithm, final String method, final PrivateKey privateKey) {
+        Preconditions.checkEmptyString(algorithm, "Algorithm can't be null or empty");
+        Preconditions.checkEmptyString(method, "Signature method can't be null or empty");
+        Preconditions.checkNotNull(privateKey, "Private key can't be null");
+        this.method = method;
+        this.signatures = getPool(algorithm, privateKey);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getSignature(final String baseString, final String apiSecret, final String tokenSecret) {
+        try {
+            return sign(baseString);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            throw new OAuthSignatureException(baseString, e);
+        }
+    }
+
+    /**
+     * Signs the base strings on the common {@link ForkJoinPool}.
+     *
+     * @see #getSignatures(List, ForkJoinPool)
+     */
+    public List<String> getSignatures(final List<String> baseStrings) {
+        return getSignatures(baseStrings, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Signs the base strings in parallel on the pool, the calling thread helping when it is a worker of the pool.
+     *
+     * @param baseStrings url-encoded strings to sign
+     * @param pool pool to sign on
+     * @return the signatures, in the order of the base strings
+     * @throws OAuthSignatureException if any base string fails to sign
+     */
+    public List<String> getSignatures(final List<String> baseStrings, final ForkJoinPool pool) {
+        Preconditions.checkNotNull(baseStrings, "Base strings can't be null");
+        Preconditions.checkNotNull(pool, "Pool can't be null");
+        final String[] in = baseStrings.toArray(new String[0]);
+        final String[] out = new String[in.length];
+        pool.invoke(new SignTask(in, out, 0, in.length));
+        return new ArrayList<>(Arrays.asList(out));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getSignatureMethod() {
+        return method;
+    }
+
+    /**
+     * @return the pool of the Signatures of the algorithm and key, shared by the instances using both
+     */
+    public SignaturePool getSignaturePool() {
+        return signatures;
+    }
+
+    private String sign(final String baseString) throws GeneralSecurityException {
+        return Base64Encoder.getInstance().encode(signatures.sign(baseString.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static SignaturePool getPool(final String algorithm, final PrivateKey privateKey) {
+        final PoolKey key = new PoolKey(algorithm, privateKey);
+        synchronized (POOLS) {
+            return POOLS.computeIfAbsent(key, k -> new SignaturePool(algorithm, privateKey,
+                    Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    /**
+     * Signs a range of the base strings, split in halves down to single ones.
+     */
+    private final class SignTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String[] in;
+        private final String[] out;
+        private final int from;
+        private final int to;
+
+        SignTask(final String[] in, final String[] out, final int from, final int to) {
+            this.in = in;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new SignTask(in, out, from, middle), new SignTask(in, out, middle, to));
+            } else if (to > from) {
+                out[from] = getSignature(in[from], null, null);
+            }
+        }
+    }
+
+    private static final class PoolKey {
+
+        private final String algorithm;
+        private final PrivateKey privateKey;
+
+        PoolKey(final String algorithm, final PrivateKey privateKey) {
+            this.algorithm = algorithm;
+            this.privateKey = privateKey;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof PoolKey)) {
+                return false;
+            }
+            final PoolKey key = (PoolKey) other;
+            return algorithm.equals(key.algorithm) && privateKey.equals(key.privateKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(algorithm, privateKey);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.scribe.services;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import org.scribe.utils.Preconditions;
+
+/**
+ * {@link Signature} objects of one algorithm initialized for signing with one private key, so that a signature needs
+ * neither a provider lookup nor parsing the key again.
+ *
+ * A Signature is taken from the pool for each signature, created if none is idle, and given back once it has signed,
+ * as signing leaves it initialized with the key. Up to maxIdle of them are kept; as many threads as that sign without
+ * creating any. A Signature that failed is dropped.
+ */
+public final class SignaturePool {
+
+    private final String algorithm;
+    private final PrivateKey privateKey;
+    private final BlockingQueue<Signature> idle;
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    /**
+     * @param algorithm JCA name of the algorithm, SHA256withRSA for instance
+     * @param privateKey key to sign with
+     * @param maxIdle Signatures kept initialized between signatures
+     */
+    public SignaturePool(final String algorithm, final PrivateKey privateKey, final int maxIdle) {
+        Preconditions.checkEmptyString(algorithm, "Algorithm can't be null or empty");
+        Preconditions.checkNotNull(privateKey, "Private key can't be null");
+        Preconditions.checkArgument(maxIdle > 0, "Max idle must be positive");
+        this.algorithm = algorithm;
+        this.privateKey = privateKey;
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    /**
+     * Signs the data with a Signature of the pool.
+     *
+     * @return the signature bytes
+     * @throws GeneralSecurityException if the algorithm is not available, the key is rejected or signing fails
+     */
+    public byte[] sign(final byte[] data) throws GeneralSecurityException {
+        final Signature signature = acquire();
+        // a Signature that throws is in no known state and not given back
+        signature.update(data);
+        final byte[] bytes = signature.sign();
+        idle.offer(signature);
+        return bytes;
+    }
+
+    /**
+     * @return Signatures created and initialized
+     */
+    public long getCreated() {
+        return created.sum();
+    }
+
+    /**
+     * @return signatures made with an idle Signature
+     */
+    public long getReused() {
+        return reused.sum();
+    }
+
+    /**
+     * @return Signatures idle in the pool
+     */
+    public int getIdle() {
+        return idle.size();
+    }
+
+    private Signature acquire() throws GeneralSecurityException {
+        final Signature pooled = idle.poll();
+        if (pooled != null) {
+            reused.increment();
+            return pooled;
+        }
+        final Signature signature = Signature.getInstance(algorithm);
+        signature.initSign(privateKey);
+        created.increment();
+        return signature;
+    }
+}
@@ -0,0 +1,87 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.utils.Preconditions;
+
+/**
+ * {@link HttpTransport} decorator feeding the latency of every call to its {@link AdaptiveTimeouts}, and giving the
+ * requests without a read timeout of their own the current timeout of their endpoint.
+ */
+public class AdaptiveTimeoutTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final AdaptiveTimeouts timeouts;
+
+    public AdaptiveTimeoutTransport(final HttpTransport delegate, final AdaptiveTimeouts timeouts) {
+        Preconditions.checkNotNull(delegate, "Transport can't be null");
+        Preconditions.checkNotNull(timeouts, "Adaptive timeouts can't be null");
+        this.delegate = delegate;
+        this.timeouts = timeouts;
+    }
+
+    public AdaptiveTimeouts getTimeouts() {
+        return timeouts;
+    }
+
+    @Override
+    public Response execute(final Request request) throws IOException {
+        final String endpoint = prepare(request);
+        final long start = System.nanoTime();
+        try {
+            final Response response = delegate.execute(request);
+            timeouts.record(endpoint, System.nanoTime() - start);
+            return response;
+        } catch (IOException e) {
+            recordFailure(endpoint, request, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(final Request request, final Executor executor) {
+        final String endpoint = prepare(request);
+        final long start = System.nanoTime();
+        return delegate.executeAsync(request, executor).whenComplete((response, failure) -> {
+            if (failure == null) {
+                timeouts.record(endpoint, System.nanoTime() - start);
+            } else {
+                recordFailure(endpoint, request, failure);
+            }
+        });
+    }
+
+    @Override
+    public int warmUp(final String url, final int connections) throws IOException {
+        return delegate.warmUp(url, connections);
+    }
+
+    private String prepare(final Request request) {
+        if (request.getReadTimeout() == null) {
+            timeouts.tune(request);
+        }
+        return AdaptiveTimeouts.getEndpoint(request);
+    }
+
+    /**
+     * A timed out call took at least its timeout, which is recorded so that the timeout can grow. A call cut short by
+     * its deadline says nothing about the endpoint and is not recorded.
+     */
+    private void recordFailure(final String endpoint, final Request request, Throwable failure) {
+        while (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        final boolean timedOut = failure instanceof HttpTimeoutException
+                || (failure instanceof InterruptedIOException && !(failure.getCause() instanceof InterruptedException));
+        if (timedOut && request.getReadTimeout() != null && request.getDeadline() == null) {
+            timeouts.record(endpoint, TimeUnit.MILLISECONDS.toNanos(request.getReadTimeout()));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.scribe.transport;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.scribe.model.Request;
+import org.scribe.model.RequestTuner;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Read timeouts that follow the latency of every endpoint instead of a single fixed value.
+ *
+ * The time to the response head of the calls to an endpoint (verb and URL without query string) is recorded, by an
+ * {@link AdaptiveTimeoutTransport}, in a latency histogram kept over the last calls. The read timeout of the endpoint
+ * is the configured percentile of that histogram plus the headroom, bounded by the floor and the ceiling. Until the
+ * endpoint has enough samples, the initial timeout applies. A call that times out counts as a sample of the timeout it
+ * had, so that timeouts grow back when a provider slows down for good.
+ *
+ * As a {@link RequestTuner}, it sets the timeout of the endpoint on the request it tunes.
+ */
+public class AdaptiveTimeouts extends RequestTuner {
+
+    public static final double DEFAULT_PERCENTILE = 99;
+    public static final double DEFAULT_HEADROOM = 0.5;
+    public static final long DEFAULT_FLOOR_MILLIS = 100;
+    public static final long DEFAULT_CEILING_MILLIS = 30000;
+    public static final long DEFAULT_INITIAL_MILLIS = 2000;
+    public static final int DEFAULT_MIN_SAMPLES = 20;
+    public static final int DEFAULT_WINDOW = 1000;
+
+    private final ConcurrentHashMap<String, LatencyWindow> endpoints = new ConcurrentHashMap<>();
+
+    private volatile double percentile = DEFAULT_PERCENTILE;
+    private volatile double headroom = DEFAULT_HEADROOM;
+    private volatile long floorNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_FLOOR_MILLIS);
+    private volatile long ceilingNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_CEILING_MILLIS);
+    private volatile long initialNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_INITIAL_MILLIS);
+    private volatile int minSamples = DEFAULT_MIN_SAMPLES;
+    private volatile int window = DEFAULT_WINDOW;
+
+    /**
+     * @param percentile latency percentile the timeout is derived from, for instance 99
+     * @param headroom share of the percentile added on top of it, 0.5 for a timeout of one and a half times the
+     * percentile
+     */
+    public void setPercentile(final double percentile, final double headroom) {
+        Preconditions.checkArgument(percentile > 0 && percentile <= 100, "Percentile must be in ]0, 100]");
+        Preconditions.checkArgument(headroom >= 0, "Headroom can't be negative");
+        this.percentile = percentile;
+        this.headroom = headroom;
+    }
+
+    /**
+     * @param floor shortest timeout
+     * @param ceiling longest timeout
+     * @param unit unit of both timeouts
+     */
+    public void setBounds(final long floor, final long ceiling, final TimeUnit unit) {
+        Preconditions.checkArgument(floor > 0 && ceiling >= floor, "Invalid bounds");
+        this.floorNanos = unit.toNanos(floor);
+        this.ceilingNanos = unit.toNanos(ceiling);
+    }
+
+    /**
+     * @param timeout timeout of an endpoint without enough samples yet
+     * @param unit unit of the timeout
+     */
+    public void setInitialTimeout(final long timeout, final TimeUnit unit) {
+        Preconditions.checkArgument(timeout > 0, "Initial timeout must be positive");
+        this.initialNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * @param minSamples samples an endpoint needs before its timeout adapts
+     * @param window calls after which the oldest samples start being forgotten, the timeout is computed on the last
+     * one to two windows of calls
+     */
+    public void setSamples(final int minSamples, final int window) {
+        Preconditions.checkArgument(minSamples > 0 && window >= minSamples, "Invalid sample counts");
+        this.minSamples = minSamples;
+        this.window = window;
+    }
+
+    /**
+     * Sets the read timeout of the endpoint of the request.
+     */
+    @Override
+    public void tune(final Request request) {
+        final long timeout = getTimeout(getEndpoint(request), TimeUnit.MILLISECONDS);
+        request.setReadTimeout((int) Math.min(timeout, Integer.MAX_VALUE), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param endpoint endpoint as in {@link #getEndpoint(Request)}
+     * @param unit unit of the timeout
+     * @return current read timeout of the endpoint
+     */
+    public long getTimeout(final String endpoint, final TimeUnit unit) {
+        final LatencyWindow samples = endpoints.get(endpoint);
+        final long latency = samples == null || samples.getCount() < minSamples ? -1 : samples.getValueAtPercentile(
+                percentile);
+        final long timeout = latency < 0 ? initialNanos : Math.max(floorNanos, Math.min(ceilingNanos,
+                (long) (latency * (1 + headroom))));
+        return Math.max(1, unit.convert(timeout, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * @param endpoint endpoint as in {@link #getEndpoint(Request)}
+     * @param percentile from 0 to 100
+     * @param unit unit of the latency
+     * @return latency percentile of the recent calls to the endpoint, -1 if none was recorded
+     */
+    public long getLatency(final String endpoint, final double percentile, final TimeUnit unit) {
+        final LatencyWindow samples = endpoints.get(endpoint);
+        final long latency = samples == null ? -1 : samples.getValueAtPercentile(percentile);
+        return latency < 0 ? -1 : unit.convert(latency, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return current read timeout of every endpoint called, in milliseconds, sorted by endpoint
+     */
+    public Map<String, Long> getTimeouts() {
+        final Map<String, Long> timeouts = new TreeMap<>();
+        for (final String endpoint : endpoints.keySet()) {
+            timeouts.put(endpoint, getTimeout(endpoint, TimeUnit.MILLISECONDS));
+        }
+        return timeouts;
+    }
+
+    /**
+     * @return what the latency of the request is recorded under: its verb and its URL without query string
+     */
+    public static String getEndpoint(final Request request) {
+        final String url = request.getUrl();
+        final int query = url.indexOf('?');
+        return request.getVerb() + " " + (query == -1 ? url : url.substring(0, query));
+    }
+
+    void record(final String endpoint, final long nanos) {
+        endpoints.computeIfAbsent(endpoint, key -> new LatencyWindow()).record(nanos, window);
+    }
+}
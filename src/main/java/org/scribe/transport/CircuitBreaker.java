@@ -0,0 +1,318 @@
+package org.scribe.transport;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.scribe.exceptions.CircuitOpenException;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Per-host circuit breaker applied by a {@link CircuitBreakerTransport}.
+ *
+ * Each host gets its own circuit. While closed, the outcome of the last calls to the host is kept in a sliding window;
+ * once the window holds enough calls and either the share of failed calls (an {@link java.io.IOException} or a 5xx
+ * status) or the share of slow calls reaches its threshold, the circuit opens. An open circuit fails calls right away
+ * with a {@link CircuitOpenException}. After the open duration it turns half-open and lets a few trial calls through:
+ * the circuit closes if they all succeed in time, and opens again as soon as one does not.
+ *
+ * The state of every host can be read with {@link #getState(String)} and {@link #getStats(String)}, and transitions
+ * are reported to the {@link Listener}s.
+ */
+public class CircuitBreaker {
+
+    public static final float DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+    public static final float DEFAULT_SLOW_CALL_RATE_THRESHOLD = 100;
+    public static final long DEFAULT_SLOW_CALL_MILLIS = 10000;
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+    public static final long DEFAULT_OPEN_MILLIS = 30000;
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    /**
+     * State of the circuit of a host.
+     */
+    public enum State {
+        /** calls go through and their outcome is recorded */
+        CLOSED,
+        /** calls fail right away */
+        OPEN,
+        /** a limited number of trial calls go through */
+        HALF_OPEN
+    }
+
+    /**
+     * Notified when the circuit of a host changes state.
+     */
+    public interface Listener {
+
+        void onStateChange(String host, State from, State to);
+    }
+
+    private final ConcurrentHashMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile float failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    private volatile float slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+    private volatile long slowCallNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_CALL_MILLIS);
+    private volatile int windowSize = DEFAULT_WINDOW_SIZE;
+    private volatile int minimumCalls = DEFAULT_MINIMUM_CALLS;
+    private volatile long openNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_OPEN_MILLIS);
+    private volatile int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+    /**
+     * @param percentage share of failed calls in the window, from 1 to 100, that opens the circuit
+     */
+    public void setFailureRateThreshold(final float percentage) {
+        Preconditions.checkArgument(percentage > 0 && percentage <= 100, "Threshold must be in ]0, 100]");
+        this.failureRateThreshold = percentage;
+    }
+
+    /**
+     * @param percentage share of slow calls in the window, from 1 to 100, that opens the circuit
+     * @param duration time from which a call is slow
+     * @param unit unit of the duration
+     */
+    public void setSlowCallRateThreshold(final float percentage, final long duration, final TimeUnit unit) {
+        Preconditions.checkArgument(percentage > 0 && percentage <= 100, "Threshold must be in ]0, 100]");
+        Preconditions.checkArgument(duration > 0, "Slow call duration must be positive");
+        this.slowCallRateThreshold = percentage;
+        this.slowCallNanos = unit.toNanos(duration);
+    }
+
+    /**
+     * @param windowSize number of most recent calls the rates are computed on
+     * @param minimumCalls calls needed in the window before the rates are considered
+     */
+    public void setWindow(final int windowSize, final int minimumCalls) {
+        Preconditions.checkArgument(minimumCalls > 0 && windowSize >= minimumCalls, "Invalid window");
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+    }
+
+    /**
+     * @param duration how long an open circuit fails calls before letting trial calls through
+     * @param unit unit of the duration
+     */
+    public void setOpenDuration(final long duration, final TimeUnit unit) {
+        Preconditions.checkArgument(duration >= 0, "Open duration can't be negative");
+        this.openNanos = unit.toNanos(duration);
+    }
+
+    /**
+     * @param calls trial calls let through by a half-open circuit, all of which must succeed for it to close
+     */
+    public void setHalfOpenCalls(final int calls) {
+        Preconditions.checkArgument(calls > 0, "Half-open calls must be positive");
+        this.halfOpenCalls = calls;
+    }
+
+    /**
+     * @param listener notified of the state transitions of every host
+     */
+    public void addListener(final Listener listener) {
+        Preconditions.checkNotNull(listener, "Listener can't be null");
+        listeners.add(listener);
+    }
+
+    /**
+     * @return hosts a call was made to
+     */
+    public Set<String> getHosts() {
+        return circuits.keySet();
+    }
+
+    /**
+     * @param host host, with its port when not the default one, as in {@link #getHost(Request)}
+     * @return state of the circuit of the host, closed if no call was made to it
+     */
+    public State getState(final String host) {
+        final Circuit circuit = circuits.get(host);
+        return circuit == null ? State.CLOSED : circuit.getState();
+    }
+
+    /**
+     * @param host host, with its port when not the default one, as in {@link #getHost(Request)}
+     * @return snapshot of the circuit of the host
+     */
+    public CircuitStats getStats(final String host) {
+        final Circuit circuit = circuits.get(host);
+        return circuit == null ? new CircuitStats(host, State.CLOSED, 0, 0, 0, 0, 0) : circuit.getStats(host);
+    }
+
+    /**
+     * Forces the circuit of a host back to closed, with an empty window.
+     *
+     * @param host host, with its port when not the default one, as in {@link #getHost(Request)}
+     */
+    public void reset(final String host) {
+        final Circuit circuit = circuits.get(host);
+        if (circuit != null) {
+            circuit.transition(State.CLOSED, System.nanoTime());
+        }
+    }
+
+    /**
+     * @return host the circuit of the request is kept for
+     */
+    public static String getHost(final Request request) {
+        final URI uri = URI.create(request.getUrl());
+        final String host = uri.getHost() == null ? String.valueOf(uri.getAuthority()) : uri.getHost().toLowerCase();
+        return uri.getPort() == -1 ? host : host + ':' + uri.getPort();
+    }
+
+    /**
+     * Lets a call through or fails it.
+     *
+     * @return permit to hand back to {@link #record(String, long, long, Response, Exception)}
+     * @throws CircuitOpenException if the circuit is open, or half-open with all its trial calls taken
+     */
+    long acquire(final String host) {
+        final Circuit circuit = circuits.computeIfAbsent(host, Circuit::new);
+        final long now = System.nanoTime();
+        final long permit = circuit.acquire(now);
+        if (permit < 0) {
+            throw new CircuitOpenException(host, circuit.getRetryInMillis(now));
+        }
+        return permit;
+    }
+
+    /**
+     * Records the outcome of a call let through by {@link #acquire(String)}.
+     */
+    void record(final String host, final long permit, final long durationNanos, final Response response,
+            final Exception error) {
+        final Circuit circuit = circuits.get(host);
+        if (circuit != null) {
+            final boolean failed = error != null || response.getCode() >= 500;
+            circuit.record(permit, failed, durationNanos >= slowCallNanos, System.nanoTime());
+        }
+    }
+
+    /**
+     * State of one host. Permits are the generation of the state they were given in, so that calls started before a
+     * transition do not count in the new state.
+     */
+    private final class Circuit {
+
+        private final String host;
+        private State state = State.CLOSED;
+        private long generation;
+        private long openedAt;
+        private boolean[] failures = new boolean[0];
+        private boolean[] slow = new boolean[0];
+        private int next;
+        private int calls;
+        private int failed;
+        private int slowed;
+        private int trials;
+        private int succeeded;
+        private long rejected;
+        private long opened;
+
+        Circuit(final String host) {
+            this.host = host;
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+
+        synchronized long acquire(final long now) {
+            if (state == State.OPEN && now - openedAt >= openNanos) {
+                transition(State.HALF_OPEN, now);
+            }
+            if (state == State.CLOSED) {
+                return generation;
+            }
+            if (state == State.HALF_OPEN && trials > 0) {
+                trials--;
+                return generation;
+            }
+            rejected++;
+            return -1;
+        }
+
+        synchronized void record(final long permit, final boolean failedCall, final boolean slowCall,
+                final long now) {
+            if (permit != generation) {
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                if (failedCall || slowCall) {
+                    transition(State.OPEN, now);
+                } else if (++succeeded == halfOpenCalls) {
+                    transition(State.CLOSED, now);
+                }
+            } else if (state == State.CLOSED) {
+                add(failedCall, slowCall);
+                if (calls >= minimumCalls && (failed * 100f >= failureRateThreshold * calls
+                        || slowed * 100f >= slowCallRateThreshold * calls)) {
+                    transition(State.OPEN, now);
+                }
+            }
+        }
+
+        private void add(final boolean failedCall, final boolean slowCall) {
+            if (failures.length != windowSize) {
+                // the window was resized, start over
+                clear();
+            }
+            if (calls == failures.length) {
+                failed -= failures[next] ? 1 : 0;
+                slowed -= slow[next] ? 1 : 0;
+            } else {
+                calls++;
+            }
+            failures[next] = failedCall;
+            slow[next] = slowCall;
+            failed += failedCall ? 1 : 0;
+            slowed += slowCall ? 1 : 0;
+            next = (next + 1) % failures.length;
+        }
+
+        private void clear() {
+            failures = new boolean[windowSize];
+            slow = new boolean[windowSize];
+            next = 0;
+            calls = 0;
+            failed = 0;
+            slowed = 0;
+        }
+
+        /**
+         * Listeners are called with the circuit locked, so that they see the transitions of a host in order.
+         */
+        synchronized void transition(final State to, final long now) {
+            final State from = state;
+            state = to;
+            generation++;
+            clear();
+            if (to == State.OPEN) {
+                openedAt = now;
+                opened++;
+            } else if (to == State.HALF_OPEN) {
+                trials = halfOpenCalls;
+                succeeded = 0;
+            }
+            if (from != to) {
+                for (final Listener listener : listeners) {
+                    listener.onStateChange(host, from, to);
+                }
+            }
+        }
+
+        synchronized long getRetryInMillis(final long now) {
+            return state == State.OPEN ? TimeUnit.NANOSECONDS.toMillis(Math.max(0, openedAt + openNanos - now)) : 0;
+        }
+
+        synchronized CircuitStats getStats(final String host) {
+            return new CircuitStats(host, state, calls, calls == 0 ? 0 : failed * 100f / calls,
+                    calls == 0 ? 0 : slowed * 100f / calls, rejected, opened);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import org.scribe.exceptions.CircuitOpenException;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.utils.Preconditions;
+
+/**
+ * {@link HttpTransport} decorator guarding every host with the circuit its {@link CircuitBreaker} keeps for it. A
+ * request to a host whose circuit is open is not handed to the delegate and fails with a {@link CircuitOpenException}.
+ *
+ * Token requests go through the transport of their service as well, so the breaker covers logins as much as API calls.
+ */
+public class CircuitBreakerTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final CircuitBreaker breaker;
+
+    public CircuitBreakerTransport(final HttpTransport delegate, final CircuitBreaker breaker) {
+        Preconditions.checkNotNull(delegate, "Transport can't be null");
+        Preconditions.checkNotNull(breaker, "Circuit breaker can't be null");
+        this.delegate = delegate;
+        this.breaker = breaker;
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    @Override
+    public Response execute(final Request request) throws IOException {
+        final String host = CircuitBreaker.getHost(request);
+        final long permit = breaker.acquire(host);
+        final long start = System.nanoTime();
+        final Response response;
+        try {
+            response = delegate.execute(request);
+        } catch (IOException | RuntimeException e) {
+            breaker.record(host, permit, System.nanoTime() - start, null, e);
+            throw e;
+        }
+        breaker.record(host, permit, System.nanoTime() - start, response, null);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(final Request request, final Executor executor) {
+        final String host = CircuitBreaker.getHost(request);
+        final long permit;
+        try {
+            permit = breaker.acquire(host);
+        } catch (CircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final long start = System.nanoTime();
+        return delegate.executeAsync(request, executor).whenComplete((response, failure) -> {
+            final Exception error = failure == null ? null
+                    : failure instanceof Exception ? (Exception) failure : new CompletionException(failure);
+            breaker.record(host, permit, System.nanoTime() - start, response, error);
+        });
+    }
+
+    @Override
+    public int warmUp(final String url, final int connections) throws IOException {
+        return delegate.warmUp(url, connections);
+    }
+}
@@ -0,0 +1,75 @@
+package org.scribe.transport;
+
+/**
+ * Snapshot of the circuit of one host of a {@link CircuitBreaker}.
+ */
+public class CircuitStats {
+
+    private final String host;
+    private final CircuitBreaker.State state;
+    private final int bufferedCalls;
+    private final float failureRate;
+    private final float slowCallRate;
+    private final long rejected;
+    private final long opened;
+
+    CircuitStats(final String host, final CircuitBreaker.State state, final int bufferedCalls,
+            final float failureRate, final float slowCallRate, final long rejected, final long opened) {
+        this.host = host;
+        this.state = state;
+        this.bufferedCalls = bufferedCalls;
+        this.failureRate = failureRate;
+        this.slowCallRate = slowCallRate;
+        this.rejected = rejected;
+        this.opened = opened;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public CircuitBreaker.State getState() {
+        return state;
+    }
+
+    /**
+     * @return calls in the sliding window of the closed circuit
+     */
+    public int getBufferedCalls() {
+        return bufferedCalls;
+    }
+
+    /**
+     * @return percentage of failed calls in the window
+     */
+    public float getFailureRate() {
+        return failureRate;
+    }
+
+    /**
+     * @return percentage of slow calls in the window
+     */
+    public float getSlowCallRate() {
+        return slowCallRate;
+    }
+
+    /**
+     * @return calls failed right away because the circuit was open
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return how many times the circuit opened
+     */
+    public long getOpened() {
+        return opened;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CircuitStats[host=%s, state=%s, bufferedCalls=%d, failureRate=%.1f, slowCallRate=%.1f, "
+                + "rejected=%d, opened=%d]", host, state, bufferedCalls, failureRate, slowCallRate, rejected, opened);
+    }
+}
@@ -0,0 +1,186 @@
+package org.scribe.transport;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.scribe.exceptions.ConcurrencyLimitExceededException;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Adaptive bulkhead: caps the calls in flight to each provider, applied by a {@link ConcurrencyLimitingTransport}, so
+ * that a provider slowing down holds only its own share of the threads.
+ *
+ * Every provider (an {@link org.scribe.builder.api.Api} implementation) gets its own limit, sized from the latency of
+ * its calls with additive increase, multiplicative decrease. The limit of a provider follows a slowly moving baseline
+ * of its latency: a call taking longer than the baseline times the tolerance, or failing with an
+ * {@link java.io.IOException}, is a sign of queueing and cuts the limit by the backoff ratio, while a call in time made
+ * with the limit in use raises it by one. A call over the limit fails right away with a
+ * {@link ConcurrencyLimitExceededException} instead of queueing behind the slow ones.
+ */
+public class ConcurrencyLimiter {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    public static final double DEFAULT_TOLERANCE = 2;
+
+    // weight of a call in the latency baseline, small so that the baseline does not follow the queueing it detects
+    private static final double BASELINE_WEIGHT = 0.05;
+
+    private final ConcurrentHashMap<String, Limit> limits = new ConcurrentHashMap<>();
+
+    private volatile int initialLimit = DEFAULT_INITIAL_LIMIT;
+    private volatile int minLimit = DEFAULT_MIN_LIMIT;
+    private volatile int maxLimit = DEFAULT_MAX_LIMIT;
+    private volatile double backoffRatio = DEFAULT_BACKOFF_RATIO;
+    private volatile double tolerance = DEFAULT_TOLERANCE;
+
+    /**
+     * @param initial limit of a provider before any of its calls completed
+     * @param min lowest limit
+     * @param max highest limit
+     */
+    public void setLimits(final int initial, final int min, final int max) {
+        Preconditions.checkArgument(min > 0 && min <= initial && initial <= max, "Invalid limits");
+        this.initialLimit = initial;
+        this.minLimit = min;
+        this.maxLimit = max;
+    }
+
+    /**
+     * @param ratio what the limit is multiplied by on a slow or failed call, between 0 and 1
+     */
+    public void setBackoffRatio(final double ratio) {
+        Preconditions.checkArgument(ratio > 0 && ratio < 1, "Backoff ratio must be in ]0, 1[");
+        this.backoffRatio = ratio;
+    }
+
+    /**
+     * @param tolerance how many times the latency baseline a call may take before it counts as slow, above 1
+     */
+    public void setTolerance(final double tolerance) {
+        Preconditions.checkArgument(tolerance > 1, "Tolerance must be above 1");
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @return providers a call was made to
+     */
+    public Set<String> getProviders() {
+        return limits.keySet();
+    }
+
+    /**
+     * @param provider class name of the {@link org.scribe.builder.api.Api}
+     * @return current limit of the provider
+     */
+    public int getLimit(final String provider) {
+        final Limit limit = limits.get(provider);
+        return limit == null ? initialLimit : limit.getLimit();
+    }
+
+    /**
+     * @param provider class name of the {@link org.scribe.builder.api.Api}
+     * @return snapshot of the limit of the provider
+     */
+    public ConcurrencyLimiterStats getStats(final String provider) {
+        final Limit limit = limits.get(provider);
+        return limit == null ? new ConcurrencyLimiterStats(provider, initialLimit, 0, 0, 0, 0, 0)
+                : limit.getStats(provider);
+    }
+
+    /**
+     * Takes a slot of the provider.
+     *
+     * @return start of the call, to hand back to {@link #release(String, long, boolean)}
+     * @throws ConcurrencyLimitExceededException if the calls in flight are at the limit
+     */
+    long acquire(final String provider) {
+        final Limit limit = limits.computeIfAbsent(provider, key -> new Limit(initialLimit));
+        if (!limit.tryAcquire()) {
+            throw new ConcurrencyLimitExceededException(provider, limit.getLimit());
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Gives back the slot taken by {@link #acquire(String)}.
+     *
+     * @param start value returned by {@link #acquire(String)}
+     * @param dropped whether the call failed with an I/O error
+     */
+    void release(final String provider, final long start, final boolean dropped) {
+        final Limit limit = limits.get(provider);
+        if (limit != null) {
+            limit.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    /**
+     * Release a slot without sampling it, for calls that never reached the provider.
+     */
+    void cancel(final String provider) {
+        final Limit limit = limits.get(provider);
+        if (limit != null) {
+            limit.inFlight.decrementAndGet();
+        }
+    }
+
+    private final class Limit {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder decreases = new LongAdder();
+        private volatile double limit;
+        private double baselineNanos;
+
+        Limit(final int initial) {
+            this.limit = initial;
+        }
+
+        int getLimit() {
+            return (int) limit;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                final int current = inFlight.get();
+                if (current >= (int) limit) {
+                    rejected.increment();
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    accepted.increment();
+                    return true;
+                }
+            }
+        }
+
+        void release(final long durationNanos, final boolean dropped) {
+            final int callsInFlight = inFlight.getAndDecrement();
+            synchronized (this) {
+                final boolean slow = baselineNanos > 0 && durationNanos > baselineNanos * tolerance;
+                if (dropped || slow) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    decreases.increment();
+                } else if (callsInFlight * 2 >= limit) {
+                    // only a limit in use is worth raising
+                    limit = Math.min(maxLimit, limit + 1);
+                }
+                if (!dropped) {
+                    baselineNanos = baselineNanos == 0 ? durationNanos
+                            : baselineNanos + (durationNanos - baselineNanos) * BASELINE_WEIGHT;
+                }
+            }
+        }
+
+        synchronized ConcurrencyLimiterStats getStats(final String provider) {
+            return new ConcurrencyLimiterStats(provider, (int) limit, inFlight.get(), accepted.sum(), rejected.sum(),
+                    decreases.sum(), TimeUnit.NANOSECONDS.toMillis((long) baselineNanos));
+        }
+    }
+}
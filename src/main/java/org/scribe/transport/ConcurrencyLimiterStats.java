@@ -0,0 +1,79 @@
+package org.scribe.transport;
+
+/**
+ * Snapshot of the limit of one provider of a {@link ConcurrencyLimiter}.
+ */
+public class ConcurrencyLimiterStats {
+
+    private final String provider;
+    private final int limit;
+    private final int inFlight;
+    private final long accepted;
+    private final long rejected;
+    private final long decreases;
+    private final long baselineMillis;
+
+    ConcurrencyLimiterStats(final String provider, final int limit, final int inFlight, final long accepted,
+            final long rejected, final long decreases, final long baselineMillis) {
+        this.provider = provider;
+        this.limit = limit;
+        this.inFlight = inFlight;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.decreases = decreases;
+        this.baselineMillis = baselineMillis;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    /**
+     * @return calls allowed in flight
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return calls in flight
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return calls let through
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return calls refused because the limit was reached
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return how many times a slow or failed call cut the limit
+     */
+    public long getDecreases() {
+        return decreases;
+    }
+
+    /**
+     * @return latency baseline the calls are compared to
+     */
+    public long getBaselineMillis() {
+        return baselineMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConcurrencyLimiterStats[provider=%s, limit=%d, inFlight=%d, accepted=%d, rejected=%d, "
+                + "decreases=%d, baselineMillis=%d]", provider, limit, inFlight, accepted, rejected, decreases,
+                baselineMillis);
+    }
+}
@@ -0,0 +1,97 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import org.scribe.exceptions.ConcurrencyLimitExceededException;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.utils.Preconditions;
+
+/**
+ * {@link HttpTransport} decorator keeping the calls in flight to a provider within the limit its
+ * {@link ConcurrencyLimiter} keeps for it. A call holds its slot until the response head has arrived; a call over the
+ * limit fails with a {@link ConcurrencyLimitExceededException} without being sent.
+ */
+public class ConcurrencyLimitingTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final ConcurrencyLimiter limiter;
+    private final String provider;
+
+    /**
+     * @param provider name the limit is kept under, the class name of the {@link org.scribe.builder.api.Api} when
+     * built by {@link org.scribe.builder.ServiceBuilder}
+     */
+    public ConcurrencyLimitingTransport(final HttpTransport delegate, final ConcurrencyLimiter limiter,
+            final String provider) {
+        Preconditions.checkNotNull(delegate, "Transport can't be null");
+        Preconditions.checkNotNull(limiter, "Concurrency limiter can't be null");
+        Preconditions.checkEmptyString(provider, "Provider can't be null or empty");
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.provider = provider;
+    }
+
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public Response execute(final Request request) throws IOException {
+        final long start = limiter.acquire(provider);
+        final Response response;
+        try {
+            response = delegate.execute(request);
+        } catch (IOException e) {
+            limiter.release(provider, start, true);
+            throw e;
+        } catch (RuntimeException e) {
+            // not sent, or refused before reaching the provider
+            limiter.cancel(provider);
+            throw e;
+        }
+        limiter.release(provider, start, false);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(final Request request, final Executor executor) {
+        final long start;
+        try {
+            start = limiter.acquire(provider);
+        } catch (ConcurrencyLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final CompletableFuture<Response> future;
+        try {
+            future = delegate.executeAsync(request, executor);
+        } catch (RuntimeException e) {
+            limiter.cancel(provider);
+            throw e;
+        }
+        return future.whenComplete((response, failure) -> {
+            if (failure == null) {
+                limiter.release(provider, start, false);
+            } else if (isIOException(failure)) {
+                limiter.release(provider, start, true);
+            } else {
+                limiter.cancel(provider);
+            }
+        });
+    }
+
+    @Override
+    public int warmUp(final String url, final int connections) throws IOException {
+        return delegate.warmUp(url, connections);
+    }
+
+    private static boolean isIOException(Throwable failure) {
+        while (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return failure instanceof IOException || failure instanceof UncheckedIOException;
+    }
+}
@@ -0,0 +1,373 @@
+package org.scribe.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Keep-alive connection pool used by {@link PooledHttpTransport}.
+ *
+ * Meant to be owned by a single service (see {@link org.scribe.builder.ServiceBuilder#connectionPool(ConnectionPool)}),
+ * so that keep-alive, the per-host limit and the timeouts are a per-service choice rather than a JVM wide one.
+ *
+ * Connections are kept per host (scheme, host and port) and reused most recently used first. A connection is closed
+ * instead of being reused once it has been idle longer than the idle timeout or open longer than its time to live.
+ * Connections idle for longer than the validation interval are checked before being handed out, in case the provider
+ * closed them in the meantime.
+ */
+public class ConnectionPool implements Closeable {
+
+    public static final int DEFAULT_MAX_PER_HOST = 20;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30000;
+    public static final long DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Map<String, RouteState> routes = new HashMap<>();
+
+    private volatile int maxPerHost;
+    private volatile long idleTimeoutNanos;
+    private volatile long timeToLiveNanos;
+    private volatile long validateAfterInactivityNanos;
+    private volatile boolean keepAlive = true;
+
+    private boolean closed;
+    private int pending;
+    private long leases;
+    private long reused;
+    private long created;
+    private long discarded;
+
+    /**
+     * Creates a pool with the default limits: {@value #DEFAULT_MAX_PER_HOST} connections per host, idle connections
+     * closed after {@value #DEFAULT_IDLE_TIMEOUT_MILLIS} ms and no time to live.
+     */
+    public ConnectionPool() {
+        this(DEFAULT_MAX_PER_HOST, DEFAULT_IDLE_TIMEOUT_MILLIS, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param maxPerHost maximum number of connections (leased and idle) to a single host
+     * @param idleTimeout how long a connection is kept idle before being closed
+     * @param timeToLive how long a connection is used at most, 0 for no limit
+     * @param unit unit of the timeouts
+     */
+    public ConnectionPool(final int maxPerHost, final long idleTimeout, final long timeToLive, final TimeUnit unit) {
+        setMaxPerHost(maxPerHost);
+        setIdleTimeout(idleTimeout, unit);
+        setTimeToLive(timeToLive, unit);
+        setValidateAfterInactivity(DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void setMaxPerHost(final int maxPerHost) {
+        Preconditions.checkArgument(maxPerHost > 0, "Max connections per host must be positive");
+        this.maxPerHost = maxPerHost;
+    }
+
+    public int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    public void setIdleTimeout(final long idleTimeout, final TimeUnit unit) {
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+    }
+
+    public void setTimeToLive(final long timeToLive, final TimeUnit unit) {
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+    }
+
+    /**
+     * Sets how long a connection may stay idle before it is checked for health on its next lease.
+     *
+     * @param inactivity idle time after which the connection is checked, 0 to check every time
+     * @param unit unit of the inactivity
+     */
+    public void setValidateAfterInactivity(final long inactivity, final TimeUnit unit) {
+        this.validateAfterInactivityNanos = unit.toNanos(inactivity);
+    }
+
+    /**
+     * Sets whether connections are kept alive between requests. Without keep-alive every request opens a connection
+     * of its own and asks the provider to close it, the per-host limit still applies.
+     *
+     * @param keepAlive true to reuse connections
+     */
+    public void setKeepAlive(final boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Returns a snapshot of the pool state and counters.
+     *
+     * @return pool statistics
+     */
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            int leased = 0;
+            int idle = 0;
+            for (final RouteState state : routes.values()) {
+                leased += state.leased;
+                idle += state.idle.size();
+            }
+            return new PoolStats(leased, idle, pending, leases, reused, created, discarded);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the idle connections that are past their idle timeout or time to live. This also happens on every lease,
+     * call it periodically to release connections of a service that went quiet.
+     */
+    public void closeExpired() {
+        final List<PooledConnection> expired;
+        lock.lock();
+        try {
+            expired = removeExpired(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+        closeAll(expired);
+    }
+
+    /**
+     * Closes the idle connections and makes further leases fail. Leased connections are closed when released.
+     */
+    @Override
+    public void close() {
+        final List<PooledConnection> idle = new ArrayList<>();
+        lock.lock();
+        try {
+            closed = true;
+            for (final RouteState state : routes.values()) {
+                idle.addAll(state.idle);
+                discarded += state.idle.size();
+                state.idle.clear();
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        closeAll(idle);
+    }
+
+    /**
+     * Leases a connection to the route, reusing an idle one if possible and opening one otherwise. Waits while the
+     * route is at its connection limit.
+     *
+     * @param route scheme, host and port
+     * @param connector opens a connection when there is no idle one to reuse
+     * @param timeoutMillis how long to wait for a free slot, 0 to wait forever
+     */
+    PooledConnection lease(final String route, final Connector connector, final long timeoutMillis)
+            throws IOException {
+        final long deadline = timeoutMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
+        while (true) {
+            final RouteState state;
+            final PooledConnection candidate;
+            final List<PooledConnection> expired;
+            lock.lock();
+            try {
+                checkOpen();
+                expired = removeExpired(System.nanoTime());
+                state = getRouteState(route);
+                candidate = acquireSlot(route, state, deadline);
+            } finally {
+                lock.unlock();
+            }
+            closeAll(expired);
+
+            if (candidate == null) {
+                return connect(state, connector);
+            }
+            if (System.nanoTime() - candidate.getLastUsedAt() < validateAfterInactivityNanos
+                    || candidate.isHealthy()) {
+                candidate.markLeased();
+                lock.lock();
+                try {
+                    leases++;
+                    reused++;
+                } finally {
+                    lock.unlock();
+                }
+                return candidate;
+            }
+            lock.lock();
+            try {
+                state.leased--;
+                discarded++;
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            candidate.close();
+        }
+    }
+
+    /**
+     * Gives a leased connection back.
+     *
+     * @param connection connection obtained from {@link #lease(String, Connector, long)}
+     * @param reusable false if the exchange left the connection in an unknown state or the peer asked to close it
+     */
+    void release(final PooledConnection connection, final boolean reusable) {
+        final long now = System.nanoTime();
+        final boolean close;
+        lock.lock();
+        try {
+            final RouteState state = getRouteState(connection.getRoute());
+            state.leased--;
+            close = closed || !reusable || !keepAlive || isPastTimeToLive(connection, now);
+            if (close) {
+                discarded++;
+            } else {
+                connection.markIdle(now);
+                state.idle.addFirst(connection);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (close) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Takes an idle connection, or reserves a slot for a new one (returning null), waiting if the route is full.
+     * Must be called holding the lock.
+     */
+    private PooledConnection acquireSlot(final String route, final RouteState state, final long deadline)
+            throws IOException {
+        while (true) {
+            final PooledConnection idle = state.idle.pollFirst();
+            if (idle != null) {
+                state.leased++;
+                return idle;
+            }
+            if (state.leased < maxPerHost) {
+                state.leased++;
+                return null;
+            }
+            pending++;
+            try {
+                if (deadline == 0) {
+                    available.await();
+                } else {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new ConnectException("Timed out waiting for a pooled connection to " + route);
+                    }
+                    available.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a pooled connection to " + route);
+            } finally {
+                pending--;
+            }
+            checkOpen();
+        }
+    }
+
+    private PooledConnection connect(final RouteState state, final Connector connector) throws IOException {
+        final PooledConnection connection;
+        try {
+            connection = connector.connect();
+        } catch (IOException | RuntimeException e) {
+            lock.lock();
+            try {
+                state.leased--;
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        connection.markLeased();
+        lock.lock();
+        try {
+            leases++;
+            created++;
+        } finally {
+            lock.unlock();
+        }
+        return connection;
+    }
+
+    private List<PooledConnection> removeExpired(final long now) {
+        List<PooledConnection> expired = null;
+        for (final RouteState state : routes.values()) {
+            for (final Iterator<PooledConnection> it = state.idle.iterator(); it.hasNext();) {
+                final PooledConnection connection = it.next();
+                if (now - connection.getLastUsedAt() >= idleTimeoutNanos || isPastTimeToLive(connection, now)) {
+                    it.remove();
+                    discarded++;
+                    if (expired == null) {
+                        expired = new ArrayList<>();
+                    }
+                    expired.add(connection);
+                }
+            }
+        }
+        return expired;
+    }
+
+    private boolean isPastTimeToLive(final PooledConnection connection, final long now) {
+        return timeToLiveNanos > 0 && now - connection.getCreatedAt() >= timeToLiveNanos;
+    }
+
+    private RouteState getRouteState(final String route) {
+        RouteState state = routes.get(route);
+        if (state == null) {
+            state = new RouteState();
+            routes.put(route, state);
+        }
+        return state;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Connection pool is closed");
+        }
+    }
+
+    private static void closeAll(final List<PooledConnection> connections) {
+        if (connections != null) {
+            for (final PooledConnection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Opens a new connection for {@link #lease(String, Connector, long)}.
+     */
+    interface Connector {
+
+        PooledConnection connect() throws IOException;
+    }
+
+    private static class RouteState {
+
+        private final Deque<PooledConnection> idle = new ArrayDeque<>();
+        private int leased;
+    }
+}
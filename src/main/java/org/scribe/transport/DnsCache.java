@@ -0,0 +1,278 @@
+package org.scribe.transport;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Cache of the addresses of the provider hosts, used by a {@link PooledHttpTransport} to open its connections, so that
+ * a slow resolver is only waited for on the first call to a host.
+ *
+ * Every entry expires after its time to live: the default one, or the one set for its host. An entry used once most
+ * of its time to live has gone by is resolved again in the background, so that a host in use is never waited for
+ * again. When the resolver fails, the addresses of the expired entry are served, stale, for a while longer. A host
+ * with several addresses gets them in turn, each lookup starting with the next one.
+ *
+ * The JVM does not hand out the TTL of the DNS records, hence the configured times to live. Concurrent lookups of a
+ * host that is not cached wait for a single resolution.
+ */
+public class DnsCache {
+
+    public static final long DEFAULT_TTL_MILLIS = 60000;
+    public static final long DEFAULT_MAX_STALE_MILLIS = 600000;
+    public static final double DEFAULT_REFRESH_RATIO = 0.8;
+
+    /**
+     * Resolves host names, {@link InetAddress#getAllByName(String)} by default.
+     */
+    public interface Resolver {
+
+        /**
+         * @return addresses of the host, at least one
+         * @throws UnknownHostException if the host can't be resolved
+         */
+        InetAddress[] resolve(String host) throws UnknownHostException;
+    }
+
+    private static final Resolver SYSTEM = InetAddress::getAllByName;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> resolutions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> hostTtls = new ConcurrentHashMap<>();
+    private final Resolver resolver;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private volatile long ttlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TTL_MILLIS);
+    private volatile long maxStaleNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_STALE_MILLIS);
+    private volatile double refreshRatio = DEFAULT_REFRESH_RATIO;
+    private volatile Executor executor;
+
+    public DnsCache() {
+        this(SYSTEM);
+    }
+
+    /**
+     * @param resolver resolver the cache is in front of
+     */
+    public DnsCache(final Resolver resolver) {
+        Preconditions.checkNotNull(resolver, "Resolver can't be null");
+        this.resolver = resolver;
+    }
+
+    /**
+     * @param ttl how long the addresses of a host are used before it is resolved again
+     * @param unit unit of the time to live
+     */
+    public void setTtl(final long ttl, final TimeUnit unit) {
+        Preconditions.checkArgument(ttl > 0, "TTL must be positive");
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * @param host host whose addresses live longer or shorter than the others
+     * @param ttl time to live of the addresses of the host
+     * @param unit unit of the time to live
+     */
+    public void setTtl(final String host, final long ttl, final TimeUnit unit) {
+        Preconditions.checkEmptyString(host, "Host can't be null or empty");
+        Preconditions.checkArgument(ttl > 0, "TTL must be positive");
+        hostTtls.put(host.toLowerCase(), unit.toNanos(ttl));
+    }
+
+    /**
+     * @param maxStale how long after they expired addresses are still served while the resolver fails, 0 never to
+     * serve them
+     * @param unit unit of the duration
+     */
+    public void setMaxStale(final long maxStale, final TimeUnit unit) {
+        Preconditions.checkArgument(maxStale >= 0, "Max stale can't be negative");
+        this.maxStaleNanos = unit.toNanos(maxStale);
+    }
+
+    /**
+     * @param ratio share of its time to live after which an entry in use is resolved again in the background, 1 to
+     * resolve expired entries only
+     */
+    public void setRefreshRatio(final double ratio) {
+        Preconditions.checkArgument(ratio > 0 && ratio <= 1, "Refresh ratio must be in ]0, 1]");
+        this.refreshRatio = ratio;
+    }
+
+    /**
+     * @param executor executor of the background resolutions, a daemon thread of the cache by default
+     */
+    public void setExecutor(final Executor executor) {
+        Preconditions.checkNotNull(executor, "Executor can't be null");
+        this.executor = executor;
+    }
+
+    /**
+     * @return hosts in the cache
+     */
+    public Set<String> getHosts() {
+        return entries.keySet();
+    }
+
+    public DnsCacheStats getStats() {
+        return new DnsCacheStats(entries.size(), hits.sum(), misses.sum(), staleHits.sum(), refreshes.sum(),
+                failures.sum());
+    }
+
+    /**
+     * Forgets the addresses of the host, which is resolved again on its next lookup.
+     */
+    public void evict(final String host) {
+        entries.remove(host.toLowerCase());
+    }
+
+    /**
+     * @param host host name or address literal
+     * @return addresses of the host, starting with the one whose turn it is
+     * @throws UnknownHostException if the host is not cached, or expired for too long, and can't be resolved
+     */
+    public InetAddress[] lookup(final String host) throws UnknownHostException {
+        final String key = host.toLowerCase();
+        final long now = System.nanoTime();
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return resolve(key).rotate();
+        }
+        if (now - entry.expiresAt < 0) {
+            hits.increment();
+            if (now - entry.refreshAt >= 0) {
+                refreshInBackground(key, entry);
+            }
+            return entry.rotate();
+        }
+        misses.increment();
+        try {
+            return resolve(key).rotate();
+        } catch (UnknownHostException e) {
+            if (now - entry.expiresAt - maxStaleNanos >= 0) {
+                throw e;
+            }
+            staleHits.increment();
+            return entry.rotate();
+        }
+    }
+
+    private Entry resolve(final String host) throws UnknownHostException {
+        final CompletableFuture<Entry> resolution = new CompletableFuture<>();
+        final CompletableFuture<Entry> pending = resolutions.putIfAbsent(host, resolution);
+        if (pending != null) {
+            return await(pending);
+        }
+        try {
+            final InetAddress[] addresses = resolver.resolve(host);
+            if (addresses == null || addresses.length == 0) {
+                throw new UnknownHostException("No address for " + host);
+            }
+            final Entry entry = new Entry(addresses, getTtl(host));
+            entries.put(host, entry);
+            resolution.complete(entry);
+            return entry;
+        } catch (UnknownHostException | RuntimeException e) {
+            failures.increment();
+            resolution.completeExceptionally(e);
+            throw e;
+        } finally {
+            resolutions.remove(host, resolution);
+        }
+    }
+
+    private static Entry await(final CompletableFuture<Entry> pending) throws UnknownHostException {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UnknownHostException) {
+                throw (UnknownHostException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void refreshInBackground(final String host, final Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshes.increment();
+        getExecutor().execute(() -> {
+            try {
+                resolve(host);
+            } catch (UnknownHostException | RuntimeException e) {
+                // the entry is served until it expires, and stale after that
+            }
+        });
+    }
+
+    private long getTtl(final String host) {
+        final Long ttl = hostTtls.get(host);
+        return ttl == null ? ttlNanos : ttl;
+    }
+
+    private Executor getExecutor() {
+        Executor result = executor;
+        if (result == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    executor = createExecutor();
+                }
+                result = executor;
+            }
+        }
+        return result;
+    }
+
+    private static ExecutorService createExecutor() {
+        final ThreadPoolExecutor result = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "subscribe-dns-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
+    private final class Entry {
+
+        private final InetAddress[] addresses;
+        private final long expiresAt;
+        private final long refreshAt;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(final InetAddress[] addresses, final long ttl) {
+            final long now = System.nanoTime();
+            this.addresses = addresses.clone();
+            this.expiresAt = now + ttl;
+            this.refreshAt = now + (long) (ttl * refreshRatio);
+        }
+
+        InetAddress[] rotate() {
+            final int first = Math.floorMod(next.getAndIncrement(), addresses.length);
+            final InetAddress[] result = new InetAddress[addresses.length];
+            for (int i = 0; i < addresses.length; i++) {
+                result[i] = addresses[(first + i) % addresses.length];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.scribe.transport;
+
+/**
+ * Snapshot of the counters of a {@link DnsCache}.
+ */
+public class DnsCacheStats {
+
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long staleHits;
+    private final long refreshes;
+    private final long failures;
+
+    DnsCacheStats(final int size, final long hits, final long misses, final long staleHits, final long refreshes,
+            final long failures) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.staleHits = staleHits;
+        this.refreshes = refreshes;
+        this.failures = failures;
+    }
+
+    /**
+     * @return hosts in the cache
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return lookups served from a live entry
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return lookups of a host not cached or expired, which waited for the resolver
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return misses served with expired addresses because the resolver failed
+     */
+    public long getStaleHits() {
+        return staleHits;
+    }
+
+    /**
+     * @return background resolutions of entries about to expire
+     */
+    public long getRefreshes() {
+        return refreshes;
+    }
+
+    /**
+     * @return resolutions that failed
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return share of the lookups served from a live entry, 0 if there was none
+     */
+    public double getHitRatio() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DnsCacheStats[size=%d, hits=%d, misses=%d, staleHits=%d, refreshes=%d, failures=%d]",
+                size, hits, misses, staleHits, refreshes, failures);
+    }
+}
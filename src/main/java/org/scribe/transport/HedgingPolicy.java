@@ -0,0 +1,163 @@
+package org.scribe.transport;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.scribe.model.Request;
+import org.scribe.utils.Preconditions;
+
+/**
+ * When a {@link HedgingTransport} sends a second copy of a request that is taking long, and what came of it.
+ *
+ * Only idempotent verbs ({@link org.scribe.model.Verb#isIdempotent()}) are hedged, plus the endpoints explicitly
+ * allowed with {@link #allowEndpoint(String)}, such as a token endpoint, as long as their body can be sent twice. A
+ * request is hedged once it has gone without a response for the configured percentile (95 by default) of the latency of
+ * its endpoint, which needs enough samples of the endpoint to be known. The first response wins; the other call is
+ * left to complete and its response discarded, as {@link HedgingTransport} explains.
+ *
+ * Hedges draw from a budget shared by every request the policy applies to: each request earns a fraction of a hedge
+ * (10% by default), up to a small reserve, and each hedge spends a whole one. A slow provider thus sees at most that
+ * much extra load, even when all its calls are slow.
+ */
+public class HedgingPolicy {
+
+    public static final double DEFAULT_PERCENTILE = 95;
+    public static final double DEFAULT_BUDGET_RATIO = 0.1;
+    public static final int DEFAULT_BUDGET_RESERVE = 10;
+    public static final long DEFAULT_MIN_DELAY_MILLIS = 5;
+    public static final int DEFAULT_MIN_SAMPLES = 20;
+    public static final int DEFAULT_WINDOW = 1000;
+
+    // budget credits are counted in thousandths of a hedge
+    private static final long CREDIT_UNIT = 1000;
+
+    private final ConcurrentHashMap<String, LatencyWindow> endpoints = new ConcurrentHashMap<>();
+    private final Set<String> allowed = ConcurrentHashMap.newKeySet();
+    private final AtomicLong credits = new AtomicLong(DEFAULT_BUDGET_RESERVE * CREDIT_UNIT);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+
+    private volatile double percentile = DEFAULT_PERCENTILE;
+    private volatile long earnedCredits = (long) (DEFAULT_BUDGET_RATIO * CREDIT_UNIT);
+    private volatile long maxCredits = DEFAULT_BUDGET_RESERVE * CREDIT_UNIT;
+    private volatile long minDelayNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MIN_DELAY_MILLIS);
+    private volatile int minSamples = DEFAULT_MIN_SAMPLES;
+    private volatile int window = DEFAULT_WINDOW;
+
+    /**
+     * @param percentile latency percentile of the endpoint after which a request is hedged
+     */
+    public void setPercentile(final double percentile) {
+        Preconditions.checkArgument(percentile > 0 && percentile < 100, "Percentile must be in ]0, 100[");
+        this.percentile = percentile;
+    }
+
+    /**
+     * @param ratio hedges allowed per request, for instance 0.1 for one hedge every ten requests
+     * @param reserve hedges that can be saved up while requests are fast, and spent in a row
+     */
+    public void setBudget(final double ratio, final int reserve) {
+        Preconditions.checkArgument(ratio > 0 && ratio <= 1, "Budget ratio must be in ]0, 1]");
+        Preconditions.checkArgument(reserve > 0, "Budget reserve must be positive");
+        this.earnedCredits = (long) (ratio * CREDIT_UNIT);
+        this.maxCredits = reserve * CREDIT_UNIT;
+    }
+
+    /**
+     * @param delay shortest wait before a hedge, however fast the endpoint usually is
+     * @param unit unit of the delay
+     */
+    public void setMinDelay(final long delay, final TimeUnit unit) {
+        Preconditions.checkArgument(delay >= 0, "Min delay can't be negative");
+        this.minDelayNanos = unit.toNanos(delay);
+    }
+
+    /**
+     * @param minSamples samples an endpoint needs before its requests are hedged
+     * @param window calls after which the oldest samples start being forgotten
+     */
+    public void setSamples(final int minSamples, final int window) {
+        Preconditions.checkArgument(minSamples > 0 && window >= minSamples, "Invalid sample counts");
+        this.minSamples = minSamples;
+        this.window = window;
+    }
+
+    /**
+     * Allows requests to the endpoint to be hedged whatever their verb, for instance the access token endpoint.
+     *
+     * @param url endpoint URL, without query string
+     */
+    public void allowEndpoint(final String url) {
+        Preconditions.checkEmptyString(url, "Endpoint can't be null or empty");
+        allowed.add(RetryPolicy.stripQuery(url));
+    }
+
+    /**
+     * @param endpoint endpoint as in {@link AdaptiveTimeouts#getEndpoint(Request)}
+     * @param unit unit of the delay
+     * @return how long a request to the endpoint goes without a response before it is hedged, -1 if the endpoint does
+     * not have enough samples yet
+     */
+    public long getDelay(final String endpoint, final TimeUnit unit) {
+        final long delay = getDelayNanos(endpoint);
+        return delay < 0 ? -1 : unit.convert(delay, TimeUnit.NANOSECONDS);
+    }
+
+    public HedgingStats getStats() {
+        return new HedgingStats(requests.sum(), hedged.sum(), hedgeWins.sum(), overBudget.sum());
+    }
+
+    /**
+     * @return whether a second copy of the request may be sent while the first one is in flight
+     */
+    boolean isHedgeable(final Request request) {
+        return RetryPolicy.canSendAgain(request, allowed);
+    }
+
+    long getDelayNanos(final String endpoint) {
+        final LatencyWindow samples = endpoints.get(endpoint);
+        if (samples == null || samples.getCount() < minSamples) {
+            return -1;
+        }
+        return Math.max(minDelayNanos, samples.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * Counts a hedgeable request and earns its share of the budget.
+     */
+    void recordRequest() {
+        requests.increment();
+        final long earned = earnedCredits;
+        final long max = maxCredits;
+        credits.getAndUpdate(current -> Math.min(max, current + earned));
+    }
+
+    /**
+     * @return whether the budget allows one more hedge, which is then spent
+     */
+    boolean tryHedge() {
+        while (true) {
+            final long current = credits.get();
+            if (current < CREDIT_UNIT) {
+                overBudget.increment();
+                return false;
+            }
+            if (credits.compareAndSet(current, current - CREDIT_UNIT)) {
+                hedged.increment();
+                return true;
+            }
+        }
+    }
+
+    void recordHedgeWin() {
+        hedgeWins.increment();
+    }
+
+    void recordLatency(final String endpoint, final long nanos) {
+        endpoints.computeIfAbsent(endpoint, key -> new LatencyWindow()).record(nanos, window);
+    }
+}
@@ -0,0 +1,60 @@
+package org.scribe.transport;
+
+/**
+ * Snapshot of the counters of a {@link HedgingPolicy}.
+ */
+public class HedgingStats {
+
+    private final long requests;
+    private final long hedged;
+    private final long hedgeWins;
+    private final long overBudget;
+
+    HedgingStats(final long requests, final long hedged, final long hedgeWins, final long overBudget) {
+        this.requests = requests;
+        this.hedged = hedged;
+        this.hedgeWins = hedgeWins;
+        this.overBudget = overBudget;
+    }
+
+    /**
+     * @return hedgeable requests sent through the policy
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return requests a second call was sent for
+     */
+    public long getHedged() {
+        return hedged;
+    }
+
+    /**
+     * @return hedged requests whose second call answered first
+     */
+    public long getHedgeWins() {
+        return hedgeWins;
+    }
+
+    /**
+     * @return slow requests that were not hedged because the budget was spent
+     */
+    public long getOverBudget() {
+        return overBudget;
+    }
+
+    /**
+     * @return share of the hedged requests won by the second call, from 0 to 1
+     */
+    public double getWinRate() {
+        return hedged == 0 ? 0 : (double) hedgeWins / hedged;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HedgingStats[requests=%d, hedged=%d, hedgeWins=%d, overBudget=%d, winRate=%.2f]",
+                requests, hedged, hedgeWins, overBudget, getWinRate());
+    }
+}
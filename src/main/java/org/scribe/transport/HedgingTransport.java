@@ -0,0 +1,187 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.utils.Preconditions;
+
+/**
+ * {@link HttpTransport} decorator sending a second copy of a request when the first one is slower than usual, as its
+ * {@link HedgingPolicy} allows, and keeping the first response to arrive.
+ *
+ * A synchronous call runs both calls through {@link HttpTransport#execute(Request)} of the delegate on the executor of
+ * the request and waits for the winner, so that its body is still streamed; an asynchronous one goes through
+ * {@link HttpTransport#executeAsync(Request, Executor)}. Each call sends a {@link Request#copy()} of the request, the
+ * hedge signed again ({@link Request#resign()}) so that it does not replay the nonce of the first one, and neither the
+ * request nor the other call's copy is changed while a call reads it.
+ *
+ * The losing call is not cancelled: cancelling the future of a decorated or blocking transport does not stop the
+ * exchange under it, and the response it still gets would be lost without giving its connection back. The losing call
+ * is left to complete instead, and its response is closed as soon as its headers arrive, without its body being read.
+ * The latency of the first call is recorded whenever it succeeds, even after losing, so that the delay before hedging
+ * follows the endpoint rather than the hedges that beat it.
+ */
+public class HedgingTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final HedgingPolicy policy;
+
+    public HedgingTransport(final HttpTransport delegate, final HedgingPolicy policy) {
+        Preconditions.checkNotNull(delegate, "Transport can't be null");
+        Preconditions.checkNotNull(policy, "Hedging policy can't be null");
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    public HedgingPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public Response execute(final Request request) throws IOException {
+        if (!policy.isHedgeable(request)) {
+            return delegate.execute(request);
+        }
+        try {
+            return hedge(request, request.getExecutor(), true).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting for " + request)
+                    .initCause(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while ((cause instanceof CompletionException || cause instanceof UncheckedIOException)
+                    && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(final Request request, final Executor executor) {
+        if (!policy.isHedgeable(request)) {
+            return delegate.executeAsync(request, executor);
+        }
+        return hedge(request, executor, false);
+    }
+
+    private CompletableFuture<Response> hedge(final Request request, final Executor executor, final boolean blocking) {
+        policy.recordRequest();
+        final String endpoint = AdaptiveTimeouts.getEndpoint(request);
+        final Exchange exchange = new Exchange(request.copy(), executor, endpoint, blocking);
+        exchange.send(exchange.request, false);
+        final long delay = policy.getDelayNanos(endpoint);
+        if (delay >= 0) {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, executor).execute(exchange::hedge);
+        }
+        return exchange.result;
+    }
+
+    @Override
+    public int warmUp(final String url, final int connections) throws IOException {
+        return delegate.warmUp(url, connections);
+    }
+
+    /**
+     * The calls made for one request: the first one, and the hedge if it was sent.
+     */
+    private final class Exchange {
+
+        private final CompletableFuture<Response> result = new CompletableFuture<>();
+        // the copy the first call sends, which nothing changes while it is in flight
+        private final Request request;
+        private final Executor executor;
+        private final String endpoint;
+        // whether the calls go through the blocking path of the delegate, which streams the bodies
+        private final boolean blocking;
+        private final long start = System.nanoTime();
+        private int outstanding = 1;
+        private boolean answered;
+
+        Exchange(final Request request, final Executor executor, final String endpoint, final boolean blocking) {
+            this.request = request;
+            this.executor = executor;
+            this.endpoint = endpoint;
+            this.blocking = blocking;
+        }
+
+        void hedge() {
+            synchronized (this) {
+                // nothing left to hedge once the first call completed, even with a failure not reported yet
+                if (answered || result.isDone() || outstanding == 0 || !policy.tryHedge()) {
+                    return;
+                }
+                outstanding++;
+            }
+            final Request copy;
+            try {
+                copy = request.copy();
+                copy.resign();
+            } catch (RuntimeException e) {
+                complete(true, null, e);
+                return;
+            }
+            send(copy, true);
+        }
+
+        void send(final Request sent, final boolean isHedge) {
+            final CompletableFuture<Response> call;
+            try {
+                call = blocking ? CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return delegate.execute(sent);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor) : delegate.executeAsync(sent, executor);
+            } catch (RuntimeException e) {
+                complete(isHedge, null, e);
+                return;
+            }
+            call.whenComplete((response, failure) -> complete(isHedge, response, failure));
+        }
+
+        private void complete(final boolean isHedge, final Response response, final Throwable failure) {
+            if (!isHedge && failure == null) {
+                // timed from the start of the exchange, and before the caller gets the response, so that its next
+                // request knows about it
+                policy.recordLatency(endpoint, System.nanoTime() - start);
+            }
+            final boolean last;
+            final boolean won;
+            synchronized (this) {
+                last = --outstanding == 0;
+                won = failure == null && !answered;
+                answered |= won;
+            }
+            if (won) {
+                if (isHedge) {
+                    policy.recordHedgeWin();
+                }
+                // the caller may have cancelled the result
+                if (!result.complete(response)) {
+                    RetryingTransport.discard(response);
+                }
+            } else if (failure == null) {
+                RetryingTransport.discard(response);
+            } else if (last) {
+                // a failed call leaves the other one a chance, and the failure is only reported with no call left
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+}
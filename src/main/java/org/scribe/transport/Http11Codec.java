@@ -0,0 +1,581 @@
+package org.scribe.transport;
+
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import org.scribe.model.Payload;
+import org.scribe.model.Request;
+
+/**
+ * Minimal HTTP/1.1 client side codec: writes a request, reads the status line and headers, and frames the response
+ * body (fixed length, chunked or until close) so that a connection can be handed back as soon as its body is consumed.
+ */
+final class Http11Codec {
+
+    static final String CONTENT_TYPE = "Content-Type";
+    static final String CONTENT_LENGTH = "Content-Length";
+    static final String TRANSFER_ENCODING = "Transfer-Encoding";
+    static final String CONNECTION = "Connection";
+    static final String HOST = "Host";
+    static final String EXPECT = "Expect";
+
+    private static final String CRLF = "\r\n";
+    private static final String CLOSE = "close";
+    private static final String KEEP_ALIVE = "keep-alive";
+    private static final String CHUNKED = "chunked";
+    private static final String CONTINUE = "100-continue";
+    private static final byte[] CRLF_BYTES = CRLF.getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] LAST_CHUNK = ("0" + CRLF + CRLF).getBytes(StandardCharsets.ISO_8859_1);
+    private static final String USER_AGENT = "User-Agent";
+    private static final String DEFAULT_USER_AGENT = "SubScribe";
+    private static final int MAX_LINE_LENGTH = 65536;
+
+    private Http11Codec() {
+    }
+
+    /**
+     * Writes the request line and the headers. Nothing is flushed.
+     *
+     * @param target request target, in origin-form for the provider host or in absolute-form for a proxy
+     * @param body body to announce or null for none, sent with a Content-Length header when its length is known and
+     * chunked otherwise
+     * @param expectContinue whether to ask the server to accept the head before the body is sent
+     */
+    static void writeHead(final OutputStream out, final Request request, final URI uri, final String target,
+            final String method, final Payload body, final boolean keepAlive, final boolean expectContinue)
+            throws IOException {
+        final StringBuilder head = new StringBuilder(256);
+        head.append(method).append(' ').append(target).append(" HTTP/1.1").append(CRLF);
+        boolean hasHost = false;
+        boolean hasContentType = false;
+        boolean hasUserAgent = false;
+        for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            final String name = header.getKey();
+            if (CONTENT_LENGTH.equalsIgnoreCase(name) || CONNECTION.equalsIgnoreCase(name)
+                    || TRANSFER_ENCODING.equalsIgnoreCase(name) || EXPECT.equalsIgnoreCase(name)) {
+                continue;
+            }
+            hasHost |= HOST.equalsIgnoreCase(name);
+            hasContentType |= CONTENT_TYPE.equalsIgnoreCase(name);
+            hasUserAgent |= USER_AGENT.equalsIgnoreCase(name);
+            appendHeader(head, name, header.getValue());
+        }
+        if (!hasHost) {
+            appendHeader(head, HOST, getHostHeader(uri));
+        }
+        if (!hasUserAgent) {
+            appendHeader(head, USER_AGENT, DEFAULT_USER_AGENT);
+        }
+        if (!keepAlive) {
+            appendHeader(head, CONNECTION, CLOSE);
+        }
+        if (body != null) {
+            if (!hasContentType) {
+                appendHeader(head, CONTENT_TYPE, Request.DEFAULT_CONTENT_TYPE);
+            }
+            if (body.getContentLength() >= 0) {
+                appendHeader(head, CONTENT_LENGTH, String.valueOf(body.getContentLength()));
+            } else {
+                appendHeader(head, TRANSFER_ENCODING, CHUNKED);
+            }
+            if (expectContinue) {
+                appendHeader(head, EXPECT, CONTINUE);
+            }
+        }
+        head.append(CRLF);
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Writes the body as announced by {@link #writeHead}. Nothing is flushed.
+     *
+     * @throws ProtocolException if a payload of known length does not hold as many bytes as announced
+     */
+    static void writeBody(final OutputStream out, final Payload body) throws IOException {
+        final long length = body.getContentLength();
+        if (length < 0) {
+            final ChunkedOutputStream chunked = new ChunkedOutputStream(out);
+            body.writeTo(chunked);
+            chunked.finish();
+            return;
+        }
+        final CountingOutputStream counting = new CountingOutputStream(out);
+        body.writeTo(counting);
+        if (counting.count != length) {
+            throw new ProtocolException("Payload announced " + length + " bytes but held " + counting.count);
+        }
+    }
+
+    /**
+     * Reads the status line and the headers of the final response, skipping interim 1xx responses.
+     *
+     * @throws NoResponseException if the connection is closed before the status line
+     */
+    static ResponseHead readHead(final InputStream in) throws IOException {
+        return readHead(in, false);
+    }
+
+    /**
+     * Reads the status line and the headers of the next response.
+     *
+     * @param stopAtContinue whether an interim 100 (Continue) response is returned rather than skipped
+     *
+     * @throws NoResponseException if the connection is closed before the status line
+     */
+    static ResponseHead readHead(final InputStream in, final boolean stopAtContinue) throws IOException {
+        while (true) {
+            final String statusLine = readLine(in);
+            if (statusLine == null) {
+                throw new NoResponseException();
+            }
+            final ResponseHead head = parseStatusLine(statusLine);
+            String line;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                final int colon = line.indexOf(':');
+                if (colon > 0) {
+                    head.addHeader(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+                }
+            }
+            if (line == null) {
+                throw new EOFException("Connection closed while reading response headers");
+            }
+            if (head.getCode() >= 200 || head.getCode() == 101 || (stopAtContinue && head.getCode() == 100)) {
+                return head;
+            }
+        }
+    }
+
+    /**
+     * Opens the body of the response.
+     *
+     * @param releaser called once, when the body has been read to the end or closed
+     * @param keepAlive whether the request asked for the connection to be kept alive
+     */
+    static InputStream openBody(final InputStream in, final String method, final ResponseHead head,
+            final boolean keepAlive, final Releaser releaser) throws IOException {
+        final boolean reusable = keepAlive && head.isKeepAlive();
+        final int code = head.getCode();
+        if ("HEAD".equals(method) || code == 204 || code == 304 || code < 200) {
+            return new FixedLengthBody(in, 0, reusable, releaser);
+        }
+        final String transferEncoding = head.getHeader(TRANSFER_ENCODING);
+        final String contentLength = head.getHeader(CONTENT_LENGTH);
+        if (transferEncoding != null && contentLength != null) {
+            // which one frames the body is up to each hop, the kind of ambiguity response smuggling builds on
+            throw new ProtocolException("Response with both Transfer-Encoding and Content-Length");
+        }
+        if (CHUNKED.equalsIgnoreCase(transferEncoding)) {
+            return new ChunkedBody(in, reusable, releaser);
+        }
+        if (contentLength != null) {
+            final long length;
+            try {
+                length = Long.parseLong(contentLength);
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Invalid Content-Length: " + contentLength);
+            }
+            if (length < 0) {
+                throw new ProtocolException("Invalid Content-Length: " + contentLength);
+            }
+            return new FixedLengthBody(in, length, reusable, releaser);
+        }
+        return new UntilCloseBody(in, releaser);
+    }
+
+    static String getRequestTarget(final URI uri) {
+        final String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        return uri.getRawQuery() == null ? path : path + '?' + uri.getRawQuery();
+    }
+
+    static String getAbsoluteTarget(final URI uri) {
+        return uri.getScheme().toLowerCase() + "://" + getHostHeader(uri) + getRequestTarget(uri);
+    }
+
+    static String getHostHeader(final URI uri) {
+        return uri.getPort() == -1 || uri.getPort() == getDefaultPort(uri) ? uri.getHost()
+                : uri.getHost() + ':' + uri.getPort();
+    }
+
+    static int getPort(final URI uri) {
+        return uri.getPort() == -1 ? getDefaultPort(uri) : uri.getPort();
+    }
+
+    static boolean isHttps(final URI uri) {
+        return "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    private static int getDefaultPort(final URI uri) {
+        return isHttps(uri) ? 443 : 80;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the name or the value could end the header line, and smuggle headers or a
+     * request of their own onto the connection, or can't be written in ISO-8859-1
+     */
+    private static void appendHeader(final StringBuilder head, final String name, final String value) {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Empty header name");
+        }
+        checkHeaderChars(name, name);
+        checkHeaderChars(name, value);
+        head.append(name).append(": ").append(value).append(CRLF);
+    }
+
+    private static void checkHeaderChars(final String name, final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '\r' || c == '\n' || c == '\0' || c > 0xff) {
+                throw new IllegalArgumentException(String.format("Invalid character 0x%02x in header %s", (int) c,
+                        name.replaceAll("[^\\x20-\\x7e]", "?")));
+            }
+        }
+    }
+
+    private static ResponseHead parseStatusLine(final String statusLine) throws ProtocolException {
+        // HTTP/1.1 200 OK
+        final int firstSpace = statusLine.indexOf(' ');
+        if (!statusLine.startsWith("HTTP/") || firstSpace == -1) {
+            throw new ProtocolException("Unexpected status line: " + statusLine);
+        }
+        final int secondSpace = statusLine.indexOf(' ', firstSpace + 1);
+        final String code = secondSpace == -1 ? statusLine.substring(firstSpace + 1)
+                : statusLine.substring(firstSpace + 1, secondSpace);
+        try {
+            return new ResponseHead(statusLine.substring(0, firstSpace), Integer.parseInt(code),
+                    secondSpace == -1 ? "" : statusLine.substring(secondSpace + 1));
+        } catch (NumberFormatException e) {
+            throw new ProtocolException("Unexpected status line: " + statusLine);
+        }
+    }
+
+    /**
+     * Reads a CRLF (or bare LF) terminated line.
+     *
+     * @return the line without its terminator, null if the stream ended before any byte
+     */
+    static String readLine(final InputStream in) throws IOException {
+        final StringBuilder line = new StringBuilder(64);
+        int read;
+        while ((read = in.read()) != -1) {
+            if (read == '\n') {
+                final int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() == MAX_LINE_LENGTH) {
+                throw new ProtocolException("Response line longer than " + MAX_LINE_LENGTH + " bytes");
+            }
+            line.append((char) read);
+        }
+        if (line.length() == 0) {
+            return null;
+        }
+        throw new EOFException("Connection closed in the middle of a line");
+    }
+
+    /**
+     * Hands the connection back once its response body is done with.
+     */
+    interface Releaser {
+
+        void release(boolean reusable);
+    }
+
+    /**
+     * The connection was closed by the peer before any byte of the response. On a reused connection this usually means
+     * the provider closed it while it was idle, before the request reached it.
+     */
+    static class NoResponseException extends EOFException {
+
+        private static final long serialVersionUID = 1L;
+
+        NoResponseException() {
+            super("Connection closed before the response status line");
+        }
+    }
+
+    static class ResponseHead {
+
+        private final String version;
+        private final int code;
+        private final String message;
+        private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        ResponseHead(final String version, final int code, final String message) {
+            this.version = version;
+            this.code = code;
+            this.message = message;
+        }
+
+        int getCode() {
+            return code;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        String getHeader(final String name) {
+            return headers.get(name);
+        }
+
+        void addHeader(final String name, final String value) {
+            if (!headers.containsKey(name)) {
+                headers.put(name, value);
+            }
+        }
+
+        boolean isKeepAlive() {
+            final String connection = headers.get(CONNECTION);
+            if ("HTTP/1.0".equals(version)) {
+                return KEEP_ALIVE.equalsIgnoreCase(connection);
+            }
+            return connection == null || !connection.toLowerCase().contains(CLOSE);
+        }
+    }
+
+    /**
+     * Base of the body streams, calls the releaser exactly once.
+     */
+    private abstract static class BodyStream extends InputStream {
+
+        protected final InputStream in;
+        private final Releaser releaser;
+        private boolean released;
+
+        BodyStream(final InputStream in, final Releaser releaser) {
+            this.in = in;
+            this.releaser = releaser;
+        }
+
+        protected void release(final boolean reusable) {
+            if (!released) {
+                released = true;
+                releaser.release(reusable);
+            }
+        }
+
+        protected boolean isReleased() {
+            return released;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            final int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            if (isReleased()) {
+                return -1;
+            }
+            try {
+                return doRead(buffer, offset, length);
+            } catch (IOException | RuntimeException e) {
+                release(false);
+                throw e;
+            }
+        }
+
+        protected abstract int doRead(byte[] buffer, int offset, int length) throws IOException;
+
+        /**
+         * Closing before the end of the body leaves unread bytes on the connection, so it cannot be reused.
+         */
+        @Override
+        public void close() {
+            release(false);
+        }
+    }
+
+    private static class FixedLengthBody extends BodyStream {
+
+        private final boolean reusable;
+        private long remaining;
+
+        FixedLengthBody(final InputStream in, final long length, final boolean reusable, final Releaser releaser) {
+            super(in, releaser);
+            this.remaining = length;
+            this.reusable = reusable;
+            if (length == 0) {
+                release(reusable);
+            }
+        }
+
+        @Override
+        protected int doRead(final byte[] buffer, final int offset, final int length) throws IOException {
+            final int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read == -1) {
+                throw new EOFException("Connection closed with " + remaining + " bytes of body left");
+            }
+            remaining -= read;
+            if (remaining == 0) {
+                release(reusable);
+            }
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return isReleased() ? 0 : (int) Math.min(in.available(), remaining);
+        }
+    }
+
+    private static class ChunkedBody extends BodyStream {
+
+        private final boolean reusable;
+        private long chunkRemaining;
+
+        ChunkedBody(final InputStream in, final boolean reusable, final Releaser releaser) {
+            super(in, releaser);
+            this.reusable = reusable;
+        }
+
+        @Override
+        protected int doRead(final byte[] buffer, final int offset, final int length) throws IOException {
+            if (chunkRemaining == 0 && !nextChunk()) {
+                return -1;
+            }
+            final int read = in.read(buffer, offset, (int) Math.min(length, chunkRemaining));
+            if (read == -1) {
+                throw new EOFException("Connection closed in the middle of a chunk");
+            }
+            chunkRemaining -= read;
+            if (chunkRemaining == 0) {
+                final String end = readLine(in);
+                if (end == null) {
+                    throw new EOFException("Connection closed after a chunk");
+                }
+                if (!end.isEmpty()) {
+                    throw new ProtocolException("Chunk data longer than its size");
+                }
+            }
+            return read;
+        }
+
+        private boolean nextChunk() throws IOException {
+            final String line = readLine(in);
+            if (line == null) {
+                throw new EOFException("Connection closed before the next chunk");
+            }
+            final int extension = line.indexOf(';');
+            final String size = (extension == -1 ? line : line.substring(0, extension)).trim();
+            // hex digits only, which parseLong alone would let a sign through
+            boolean valid = !size.isEmpty();
+            for (int i = 0; i < size.length() && valid; i++) {
+                valid = Character.digit(size.charAt(i), 16) != -1;
+            }
+            try {
+                chunkRemaining = valid ? Long.parseLong(size, 16) : -1;
+            } catch (NumberFormatException e) {
+                chunkRemaining = -1;
+            }
+            if (chunkRemaining < 0) {
+                throw new ProtocolException("Invalid chunk size: " + line);
+            }
+            if (chunkRemaining == 0) {
+                // trailers, up to the empty line
+                String trailer;
+                do {
+                    trailer = readLine(in);
+                } while (trailer != null && !trailer.isEmpty());
+                release(reusable && trailer != null);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private static class UntilCloseBody extends BodyStream {
+
+        UntilCloseBody(final InputStream in, final Releaser releaser) {
+            super(in, releaser);
+        }
+
+        @Override
+        protected int doRead(final byte[] buffer, final int offset, final int length) throws IOException {
+            final int read = in.read(buffer, offset, length);
+            if (read == -1) {
+                release(false);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Frames what is written to it as chunks, one per write.
+     */
+    private static class ChunkedOutputStream extends FilterOutputStream {
+
+        ChunkedOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+            if (length == 0) {
+                // an empty chunk would end the body
+                return;
+            }
+            out.write((Integer.toHexString(length) + CRLF).getBytes(StandardCharsets.ISO_8859_1));
+            out.write(buffer, offset, length);
+            out.write(CRLF_BYTES);
+        }
+
+        void finish() throws IOException {
+            out.write(LAST_CHUNK);
+        }
+
+        /**
+         * Does not close the connection, the body ends with {@link #finish()}.
+         */
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
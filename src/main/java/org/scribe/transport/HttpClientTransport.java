@@ -0,0 +1,345 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.net.ssl.SSLParameters;
+import org.scribe.model.Payload;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.utils.Preconditions;
+
+/**
+ * {@link HttpTransport} backed by {@link java.net.http.HttpClient}.
+ *
+ * The client keeps a connection pool of its own and negotiates HTTP/2 over TLS, so concurrent requests to the same
+ * provider are multiplexed over a single connection instead of opening a new one each time. Plain http requests stay on
+ * HTTP/1.1 to avoid the h2c upgrade dance, which some providers do not handle well.
+ *
+ * Redirects are followed by this class rather than by the client, so that {@link Request#setFollowRedirects(boolean)}
+ * keeps working with a single (and therefore single-pooled) client.
+ *
+ * The client keeps its connections for all requests and does not let them send a Connection header of their own, so
+ * the requests asking for a non persistent connection ({@link Request#setConnectionKeepAlive(boolean)} set to false)
+ * are sent over HTTP/1.1 by a {@link PooledHttpTransport} instead, which asks the provider to close the connection
+ * after them. It negotiates TLS with the SSL context, protocols and cipher suites of the client, and connects within the
+ * connect timeout of the client when the request has none. A client with a proxy, an authenticator or a cookie handler
+ * keeps these requests, as the pooled transport knows none of them; the setting then has no effect.
+ */
+public class HttpClientTransport implements HttpTransport {
+
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String HTTPS = "https";
+    // timeout of the exchanges sent to open connections ahead of time
+    private static final Duration WARM_UP_TIMEOUT = Duration.ofSeconds(10);
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList("connection",
+            "content-length", "expect", "host", "upgrade"));
+
+    private final HttpClient client;
+    // created on the first request that must not keep its connection
+    private volatile PooledHttpTransport closingTransport;
+
+    /**
+     * Creates a transport with its own client, and therefore its own connection pool.
+     */
+    public HttpClientTransport() {
+        this(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2));
+    }
+
+    /**
+     * Creates a transport from a preconfigured client builder (proxy, SSL context, executor, connect timeout...).
+     * The redirect policy of the builder is overridden, redirects are followed by the transport itself.
+     *
+     * @param builder client builder
+     */
+    public HttpClientTransport(final HttpClient.Builder builder) {
+        Preconditions.checkNotNull(builder, "Client builder can't be null");
+        this.client = builder.followRedirects(HttpClient.Redirect.NEVER).build();
+    }
+
+    /**
+     * Returns the transport shared by every service that was not given a transport of its own.
+     *
+     * @return shared transport
+     */
+    public static HttpClientTransport getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public HttpClient getClient() {
+        return client;
+    }
+
+    @Override
+    public Response execute(final Request request) throws IOException {
+        if (isClosing(request)) {
+            return getClosingTransport().execute(request);
+        }
+        HttpResponse<InputStream> response = send(request, buildRequest(request, URI.create(
+                request.getCompleteUrl()), request.getVerb().name()));
+        for (int redirects = 0;; redirects++) {
+            final HttpRequest redirect = getRedirect(request, response, redirects);
+            if (redirect == null) {
+                break;
+            }
+            response.body().close();
+            response = send(request, redirect);
+        }
+        return new Response(response.statusCode(), null, toHeaderMap(response.headers()), response.body());
+    }
+
+    /**
+     * Sends the request without blocking the calling thread. The body is read by the client as it arrives, so the
+     * returned response is complete by the time the future completes.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Response> executeAsync(final Request request, final Executor executor) {
+        if (isClosing(request)) {
+            return getClosingTransport().executeAsync(request, executor);
+        }
+        final HttpRequest httpRequest;
+        try {
+            httpRequest = buildRequest(request, URI.create(request.getCompleteUrl()), request.getVerb().name());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final AtomicReference<CompletableFuture<?>> exchange = new AtomicReference<>();
+        final CompletableFuture<Response> result = sendAsync(request, httpRequest, 0, exchange).thenApplyAsync(
+                response -> new Response(response.statusCode(), null, toHeaderMap(response.headers()),
+                        response.body()), executor);
+        // cancelling the response aborts the exchange in flight
+        result.whenComplete((response, failure) -> {
+            final CompletableFuture<?> inFlight = exchange.get();
+            if (result.isCancelled() && inFlight != null) {
+                inFlight.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The client does not let connections be opened on their own, so the URL is asked for its headers (HEAD) as many
+     * times as there are connections to open, all at once: HTTP/1.1 exchanges each open a connection, HTTP/2 ones
+     * share a single one. Whatever the provider answers, the connection stays open in the client.
+     *
+     * @return connections opened: one per HTTP/1.1 exchange completed, one in all for those over HTTP/2
+     */
+    @Override
+    public int warmUp(final String url, final int connections) throws IOException {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(url)).method("HEAD",
+                HttpRequest.BodyPublishers.noBody()).timeout(WARM_UP_TIMEOUT).build();
+        final List<CompletableFuture<HttpResponse<Void>>> exchanges = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            exchanges.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int completed = 0;
+        boolean multiplexed = false;
+        IOException error = null;
+        for (final CompletableFuture<HttpResponse<Void>> exchange : exchanges) {
+            try {
+                if (exchange.get().version() == HttpClient.Version.HTTP_2) {
+                    multiplexed = true;
+                } else {
+                    completed++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw (InterruptedIOException) new InterruptedIOException("Interrupted while warming up " + url)
+                        .initCause(e);
+            } catch (ExecutionException e) {
+                error = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(
+                        e.getCause());
+            }
+        }
+        if (completed == 0 && !multiplexed && error != null) {
+            throw error;
+        }
+        return multiplexed ? completed + 1 : completed;
+    }
+
+    private boolean isClosing(final Request request) {
+        return Boolean.FALSE.equals(request.getConnectionKeepAlive()) && client.proxy().isEmpty()
+                && client.authenticator().isEmpty() && client.cookieHandler().isEmpty();
+    }
+
+    PooledHttpTransport getClosingTransport() {
+        PooledHttpTransport result = closingTransport;
+        if (result == null) {
+            synchronized (this) {
+                result = closingTransport;
+                if (result == null) {
+                    final TlsConfig tlsConfig = new TlsConfig(client.sslContext());
+                    final SSLParameters parameters = client.sslParameters();
+                    final SSLParameters defaults = client.sslContext().getDefaultSSLParameters();
+                    if (!Arrays.equals(parameters.getProtocols(), defaults.getProtocols())) {
+                        tlsConfig.setProtocols(parameters.getProtocols());
+                    }
+                    if (!Arrays.equals(parameters.getCipherSuites(), defaults.getCipherSuites())) {
+                        tlsConfig.setCipherSuites(parameters.getCipherSuites());
+                    }
+                    final long connectTimeout = client.connectTimeout().map(Duration::toMillis).orElse(0L);
+                    result = new PooledHttpTransport(new ConnectionPool(), null, tlsConfig,
+                            (int) Math.min(connectTimeout, Integer.MAX_VALUE));
+                    closingTransport = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The body comes as a {@link TimedBodyStream} when the request has a read timeout, so that a body that stops coming
+     * fails the read waiting for it.
+     */
+    private HttpResponse<InputStream> send(final Request original, final HttpRequest request) throws IOException {
+        final Long readTimeout = original.getReadTimeout();
+        final HttpResponse.BodyHandler<InputStream> handler = readTimeout == null || readTimeout <= 0
+                ? HttpResponse.BodyHandlers.ofInputStream() : info -> new TimedBodyStream(readTimeout);
+        try {
+            return client.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting for " + request.uri()).
+                    initCause(e);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> sendAsync(final Request request, final HttpRequest httpRequest,
+            final int redirects, final AtomicReference<CompletableFuture<?>> exchange) {
+        final CompletableFuture<HttpResponse<byte[]>> call = client.sendAsync(httpRequest,
+                HttpResponse.BodyHandlers.ofByteArray());
+        exchange.set(call);
+        return call.thenCompose(response -> {
+            final HttpRequest redirect = getRedirect(request, response, redirects);
+            return redirect == null ? CompletableFuture.completedFuture(response)
+                    : sendAsync(request, redirect, redirects + 1, exchange);
+        });
+    }
+
+    /**
+     * Returns the request to send next if the response is a redirect that should be followed, null otherwise.
+     */
+    private HttpRequest getRedirect(final Request request, final HttpResponse<?> response, final int redirects) {
+        final int code = response.statusCode();
+        if (!request.isFollowRedirects() || !Redirects.isRedirect(code) || redirects == Redirects.MAX_REDIRECTS) {
+            return null;
+        }
+        final URI target = Redirects.getTarget(response.request().uri(),
+                response.headers().firstValue(Redirects.LOCATION).orElse(null));
+        final String method = Redirects.getMethod(code, response.request().method());
+        if (target == null || !Redirects.canResend(request, method)) {
+            return null;
+        }
+        return buildRequest(request, target, method);
+    }
+
+    private HttpRequest buildRequest(final Request request, final URI uri, final String method) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+        if (!HTTPS.equalsIgnoreCase(uri.getScheme())) {
+            builder.version(HttpClient.Version.HTTP_1_1);
+        }
+        final Duration timeout = getTimeout(request);
+        if (timeout != null) {
+            builder.timeout(timeout);
+        }
+        boolean hasContentType = false;
+        for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase())) {
+                builder.header(header.getKey(), header.getValue());
+                hasContentType |= CONTENT_TYPE.equalsIgnoreCase(header.getKey());
+            }
+        }
+        // the body is only resent when a redirect keeps the original method
+        if (request.hasBodyContent() && method.equals(request.getVerb().name())) {
+            if (!hasContentType) {
+                builder.header(CONTENT_TYPE, Request.DEFAULT_CONTENT_TYPE);
+            }
+            if (request.isExpectContinue()) {
+                builder.expectContinue(true);
+            }
+            builder.method(method, toPublisher(request.getBodyPayload()));
+        } else {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Streams the payload to the client as it asks for it, with its length when known so that the body goes out with a
+     * Content-Length header rather than chunked.
+     */
+    private static HttpRequest.BodyPublisher toPublisher(final Payload payload) {
+        final long length = payload.getContentLength();
+        if (length == 0) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        final HttpRequest.BodyPublisher stream = HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return payload.openStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return length > 0 ? HttpRequest.BodyPublishers.fromPublisher(stream, length) : stream;
+    }
+
+    /**
+     * The client only knows about a connect timeout per client and a timeout per exchange, so the request connect and
+     * read timeouts are added up into the exchange timeout, which a deadline bounds as a whole. The exchange timeout
+     * ends with the response headers: a synchronous response applies the read timeout to every read of its body on top
+     * of it, an asynchronous one, whose body the client reads in full before completing, is not timed past its headers.
+     */
+    private Duration getTimeout(final Request request) {
+        if (request.getConnectTimeout() == null && request.getReadTimeout() == null) {
+            return null;
+        }
+        long millis = 0;
+        if (request.getConnectTimeout() != null) {
+            millis += request.getConnectTimeout();
+        }
+        if (request.getReadTimeout() != null) {
+            millis += request.getReadTimeout();
+        }
+        if (request.getDeadline() != null) {
+            millis = Math.min(millis, Math.max(1, request.getDeadline().getRemaining(TimeUnit.MILLISECONDS)));
+        }
+        return millis > 0 ? Duration.ofMillis(millis) : null;
+    }
+
+    static Map<String, String> toHeaderMap(final HttpHeaders headers) {
+        // HTTP/2 header names come in lower case, lookups should work no matter the protocol version
+        final Map<String, String> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (final Map.Entry<String, List<String>> header : headers.map().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                result.put(header.getKey(), header.getValue().get(0));
+            }
+        }
+        return result;
+    }
+
+    private static class DefaultHolder {
+
+        private static final HttpClientTransport INSTANCE = new HttpClientTransport();
+    }
+}
@@ -0,0 +1,62 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+
+/**
+ * Executes a {@link Request} over the wire.
+ *
+ * Implementations are shared between requests (and usually between threads), so they must be thread safe and must not
+ * keep per-request state. A transport is selected per service through
+ * {@link org.scribe.builder.ServiceBuilder#transport(HttpTransport)} or per request through
+ * {@link Request#setTransport(HttpTransport)}.
+ */
+public interface HttpTransport {
+
+    /**
+     * Sends the request and returns the response as soon as the status line and the headers are available.
+     *
+     * @param request request to send, already signed and tuned
+     * @return the response, its body is read lazily from {@link Response#getStream()}
+     *
+     * @throws IOException if the request cannot be sent or the response cannot be read
+     */
+    Response execute(Request request) throws IOException;
+
+    /**
+     * Sends the request asynchronously. Transports without a non-blocking client of their own run
+     * {@link #execute(Request)} on the executor, so blocking only moves to the executor threads.
+     *
+     * @param request request to send, already signed and tuned
+     * @param executor executor the returned future is completed on
+     * @return future of the response, completed exceptionally with the transport failure
+     */
+    default CompletableFuture<Response> executeAsync(final Request request, final Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return execute(request);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Opens connections to the host of the URL ahead of the first requests to it: resolves the host, connects and
+     * completes the TLS handshake, then keeps the connections idle for the requests to come. Transports without
+     * connections of their own to keep do nothing.
+     *
+     * @param url URL of an endpoint of the host
+     * @param connections connections to keep ready
+     * @return connections opened
+     *
+     * @throws IOException if the host can't be connected to
+     */
+    default int warmUp(final String url, final int connections) throws IOException {
+        return 0;
+    }
+}
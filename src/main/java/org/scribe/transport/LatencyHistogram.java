@@ -0,0 +1,77 @@
+package org.scribe.transport;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, as HDR histograms lay them out: every power of two range of
+ * microseconds is split in {@value #SUB_BUCKETS} linear buckets, so that a recorded value is known within about 3%
+ * whatever its magnitude, from a microsecond to hours, in a thousand counters.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 2^36 microseconds is about 19 hours, longer values are counted in the last bucket
+    private static final int MAX_EXPONENT = 36;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray((MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+
+    void record(final long nanos) {
+        counts.incrementAndGet(getIndex(Math.min(MAX_VALUE, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)))));
+        total.incrementAndGet();
+    }
+
+    long getCount() {
+        return total.get();
+    }
+
+    /**
+     * @param histograms histograms whose counts are added up
+     * @param percentile from 0 to 100
+     * @return upper bound, in nanoseconds, of the bucket the percentile falls in, -1 if nothing was recorded
+     */
+    static long getValueAtPercentile(final double percentile, final LatencyHistogram... histograms) {
+        long count = 0;
+        for (final LatencyHistogram histogram : histograms) {
+            count += histogram.getCount();
+        }
+        if (count == 0) {
+            return -1;
+        }
+        final long target = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        final int buckets = histograms[0].counts.length();
+        long seen = 0;
+        for (int index = 0; index < buckets; index++) {
+            for (final LatencyHistogram histogram : histograms) {
+                seen += histogram.counts.get(index);
+            }
+            if (seen >= target) {
+                return TimeUnit.MICROSECONDS.toNanos(getUpperBound(index));
+            }
+        }
+        // recorded while being read, the total got ahead of the buckets
+        return TimeUnit.MICROSECONDS.toNanos(MAX_VALUE);
+    }
+
+    static int getIndex(final long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((micros >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long getUpperBound(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
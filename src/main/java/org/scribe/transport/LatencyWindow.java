@@ -0,0 +1,33 @@
+package org.scribe.transport;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latency samples of the current calls to an endpoint and of the previous window of calls. Once the current histogram
+ * is full it replaces the previous one, so a sample is forgotten after one to two windows.
+ */
+final class LatencyWindow {
+
+    private final AtomicReference<LatencyHistogram[]> histograms = new AtomicReference<>(
+            new LatencyHistogram[] {new LatencyHistogram(), new LatencyHistogram()});
+
+    void record(final long nanos, final int size) {
+        final LatencyHistogram[] current = histograms.get();
+        current[0].record(nanos);
+        if (current[0].getCount() >= size) {
+            histograms.compareAndSet(current, new LatencyHistogram[] {new LatencyHistogram(), current[0]});
+        }
+    }
+
+    long getCount() {
+        final LatencyHistogram[] current = histograms.get();
+        return current[0].getCount() + current[1].getCount();
+    }
+
+    /**
+     * @return value at the percentile, in nanoseconds, -1 if nothing was recorded
+     */
+    long getValueAtPercentile(final double percentile) {
+        return LatencyHistogram.getValueAtPercentile(percentile, histograms.get());
+    }
+}
@@ -0,0 +1,88 @@
+package org.scribe.transport;
+
+/**
+ * Snapshot of the state of a {@link ConnectionPool}.
+ */
+public class PoolStats {
+
+    private final int leased;
+    private final int idle;
+    private final int pending;
+    private final long leases;
+    private final long reused;
+    private final long created;
+    private final long closed;
+
+    PoolStats(final int leased, final int idle, final int pending, final long leases, final long reused,
+            final long created, final long closed) {
+        this.leased = leased;
+        this.idle = idle;
+        this.pending = pending;
+        this.leases = leases;
+        this.reused = reused;
+        this.created = created;
+        this.closed = closed;
+    }
+
+    /**
+     * @return connections currently in use by a request
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * @return connections kept alive and waiting for the next request
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * @return requests waiting for a connection because their host is at its connection limit
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * @return connections handed out since the pool was created
+     */
+    public long getLeases() {
+        return leases;
+    }
+
+    /**
+     * @return connections handed out that were reused rather than opened
+     */
+    public long getReused() {
+        return reused;
+    }
+
+    /**
+     * @return connections opened since the pool was created
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * @return connections closed since the pool was created (expired, unhealthy, not reusable)
+     */
+    public long getClosed() {
+        return closed;
+    }
+
+    /**
+     * @return share of the leases served by a reused connection, 0 if nothing was leased yet
+     */
+    public double getReuseRatio() {
+        return leases == 0 ? 0 : (double) reused / leases;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolStats[leased=%d, idle=%d, pending=%d, leases=%d, reused=%d, created=%d, closed=%d]",
+                leased, idle, pending, leases, reused, created, closed);
+    }
+}
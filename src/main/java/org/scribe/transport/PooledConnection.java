@@ -0,0 +1,122 @@
+package org.scribe.transport;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+/**
+ * A connection kept by {@link ConnectionPool}, along with the bookkeeping needed to decide whether it can be reused.
+ * Connections that are not made over a {@link Socket} override the methods using it.
+ */
+class PooledConnection implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String route;
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final long createdAt;
+    private long lastUsedAt;
+    private int uses;
+
+    PooledConnection(final String route, final Socket socket) throws IOException {
+        this(route, socket, socket.getInputStream(), socket.getOutputStream());
+    }
+
+    PooledConnection(final String route, final InputStream in, final OutputStream out) {
+        this(route, null, in, out);
+    }
+
+    private PooledConnection(final String route, final Socket socket, final InputStream in, final OutputStream out) {
+        this.route = route;
+        this.socket = socket;
+        this.in = new BufferedInputStream(in, BUFFER_SIZE);
+        this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+        this.createdAt = System.nanoTime();
+        this.lastUsedAt = createdAt;
+    }
+
+    String getRoute() {
+        return route;
+    }
+
+    InputStream getInputStream() {
+        return in;
+    }
+
+    OutputStream getOutputStream() {
+        return out;
+    }
+
+    void setReadTimeout(final int millis) throws IOException {
+        socket.setSoTimeout(millis);
+    }
+
+    boolean isOpen() {
+        return !socket.isClosed() && !socket.isInputShutdown() && !socket.isOutputShutdown();
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    int getUses() {
+        return uses;
+    }
+
+    void markLeased() {
+        uses++;
+    }
+
+    void markIdle(final long now) {
+        lastUsedAt = now;
+    }
+
+    /**
+     * Checks that the peer has not closed the connection while it was idle. An idle HTTP connection has nothing to
+     * read, so both the end of the stream and unexpected bytes mean the connection cannot be reused.
+     */
+    boolean isHealthy() {
+        if (!isOpen()) {
+            return false;
+        }
+        try {
+            if (in.available() > 0) {
+                return false;
+            }
+            setReadTimeout(1);
+            try {
+                in.read();
+                return false;
+            } catch (SocketTimeoutException e) {
+                return true;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing we can do about it, the connection is discarded anyway
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@PooledConnection(%s, %s)", route, socket.getLocalSocketAddress());
+    }
+}
@@ -0,0 +1,274 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import org.scribe.model.Payload;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.model.Verb;
+import org.scribe.utils.Preconditions;
+
+/**
+ * HTTP/1.1 {@link HttpTransport} that keeps its connections in a {@link ConnectionPool}.
+ *
+ * Unlike {@link UrlConnectionTransport}, whose keep-alive behaviour is governed by JVM wide system properties, the pool
+ * belongs to the transport, hence to the service it was configured for. A connection goes back to the pool once the
+ * response body has been read to the end; closing the body stream before that discards the connection.
+ *
+ * With a {@link DnsCache}, hosts are resolved through the cache, and a connection is attempted to each address of the
+ * host in turn until one accepts it. TLS is negotiated with the {@link TlsConfig} of the transport, which counts the
+ * handshakes.
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    // how long to wait for 100 (Continue) before sending the body anyway
+    private static final int CONTINUE_TIMEOUT = 1000;
+    // connect and lease timeout of the connections opened ahead of time
+    private static final int WARM_UP_TIMEOUT = 10000;
+
+    private final ConnectionPool pool;
+    private final DnsCache dnsCache;
+    private final TlsConfig tlsConfig;
+    private final int defaultConnectTimeout;
+
+    public PooledHttpTransport(final ConnectionPool pool) {
+        this(pool, null, null);
+    }
+
+    /**
+     * @param pool pool of the connections
+     * @param dnsCache cache resolving the hosts connected to, null to resolve them on every connection
+     * @param tlsConfig TLS settings, null for the default context of the JVM
+     */
+    public PooledHttpTransport(final ConnectionPool pool, final DnsCache dnsCache, final TlsConfig tlsConfig) {
+        this(pool, dnsCache, tlsConfig, 0);
+    }
+
+    /**
+     * @param defaultConnectTimeout connect timeout in milliseconds of the requests without one, 0 for none
+     */
+    PooledHttpTransport(final ConnectionPool pool, final DnsCache dnsCache, final TlsConfig tlsConfig,
+            final int defaultConnectTimeout) {
+        Preconditions.checkNotNull(pool, "Connection pool can't be null");
+        this.pool = pool;
+        this.dnsCache = dnsCache;
+        this.tlsConfig = tlsConfig == null ? new TlsConfig() : tlsConfig;
+        this.defaultConnectTimeout = defaultConnectTimeout;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    public DnsCache getDnsCache() {
+        return dnsCache;
+    }
+
+    public TlsConfig getTlsConfig() {
+        return tlsConfig;
+    }
+
+    @Override
+    public Response execute(final Request request) throws IOException {
+        URI uri = URI.create(request.getCompleteUrl());
+        String method = request.getVerb().name();
+        for (int redirects = 0;; redirects++) {
+            final Response response = exchange(request, uri, method);
+            final int code = response.getCode();
+            if (!request.isFollowRedirects() || !Redirects.isRedirect(code) || redirects == Redirects.MAX_REDIRECTS) {
+                return response;
+            }
+            final URI target = Redirects.getTarget(uri, response.getHeader(Redirects.LOCATION));
+            final String targetMethod = Redirects.getMethod(code, method);
+            if (target == null || !Redirects.canResend(request, targetMethod)) {
+                return response;
+            }
+            response.getStream().close();
+            uri = target;
+            method = targetMethod;
+        }
+    }
+
+    /**
+     * Leases the connections at once, so that as many are opened as there are not idle already, and gives them back
+     * to the pool. No more than the limit of the pool per host are kept.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public int warmUp(final String url, final int connections) throws IOException {
+        final URI uri = URI.create(url);
+        final String route = getRoute(uri);
+        final List<PooledConnection> leased = new ArrayList<>();
+        int opened = 0;
+        try {
+            for (int i = 0; i < Math.min(connections, pool.getMaxPerHost()); i++) {
+                final PooledConnection connection = pool.lease(route, () -> connect(route, uri, WARM_UP_TIMEOUT),
+                        WARM_UP_TIMEOUT);
+                leased.add(connection);
+                if (connection.getUses() == 1) {
+                    opened++;
+                }
+            }
+        } finally {
+            for (final PooledConnection connection : leased) {
+                pool.release(connection, true);
+            }
+        }
+        return opened;
+    }
+
+    private Response exchange(final Request request, final URI uri, final String method) throws IOException {
+        final boolean requestKeepAlive = request.getConnectionKeepAlive() == null ? pool.isKeepAlive()
+                : request.getConnectionKeepAlive();
+        final Payload body = request.hasBodyContent() && method.equals(request.getVerb().name())
+                ? request.getBodyPayload() : null;
+        final boolean expectContinue = body != null && request.isExpectContinue();
+        final int connectTimeout = request.getConnectTimeout() == null ? defaultConnectTimeout
+                : toInt(request.getConnectTimeout());
+        final int readTimeout = toInt(request.getReadTimeout());
+        final String route = getRoute(uri);
+        while (true) {
+            final PooledConnection connection = pool.lease(route, () -> connect(route, uri, connectTimeout),
+                    connectTimeout);
+            final boolean reused = connection.getUses() > 1;
+            boolean sent = false;
+            try {
+                connection.setReadTimeout(readTimeout);
+                final OutputStream out = connection.getOutputStream();
+                Http11Codec.writeHead(out, request, uri, getRequestTarget(uri), method, body, requestKeepAlive,
+                        expectContinue);
+                Http11Codec.ResponseHead head = null;
+                boolean keepAlive = requestKeepAlive;
+                if (expectContinue) {
+                    out.flush();
+                    head = awaitContinue(connection, readTimeout);
+                    // the body was announced but not sent, the connection cannot carry another request
+                    keepAlive &= head == null;
+                }
+                if (head == null) {
+                    if (body != null) {
+                        Http11Codec.writeBody(out, body);
+                    }
+                    out.flush();
+                    sent = true;
+                    head = Http11Codec.readHead(connection.getInputStream());
+                }
+                final InputStream stream = Http11Codec.openBody(connection.getInputStream(), method, head, keepAlive,
+                        reusable -> pool.release(connection, reusable));
+                return new Response(head.getCode(), head.getMessage(), head.getHeaders(), stream);
+            } catch (IOException | RuntimeException e) {
+                pool.release(connection, false);
+                // a kept alive connection may have been closed by the provider while idle, which is only known once
+                // written to or read from. The request is sent again when it cannot have been processed, or when it
+                // is idempotent and the connection was reset before any response. A body read from a caller supplied
+                // stream can only be sent once.
+                final boolean stale = e instanceof Http11Codec.NoResponseException
+                        || (e instanceof SocketException && (!sent || Verb.valueOf(method).isIdempotent()));
+                if (!reused || !stale || (body != null && !body.isRepeatable())) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the server to accept the request head before the body is sent.
+     *
+     * @return the final response if the server answered the head with one, null if the body should be sent: the
+     * server sent 100 (Continue) or did not answer in time, as servers unaware of the expectation do
+     */
+    private Http11Codec.ResponseHead awaitContinue(final PooledConnection connection, final int readTimeout)
+            throws IOException {
+        connection.setReadTimeout(readTimeout > 0 ? Math.min(readTimeout, CONTINUE_TIMEOUT) : CONTINUE_TIMEOUT);
+        try {
+            final Http11Codec.ResponseHead head = Http11Codec.readHead(connection.getInputStream(), true);
+            return head.getCode() == 100 ? null : head;
+        } catch (SocketTimeoutException e) {
+            return null;
+        } finally {
+            connection.setReadTimeout(readTimeout);
+        }
+    }
+
+    /**
+     * Opens a connection to the host of the URI, negotiating TLS for https.
+     *
+     * @param route pool route the connection belongs to
+     * @param uri URI to connect to
+     * @param connectTimeout timeout for the TCP connection and the TLS handshake, 0 for none
+     */
+    PooledConnection connect(final String route, final URI uri, final int connectTimeout)
+            throws IOException {
+        final String host = getHost(uri);
+        final int port = Http11Codec.getPort(uri);
+        if (dnsCache == null) {
+            return connect(route, uri, new InetSocketAddress(host, port), connectTimeout);
+        }
+        IOException error = null;
+        for (final InetAddress address : dnsCache.lookup(host)) {
+            try {
+                return connect(route, uri, new InetSocketAddress(address, port), connectTimeout);
+            } catch (SocketTimeoutException e) {
+                // the timeout applies to the connection, not to each address
+                throw e;
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        throw error;
+    }
+
+    private PooledConnection connect(final String route, final URI uri, final InetSocketAddress address,
+            final int connectTimeout) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(address, connectTimeout);
+            if (Http11Codec.isHttps(uri)) {
+                socket = tlsConfig.startHandshake(socket, getHost(uri), address.getPort(), connectTimeout);
+            }
+            return new PooledConnection(route, socket);
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return key of the connections that can carry requests to the URI
+     */
+    String getRoute(final URI uri) {
+        return uri.getScheme().toLowerCase() + "://" + uri.getHost().toLowerCase() + ':' + Http11Codec.getPort(uri);
+    }
+
+    /**
+     * @return target of the request line for the URI
+     */
+    String getRequestTarget(final URI uri) {
+        return Http11Codec.getRequestTarget(uri);
+    }
+
+    private static String getHost(final URI uri) {
+        final String host = uri.getHost();
+        // IPv6 literals come in brackets
+        return host.startsWith("[") ? host.substring(1, host.length() - 1) : host;
+    }
+
+    private static int toInt(final Long millis) {
+        return millis == null ? 0 : (int) Math.min(millis, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,232 @@
+package org.scribe.transport;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Token bucket rate limiter with two levels of quotas, as providers enforce them: one per application (API key) and
+ * one per access token. A call needs a permit from the bucket of its application and, when it is signed with a token,
+ * from the bucket of the token as well.
+ *
+ * Buckets are lock-free: the state of a bucket is the time at which it will be full again (the generic cell rate
+ * algorithm), updated with a compare-and-set, so permits are handed out without any thread holding a lock and a caller
+ * that has to wait knows how long right away. Buckets of tokens that have been idle long enough to be full again are
+ * dropped once there are many of them.
+ *
+ * The limiter is applied to the requests of a service by a {@link RateLimitingTransport}; it can also be used directly
+ * with {@link #acquire(String, String)} and {@link #tryAcquire(String, String)}.
+ */
+public class RateLimiter {
+
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 5000;
+
+    // number of token buckets from which full ones are dropped
+    private static final int EVICTION_THRESHOLD = 10000;
+
+    private final ConcurrentHashMap<String, TokenBucket> applications = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TokenBucket> tokens = new ConcurrentHashMap<>();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitedNanos = new LongAdder();
+
+    private volatile Limit applicationLimit;
+    private volatile Limit tokenLimit;
+    private volatile long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_WAIT_MILLIS);
+
+    /**
+     * Limits the calls made with every API key. The bucket holds up to the given number of permits, which allows bursts
+     * of that size, and refills at the same pace.
+     *
+     * @param permits calls allowed per period
+     * @param period length of the period
+     * @param unit unit of the period
+     */
+    public void setApplicationLimit(final int permits, final long period, final TimeUnit unit) {
+        applicationLimit = new Limit(permits, period, unit);
+        applications.clear();
+    }
+
+    /**
+     * Limits the calls made with every access token, see {@link #setApplicationLimit(int, long, TimeUnit)}.
+     *
+     * @param permits calls allowed per period
+     * @param period length of the period
+     * @param unit unit of the period
+     */
+    public void setTokenLimit(final int permits, final long period, final TimeUnit unit) {
+        tokenLimit = new Limit(permits, period, unit);
+        tokens.clear();
+    }
+
+    /**
+     * @param maxWait longest time a request waits for its permits in a {@link RateLimitingTransport}, 0 to fail
+     * requests right away when there is none
+     * @param unit unit of the wait
+     */
+    public void setMaxWait(final long maxWait, final TimeUnit unit) {
+        Preconditions.checkArgument(maxWait >= 0, "Max wait can't be negative");
+        this.maxWaitNanos = unit.toNanos(maxWait);
+    }
+
+    public long getMaxWait(final TimeUnit unit) {
+        return unit.convert(maxWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Takes the permits of a call if they are available right away.
+     *
+     * @param apiKey API key of the application
+     * @param token access token the call is signed with, null if none
+     * @return whether the call may be made
+     */
+    public boolean tryAcquire(final String apiKey, final String token) {
+        return reserve(apiKey, token, 0) == 0;
+    }
+
+    /**
+     * Takes the permits of a call, waiting for them as long as needed but no longer than the timeout. A call that
+     * would have to wait longer does not take any permit.
+     *
+     * @param apiKey API key of the application
+     * @param token access token the call is signed with, null if none
+     * @param timeout longest wait
+     * @param unit unit of the timeout
+     * @return whether the call may be made
+     * @throws InterruptedException if interrupted while waiting, the permits are lost
+     */
+    public boolean tryAcquire(final String apiKey, final String token, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        final long wait = reserve(apiKey, token, unit.toNanos(timeout));
+        if (wait < 0) {
+            return false;
+        }
+        TimeUnit.NANOSECONDS.sleep(wait);
+        return true;
+    }
+
+    /**
+     * Takes the permits of a call, waiting for them as long as needed.
+     *
+     * @param apiKey API key of the application
+     * @param token access token the call is signed with, null if none
+     * @throws InterruptedException if interrupted while waiting, the permits are lost
+     */
+    public void acquire(final String apiKey, final String token) throws InterruptedException {
+        tryAcquire(apiKey, token, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    public RateLimiterStats getStats() {
+        return new RateLimiterStats(acquired.sum(), delayed.sum(), rejected.sum(),
+                TimeUnit.NANOSECONDS.toMillis(waitedNanos.sum()), applications.size(), tokens.size());
+    }
+
+    /**
+     * Reserves the permits of a call in the bucket of its token and in the one of its application.
+     *
+     * @return nanoseconds to wait before making the call, -1 if it would be longer than the max wait
+     */
+    long reserve(final String apiKey, final String token, final long maxWait) {
+        final long now = System.nanoTime();
+        final TokenBucket tokenBucket = token == null || token.isEmpty() ? null : getBucket(tokens, tokenLimit, token,
+                now);
+        final TokenBucket applicationBucket = getBucket(applications, applicationLimit, apiKey, now);
+        final long tokenWait = tokenBucket == null ? 0 : tokenBucket.reserve(now, maxWait);
+        if (tokenWait < 0) {
+            rejected.increment();
+            return -1;
+        }
+        final long applicationWait = applicationBucket == null ? 0 : applicationBucket.reserve(now, maxWait);
+        if (applicationWait < 0) {
+            if (tokenBucket != null) {
+                tokenBucket.release();
+            }
+            rejected.increment();
+            return -1;
+        }
+        final long wait = Math.max(tokenWait, applicationWait);
+        acquired.increment();
+        if (wait > 0) {
+            delayed.increment();
+            waitedNanos.add(wait);
+        }
+        return wait;
+    }
+
+    private static TokenBucket getBucket(final ConcurrentHashMap<String, TokenBucket> buckets, final Limit limit,
+            final String key, final long now) {
+        if (limit == null || key == null) {
+            return null;
+        }
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= EVICTION_THRESHOLD) {
+                // a full bucket is no different from a new one
+                buckets.values().removeIf(idle -> idle.isFull(now));
+            }
+            bucket = buckets.computeIfAbsent(key, ignored -> new TokenBucket(limit));
+        }
+        return bucket;
+    }
+
+    private static final class Limit {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        Limit(final int permits, final long period, final TimeUnit unit) {
+            Preconditions.checkArgument(permits > 0, "Permits must be positive");
+            Preconditions.checkArgument(period > 0, "Period must be positive");
+            this.intervalNanos = Math.max(1, unit.toNanos(period) / permits);
+            this.burstNanos = intervalNanos * (permits - 1);
+        }
+    }
+
+    /**
+     * Generic cell rate algorithm: a permit is available when the theoretical arrival time of the next call is no
+     * further than the burst tolerance ahead of now, and taking it moves that time one interval further.
+     */
+    private static final class TokenBucket {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLong arrival = new AtomicLong(Long.MIN_VALUE);
+
+        TokenBucket(final Limit limit) {
+            this.intervalNanos = limit.intervalNanos;
+            this.burstNanos = limit.burstNanos;
+        }
+
+        /**
+         * @return nanoseconds until the reserved permit is available, -1 if longer than the max wait
+         */
+        long reserve(final long now, final long maxWait) {
+            while (true) {
+                final long current = arrival.get();
+                final long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                final long wait = start - now - burstNanos;
+                if (wait > maxWait) {
+                    return -1;
+                }
+                if (arrival.compareAndSet(current, start + intervalNanos)) {
+                    return Math.max(0, wait);
+                }
+            }
+        }
+
+        /**
+         * Gives back a permit taken by {@link #reserve(long, long)} for a call that is not made.
+         */
+        void release() {
+            arrival.addAndGet(-intervalNanos);
+        }
+
+        boolean isFull(final long now) {
+            final long current = arrival.get();
+            return current == Long.MIN_VALUE || current - now <= 0;
+        }
+    }
+}
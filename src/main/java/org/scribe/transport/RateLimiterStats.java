@@ -0,0 +1,72 @@
+package org.scribe.transport;
+
+/**
+ * Snapshot of the counters of a {@link RateLimiter}.
+ */
+public class RateLimiterStats {
+
+    private final long acquired;
+    private final long delayed;
+    private final long rejected;
+    private final long waitedMillis;
+    private final int applications;
+    private final int tokens;
+
+    RateLimiterStats(final long acquired, final long delayed, final long rejected, final long waitedMillis,
+            final int applications, final int tokens) {
+        this.acquired = acquired;
+        this.delayed = delayed;
+        this.rejected = rejected;
+        this.waitedMillis = waitedMillis;
+        this.applications = applications;
+        this.tokens = tokens;
+    }
+
+    /**
+     * @return calls that got their permits
+     */
+    public long getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * @return calls that had to wait for their permits
+     */
+    public long getDelayed() {
+        return delayed;
+    }
+
+    /**
+     * @return calls refused because their permits were not available in time
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return total time calls were told to wait for their permits
+     */
+    public long getWaitedMillis() {
+        return waitedMillis;
+    }
+
+    /**
+     * @return application buckets currently kept
+     */
+    public int getApplications() {
+        return applications;
+    }
+
+    /**
+     * @return token buckets currently kept
+     */
+    public int getTokens() {
+        return tokens;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RateLimiterStats[acquired=%d, delayed=%d, rejected=%d, waitedMillis=%d, "
+                + "applications=%d, tokens=%d]", acquired, delayed, rejected, waitedMillis, applications, tokens);
+    }
+}
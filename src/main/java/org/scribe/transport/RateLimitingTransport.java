@@ -0,0 +1,107 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.scribe.exceptions.RateLimitExceededException;
+import org.scribe.model.Deadline;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.utils.Preconditions;
+
+/**
+ * {@link HttpTransport} decorator keeping the requests of a service within the quotas of its {@link RateLimiter}: the
+ * quota of the API key of the service and, for requests the service signed, the quota of their access token
+ * ({@link Request#getAccessToken()}).
+ *
+ * A request without permits waits for them up to the max wait of the limiter, then fails with a
+ * {@link RateLimitExceededException} without being sent. Asynchronous requests wait without holding a thread.
+ */
+public class RateLimitingTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final RateLimiter limiter;
+    private final String apiKey;
+
+    public RateLimitingTransport(final HttpTransport delegate, final RateLimiter limiter, final String apiKey) {
+        Preconditions.checkNotNull(delegate, "Transport can't be null");
+        Preconditions.checkNotNull(limiter, "Rate limiter can't be null");
+        Preconditions.checkEmptyString(apiKey, "Invalid Api key");
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.apiKey = apiKey;
+    }
+
+    public RateLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public Response execute(final Request request) throws IOException {
+        final long wait = reserve(request);
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting for a permit")
+                        .initCause(e);
+            }
+            afterWait(request);
+        }
+        return delegate.execute(request);
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(final Request request, final Executor executor) {
+        final long wait;
+        try {
+            wait = reserve(request);
+        } catch (RateLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (wait == 0) {
+            return delegate.executeAsync(request, executor);
+        }
+        return CompletableFuture.supplyAsync(() -> null,
+                CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS, executor)).thenCompose(
+                ignored -> {
+                    afterWait(request);
+                    return delegate.executeAsync(request, executor);
+                });
+    }
+
+    @Override
+    public int warmUp(final String url, final int connections) throws IOException {
+        return delegate.warmUp(url, connections);
+    }
+
+    /**
+     * A request bound to a {@link Deadline} waits for its permits no longer than the time it has left.
+     */
+    private long reserve(final Request request) {
+        final Deadline deadline = request.getDeadline();
+        long maxWait = limiter.getMaxWait(TimeUnit.NANOSECONDS);
+        if (deadline != null) {
+            maxWait = Math.min(maxWait, deadline.getRemaining(TimeUnit.NANOSECONDS));
+        }
+        final long wait = limiter.reserve(apiKey, request.getAccessToken(), maxWait);
+        if (wait < 0) {
+            throw new RateLimitExceededException("No permit for " + request + " within "
+                    + TimeUnit.NANOSECONDS.toMillis(maxWait) + " ms");
+        }
+        return wait;
+    }
+
+    /**
+     * Takes the wait off the timeouts of a request bound to a deadline.
+     */
+    private static void afterWait(final Request request) {
+        final Deadline deadline = request.getDeadline();
+        if (deadline != null) {
+            deadline.tune(request);
+        }
+    }
+}
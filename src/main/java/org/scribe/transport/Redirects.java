@@ -0,0 +1,57 @@
+package org.scribe.transport;
+
+import java.net.URI;
+import org.scribe.model.Request;
+
+/**
+ * Redirect rules shared by the transports that follow redirects themselves.
+ */
+final class Redirects {
+
+    static final int MAX_REDIRECTS = 5;
+    static final String LOCATION = "Location";
+
+    private static final String HTTPS = "https";
+    private static final String GET = "GET";
+
+    private Redirects() {
+    }
+
+    static boolean isRedirect(final int code) {
+        return code == 301 || code == 302 || code == 303 || code == 307 || code == 308;
+    }
+
+    /**
+     * Resolves the Location header against the URI that was requested.
+     *
+     * @return target to follow or null if there is nothing to follow or the redirect downgrades https to http
+     */
+    static URI getTarget(final URI uri, final String location) {
+        if (location == null) {
+            return null;
+        }
+        final URI target = uri.resolve(location);
+        if (HTTPS.equalsIgnoreCase(uri.getScheme()) && !HTTPS.equalsIgnoreCase(target.getScheme())) {
+            return null;
+        }
+        return target;
+    }
+
+    /**
+     * 303 switches to GET, 301 and 302 switch POST to GET, as browsers do. 307 and 308 keep the method.
+     */
+    static String getMethod(final int code, final String method) {
+        if ((code == 303 && !"HEAD".equals(method)) || (code < 303 && "POST".equals(method))) {
+            return GET;
+        }
+        return method;
+    }
+
+    /**
+     * A redirect keeping the method sends the body again, which a payload read from a caller supplied stream cannot do.
+     */
+    static boolean canResend(final Request request, final String method) {
+        return !request.hasBodyContent() || !method.equals(request.getVerb().name())
+                || request.getBodyPayload().isRepeatable();
+    }
+}
@@ -0,0 +1,233 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.model.Verb;
+import org.scribe.utils.Preconditions;
+
+/**
+ * When and how often a {@link RetryingTransport} sends a request again, and what came of it.
+ *
+ * Only idempotent verbs ({@link Verb#isIdempotent()}) are retried, plus the endpoints explicitly allowed with
+ * {@link #allowEndpoint(String)} (token endpoints are usually POST, yet safe to call again when the provider failed), as
+ * long as their body can be sent twice. A request is retried when the transport
+ * failed with an {@link IOException} or when the provider answered with one of the retry statuses (429, 502, 503 and
+ * 504 by default). Attempts are spaced by an exponential backoff with full jitter, or by the Retry-After delay the
+ * provider asked for if it is longer. A Retry-After longer than {@link #setMaxRetryAfter(long, TimeUnit)} gives up
+ * right away.
+ *
+ * The policy also keeps the attempt statistics of the requests it was applied to, see {@link #getStats()}.
+ */
+public class RetryPolicy {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 100;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+    public static final long DEFAULT_MAX_RETRY_AFTER_MILLIS = 30000;
+
+    private static final String RETRY_AFTER = "Retry-After";
+
+    private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private volatile long baseDelayMillis = DEFAULT_BASE_DELAY_MILLIS;
+    private volatile long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private volatile long maxRetryAfterMillis = DEFAULT_MAX_RETRY_AFTER_MILLIS;
+    private volatile Set<Integer> retryStatuses = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+    private final Set<String> endpoints = ConcurrentHashMap.newKeySet();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder backoffMillis = new LongAdder();
+    private final ConcurrentHashMap<Integer, LongAdder> attempts = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxAttempts attempts per request, the first one included
+     */
+    public void setMaxAttempts(final int maxAttempts) {
+        Preconditions.checkArgument(maxAttempts > 0, "Max attempts must be positive");
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param baseDelay upper bound of the delay before the first retry, doubled for each further retry
+     * @param maxDelay cap of the upper bound
+     * @param unit unit of both delays
+     */
+    public void setBackoff(final long baseDelay, final long maxDelay, final TimeUnit unit) {
+        Preconditions.checkArgument(baseDelay >= 0 && maxDelay >= baseDelay, "Invalid backoff delays");
+        this.baseDelayMillis = unit.toMillis(baseDelay);
+        this.maxDelayMillis = unit.toMillis(maxDelay);
+    }
+
+    /**
+     * @param maxRetryAfter longest Retry-After delay waited for, a longer one is not retried
+     * @param unit unit of the delay
+     */
+    public void setMaxRetryAfter(final long maxRetryAfter, final TimeUnit unit) {
+        this.maxRetryAfterMillis = unit.toMillis(maxRetryAfter);
+    }
+
+    /**
+     * @param statuses response status codes worth retrying
+     */
+    public void setRetryStatuses(final Integer... statuses) {
+        this.retryStatuses = new HashSet<>(Arrays.asList(statuses));
+    }
+
+    /**
+     * Allows requests to the endpoint to be retried whatever their verb, for instance the access token endpoint.
+     *
+     * @param url endpoint URL, without query string
+     */
+    public void allowEndpoint(final String url) {
+        Preconditions.checkEmptyString(url, "Endpoint can't be null or empty");
+        endpoints.add(stripQuery(url));
+    }
+
+    /**
+     * @param listener notified of every attempt, for per-attempt metrics
+     */
+    public void addListener(final Listener listener) {
+        Preconditions.checkNotNull(listener, "Listener can't be null");
+        listeners.add(listener);
+    }
+
+    public RetryStats getStats() {
+        final int highest = attempts.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        final long[] byNumber = new long[highest];
+        for (int attempt = 1; attempt <= highest; attempt++) {
+            final LongAdder count = attempts.get(attempt);
+            byNumber[attempt - 1] = count == null ? 0 : count.sum();
+        }
+        return new RetryStats(requests.sum(), retries.sum(), recovered.sum(), exhausted.sum(), backoffMillis.sum(),
+                byNumber);
+    }
+
+    /**
+     * @return whether the request may be sent more than once
+     */
+    boolean isRetryable(final Request request) {
+        return canSendAgain(request, endpoints);
+    }
+
+    /**
+     * Tells whether a request may be sent more than once, by a retry or a hedge.
+     *
+     * @param endpoints endpoints, without query string, that may be called again whatever the verb
+     * @return whether the verb is idempotent or the endpoint allowed, and the body, if any, can be read again
+     */
+    static boolean canSendAgain(final Request request, final Set<String> endpoints) {
+        if (request.hasBodyContent() && !request.getBodyPayload().isRepeatable()) {
+            return false;
+        }
+        return request.getVerb().isIdempotent() || endpoints.contains(stripQuery(request.getUrl()));
+    }
+
+    /**
+     * @return delay before the next attempt, -1 if the outcome should not or cannot be retried
+     */
+    long getRetryDelay(final int attempt, final Response response, final Exception error) {
+        if (attempt >= maxAttempts) {
+            return -1;
+        }
+        if (error != null) {
+            return error instanceof IOException ? getBackoff(attempt) : -1;
+        }
+        if (!retryStatuses.contains(response.getCode())) {
+            return -1;
+        }
+        final long retryAfter = getRetryAfterMillis(response.getHeader(RETRY_AFTER));
+        if (retryAfter > maxRetryAfterMillis) {
+            return -1;
+        }
+        return Math.max(getBackoff(attempt), retryAfter);
+    }
+
+    /**
+     * Full jitter: uniformly random between 0 and the exponential bound.
+     */
+    long getBackoff(final int attempt) {
+        final long bound = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 30));
+        return bound == 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    void recordAttempt(final Request request, final int attempt, final Response response, final Exception error,
+            final long durationNanos, final long retryDelay) {
+        attempts.computeIfAbsent(attempt, key -> new LongAdder()).increment();
+        if (attempt == 1) {
+            requests.increment();
+        }
+        if (retryDelay >= 0) {
+            retries.increment();
+            backoffMillis.add(retryDelay);
+        } else if (attempt > 1) {
+            final boolean failed = error != null || retryStatuses.contains(response.getCode());
+            (failed ? exhausted : recovered).increment();
+        }
+        for (final Listener listener : listeners) {
+            listener.onAttempt(request, attempt, response, error, durationNanos, retryDelay);
+        }
+    }
+
+    /**
+     * @return the delay in milliseconds, 0 if there is none or it cannot be parsed
+     */
+    static long getRetryAfterMillis(final String retryAfter) {
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                final ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(),
+                        DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+            } catch (DateTimeParseException dtpe) {
+                return 0;
+            }
+        }
+    }
+
+    static String stripQuery(final String url) {
+        final int query = url.indexOf('?');
+        return query == -1 ? url : url.substring(0, query);
+    }
+
+    /**
+     * Notified of each attempt of a request, once its outcome is known.
+     */
+    public interface Listener {
+
+        /**
+         * @param request request attempted
+         * @param attempt attempt number, from 1
+         * @param response response of the attempt, null if it failed
+         * @param error failure of the attempt, null if a response came back
+         * @param durationNanos time the attempt took
+         * @param retryDelay milliseconds until the next attempt, -1 if there is none
+         */
+        void onAttempt(Request request, int attempt, Response response, Exception error, long durationNanos,
+                long retryDelay);
+    }
+}
@@ -0,0 +1,75 @@
+package org.scribe.transport;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of the attempt statistics of a {@link RetryPolicy}.
+ */
+public class RetryStats {
+
+    private final long requests;
+    private final long retries;
+    private final long recovered;
+    private final long exhausted;
+    private final long backoffMillis;
+    private final long[] attempts;
+
+    RetryStats(final long requests, final long retries, final long recovered, final long exhausted,
+            final long backoffMillis, final long[] attempts) {
+        this.requests = requests;
+        this.retries = retries;
+        this.recovered = recovered;
+        this.exhausted = exhausted;
+        this.backoffMillis = backoffMillis;
+        this.attempts = attempts;
+    }
+
+    /**
+     * @return requests sent through the policy
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return attempts that were followed by another one
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * @return retried requests that eventually succeeded
+     */
+    public long getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * @return retried requests that still failed on their last attempt
+     */
+    public long getExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * @return total time spent waiting between attempts
+     */
+    public long getBackoffMillis() {
+        return backoffMillis;
+    }
+
+    /**
+     * @param attempt attempt number, from 1
+     * @return how many times a request got to that attempt
+     */
+    public long getAttempts(final int attempt) {
+        return attempt < 1 || attempt > attempts.length ? 0 : attempts[attempt - 1];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RetryStats[requests=%d, retries=%d, recovered=%d, exhausted=%d, backoffMillis=%d, "
+                + "attempts=%s]", requests, retries, recovered, exhausted, backoffMillis, Arrays.toString(attempts));
+    }
+}
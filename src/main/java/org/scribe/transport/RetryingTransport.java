@@ -0,0 +1,146 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.scribe.model.Deadline;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.utils.Preconditions;
+
+/**
+ * {@link HttpTransport} decorator sending a request again, as its {@link RetryPolicy} allows, when the delegate
+ * failed or the provider answered with a retry status.
+ *
+ * Before each new attempt the request is signed again ({@link Request#resign()}) so that it goes out with a fresh
+ * nonce and timestamp rather than as a replay of the failed one. A request bound to a {@link Deadline} is not
+ * retried when the deadline would pass before the next attempt, and each attempt gets only the time left.
+ */
+public class RetryingTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final RetryPolicy policy;
+
+    public RetryingTransport(final HttpTransport delegate, final RetryPolicy policy) {
+        Preconditions.checkNotNull(delegate, "Transport can't be null");
+        Preconditions.checkNotNull(policy, "Retry policy can't be null");
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    public RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public Response execute(final Request request) throws IOException {
+        final boolean retryable = policy.isRetryable(request);
+        for (int attempt = 1;; attempt++) {
+            if (attempt > 1) {
+                prepareRetry(request);
+            }
+            final long start = System.nanoTime();
+            Response response = null;
+            IOException error = null;
+            try {
+                response = delegate.execute(request);
+            } catch (IOException e) {
+                error = e;
+            }
+            final long delay = retryable ? limit(request, policy.getRetryDelay(attempt, response, error)) : -1;
+            policy.recordAttempt(request, attempt, response, error, System.nanoTime() - start, delay);
+            if (delay < 0) {
+                if (error != null) {
+                    throw error;
+                }
+                return response;
+            }
+            discard(response);
+            sleep(delay);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(final Request request, final Executor executor) {
+        return attemptAsync(request, executor, 1, policy.isRetryable(request));
+    }
+
+    @Override
+    public int warmUp(final String url, final int connections) throws IOException {
+        return delegate.warmUp(url, connections);
+    }
+
+    private CompletableFuture<Response> attemptAsync(final Request request, final Executor executor,
+            final int attempt, final boolean retryable) {
+        if (attempt > 1) {
+            prepareRetry(request);
+        }
+        final long start = System.nanoTime();
+        return delegate.executeAsync(request, executor).handle((response, failure) -> {
+            final Exception error = failure == null ? null : unwrap(failure);
+            final long delay = retryable ? limit(request, policy.getRetryDelay(attempt, response, error)) : -1;
+            policy.recordAttempt(request, attempt, response, error, System.nanoTime() - start, delay);
+            if (delay < 0) {
+                return failure == null ? CompletableFuture.completedFuture(response)
+                        : CompletableFuture.<Response>failedFuture(failure);
+            }
+            discard(response);
+            return CompletableFuture.supplyAsync(() -> null,
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor)).thenCompose(
+                    ignored -> attemptAsync(request, executor, attempt + 1, retryable));
+        }).thenCompose(future -> future);
+    }
+
+    private static void prepareRetry(final Request request) {
+        final Deadline deadline = request.getDeadline();
+        if (deadline != null) {
+            deadline.tune(request);
+        }
+        request.resign();
+    }
+
+    /**
+     * @return the retry delay, -1 if the deadline of the request would pass before the next attempt starts
+     */
+    private static long limit(final Request request, final long delay) {
+        final Deadline deadline = request.getDeadline();
+        return delay >= 0 && deadline != null && deadline.getRemaining(TimeUnit.MILLISECONDS) <= delay ? -1 : delay;
+    }
+
+    private static Exception unwrap(Throwable failure) {
+        while ((failure instanceof CompletionException || failure instanceof UncheckedIOException)
+                && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return failure instanceof Exception ? (Exception) failure : new CompletionException(failure);
+    }
+
+    /**
+     * Releases the connection held by a response that is not handed to the caller.
+     */
+    static void discard(final Response response) {
+        final InputStream stream = response == null ? null : response.getStream();
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // nothing more to release
+            }
+        }
+    }
+
+    private static void sleep(final long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting to retry").initCause(
+                    e);
+        }
+    }
+}
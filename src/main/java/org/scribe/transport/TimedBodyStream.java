@@ -0,0 +1,171 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of an {@link HttpClientTransport} response, read as the client receives it, that fails a read with a
+ * {@link SocketTimeoutException} once no byte arrived for the read timeout, as reads from an
+ * {@link java.net.HttpURLConnection} do. The client itself only times the exchange out up to the response headers.
+ *
+ * The body is asked from the client one list of buffers at a time, so that no more than that is held while the caller
+ * is not reading. Closing the stream, or a read timing out, cancels the rest of the body.
+ */
+final class TimedBodyStream extends InputStream implements HttpResponse.BodySubscriber<InputStream> {
+
+    private static final List<ByteBuffer> END = Collections.emptyList();
+
+    private final BlockingQueue<List<ByteBuffer>> received = new LinkedBlockingQueue<>();
+    private final long readTimeoutMillis;
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable failure;
+    private Iterator<ByteBuffer> buffers = Collections.emptyIterator();
+    private ByteBuffer current;
+    private boolean done;
+    private volatile boolean closed;
+
+    /**
+     * @param readTimeoutMillis longest wait for the next bytes of the body, 0 to wait forever
+     */
+    TimedBodyStream(final long readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public CompletionStage<InputStream> getBody() {
+        return CompletableFuture.completedStage(this);
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(final List<ByteBuffer> item) {
+        received.offer(item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        failure = throwable;
+        received.offer(END);
+    }
+
+    @Override
+    public void onComplete() {
+        received.offer(END);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] one = new byte[1];
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+    }
+
+    @Override
+    public synchronized int read(final byte[] buffer, final int offset, final int length) throws IOException {
+        if (closed) {
+            throw new IOException("Body stream closed");
+        }
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextBuffer()) {
+            return -1;
+        }
+        final int read = Math.min(length, current.remaining());
+        current.get(buffer, offset, read);
+        return read;
+    }
+
+    @Override
+    public synchronized int available() {
+        return current == null || closed ? 0 : current.remaining();
+    }
+
+    /**
+     * Can be called while another thread is reading, whose read then ends.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            cancelUpstream();
+            received.offer(END);
+        }
+    }
+
+    /**
+     * @return false at the end of the body, true with bytes left in the current buffer
+     */
+    private boolean nextBuffer() throws IOException {
+        while (current == null || !current.hasRemaining()) {
+            if (buffers.hasNext()) {
+                current = buffers.next();
+                continue;
+            }
+            if (!done) {
+                final List<ByteBuffer> next = poll();
+                if (next != END) {
+                    buffers = next.iterator();
+                    subscription.request(1);
+                    continue;
+                }
+                done = true;
+            }
+            if (failure != null) {
+                throw failure instanceof IOException ? (IOException) failure : new IOException(failure);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private List<ByteBuffer> poll() throws IOException {
+        try {
+            if (readTimeoutMillis == 0) {
+                return received.take();
+            }
+            final List<ByteBuffer> next = received.poll(readTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                // later reads fail the same way rather than seeing the end of the body
+                failure = new SocketTimeoutException("Read timed out after " + readTimeoutMillis + " ms");
+                cancel();
+                throw (IOException) failure;
+            }
+            return next;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw (InterruptedIOException) new InterruptedIOException("Interrupted while reading the body")
+                    .initCause(e);
+        }
+    }
+
+    private void cancel() {
+        done = true;
+        cancelUpstream();
+    }
+
+    private void cancelUpstream() {
+        final Flow.Subscription upstream = subscription;
+        if (upstream != null) {
+            upstream.cancel();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import org.scribe.utils.Preconditions;
+
+/**
+ * TLS settings shared by the connections of one or several services: the {@link SSLContext}, whose client session
+ * cache lets a connection resume the session of an earlier one instead of making a full handshake, the protocols and
+ * the cipher suites. A {@link PooledHttpTransport} negotiates its connections with it and reports every handshake,
+ * so that the handshakes made and the share of them resumed are known for each provider host.
+ *
+ * Resumption works with the session IDs of TLS 1.2 and the session tickets of TLS 1.3, both kept in the session
+ * cache; session tickets are sent as long as the JVM wide {@code jdk.tls.client.enableSessionTicketExtension}
+ * property is not turned off.
+ */
+public class TlsConfig {
+
+    private final SSLContext context;
+    private final ConcurrentHashMap<String, Handshakes> providers = new ConcurrentHashMap<>();
+
+    private volatile String[] protocols;
+    private volatile String[] cipherSuites;
+
+    /**
+     * Uses the default context of the JVM, whose session cache is shared with the rest of the application.
+     */
+    public TlsConfig() {
+        this(getDefaultContext());
+    }
+
+    /**
+     * @param context initialized context, with the key and trust managers of the services
+     */
+    public TlsConfig(final SSLContext context) {
+        Preconditions.checkNotNull(context, "SSL context can't be null");
+        this.context = context;
+    }
+
+    /**
+     * Sizes the client session cache of the context, left as the JVM sets it up otherwise.
+     *
+     * @param size sessions kept for resumption, 0 for no limit
+     * @param timeout how long a session can be resumed after it was negotiated
+     * @param unit unit of the timeout
+     */
+    public void setSessionCache(final int size, final long timeout, final TimeUnit unit) {
+        Preconditions.checkArgument(size >= 0, "Session cache size can't be negative");
+        Preconditions.checkArgument(timeout > 0, "Session timeout must be positive");
+        final SSLSessionContext sessions = context.getClientSessionContext();
+        sessions.setSessionCacheSize(size);
+        sessions.setSessionTimeout((int) Math.min(Integer.MAX_VALUE, Math.max(1, unit.toSeconds(timeout))));
+    }
+
+    /**
+     * @param protocols protocols offered, for instance TLSv1.3 and TLSv1.2, none for those of the context
+     */
+    public void setProtocols(final String... protocols) {
+        this.protocols = checkSupported(protocols, context.getSupportedSSLParameters().getProtocols(), "Protocol");
+    }
+
+    /**
+     * @param cipherSuites cipher suites offered, in order of preference, none for those of the context
+     */
+    public void setCipherSuites(final String... cipherSuites) {
+        this.cipherSuites = checkSupported(cipherSuites, context.getSupportedSSLParameters().getCipherSuites(),
+                "Cipher suite");
+    }
+
+    public SSLContext getContext() {
+        return context;
+    }
+
+    /**
+     * @return parameters of the connections: protocols, cipher suites and verification of the host name
+     */
+    public SSLParameters getParameters() {
+        final SSLParameters parameters = context.getDefaultSSLParameters();
+        if (protocols != null) {
+            parameters.setProtocols(protocols);
+        }
+        if (cipherSuites != null) {
+            parameters.setCipherSuites(cipherSuites);
+            parameters.setUseCipherSuitesOrder(true);
+        }
+        parameters.setEndpointIdentificationAlgorithm("HTTPS");
+        return parameters;
+    }
+
+    /**
+     * @return provider hosts a handshake was made with, as host:port
+     */
+    public Set<String> getProviders() {
+        return providers.keySet();
+    }
+
+    /**
+     * @param provider host:port of the provider
+     * @return snapshot of the handshakes made with the provider
+     */
+    public TlsStats getStats(final String provider) {
+        final Handshakes handshakes = providers.get(provider);
+        return handshakes == null ? new TlsStats(provider, 0, 0, 0, 0) : handshakes.getStats(provider);
+    }
+
+    /**
+     * Negotiates TLS over a connected socket.
+     *
+     * @param timeout timeout of the handshake in milliseconds, 0 for none
+     */
+    SSLSocket startHandshake(final Socket socket, final String host, final int port, final int timeout)
+            throws IOException {
+        final String provider = host + ':' + port;
+        final Handshakes handshakes = providers.computeIfAbsent(provider, key -> new Handshakes());
+        final SSLSocket sslSocket = (SSLSocket) context.getSocketFactory().createSocket(socket, host, port, true);
+        sslSocket.setSSLParameters(getParameters());
+        sslSocket.setSoTimeout(timeout);
+        final long start = System.currentTimeMillis();
+        final long startNanos = System.nanoTime();
+        try {
+            sslSocket.startHandshake();
+        } catch (IOException e) {
+            handshakes.failed.increment();
+            throw e;
+        }
+        final SSLSession session = sslSocket.getSession();
+        // a resumed session keeps the creation time of the handshake that negotiated it
+        handshakes.record(System.nanoTime() - startNanos, session.getCreationTime() < start);
+        return sslSocket;
+    }
+
+    private static String[] checkSupported(final String[] values, final String[] supported, final String what) {
+        if (values == null || values.length == 0) {
+            return null;
+        }
+        for (final String value : values) {
+            Preconditions.checkArgument(Arrays.asList(supported).contains(value), what + " not supported: " + value);
+        }
+        return values.clone();
+    }
+
+    private static SSLContext getDefaultContext() {
+        try {
+            return SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No default SSL context", e);
+        }
+    }
+
+    private static final class Handshakes {
+
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder resumed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        void record(final long duration, final boolean isResumed) {
+            completed.increment();
+            nanos.add(duration);
+            if (isResumed) {
+                resumed.increment();
+            }
+        }
+
+        TlsStats getStats(final String provider) {
+            final long count = completed.sum();
+            return new TlsStats(provider, count, resumed.sum(), failed.sum(),
+                    count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(nanos.sum() / count));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.scribe.transport;
+
+/**
+ * Snapshot of the TLS handshakes made with a provider host through a {@link TlsConfig}.
+ */
+public class TlsStats {
+
+    private final String provider;
+    private final long handshakes;
+    private final long resumed;
+    private final long failures;
+    private final long averageMicros;
+
+    TlsStats(final String provider, final long handshakes, final long resumed, final long failures,
+            final long averageMicros) {
+        this.provider = provider;
+        this.handshakes = handshakes;
+        this.resumed = resumed;
+        this.failures = failures;
+        this.averageMicros = averageMicros;
+    }
+
+    /**
+     * @return host:port of the provider
+     */
+    public String getProvider() {
+        return provider;
+    }
+
+    /**
+     * @return handshakes completed, full or resumed
+     */
+    public long getHandshakes() {
+        return handshakes;
+    }
+
+    /**
+     * @return handshakes that resumed an earlier session
+     */
+    public long getResumed() {
+        return resumed;
+    }
+
+    /**
+     * @return handshakes that failed
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return average duration of the completed handshakes, in microseconds
+     */
+    public long getAverageMicros() {
+        return averageMicros;
+    }
+
+    /**
+     * @return share of the completed handshakes that resumed a session, 0 if none completed
+     */
+    public double getResumptionRate() {
+        return handshakes == 0 ? 0 : (double) resumed / handshakes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TlsStats[provider=%s, handshakes=%d, resumed=%d, failures=%d, average=%d us]",
+                provider, handshakes, resumed, failures, averageMicros);
+    }
+}
@@ -0,0 +1,198 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pooled connection over a Unix domain socket. The channel is non-blocking and waited for with a selector of its
+ * own, since channels of Unix domain sockets have no {@link java.net.Socket} to set a read timeout on.
+ *
+ * Errors of the channel are reported as {@link SocketException}, as they are for TCP connections, so that requests
+ * over kept alive connections closed by the peer are sent again.
+ */
+final class UnixSocketConnection extends PooledConnection {
+
+    private final ChannelIo io;
+
+    private UnixSocketConnection(final String route, final ChannelIo io) {
+        super(route, io.in, io.out);
+        this.io = io;
+    }
+
+    /**
+     * @param route pool route the connection belongs to
+     * @param path path of the socket
+     * @param connectTimeout timeout of the connection in milliseconds, 0 for none
+     */
+    static UnixSocketConnection open(final String route, final Path path, final int connectTimeout)
+            throws IOException {
+        final SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        Selector selector = null;
+        try {
+            selector = Selector.open();
+            channel.configureBlocking(false);
+            final ChannelIo io = new ChannelIo(path, channel, selector, channel.register(selector, 0));
+            if (!channel.connect(UnixDomainSocketAddress.of(path))) {
+                io.await(SelectionKey.OP_CONNECT, connectTimeout, "Connect timed out");
+                channel.finishConnect();
+            }
+            return new UnixSocketConnection(route, io);
+        } catch (IOException | RuntimeException e) {
+            if (selector != null) {
+                selector.close();
+            }
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    void setReadTimeout(final int millis) {
+        io.readTimeout = millis;
+    }
+
+    @Override
+    boolean isOpen() {
+        return io.channel.isOpen() && io.channel.isConnected();
+    }
+
+    @Override
+    public void close() {
+        try {
+            io.selector.close();
+            io.channel.close();
+        } catch (IOException e) {
+            // nothing we can do about it, the connection is discarded anyway
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("@PooledConnection(%s, %s)", getRoute(), io.path);
+    }
+
+    /**
+     * Blocking streams over the non-blocking channel, waiting for it with the selector.
+     */
+    private static final class ChannelIo {
+
+        private final Path path;
+        private final SocketChannel channel;
+        private final Selector selector;
+        private final SelectionKey key;
+        private volatile int readTimeout;
+
+        private final InputStream in = new InputStream() {
+
+            @Override
+            public int read() throws IOException {
+                final byte[] one = new byte[1];
+                return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                return len == 0 ? 0 : ChannelIo.this.read(ByteBuffer.wrap(b, off, len));
+            }
+        };
+
+        private final OutputStream out = new OutputStream() {
+
+            @Override
+            public void write(final int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                ChannelIo.this.write(ByteBuffer.wrap(b, off, len));
+            }
+        };
+
+        ChannelIo(final Path path, final SocketChannel channel, final Selector selector, final SelectionKey key) {
+            this.path = path;
+            this.channel = channel;
+            this.selector = selector;
+            this.key = key;
+        }
+
+        int read(final ByteBuffer buffer) throws IOException {
+            try {
+                while (true) {
+                    final int read = channel.read(buffer);
+                    if (read != 0) {
+                        return read;
+                    }
+                    await(SelectionKey.OP_READ, readTimeout, "Read timed out");
+                }
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                throw toSocketException(e);
+            }
+        }
+
+        void write(final ByteBuffer buffer) throws IOException {
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.write(buffer) == 0) {
+                        await(SelectionKey.OP_WRITE, 0, null);
+                    }
+                }
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                throw toSocketException(e);
+            }
+        }
+
+        /**
+         * Waits for the channel to be ready for the operation.
+         *
+         * @param timeout timeout in milliseconds, 0 for none
+         * @throws SocketTimeoutException if the channel was not ready in time
+         */
+        void await(final int ops, final int timeout, final String message) throws IOException {
+            key.interestOps(ops);
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (true) {
+                long wait = 0;
+                if (timeout > 0) {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SocketTimeoutException(message);
+                    }
+                    wait = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+                }
+                if (selector.select(wait) > 0) {
+                    selector.selectedKeys().clear();
+                    return;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedIOException("Interrupted while waiting for " + path);
+                }
+            }
+        }
+
+        private static SocketException toSocketException(final IOException e) {
+            if (e instanceof SocketException) {
+                return (SocketException) e;
+            }
+            final SocketException result = new SocketException(e.getMessage());
+            result.initCause(e);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import org.scribe.utils.Preconditions;
+
+/**
+ * {@link PooledHttpTransport} that sends every request to a local proxy listening on a Unix domain socket, such as
+ * the egress sidecar of the service mesh, instead of connecting to the provider hosts.
+ *
+ * Requests are sent in absolute-form, as to any HTTP proxy, so that the proxy knows the scheme and the host to forward
+ * them to: https requests are sent in plain HTTP/1.1 over the socket and TLS is left to the proxy. A connection can
+ * carry requests to any host, hence the connections of the pool are shared by all of them, up to the limit per host of
+ * the pool.
+ */
+public class UnixSocketTransport extends PooledHttpTransport {
+
+    private final Path socket;
+    private final String route;
+
+    /**
+     * @param socket path of the socket the proxy listens on
+     * @param pool pool of the connections to the proxy
+     */
+    public UnixSocketTransport(final Path socket, final ConnectionPool pool) {
+        super(pool);
+        Preconditions.checkNotNull(socket, "Socket path can't be null");
+        this.socket = socket;
+        this.route = "unix:" + socket;
+    }
+
+    public Path getSocket() {
+        return socket;
+    }
+
+    @Override
+    PooledConnection connect(final String route, final URI uri, final int connectTimeout) throws IOException {
+        return UnixSocketConnection.open(route, socket, connectTimeout);
+    }
+
+    @Override
+    String getRoute(final URI uri) {
+        return route;
+    }
+
+    @Override
+    String getRequestTarget(final URI uri) {
+        return Http11Codec.getAbsoluteTarget(uri);
+    }
+}
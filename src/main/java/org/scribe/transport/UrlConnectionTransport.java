@@ -0,0 +1,140 @@
+package org.scribe.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.scribe.exceptions.OAuthException;
+import org.scribe.model.Payload;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+
+/**
+ * {@link HttpTransport} backed by {@link HttpURLConnection}. This is what a {@link Request} uses when no transport has
+ * been configured for it.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String CONNECTION = "Connection";
+    private static final String CLOSE = "close";
+    private static final String EXPECT = "Expect";
+    private static final String CONTINUE = "100-continue";
+    private static final UrlConnectionTransport DEFAULT = new UrlConnectionTransport();
+
+    /**
+     * Returns the stateless instance used by requests without an explicit transport.
+     *
+     * @return default transport
+     */
+    public static UrlConnectionTransport getDefault() {
+        return DEFAULT;
+    }
+
+    @Override
+    public Response execute(final Request request) throws IOException {
+        final HttpURLConnection connection = openConnection(request);
+        connection.setRequestMethod(request.getVerb().name());
+        if (request.getConnectTimeout() != null) {
+            connection.setConnectTimeout(request.getConnectTimeout().intValue());
+        }
+        if (request.getReadTimeout() != null) {
+            connection.setReadTimeout(request.getReadTimeout().intValue());
+        }
+        addHeaders(connection, request);
+        if (request.hasBodyContent()) {
+            addBody(connection, request);
+        }
+        return readResponse(connection);
+    }
+
+    /**
+     * Opens the connection for the request. Overridden in tests in order to stub the connection object.
+     *
+     * @param request request to open the connection for
+     * @return not yet connected connection
+     *
+     * @throws IOException if the connection cannot be opened
+     */
+    protected HttpURLConnection openConnection(final Request request) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(request.getCompleteUrl()).openConnection();
+        connection.setInstanceFollowRedirects(request.isFollowRedirects());
+        return connection;
+    }
+
+    private void addHeaders(final HttpURLConnection connection, final Request request) {
+        // keep-alive is decided per request, the http.keepAlive system property would change it for the whole JVM
+        if (Boolean.FALSE.equals(request.getConnectionKeepAlive())) {
+            connection.setRequestProperty(CONNECTION, CLOSE);
+        }
+        for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+    }
+
+    /**
+     * A streamed payload goes out as it is read, with fixed length streaming when its length is known and chunked
+     * otherwise, instead of being buffered whole by the connection in order to compute its length. Streaming mode
+     * cannot resend the body, so such requests are not redirected by the connection. Bodies already held in memory keep
+     * the buffered mode.
+     */
+    private void addBody(final HttpURLConnection connection, final Request request) throws IOException {
+        final Payload payload = request.getBodyPayload();
+        final long length = payload.getContentLength();
+        if (length >= 0) {
+            connection.setRequestProperty(CONTENT_LENGTH, String.valueOf(length));
+        }
+        if (request.isStreamingBody()) {
+            if (length >= 0) {
+                connection.setFixedLengthStreamingMode(length);
+            } else {
+                connection.setChunkedStreamingMode(0);
+            }
+        }
+
+        // Set default content type if none is set.
+        if (connection.getRequestProperty(CONTENT_TYPE) == null) {
+            connection.setRequestProperty(CONTENT_TYPE, Request.DEFAULT_CONTENT_TYPE);
+        }
+        if (request.isExpectContinue()) {
+            connection.setRequestProperty(EXPECT, CONTINUE);
+        }
+        connection.setDoOutput(true);
+        final OutputStream out;
+        try {
+            out = connection.getOutputStream();
+        } catch (ProtocolException e) {
+            if (request.isExpectContinue()) {
+                // the server answered the head with a final status, which is read as the response
+                return;
+            }
+            throw e;
+        }
+        try (OutputStream body = out) {
+            payload.writeTo(body);
+        }
+    }
+
+    private Response readResponse(final HttpURLConnection connection) throws IOException {
+        try {
+            connection.connect();
+            final int code = connection.getResponseCode();
+            final Map<String, String> headers = new HashMap<>();
+            for (final Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+                headers.put(header.getKey(), header.getValue().get(0));
+            }
+            final InputStream stream = Response.isSuccessful(code) ? connection.getInputStream()
+                    : connection.getErrorStream();
+            return new Response(code, connection.getResponseMessage(), headers, stream);
+        } catch (UnknownHostException e) {
+            throw new OAuthException("The IP address of a host could not be determined.", e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package org.scribe.upload;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.scribe.exceptions.OAuthException;
+import org.scribe.exceptions.UploadException;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Response;
+import org.scribe.model.Token;
+import org.scribe.oauth.OAuthService;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Uploads a file in chunks through an {@link UploadProtocol}, several chunks at once.
+ *
+ * Each chunk is memory mapped from the file and streamed as the request body, so the file is never read onto the heap.
+ * Every request, chunk requests included, is signed right before it is sent and gets a fresh nonce and timestamp. When
+ * a chunk fails, the chunks not started yet are abandoned and an {@link UploadException} carries the
+ * {@link UploadSession}, which {@link #resume(UploadSession)} continues from: only the chunks the provider did not
+ * acknowledge are sent again.
+ */
+public class ChunkedUploader {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final OAuthService service;
+    private final Token token;
+    private final UploadProtocol protocol;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * @param service service signing the upload requests
+     * @param token access token to sign with
+     * @param protocol provider upload session endpoints
+     */
+    public ChunkedUploader(final OAuthService service, final Token token, final UploadProtocol protocol) {
+        Preconditions.checkNotNull(service, "Service can't be null");
+        Preconditions.checkNotNull(token, "Token can't be null");
+        Preconditions.checkNotNull(protocol, "Upload protocol can't be null");
+        Preconditions.checkArgument(DEFAULT_CHUNK_SIZE % protocol.getChunkAlignment() == 0,
+                "Default chunk size is not aligned for this protocol, set one");
+        this.service = service;
+        this.token = token;
+        this.protocol = protocol;
+    }
+
+    /**
+     * @param chunkSize bytes per chunk, a multiple of the protocol chunk alignment
+     * @return this uploader
+     */
+    public ChunkedUploader setChunkSize(final int chunkSize) {
+        Preconditions.checkArgument(chunkSize > 0 && chunkSize % protocol.getChunkAlignment() == 0,
+                "Chunk size must be a positive multiple of " + protocol.getChunkAlignment());
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @param parallelism chunks uploaded at once
+     * @return this uploader
+     */
+    public ChunkedUploader setParallelism(final int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Uploads the file in a new session.
+     *
+     * @param file file to upload
+     * @return the finished session
+     *
+     * @throws UploadException if the upload stopped before the file was committed
+     */
+    public UploadSession upload(final Path file) {
+        Preconditions.checkNotNull(file, "File can't be null");
+        try {
+            return resume(new UploadSession(file, Files.size(file), chunkSize));
+        } catch (IOException ioe) {
+            throw new OAuthException("Cannot read upload file " + file, ioe);
+        }
+    }
+
+    /**
+     * Continues an upload that failed: starts the session if that failed, sends the chunks that were not acknowledged
+     * and commits the file.
+     *
+     * @param session session carried by the {@link UploadException}
+     * @return the finished session
+     *
+     * @throws UploadException if the upload stopped again before the file was committed
+     */
+    public UploadSession resume(final UploadSession session) {
+        Preconditions.checkNotNull(session, "Session can't be null");
+        if (session.isFinished()) {
+            return session;
+        }
+        try (FileChannel channel = FileChannel.open(session.getFile(), StandardOpenOption.READ)) {
+            if (channel.size() != session.getLength()) {
+                throw new OAuthException("File " + session.getFile() + " changed since the upload started");
+            }
+            if (session.getSessionId() == null) {
+                start(session);
+            }
+            uploadChunks(session, channel);
+            finish(session);
+            return session;
+        } catch (IOException ioe) {
+            throw new UploadException("Cannot read upload file " + session.getFile(), session, ioe);
+        }
+    }
+
+    private void start(final UploadSession session) {
+        try {
+            session.setSessionId(protocol.extractSessionId(send(protocol.createStartRequest(), "Session start")));
+        } catch (RuntimeException e) {
+            throw new UploadException("Upload session could not be started", session, e);
+        }
+    }
+
+    private void uploadChunks(final UploadSession session, final FileChannel channel) {
+        final List<Integer> missing = new ArrayList<>();
+        for (int chunk = 0; chunk < session.getChunkCount(); chunk++) {
+            if (!session.isAcknowledged(chunk)) {
+                missing.add(chunk);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, missing.size()),
+                new UploadThreadFactory());
+        try {
+            final List<Future<?>> futures = new ArrayList<>(missing.size());
+            for (final int chunk : missing) {
+                futures.add(executor.submit(() -> {
+                    if (failure.get() != null) {
+                        return;
+                    }
+                    try {
+                        uploadChunk(session, channel, chunk);
+                    } catch (IOException | RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw new UploadException("Chunked upload stopped, " + session.getAcknowledgedBytes() + " of "
+                    + session.getLength() + " bytes acknowledged", session, failure.get());
+        }
+    }
+
+    private void uploadChunk(final UploadSession session, final FileChannel channel, final int chunk)
+            throws IOException {
+        final long offset = session.getChunkOffset(chunk);
+        final MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                session.getChunkLength(chunk));
+        final OAuthRequest request = protocol.createChunkRequest(session.getSessionId(), offset,
+                chunk == session.getChunkCount() - 1);
+        request.addPayload(bytes);
+        send(request, "Chunk at offset " + offset);
+        session.acknowledge(chunk);
+    }
+
+    private void finish(final UploadSession session) {
+        try {
+            send(protocol.createFinishRequest(session.getSessionId(), session.getLength()), "Session finish");
+            session.setFinished();
+        } catch (RuntimeException e) {
+            throw new UploadException("Uploaded file could not be committed", session, e);
+        }
+    }
+
+    private Response send(final OAuthRequest request, final String what) {
+        service.signRequest(token, request);
+        final Response response = request.send();
+        // read to the end, so that a pooled connection goes back to its pool
+        final String body = response.getBody();
+        if (!response.isSuccessful()) {
+            throw new OAuthException(what + " was rejected with " + response.getCode() + ": " + body);
+        }
+        return response;
+    }
+
+    private static class UploadThreadFactory implements ThreadFactory {
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "subscribe-upload-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.scribe.upload;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.scribe.exceptions.OAuthException;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Response;
+import org.scribe.model.Verb;
+import org.scribe.utils.Preconditions;
+
+/**
+ * Dropbox concurrent upload sessions (files/upload_session/start, append_v2 and finish). Unlike a regular upload
+ * session, a concurrent one accepts its chunks in any order, which is what lets {@link ChunkedUploader} send several at
+ * once. Every chunk but the last must be a multiple of 4 MB.
+ */
+public class DropBoxUploadProtocol implements UploadProtocol {
+
+    public static final String UPLOAD_SESSION_URL = "https://content.dropboxapi.com/2/files/upload_session/";
+
+    private static final int CHUNK_ALIGNMENT = 4 * 1024 * 1024;
+    private static final String API_ARG = "Dropbox-API-Arg";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String OCTET_STREAM = "application/octet-stream";
+    private static final Pattern SESSION_ID_PATTERN = Pattern.compile("\"session_id\"\\s*:\\s*\"(.*?)\"");
+
+    private final String baseUrl;
+    private final String path;
+
+    /**
+     * @param path Dropbox path of the uploaded file, for instance /Photos/holidays.jpg
+     */
+    public DropBoxUploadProtocol(final String path) {
+        this(UPLOAD_SESSION_URL, path);
+    }
+
+    /**
+     * @param baseUrl URL the start, append_v2 and finish endpoints are relative to
+     * @param path Dropbox path of the uploaded file
+     */
+    public DropBoxUploadProtocol(final String baseUrl, final String path) {
+        Preconditions.checkEmptyString(baseUrl, "Base URL can't be null or empty");
+        Preconditions.checkEmptyString(path, "Path can't be null or empty");
+        this.baseUrl = baseUrl;
+        this.path = path;
+    }
+
+    @Override
+    public OAuthRequest createStartRequest() {
+        return createRequest("start", "{\"close\": false, \"session_type\": \"concurrent\"}", true);
+    }
+
+    @Override
+    public String extractSessionId(final Response response) {
+        final String body = response.getBody();
+        final Matcher matcher = SESSION_ID_PATTERN.matcher(body);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        throw new OAuthException("Cannot extract an upload session id. Response was: " + body);
+    }
+
+    @Override
+    public OAuthRequest createChunkRequest(final String sessionId, final long offset, final boolean last) {
+        return createRequest("append_v2", "{\"cursor\": " + cursor(sessionId, offset) + ", \"close\": " + last + '}',
+                false);
+    }
+
+    @Override
+    public OAuthRequest createFinishRequest(final String sessionId, final long length) {
+        return createRequest("finish", "{\"cursor\": " + cursor(sessionId, length) + ", \"commit\": {\"path\": "
+                + quote(path) + ", \"mode\": \"add\", \"autorename\": true}}", true);
+    }
+
+    @Override
+    public int getChunkAlignment() {
+        return CHUNK_ALIGNMENT;
+    }
+
+    private OAuthRequest createRequest(final String endpoint, final String argument, final boolean empty) {
+        final OAuthRequest request = new OAuthRequest(Verb.POST, baseUrl + endpoint);
+        request.addHeader(API_ARG, argument);
+        request.addHeader(CONTENT_TYPE, OCTET_STREAM);
+        if (empty) {
+            request.addPayload(new byte[0]);
+        }
+        return request;
+    }
+
+    private static String cursor(final String sessionId, final long offset) {
+        return "{\"session_id\": " + quote(sessionId) + ", \"offset\": " + offset + '}';
+    }
+
+    /**
+     * JSON string, with everything outside printable ASCII escaped as HTTP header values must be.
+     */
+    private static String quote(final String value) {
+        final StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
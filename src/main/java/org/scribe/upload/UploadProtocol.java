@@ -0,0 +1,46 @@
+package org.scribe.upload;
+
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Response;
+
+/**
+ * Provider side of a chunked upload session, as driven by {@link ChunkedUploader}: a session is started, chunks are
+ * appended at their offset, possibly several at once and in any order, then the session is finished.
+ *
+ * Requests are returned unsigned, the uploader signs each of them right before sending it.
+ */
+public interface UploadProtocol {
+
+    /**
+     * @return request starting a new upload session
+     */
+    OAuthRequest createStartRequest();
+
+    /**
+     * @param response successful response to the start request
+     * @return identifier of the session the chunks are appended to
+     */
+    String extractSessionId(Response response);
+
+    /**
+     * Creates the request appending a chunk. The uploader adds the chunk as the request payload.
+     *
+     * @param sessionId upload session
+     * @param offset offset of the chunk in the file
+     * @param last whether this is the chunk ending the file
+     * @return request without its payload
+     */
+    OAuthRequest createChunkRequest(String sessionId, long offset, boolean last);
+
+    /**
+     * @param sessionId upload session
+     * @param length length of the whole file
+     * @return request committing the uploaded chunks as a file
+     */
+    OAuthRequest createFinishRequest(String sessionId, long length);
+
+    /**
+     * @return number of bytes every chunk but the last must be a multiple of, 1 if the provider does not care
+     */
+    int getChunkAlignment();
+}
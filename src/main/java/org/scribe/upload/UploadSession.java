@@ -0,0 +1,107 @@
+package org.scribe.upload;
+
+import java.nio.file.Path;
+import java.util.BitSet;
+
+/**
+ * Progress of a chunked upload: the provider session and the chunks it acknowledged. A session that failed part way
+ * is handed to {@link ChunkedUploader#resume(UploadSession)}, which only sends what was not acknowledged.
+ */
+public class UploadSession {
+
+    private final Path file;
+    private final long length;
+    private final int chunkSize;
+    private final int chunkCount;
+    private final BitSet acknowledged;
+    private volatile String sessionId;
+    private volatile boolean finished;
+
+    UploadSession(final Path file, final long length, final int chunkSize) {
+        this.file = file;
+        this.length = length;
+        this.chunkSize = chunkSize;
+        // an empty file is one empty chunk, the last one, which closes the provider session
+        this.chunkCount = Math.max(1, (int) ((length + chunkSize - 1) / chunkSize));
+        this.acknowledged = new BitSet(chunkCount);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return provider session id, null until the session is started
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * @return bytes acknowledged contiguously from the start of the file, the offset a sequential upload resumes from
+     */
+    public synchronized long getAcknowledgedOffset() {
+        final int firstMissing = acknowledged.nextClearBit(0);
+        return firstMissing >= chunkCount ? length : getChunkOffset(firstMissing);
+    }
+
+    /**
+     * @return bytes acknowledged by the provider, in any chunk
+     */
+    public synchronized long getAcknowledgedBytes() {
+        long bytes = 0;
+        for (int chunk = acknowledged.nextSetBit(0); chunk >= 0; chunk = acknowledged.nextSetBit(chunk + 1)) {
+            bytes += getChunkLength(chunk);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return true once every chunk was acknowledged and the file committed
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    int getChunkCount() {
+        return chunkCount;
+    }
+
+    long getChunkOffset(final int chunk) {
+        return (long) chunk * chunkSize;
+    }
+
+    int getChunkLength(final int chunk) {
+        return (int) Math.min(chunkSize, length - getChunkOffset(chunk));
+    }
+
+    synchronized boolean isAcknowledged(final int chunk) {
+        return acknowledged.get(chunk);
+    }
+
+    synchronized void acknowledge(final int chunk) {
+        acknowledged.set(chunk);
+    }
+
+    void setSessionId(final String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    void setFinished() {
+        this.finished = true;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UploadSession[file=%s, session=%s, acknowledged=%d/%d bytes, finished=%s]", file,
+                sessionId, getAcknowledgedBytes(), length, finished);
+    }
+}
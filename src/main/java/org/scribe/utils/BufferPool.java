@@ -0,0 +1,51 @@
+package org.scribe.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of fixed size byte buffers for reading response bodies, so that reading a body of unknown length does not
+ * allocate (and throw away) its scratch buffers every time.
+ *
+ * The pool is bounded: buffers released while it is full are left to the garbage collector.
+ */
+public final class BufferPool {
+
+    public static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final int MAX_POOLED = 64;
+    private static final Queue<byte[]> BUFFERS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    private BufferPool() {
+    }
+
+    /**
+     * @return a buffer of {@link #BUFFER_SIZE} bytes, with undefined contents
+     */
+    public static byte[] acquire() {
+        final byte[] buffer = BUFFERS.poll();
+        if (buffer == null) {
+            return new byte[BUFFER_SIZE];
+        }
+        POOLED.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Hands a buffer back to the pool. The buffer must not be used afterwards.
+     *
+     * @param buffer buffer obtained from {@link #acquire()}
+     */
+    public static void release(final byte[] buffer) {
+        if (buffer.length != BUFFER_SIZE) {
+            return;
+        }
+        if (POOLED.incrementAndGet() <= MAX_POOLED) {
+            BUFFERS.offer(buffer);
+        } else {
+            POOLED.decrementAndGet();
+        }
+    }
+}
@@ -1,54 +1,158 @@
 package org.scribe.utils;
 
-import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.net.URLEncoder;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Pattern;
-import org.scribe.exceptions.OAuthException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
+ * Percent-encoding of RFC 3986, as OAuth signatures require it: every UTF-8 byte of the string is escaped as %XX,
+ * upper case, except for the unreserved characters ALPHA, DIGIT, "-", ".", "_" and "~".
+ *
+ * The characters are looked up in a table, and strings with nothing to escape, such as most keys, nonces and
+ * timestamps, are returned as they are. The overloads appending to a {@link StringBuilder} or a {@link ByteBuffer}
+ * let base strings and headers be built without intermediate strings.
+ *
  * @author Pablo Fernandez
  */
 public abstract class OAuthEncoder {
 
-    private static final String CHARSET = "UTF-8";
-    private static final Map<String, String> ENCODING_RULES;
+    private static final boolean[] UNRESERVED = new boolean[128];
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    // what String#getBytes writes for an unpaired surrogate
+    private static final int MALFORMED = '?';
 
     static {
-        final Map<String, String> rules = new HashMap<>();
-        rules.put("*", "%2A");
-        rules.put("+", "%20");
-        rules.put("%7E", "~");
-        ENCODING_RULES = Collections.unmodifiableMap(rules);
+        for (char c = 'A'; c <= 'Z'; c++) {
+            UNRESERVED[c] = true;
+            UNRESERVED[Character.toLowerCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['-'] = true;
+        UNRESERVED['.'] = true;
+        UNRESERVED['_'] = true;
+        UNRESERVED['~'] = true;
     }
 
+    /**
+     * @return the encoded string, the string itself if nothing needs escaping
+     */
     public static String encode(final String plain) {
         Preconditions.checkNotNull(plain, "Cannot encode null object");
-        String encoded = "";
-        try {
-            encoded = URLEncoder.encode(plain, CHARSET);
-        } catch (UnsupportedEncodingException uee) {
-            throw new OAuthException("Charset not found while encoding string: " + CHARSET, uee);
+        final int first = indexOfEscape(plain);
+        if (first < 0) {
+            return plain;
         }
-        for (final Map.Entry<String, String> rule : ENCODING_RULES.entrySet()) {
-            encoded = applyRule(encoded, rule.getKey(), rule.getValue());
+        final StringBuilder out = new StringBuilder(plain.length() + 16);
+        out.append(plain, 0, first);
+        escape(plain, first, out, null);
+        return out.toString();
+    }
+
+    /**
+     * Appends the encoded characters to the builder.
+     *
+     * @return the builder
+     */
+    public static StringBuilder encode(final CharSequence plain, final StringBuilder out) {
+        Preconditions.checkNotNull(plain, "Cannot encode null object");
+        Preconditions.checkNotNull(out, "Cannot encode to null builder");
+        final int first = indexOfEscape(plain);
+        if (first < 0) {
+            return out.append(plain);
         }
-        return encoded;
+        out.append(plain, 0, first);
+        escape(plain, first, out, null);
+        return out;
     }
 
-    private static String applyRule(final String encoded, final String toReplace, final String replacement) {
-        return encoded.replaceAll(Pattern.quote(toReplace), replacement);
+    /**
+     * Puts the encoded characters, all of them US-ASCII, to the buffer as bytes.
+     *
+     * @return the buffer
+     * @throws java.nio.BufferOverflowException if the buffer is too small, in which case some of the bytes were put
+     */
+    public static ByteBuffer encode(final CharSequence plain, final ByteBuffer out) {
+        Preconditions.checkNotNull(plain, "Cannot encode null object");
+        Preconditions.checkNotNull(out, "Cannot encode to null buffer");
+        escape(plain, 0, null, out);
+        return out;
     }
 
+    /**
+     * Decodes a form encoded string, "+" standing for a space.
+     *
+     * @return the decoded string, the string itself if it holds neither "%" nor "+"
+     */
     public static String decode(final String encoded) {
         Preconditions.checkNotNull(encoded, "Cannot decode null object");
-        try {
-            return URLDecoder.decode(encoded, CHARSET);
-        } catch (UnsupportedEncodingException uee) {
-            throw new OAuthException("Charset not found while decoding string: " + CHARSET, uee);
+        if (encoded.indexOf('%') < 0) {
+            return encoded.indexOf('+') < 0 ? encoded : encoded.replace('+', ' ');
+        }
+        return URLDecoder.decode(encoded, StandardCharsets.UTF_8);
+    }
+
+    private static int indexOfEscape(final CharSequence plain) {
+        for (int i = 0; i < plain.length(); i++) {
+            final char c = plain.charAt(i);
+            if (c >= 128 || !UNRESERVED[c]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Encodes the characters from the given index on, to either the builder or the buffer.
+     */
+    private static void escape(final CharSequence plain, final int from, final StringBuilder builder,
+            final ByteBuffer buffer) {
+        for (int i = from; i < plain.length(); i++) {
+            final char c = plain.charAt(i);
+            if (c < 128) {
+                if (UNRESERVED[c]) {
+                    put(c, builder, buffer);
+                } else {
+                    putEscaped(c, builder, buffer);
+                }
+                continue;
+            }
+            int codePoint = Character.codePointAt(plain, i);
+            if (Character.isSupplementaryCodePoint(codePoint)) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                codePoint = MALFORMED;
+            }
+            if (codePoint < 0x80) {
+                putEscaped(codePoint, builder, buffer);
+            } else if (codePoint < 0x800) {
+                putEscaped(0xc0 | codePoint >> 6, builder, buffer);
+                putEscaped(0x80 | codePoint & 0x3f, builder, buffer);
+            } else if (codePoint < 0x10000) {
+                putEscaped(0xe0 | codePoint >> 12, builder, buffer);
+                putEscaped(0x80 | codePoint >> 6 & 0x3f, builder, buffer);
+                putEscaped(0x80 | codePoint & 0x3f, builder, buffer);
+            } else {
+                putEscaped(0xf0 | codePoint >> 18, builder, buffer);
+                putEscaped(0x80 | codePoint >> 12 & 0x3f, builder, buffer);
+                putEscaped(0x80 | codePoint >> 6 & 0x3f, builder, buffer);
+                putEscaped(0x80 | codePoint & 0x3f, builder, buffer);
+            }
+        }
+    }
+
+    private static void putEscaped(final int b, final StringBuilder builder, final ByteBuffer buffer) {
+        put('%', builder, buffer);
+        put(HEX[b >> 4], builder, buffer);
+        put(HEX[b & 0xf], builder, buffer);
+    }
+
+    private static void put(final char c, final StringBuilder builder, final ByteBuffer buffer) {
+        if (builder != null) {
+            builder.append(c);
+        } else {
+            buffer.put((byte) c);
         }
     }
 }
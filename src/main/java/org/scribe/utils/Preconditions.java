@@ -31,6 +31,19 @@ public class Preconditions
     check(object != null, errorMsg);
   }
 
+  /**
+   * Checks that an argument satisfies a condition.
+   * 
+   * @param condition outcome of the check on the argument
+   * @param errorMsg error message
+   * 
+   * @throws IllegalArgumentException if the condition is false
+   */
+  public static void checkArgument(boolean condition, String errorMsg)
+  {
+    check(condition, errorMsg);
+  }
+
   /**
    * Checks that a string is not null or empty
    * 
@@ -1,6 +1,8 @@
 package org.scribe.utils;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
 /**
  * Utils to deal with Streams.
@@ -9,6 +11,9 @@ import java.io.*;
  */
 public class StreamUtils
 {
+  // a bogus Content-Length should not allocate gigabytes up front
+  private static final int MAX_PRESIZE = 16 * 1024 * 1024;
+
   private StreamUtils(){}
 
   /**
@@ -19,26 +24,102 @@ public class StreamUtils
    */
   public static String getStreamContents(InputStream is)
   {
-    Preconditions.checkNotNull(is, "Cannot get String from a null object");
+    return new String(getStreamBytes(is, -1), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads the stream to its end and closes it.
+   * 
+   * A stream of known length is read straight into an array of that size. Otherwise the stream is read into pooled
+   * buffers (see {@link BufferPool}) which are copied once, into an array of the exact size.
+   * 
+   * @param is input stream
+   * @param expectedLength number of bytes the stream is expected to hold, -1 if unknown
+   * @return stream contents
+   */
+  public static byte[] getStreamBytes(InputStream is, long expectedLength)
+  {
+    Preconditions.checkNotNull(is, "Cannot get bytes from a null object");
     try
     {
-      final char[] buffer = new char[0x10000];
-      StringBuilder out = new StringBuilder();
-      Reader in = new InputStreamReader(is, "UTF-8");
-      int read;
-      do
+      try
       {
-        read = in.read(buffer, 0, buffer.length);
-        if (read > 0)
+        if (expectedLength < 0 || expectedLength > MAX_PRESIZE)
+        {
+          return readRemaining(is, new byte[0], 0);
+        }
+        byte[] result = new byte[(int) expectedLength];
+        int filled = readFully(is, result, 0);
+        if (filled < result.length)
+        {
+          return Arrays.copyOf(result, filled);
+        }
+        int next = is.read();
+        if (next == -1)
         {
-          out.append(buffer, 0, read);
+          return result;
         }
-      } while (read >= 0);
-      in.close();
-      return out.toString();
-    } catch (IOException ioe)
+        // longer than announced
+        byte[] prefix = Arrays.copyOf(result, result.length + 1);
+        prefix[result.length] = (byte) next;
+        return readRemaining(is, prefix, prefix.length);
+      }
+      finally
+      {
+        is.close();
+      }
+    }
+    catch (IOException ioe)
     {
       throw new IllegalStateException("Error while reading response body", ioe);
     }
   }
+
+  private static byte[] readRemaining(InputStream is, byte[] prefix, int prefixLength) throws IOException
+  {
+    List<byte[]> chunks = new ArrayList<byte[]>();
+    try
+    {
+      long total = prefixLength;
+      int filled;
+      do
+      {
+        byte[] chunk = BufferPool.acquire();
+        chunks.add(chunk);
+        filled = readFully(is, chunk, 0);
+        total += filled;
+      } while (filled == BufferPool.BUFFER_SIZE);
+      if (total > Integer.MAX_VALUE - 8)
+      {
+        throw new IOException("Stream too large for an array: more than " + total + " bytes");
+      }
+      byte[] result = Arrays.copyOf(prefix, (int) total);
+      int offset = prefixLength;
+      for (byte[] chunk : chunks)
+      {
+        int length = (int) Math.min(chunk.length, total - offset);
+        System.arraycopy(chunk, 0, result, offset, length);
+        offset += length;
+      }
+      return result;
+    }
+    finally
+    {
+      for (byte[] chunk : chunks)
+      {
+        BufferPool.release(chunk);
+      }
+    }
+  }
+
+  private static int readFully(InputStream is, byte[] buffer, int offset) throws IOException
+  {
+    int filled = offset;
+    int read;
+    while (filled < buffer.length && (read = is.read(buffer, filled, buffer.length - filled)) != -1)
+    {
+      filled += read;
+    }
+    return filled;
+  }
 }
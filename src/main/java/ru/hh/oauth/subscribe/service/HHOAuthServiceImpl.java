@@ -15,5 +15,6 @@ public class HHOAuthServiceImpl extends OAuth20ServiceImpl {
     @Override
     public void signRequest(Token accessToken, OAuthRequest request) {
         request.addHeader("Authorization", "Bearer " + accessToken.getToken());
+        getConfig().applyTransport(request, accessToken);
     }
 }
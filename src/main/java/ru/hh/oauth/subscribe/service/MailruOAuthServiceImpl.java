@@ -49,7 +49,7 @@ public class MailruOAuthServiceImpl extends OAuth20ServiceImpl {
         } catch (UnsupportedEncodingException e) {
             throw new IllegalStateException(e);
         }
-
+        getConfig().applyTransport(request, accessToken);
     }
 
     @Override
@@ -16,6 +16,7 @@ public class TutByOAuthServiceImpl extends OAuth20ServiceImpl {
     @Override
     public void signRequest(Token accessToken, OAuthRequest request) {
         request.addQuerystringParameter(OAuthConstants.TOKEN, accessToken.getToken());
+        getConfig().applyTransport(request, accessToken);
     }
 
 }
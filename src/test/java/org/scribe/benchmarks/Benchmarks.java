@@ -0,0 +1,115 @@
+package org.scribe.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.scribe.services.Base64Encoder;
+import org.scribe.utils.OAuthEncoder;
+
+/**
+ * Timing loops of the benchmarks of this package, plain mains for want of JMH in this build. Each operation is run for
+ * the given time once to warm up, then once measured; its results are folded into a field so that the JIT can't drop
+ * the work.
+ */
+final class Benchmarks {
+
+    private static volatile int sink;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @return operations per second, all threads together
+     */
+    static double perSecond(final int threads, final long millis, final Supplier<?> operation)
+            throws InterruptedException {
+        run(threads, millis, operation);
+        return run(threads, millis, operation) * 1000.0 / millis;
+    }
+
+    /**
+     * @return thread counts from 1 to the given one, doubling
+     */
+    static List<Integer> threadCounts(final int maxThreads) {
+        final List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(maxThreads);
+        return counts;
+    }
+
+    /**
+     * @return a signature base string of the given length, a POST with percent-encoded parameters
+     */
+    static String baseString(final int length) {
+        final StringBuilder parameters = new StringBuilder("oauth_consumer_key=dpf43f3p2l4k3l03"
+                + "&oauth_nonce=kllo9940pd9333jh&oauth_signature_method=HMAC-SHA1&oauth_timestamp=1191242096"
+                + "&oauth_token=nnch734d00sl2jdk&oauth_version=1.0");
+        for (int i = 0; parameters.length() < length; i++) {
+            parameters.append("&status").append(i).append("=Hello%20Ladies%20%2B%20Gentlemen%2C%20a%20signed%20OAuth");
+        }
+        final StringBuilder base = new StringBuilder("POST&")
+                .append(OAuthEncoder.encode("https://api.example.com/1/statuses/update.json")).append('&');
+        OAuthEncoder.encode(parameters, base);
+        base.setLength(length);
+        return base.toString();
+    }
+
+    /**
+     * Signs as the HMAC services did before the Mac cache: a Mac looked up and keyed for every signature.
+     */
+    static String signWithNewMac(final String algorithm, final String baseString, final String apiSecret,
+            final String tokenSecret) {
+        try {
+            final String key = OAuthEncoder.encode(apiSecret) + '&' + OAuthEncoder.encode(tokenSecret);
+            final Mac mac = Mac.getInstance(algorithm);
+            mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), algorithm));
+            return Base64Encoder.getInstance().encode(mac.doFinal(baseString.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static int getArgument(final String[] args, final int index, final int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    private static long run(final int threads, final long millis, final Supplier<?> operation)
+            throws InterruptedException {
+        final LongAdder operations = new LongAdder();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final Thread worker = new Thread(() -> {
+                int hash = 0;
+                long count = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                final long end = System.nanoTime() + millis * 1000000;
+                do {
+                    hash += operation.get().hashCode();
+                    count++;
+                } while (System.nanoTime() < end);
+                operations.add(count);
+                sink += hash;
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum();
+    }
+}
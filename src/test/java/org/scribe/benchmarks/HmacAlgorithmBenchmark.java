@@ -0,0 +1,36 @@
+package org.scribe.benchmarks;
+
+import org.scribe.services.HMACSha1SignatureService;
+import org.scribe.services.HMACSha256SignatureService;
+import org.scribe.services.HMACSha512SignatureService;
+import org.scribe.services.HmacSignatureService;
+
+/**
+ * Nanoseconds per HMAC-SHA1, HMAC-SHA256 and HMAC-SHA512 signature, with a fresh Mac per signature ("uncached") and
+ * with the {@link HmacSignatureService} core, on a 400 byte base string.
+ *
+ * Arguments: thread count (default 1), seconds per run (default 2). The time is that of one thread.
+ */
+public class HmacAlgorithmBenchmark {
+
+    private static final String API_SECRET = "kd94hf93k423kf44";
+    private static final String TOKEN_SECRET = "pfkkdhi9sl3r4s00";
+
+    public static void main(String[] args) throws Exception {
+        final int threads = Benchmarks.getArgument(args, 0, 1);
+        final long millis = Benchmarks.getArgument(args, 1, 2) * 1000L;
+        final String baseString = Benchmarks.baseString(400);
+
+        System.out.println("algorithm   uncached   core");
+        for (final HmacSignatureService service : new HmacSignatureService[] { new HMACSha1SignatureService(),
+                new HMACSha256SignatureService(), new HMACSha512SignatureService() }) {
+            final String algorithm = service.getAlgorithm();
+            final double uncached = Benchmarks.perSecond(threads, millis,
+                    () -> Benchmarks.signWithNewMac(algorithm, baseString, API_SECRET, TOKEN_SECRET));
+            final double core = Benchmarks.perSecond(threads, millis,
+                    () -> service.getSignature(baseString, API_SECRET, TOKEN_SECRET));
+            System.out.printf("%-11s %4.0f ns    %4.0f ns%n", algorithm, threads * 1e9 / uncached,
+                    threads * 1e9 / core);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.scribe.benchmarks;
+
+import org.scribe.services.HMACSha1SignatureService;
+
+/**
+ * HMAC-SHA1 signatures per second from 1 to N threads, with a Mac looked up and keyed for every signature as the
+ * service used to do ("old") and with the Macs of the {@link org.scribe.services.MacCache} ("cached").
+ *
+ * Arguments: highest thread count (default 8), seconds per run (default 2).
+ */
+public class HmacCacheBenchmark {
+
+    private static final String API_SECRET = "kd94hf93k423kf44";
+    private static final String TOKEN_SECRET = "pfkkdhi9sl3r4s00";
+
+    public static void main(String[] args) throws Exception {
+        final int maxThreads = Benchmarks.getArgument(args, 0, 8);
+        final long millis = Benchmarks.getArgument(args, 1, 2) * 1000L;
+        final String baseString = Benchmarks.baseString(400);
+        final HMACSha1SignatureService service = new HMACSha1SignatureService();
+
+        System.out.println("threads  old        cached");
+        for (final int threads : Benchmarks.threadCounts(maxThreads)) {
+            final double old = Benchmarks.perSecond(threads, millis,
+                    () -> Benchmarks.signWithNewMac("HmacSHA1", baseString, API_SECRET, TOKEN_SECRET));
+            final double cached = Benchmarks.perSecond(threads, millis,
+                    () -> service.getSignature(baseString, API_SECRET, TOKEN_SECRET));
+            System.out.printf("%-8d %.2fM/s    %.2fM/s%n", threads, old / 1e6, cached / 1e6);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.scribe.benchmarks;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.regex.Pattern;
+import org.scribe.utils.OAuthEncoder;
+
+/**
+ * Nanoseconds per string percent-encoded by the URLEncoder and replaceAll algorithm OAuthEncoder used to have
+ * ("old"), by {@link OAuthEncoder#encode(String)} and by {@link OAuthEncoder#encode(CharSequence, StringBuilder)}
+ * appending to a reused builder, over six typical parameter keys and values.
+ *
+ * Arguments: thread count (default 1), seconds per run (default 2). The time is that of one thread.
+ */
+public class OAuthEncoderBenchmark {
+
+    private static final String[] STRINGS = {
+        "oauth_callback", "http://printer.example.com/ready?id=42&format=json",
+        "oauth_timestamp", "1191242096",
+        "status", "Hello Ladies + Gentlemen, a signed OAuth request! \u00e9t\u00e9 ~*",
+    };
+
+    private static final ThreadLocal<StringBuilder> BUILDERS = ThreadLocal.withInitial(StringBuilder::new);
+
+    public static void main(String[] args) throws Exception {
+        final int threads = Benchmarks.getArgument(args, 0, 1);
+        final long millis = Benchmarks.getArgument(args, 1, 2) * 1000L;
+
+        report("old encode", threads, Benchmarks.perSecond(threads, millis, () -> {
+            int length = 0;
+            for (final String plain : STRINGS) {
+                length += encodeWithUrlEncoder(plain).length();
+            }
+            return length;
+        }));
+        report("new encode", threads, Benchmarks.perSecond(threads, millis, () -> {
+            int length = 0;
+            for (final String plain : STRINGS) {
+                length += OAuthEncoder.encode(plain).length();
+            }
+            return length;
+        }));
+        report("encode(.., builder)", threads, Benchmarks.perSecond(threads, millis, () -> {
+            final StringBuilder builder = BUILDERS.get();
+            builder.setLength(0);
+            for (final String plain : STRINGS) {
+                OAuthEncoder.encode(plain, builder);
+            }
+            return builder.length();
+        }));
+    }
+
+    private static void report(final String name, final int threads, final double perSecond) {
+        System.out.printf("%-20s %6.0f ns%n", name, threads * 1e9 / (perSecond * STRINGS.length));
+    }
+
+    private static String encodeWithUrlEncoder(final String plain) {
+        try {
+            String encoded = URLEncoder.encode(plain, "UTF-8");
+            encoded = encoded.replaceAll(Pattern.quote("*"), "%2A");
+            encoded = encoded.replaceAll(Pattern.quote("+"), "%20");
+            return encoded.replaceAll(Pattern.quote("%7E"), "~");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
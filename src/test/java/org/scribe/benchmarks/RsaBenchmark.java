@@ -0,0 +1,64 @@
+package org.scribe.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.scribe.services.Base64Encoder;
+import org.scribe.services.RSASha1SignatureService;
+import org.scribe.services.RSASha256SignatureService;
+
+/**
+ * Microseconds per RSA signature for 1024 and 2048 bit keys: a Signature looked up and initialized for every signature
+ * as RSA-SHA1 used to do ("old"), the pooled RSA-SHA1 and RSA-SHA256 services, and RSA-SHA256 batches signed by
+ * {@link org.scribe.services.RsaSignatureService#getSignatures(List, ForkJoinPool)} ("bulk").
+ *
+ * Arguments: thread count (default 1), seconds per run (default 2). The serial columns sign on that many threads, the
+ * bulk one on a pool of that parallelism; the time is wall clock time per signature, all threads together.
+ */
+public class RsaBenchmark {
+
+    private static final int BATCH = 64;
+
+    public static void main(String[] args) throws Exception {
+        final int threads = Benchmarks.getArgument(args, 0, 1);
+        final long millis = Benchmarks.getArgument(args, 1, 2) * 1000L;
+        final String baseString = Benchmarks.baseString(400);
+        final List<String> batch = Collections.nCopies(BATCH, baseString);
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+
+        System.out.println("key    old SHA1   pooled SHA1   pooled SHA256   bulk SHA256");
+        for (final int bits : new int[] { 1024, 2048 }) {
+            final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(bits);
+            final PrivateKey key = generator.generateKeyPair().getPrivate();
+            final RSASha1SignatureService sha1 = new RSASha1SignatureService(key);
+            final RSASha256SignatureService sha256 = new RSASha256SignatureService(key);
+
+            final double old = Benchmarks.perSecond(threads, millis, () -> signWithNewSignature(key, baseString));
+            final double pooledSha1 = Benchmarks.perSecond(threads, millis,
+                    () -> sha1.getSignature(baseString, null, null));
+            final double pooledSha256 = Benchmarks.perSecond(threads, millis,
+                    () -> sha256.getSignature(baseString, null, null));
+            final double bulk = Benchmarks.perSecond(1, millis, () -> sha256.getSignatures(batch, pool)) * BATCH;
+            System.out.printf("%-6d %-10.1f %-13.1f %-15.1f %.1f%n", bits, 1e6 / old, 1e6 / pooledSha1,
+                    1e6 / pooledSha256, 1e6 / bulk);
+        }
+        pool.shutdown();
+    }
+
+    private static String signWithNewSignature(final PrivateKey key, final String baseString) {
+        try {
+            final Signature signature = Signature.getInstance("SHA1withRSA");
+            signature.initSign(key);
+            signature.update(baseString.getBytes(StandardCharsets.UTF_8));
+            return Base64Encoder.getInstance().encode(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -23,8 +23,8 @@ public class HeaderExtractorTest
   @Test
   public void shouldExtractStandardHeader()
   {
-    String expected = "OAuth oauth_callback=\"http%3A%2F%2Fexample%2Fcallback\", " + "oauth_signature=\"OAuth-Signature\", "
-        + "oauth_consumer_key=\"AS%23%24%5E%2A%40%26\", " + "oauth_timestamp=\"123456\"";
+    String expected = "OAuth oauth_timestamp=\"123456\", " + "oauth_consumer_key=\"AS%23%24%5E%2A%40%26\", "
+        + "oauth_callback=\"http%3A%2F%2Fexample%2Fcallback\", " + "oauth_signature=\"OAuth-Signature\"";
     String header = extractor.extract(request);
     assertEquals(expected, header);
   }
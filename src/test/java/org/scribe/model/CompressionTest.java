@@ -0,0 +1,233 @@
+package org.scribe.model;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.test.helpers.LocalServer;
+import org.scribe.transport.ConnectionPool;
+import org.scribe.transport.HttpClientTransport;
+import org.scribe.transport.HttpTransport;
+import org.scribe.transport.PooledHttpTransport;
+
+public class CompressionTest {
+
+    private static final String TIMELINE = "{\"id\":1234567890,\"text\":\"status update\"},".repeat(200);
+
+    private LocalServer server;
+    private Compression compression;
+
+    @Before
+    public void setup() throws Exception {
+        server = new LocalServer();
+        // gzips the response when asked to
+        server.handle("/timeline", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                if (accepted == null || !accepted.contains("gzip")) {
+                    LocalServer.respond(exchange, 200, TIMELINE);
+                    return;
+                }
+                final byte[] bytes = gzip(TIMELINE.getBytes(StandardCharsets.UTF_8));
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        });
+        // "Content-Encoding Transfer-Encoding body" of the request, the body decoded
+        server.handle("/upload", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+                final InputStream body = "gzip".equals(encoding) ? new GZIPInputStream(exchange.getRequestBody())
+                        : exchange.getRequestBody();
+                LocalServer.respond(exchange, 200, encoding + ' '
+                        + exchange.getRequestHeaders().getFirst("Transfer-Encoding") + ' ' + LocalServer.read(body));
+            }
+        });
+        compression = new Compression();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldDecodeGzipResponsesAndReuseConnection() {
+        final ConnectionPool pool = new ConnectionPool();
+        for (int i = 0; i < 2; i++) {
+            final Request request = new Request(Verb.GET, server.getUrl("/timeline"));
+            request.setTransport(new PooledHttpTransport(pool));
+            request.setCompression(compression);
+            final Response response = request.send();
+            assertEquals(TIMELINE, response.getBody());
+            assertNull(response.getHeader("Content-Encoding"));
+            assertNull(response.getHeader("Content-Length"));
+        }
+        // the decoded body was read to the end of the compressed one
+        assertEquals(1, pool.getStats().getCreated());
+
+        final CompressionStats stats = compression.getStats();
+        assertEquals(2, stats.getResponses());
+        assertEquals(2L * TIMELINE.length(), stats.getResponseBytes());
+        assertTrue(stats.getResponseWireBytes() < TIMELINE.length() / 10);
+        assertEquals(stats.getResponseBytes() - stats.getResponseWireBytes(), stats.getBytesSaved());
+    }
+
+    @Test
+    public void shouldLookUpHeadersOfDecodedResponsesIgnoringCase() {
+        final ConnectionPool pool = new ConnectionPool();
+        try {
+            for (final HttpTransport transport : new HttpTransport[] { new HttpClientTransport(),
+                    new PooledHttpTransport(pool) }) {
+                final Request request = new Request(Verb.GET, server.getUrl("/timeline"));
+                request.setTransport(transport);
+                final Response response = request.send();
+                assertEquals(TIMELINE, response.getBody());
+                assertEquals("application/json; charset=UTF-8", response.getHeader("Content-Type"));
+                assertEquals("application/json; charset=UTF-8", response.getHeader("content-type"));
+                assertNull(response.getHeader("content-encoding"));
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void shouldDecodeResponsesOfRequestsWithoutCompression() throws Exception {
+        final Request request = new Request(Verb.GET, server.getUrl("/timeline"));
+        request.setTransport(new HttpClientTransport());
+        assertEquals(TIMELINE, LocalServer.read(request.sendAsync().get().getStream()));
+    }
+
+    @Test
+    public void shouldLeaveEncodingToCallerWhenNotDecompressing() {
+        compression.setDecompress(false);
+        final Request request = new Request(Verb.GET, server.getUrl("/timeline"));
+        request.setCompression(compression);
+        assertEquals(TIMELINE, request.send().getBody());
+        assertFalse(request.getHeaders().containsKey("Accept-Encoding"));
+
+        final Request gzipped = new Request(Verb.GET, server.getUrl("/timeline"));
+        gzipped.setCompression(compression);
+        gzipped.addHeader("Accept-Encoding", "gzip");
+        final byte[] body = gzipped.send().getBodyBytes();
+        // the gzip magic number
+        assertEquals(0x1f, body[0]);
+        assertEquals((byte) 0x8b, body[1]);
+        assertTrue(body.length < TIMELINE.length());
+    }
+
+    @Test
+    public void shouldDecodeZlibAndRawDeflate() throws Exception {
+        final byte[] bytes = TIMELINE.getBytes(StandardCharsets.UTF_8);
+        assertEquals(TIMELINE, compression.decode(response("deflate", deflate(bytes, false))).getBody());
+        assertEquals(TIMELINE, compression.decode(response("Deflate", deflate(bytes, true))).getBody());
+        assertEquals(TIMELINE, compression.decode(response("x-gzip", gzip(bytes))).getBody());
+        assertEquals(3, compression.getStats().getResponses());
+    }
+
+    @Test
+    public void shouldNotDecodeEmptyOrUnknownBodies() {
+        assertEquals("", compression.decode(response("gzip", new byte[0])).getBody());
+        final Response brotli = response("br", new byte[] { 1, 2, 3 });
+        assertSame(brotli, compression.decode(brotli));
+    }
+
+    @Test
+    public void shouldCompressLargePayloadsOnly() {
+        compression.setMinPayloadSize(1024);
+        assertEquals("null null small", upload("small"));
+        assertEquals("gzip null " + TIMELINE, upload(TIMELINE));
+
+        final CompressionStats stats = compression.getStats();
+        assertEquals(1, stats.getPayloads());
+        assertEquals(TIMELINE.length(), stats.getPayloadBytes());
+        assertTrue(stats.getPayloadWireBytes() < TIMELINE.length() / 10);
+        assertEquals(0, stats.getResponses());
+    }
+
+    @Test
+    public void shouldNotCompressFormBodies() {
+        compression.setMinPayloadSize(0);
+        final Request request = new Request(Verb.POST, server.getUrl("/upload"));
+        request.setCompression(compression);
+        request.addBodyParameter("status", TIMELINE);
+        assertTrue(request.send().getBody().startsWith("null null status="));
+    }
+
+    @Test
+    public void shouldCompressStreamedPayloadsChunked() {
+        compression.setMinPayloadSize(1024);
+        final byte[] bytes = TIMELINE.getBytes(StandardCharsets.UTF_8);
+        final ConnectionPool pool = new ConnectionPool();
+        for (final boolean pooled : new boolean[] { true, false }) {
+            final Request request = new Request(Verb.PUT, server.getUrl("/upload"));
+            request.setTransport(pooled ? new PooledHttpTransport(pool) : new HttpClientTransport());
+            request.setCompression(compression);
+            request.addPayload(new ByteArrayInputStream(bytes), bytes.length);
+            assertEquals("gzip chunked " + TIMELINE, request.send().getBody());
+        }
+        final CompressionStats stats = compression.getStats();
+        assertEquals(2, stats.getPayloads());
+        assertEquals(2L * bytes.length, stats.getPayloadBytes());
+        assertTrue(stats.getBytesSaved() > bytes.length);
+    }
+
+    private String upload(final String payload) {
+        final Request request = new Request(Verb.POST, server.getUrl("/upload"));
+        request.setCompression(compression);
+        request.addPayload(payload);
+        return request.send().getBody();
+    }
+
+    private static Response response(final String encoding, final byte[] body) {
+        final Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Encoding", encoding);
+        headers.put("Content-Length", String.valueOf(body.length));
+        return new Response(200, "OK", Collections.unmodifiableMap(headers), new ByteArrayInputStream(body));
+    }
+
+    private static byte[] gzip(final byte[] bytes) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(final byte[] bytes, final boolean raw) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+        try (DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater)) {
+            deflating.write(bytes);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+}
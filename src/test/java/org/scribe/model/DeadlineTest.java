@@ -0,0 +1,170 @@
+package org.scribe.model;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DefaultApi10a;
+import org.scribe.exceptions.DeadlineExceededException;
+import org.scribe.exceptions.OAuthConnectionException;
+import org.scribe.oauth.OAuthService;
+import org.scribe.test.helpers.LocalServer;
+import org.scribe.transport.RetryPolicy;
+
+public class DeadlineTest {
+
+    private LocalServer server;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Before
+    public void setup() throws Exception {
+        server = new LocalServer();
+        server.handle("/request_token", new Slow(200, "oauth_token=request&oauth_token_secret=secret"));
+        server.handle("/access_token", new Slow(200, "oauth_token=access&oauth_token_secret=secret"));
+        server.handle("/resource", new Slow(2000, "resource"));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldBoundTimeoutsByTimeLeft() {
+        final Deadline deadline = Deadline.after(1, TimeUnit.SECONDS);
+        final Request request = new Request(Verb.GET, "http://localhost/");
+        request.setReadTimeout(200, TimeUnit.MILLISECONDS);
+        deadline.tune(request);
+        assertEquals(Long.valueOf(200), request.getReadTimeout());
+        assertTrue(request.getConnectTimeout() <= 1000 && request.getConnectTimeout() > 900);
+        assertTrue(request.getDeadline() == deadline);
+        assertFalse(deadline.isExpired());
+    }
+
+    @Test
+    public void shouldFailOnceExpiredWithoutSending() {
+        final Deadline deadline = Deadline.after(0, TimeUnit.MILLISECONDS);
+        assertTrue(deadline.isExpired());
+        assertEquals(0, deadline.getRemaining(TimeUnit.NANOSECONDS));
+        try {
+            createService().getAccessToken(new Token("request", "secret"), new Verifier("verifier"), deadline);
+            fail("the deadline has passed");
+        } catch (DeadlineExceededException e) {
+            // not sent
+        }
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void shouldShareBudgetAcrossAuthorization() {
+        final OAuthService service = createService();
+        final Deadline deadline = Deadline.after(1500, TimeUnit.MILLISECONDS);
+        final Token requestToken = service.getRequestToken(deadline);
+        final Token accessToken = service.getAccessToken(requestToken, new Verifier("verifier"), deadline);
+        assertEquals("access", accessToken.getToken());
+
+        final OAuthRequest request = new OAuthRequest(Verb.GET, server.getUrl("/resource"));
+        service.signRequest(accessToken, request);
+        final long start = System.nanoTime();
+        try {
+            request.send(deadline);
+            fail("the resource takes longer than what is left of the budget");
+        } catch (OAuthConnectionException e) {
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+            assertTrue(request.getReadTimeout() <= 1100);
+        }
+        assertTrue(deadline.isExpired());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void shouldCompleteAsyncTokenRequestsWithinDeadline() throws Exception {
+        final OAuthService service = createService();
+        final Deadline deadline = Deadline.after(100, TimeUnit.MILLISECONDS);
+        try {
+            service.getRequestTokenAsync(deadline).get();
+            fail("the token endpoint takes longer than the deadline");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof OAuthConnectionException);
+        }
+        try {
+            service.getAccessTokenAsync(new Token("request", "secret"), new Verifier("verifier"), deadline).get();
+            fail("the deadline has passed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof DeadlineExceededException);
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void shouldNotRetryPastDeadline() {
+        server.handle("/unavailable", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                calls.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                LocalServer.respond(exchange, 503, "unavailable");
+            }
+        });
+        final OAuthService service = new ServiceBuilder().provider(new LocalApi()).apiKey("key").apiSecret("secret")
+                .retryPolicy(new RetryPolicy()).build();
+        final OAuthRequest request = new OAuthRequest(Verb.GET, server.getUrl("/unavailable"));
+        service.signRequest(new Token("access", "secret"), request);
+        assertEquals(503, request.send(Deadline.after(300, TimeUnit.MILLISECONDS)).getCode());
+        assertEquals(1, calls.get());
+    }
+
+    private OAuthService createService() {
+        return new ServiceBuilder().provider(new LocalApi()).apiKey("key").apiSecret("secret").build();
+    }
+
+    private final class LocalApi extends DefaultApi10a {
+
+        @Override
+        public String getRequestTokenEndpoint() {
+            return server.getUrl("/request_token");
+        }
+
+        @Override
+        public String getAccessTokenEndpoint() {
+            return server.getUrl("/access_token");
+        }
+
+        @Override
+        public String getAuthorizationUrl(final Token requestToken) {
+            return server.getUrl("/authorize?oauth_token=" + requestToken.getToken());
+        }
+    }
+
+    private final class Slow implements HttpHandler {
+
+        private final long millis;
+        private final String body;
+
+        Slow(final long millis, final String body) {
+            this.millis = millis;
+            this.body = body;
+        }
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            LocalServer.respond(exchange, 200, body);
+        }
+    }
+}
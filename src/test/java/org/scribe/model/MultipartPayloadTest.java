@@ -0,0 +1,78 @@
+package org.scribe.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.scribe.extractors.BaseStringExtractorImpl;
+import org.scribe.utils.StreamUtils;
+
+public class MultipartPayloadTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private OAuthRequest request;
+    private MultipartPayload multipart;
+    private String boundary;
+
+    @Before
+    public void setup() {
+        request = new OAuthRequest(Verb.POST, "http://example.com/upload");
+        multipart = request.addMultipartPayload();
+        boundary = multipart.getContentType().substring(multipart.getContentType().indexOf('=') + 1);
+    }
+
+    @Test
+    public void shouldAnnounceItselfInContentType() {
+        assertTrue(request.getHeaders().get("Content-Type").startsWith("multipart/form-data; boundary="));
+        assertTrue(request.isStreamingBody());
+    }
+
+    @Test
+    public void shouldWritePartsBetweenBoundaries() throws Exception {
+        final File file = folder.newFile("photo.jpg");
+        Files.write(file.toPath(), "jpeg".getBytes(StandardCharsets.UTF_8));
+        multipart.addField("title", "café").addFile("photo", file.toPath(), "image/jpeg");
+
+        final String expected = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+                + "café\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"photo\"; filename=\"photo.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n"
+                + "jpeg\r\n"
+                + "--" + boundary + "--\r\n";
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        multipart.writeTo(written);
+        assertEquals(expected, new String(written.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(written.size(), multipart.getContentLength());
+        assertEquals(expected, StreamUtils.getStreamContents(multipart.openStream()));
+        assertTrue(multipart.isRepeatable());
+    }
+
+    @Test
+    public void shouldSignOnlySignedFields() {
+        request.addOAuthParameter(OAuthConstants.TIMESTAMP, "123456");
+        multipart.addField("title", "signed").addUnsignedField("description", "unsigned");
+        assertEquals(1, request.getBodyParams().size());
+        final String baseString = new BaseStringExtractorImpl().extract(request);
+        assertTrue(baseString.contains("title%3Dsigned"));
+        assertFalse(baseString.contains("description"));
+    }
+
+    @Test
+    public void shouldHaveUnknownLengthWithStreamOfUnknownLength() {
+        multipart.addStream("data", "data.bin", null, new ByteArrayInputStream(new byte[10]), -1);
+        assertEquals(-1, multipart.getContentLength());
+        assertFalse(multipart.isRepeatable());
+    }
+}
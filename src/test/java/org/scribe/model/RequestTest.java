@@ -2,10 +2,21 @@ package org.scribe.model;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.scribe.exceptions.OAuthException;
+import org.scribe.utils.StreamUtils;
 
 public class RequestTest
 {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   private Request getRequest;
   private Request postRequest;
   private ConnectionStub connection;
@@ -43,8 +54,10 @@ public class RequestTest
     getRequest.addHeader("Header", "1");
     getRequest.addHeader("Header2", "2");
     getRequest.send();
-    assertEquals(2, getRequest.getHeaders().size());
-    assertEquals(2, connection.getHeaders().size());
+    // along with the Accept-Encoding header of the decompression
+    assertEquals(3, getRequest.getHeaders().size());
+    assertEquals(3, connection.getHeaders().size());
+    assertEquals("gzip, deflate", connection.getHeaders().get("Accept-Encoding"));
   }
 
   @Test
@@ -125,4 +138,54 @@ public class RequestTest
     getRequest.send();
     assertFalse(connection.getHeaders().containsKey("Content-Type"));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldSendAsyncThroughABlockingTransport() throws Exception
+  {
+    Response response = getRequest.sendAsync().get();
+    assertEquals("GET", connection.getRequestMethod());
+    assertEquals("contents", response.getBody());
+  }
+
+  @Test
+  public void shouldStreamChannelPayloadLeavingItsPositionUntouched() throws Exception
+  {
+    File file = folder.newFile();
+    Files.write(file.toPath(), "0123456789".getBytes("UTF-8"));
+    try (FileChannel channel = FileChannel.open(file.toPath()))
+    {
+      channel.position(2);
+      postRequest.addPayload(channel);
+      postRequest.send();
+      assertEquals(2, channel.position());
+      assertEquals("8", connection.getHeaders().get("Content-Length"));
+      assertTrue(postRequest.getBodyPayload().isRepeatable());
+      assertEquals("23456789", StreamUtils.getStreamContents(postRequest.getBodyPayload().openStream()));
+    }
+  }
+
+  @Test
+  public void shouldReadStreamPayloadOnlyOnce() throws Exception
+  {
+    postRequest.addPayload(new ByteArrayInputStream("once".getBytes("UTF-8")));
+    assertTrue(postRequest.isStreamingBody());
+    assertEquals(-1, postRequest.getBodyPayload().getContentLength());
+    assertFalse(postRequest.getBodyPayload().isRepeatable());
+    postRequest.send();
+    try
+    {
+      postRequest.getBodyPayload().openStream();
+      fail("the stream has been sent");
+    }
+    catch (IllegalStateException expected)
+    {
+    }
+  }
+
+  @Test(expected = OAuthException.class)
+  public void shouldNotExposeStreamedBodyAsBytes()
+  {
+    postRequest.addPayload(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    postRequest.getByteBodyContents();
+  }
+}
@@ -3,11 +3,18 @@ package org.scribe.model;
 import static org.junit.Assert.*;
 
 import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
 
 import org.junit.*;
+import org.junit.rules.*;
 
 public class ResponseTest
 {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
 
   private Response response;
   private ConnectionStub connection;
@@ -18,7 +25,14 @@ public class ResponseTest
     connection = new ConnectionStub();
     connection.addResponseHeader("one", "one");
     connection.addResponseHeader("two", "two");
-    response = new Response(connection);
+    response = send(connection);
+  }
+
+  private static Response send(ConnectionStub connection)
+  {
+    Request request = new Request(Verb.GET, "http://example.com");
+    request.setConnection(connection);
+    return request.send();
   }
 
   @Test
@@ -47,11 +61,88 @@ public class ResponseTest
   @Test
   public void shouldHandleAConnectionWithErrors() throws Exception
   {
-    Response errResponse = new Response(new FaultyConnection());
+    Response errResponse = send(new FaultyConnection());
     assertEquals(400, errResponse.getCode());
     assertEquals("errors", errResponse.getBody());
   }
 
+  @Test
+  public void shouldReadBodyBytesOnlyOnce()
+  {
+    assertArrayEquals("contents".getBytes(), response.getBodyBytes());
+    assertEquals("contents", response.getBody());
+    assertEquals(8, response.getBodyAsByteBuffer().remaining());
+    assertTrue(response.getBodyAsByteBuffer().isReadOnly());
+    assertEquals(1, connection.getTimesCalledInpuStream());
+  }
+
+  @Test
+  public void shouldDecodeBodyWithContentTypeCharset() throws Exception
+  {
+    Map<String, String> headers = new HashMap<String, String>();
+    headers.put("content-type", "text/plain; charset=\"ISO-8859-1\"");
+    Response latin = new Response(200, "OK", headers, "caf\u00e9".getBytes("ISO-8859-1"));
+    assertEquals(Charset.forName("ISO-8859-1"), latin.getCharset());
+    assertEquals("caf\u00e9", latin.getBody());
+    assertEquals("caf\ufffd", latin.getBody(Charset.forName("UTF-8")));
+  }
+
+  @Test
+  public void shouldDefaultToUtf8ForUnknownCharset() throws Exception
+  {
+    Map<String, String> headers = new HashMap<String, String>();
+    headers.put("Content-Type", "text/plain; charset=unknown-charset");
+    Response response = new Response(200, "OK", headers, new ByteArrayInputStream("caf\u00e9".getBytes("UTF-8")));
+    assertEquals("caf\u00e9", response.getBody());
+  }
+
+  @Test
+  public void shouldReadBodyShorterThanContentLength()
+  {
+    Map<String, String> headers = new HashMap<String, String>();
+    headers.put("Content-Length", "100");
+    Response response = new Response(200, "OK", headers, new ByteArrayInputStream("short".getBytes()));
+    assertArrayEquals("short".getBytes(), response.getBodyBytes());
+  }
+
+  @Test
+  public void shouldReadEmptyBodyWithoutStream()
+  {
+    Response response = new Response(404, "Not Found", new HashMap<String, String>(), (InputStream) null);
+    assertEquals(0, response.getBodyBytes().length);
+    assertEquals("", response.getBody());
+  }
+
+  @Test
+  public void shouldWriteBodyToFile() throws Exception
+  {
+    File file = folder.newFile();
+    Files.write(file.toPath(), "previous, longer contents".getBytes());
+    TransferStats stats = response.writeTo(file.toPath());
+    assertEquals(8, stats.getBytes());
+    assertEquals("contents", new String(Files.readAllBytes(file.toPath())));
+  }
+
+  @Test
+  public void shouldWriteBodyToChannel() throws Exception
+  {
+    byte[] bytes = new byte[40000];
+    new Random(42).nextBytes(bytes);
+    Response large = new Response(200, "OK", new HashMap<String, String>(), new ByteArrayInputStream(bytes));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(bytes.length, large.writeTo(Channels.newChannel(out)).getBytes());
+    assertArrayEquals(bytes, out.toByteArray());
+  }
+
+  @Test
+  public void shouldWriteBodyAlreadyReadToChannel() throws Exception
+  {
+    response.getBody();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(8, response.writeTo(Channels.newChannel(out)).getBytes());
+    assertEquals("contents", out.toString());
+  }
+
   private static class FaultyConnection extends ConnectionStub
   {
 
@@ -0,0 +1,60 @@
+package org.scribe.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+public class Base64EncoderTest {
+
+    private final Base64Encoder encoder = Base64Encoder.getInstance();
+
+    @Test
+    public void shouldShareOneJdkInstance() {
+        assertSame(encoder, Base64Encoder.getInstance());
+        assertEquals("java.util.Base64", Base64Encoder.type());
+    }
+
+    @Test
+    public void shouldEncodeIntoCallerArrays() {
+        final Random random = new Random(7);
+        for (int length = 0; length <= 64; length++) {
+            final byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            final String expected = Base64.getEncoder().encodeToString(bytes);
+            assertEquals(expected, encoder.encode(bytes));
+            assertEquals(expected.length(), Base64Encoder.getEncodedLength(length));
+
+            final char[] chars = new char[expected.length() + 2];
+            assertEquals(expected.length(), encoder.encode(bytes, 0, length, chars, 2));
+            assertEquals(expected, new String(chars, 2, expected.length()));
+
+            final byte[] ascii = new byte[expected.length() + 1];
+            assertEquals(expected.length(), encoder.encode(bytes, 0, length, ascii, 1));
+            assertEquals(expected, new String(ascii, 1, expected.length(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void shouldEncodeRangeOfSource() {
+        final byte[] bytes = "xxhello".getBytes(StandardCharsets.US_ASCII);
+        final char[] chars = new char[8];
+        assertEquals(8, encoder.encode(bytes, 2, 5, chars, 0));
+        assertEquals("aGVsbG8=", new String(chars));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectTooSmallDestination() {
+        encoder.encode(new byte[20], 0, 20, new char[27], 0);
+    }
+
+    @Test
+    public void shouldNotBreakLines() {
+        final byte[] bytes = new byte[200];
+        Arrays.fill(bytes, (byte) 0xfb);
+        assertEquals(-1, encoder.encode(bytes).indexOf('\n'));
+    }
+}
@@ -0,0 +1,130 @@
+package org.scribe.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DefaultApi10a;
+import org.scribe.exceptions.OAuthSignatureException;
+import org.scribe.model.Token;
+import org.scribe.test.helpers.LocalServer;
+
+public class HmacSignatureServiceTest {
+
+    @Test
+    public void shouldSignWithSha256() throws Exception {
+        final SignatureService service = new HMACSha256SignatureService();
+        assertEquals("HMAC-SHA256", service.getSignatureMethod());
+        assertEquals(reference("HmacSHA256", "base string", "api%20secret&token%20secret"),
+                service.getSignature("base string", "api secret", "token secret"));
+    }
+
+    @Test
+    public void shouldSignWithSha512() throws Exception {
+        final SignatureService service = new HMACSha512SignatureService();
+        assertEquals("HMAC-SHA512", service.getSignatureMethod());
+        final String signature = service.getSignature("base string", "api secret", "token secret");
+        assertEquals(reference("HmacSHA512", "base string", "api%20secret&token%20secret"), signature);
+        assertEquals(88, signature.length());
+    }
+
+    @Test
+    public void shouldMatchSha1Signature() {
+        assertEquals("uGymw2KHOTWI699YEaoi5xyLT50=",
+                new HMACSha1SignatureService().getSignature("base string", "api secret", "token secret"));
+    }
+
+    @Test
+    public void shouldSignLongAndNonAsciiBaseStrings() throws Exception {
+        final SignatureService service = new HMACSha256SignatureService();
+        for (final String baseString : new String[] { "x".repeat(1024), "y".repeat(3000), "a".repeat(1500) + "é€",
+                "😀" }) {
+            assertEquals(reference("HmacSHA256", baseString, "k%20y&"), service.getSignature(baseString, "k y", ""));
+        }
+    }
+
+    @Test
+    public void shouldShareMacCachePerAlgorithm() {
+        final HmacSignatureService first = new HMACSha256SignatureService();
+        final HmacSignatureService second = new HMACSha256SignatureService();
+        assertSame(first.getMacCache(), second.getMacCache());
+        assertEquals("HmacSHA256", first.getMacCache().getAlgorithm());
+        first.getSignature("base string", "shared secret", "");
+        final long hits = first.getMacCache().getHits();
+        second.getSignature("base string", "shared secret", "");
+        assertEquals(hits + 1, first.getMacCache().getHits());
+    }
+
+    @Test(expected = OAuthSignatureException.class)
+    public void shouldThrowExceptionIfTokenSecretIsNull() {
+        new HMACSha512SignatureService().getSignature("base string", "api secret", null);
+    }
+
+    @Test
+    public void shouldSignRequestsOfApiSelectingSha256() throws Exception {
+        final LocalServer server = new LocalServer();
+        final AtomicReference<String> authorization = new AtomicReference<>();
+        server.handle("/oauth/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+                LocalServer.respond(exchange, 200, "oauth_token=request&oauth_token_secret=secret");
+            }
+        });
+        try {
+            final Token token = new ServiceBuilder().provider(new Sha256Api(server.getUrl("/oauth/"))).apiKey("key")
+                    .apiSecret("secret").build().getRequestToken();
+            assertEquals("request", token.getToken());
+            assertTrue(authorization.get().contains("oauth_signature_method=\"HMAC-SHA256\""));
+            // 32 bytes, percent-encoded Base64
+            assertTrue(authorization.get().matches(".*oauth_signature=\"[A-Za-z0-9%]{44,56}\".*"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static String reference(final String algorithm, final String baseString, final String key)
+            throws Exception {
+        final Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), algorithm));
+        return Base64.getEncoder().encodeToString(mac.doFinal(baseString.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static final class Sha256Api extends DefaultApi10a {
+
+        private final String url;
+
+        Sha256Api(final String url) {
+            this.url = url;
+        }
+
+        @Override
+        public String getRequestTokenEndpoint() {
+            return url + "request_token";
+        }
+
+        @Override
+        public String getAccessTokenEndpoint() {
+            return url + "access_token";
+        }
+
+        @Override
+        public String getAuthorizationUrl(final Token requestToken) {
+            return url + "authorize";
+        }
+
+        @Override
+        public SignatureService getSignatureService() {
+            return new HMACSha256SignatureService();
+        }
+    }
+}
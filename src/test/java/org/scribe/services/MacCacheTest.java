@@ -0,0 +1,96 @@
+package org.scribe.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.crypto.Mac;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+public class MacCacheTest {
+
+    private final MacCache cache = new MacCache("HmacSHA1", 2);
+
+    @Test
+    public void shouldSignWithEncodedSecrets() throws Exception {
+        final Mac mac = cache.get("api secret", "token secret");
+        assertEquals("uGymw2KHOTWI699YEaoi5xyLT50=", sign(mac, "base string"));
+        // doFinal leaves the Mac ready for the next signature
+        assertEquals("uGymw2KHOTWI699YEaoi5xyLT50=", sign(mac, "base string"));
+    }
+
+    @Test
+    public void shouldReuseMacOfThread() throws Exception {
+        final Mac mac = cache.get("api secret", "");
+        assertSame(mac, cache.get("api secret", ""));
+        assertNotSame(mac, cache.get("api secret", "token secret"));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedKey() throws Exception {
+        final Mac first = cache.get("a", "");
+        final Mac second = cache.get("b", "");
+        assertSame(first, cache.get("a", ""));
+        cache.get("c", "");
+        assertSame(first, cache.get("a", ""));
+        // evicted for the thread, cloned from the prototype kept
+        final Mac again = cache.get("b", "");
+        assertNotSame(second, again);
+        assertEquals(sign(second, "base"), sign(again, "base"));
+    }
+
+    @Test
+    public void shouldCloneMacForOtherThreads() throws Exception {
+        final Mac mac = cache.get("api secret", "token secret");
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Mac other = executor.submit(() -> cache.get("api secret", "token secret")).get();
+            assertNotSame(mac, other);
+            assertEquals(sign(mac, "base string"), sign(other, "base string"));
+            assertSame(other, executor.submit(() -> cache.get("api secret", "token secret")).get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getClones());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void shouldDropEvictedKeysOnEveryThread() throws Exception {
+        final Mac revoked = cache.get("api secret", "revoked");
+        final Mac kept = cache.get("api secret", "kept");
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Mac other = executor.submit(() -> cache.get("api secret", "revoked")).get();
+            cache.evict("api secret", "revoked");
+            assertNotSame(other, executor.submit(() -> cache.get("api secret", "revoked")).get());
+        } finally {
+            executor.shutdown();
+        }
+        final Mac again = cache.get("api secret", "revoked");
+        assertNotSame(revoked, again);
+        assertEquals(sign(revoked, "base"), sign(again, "base"));
+        // the key kept is cloned from the shared Mac rather than initialized again
+        assertNotSame(kept, cache.get("api secret", "kept"));
+        assertEquals(3, cache.getMisses());
+
+        cache.clear();
+        assertNotSame(again, cache.get("api secret", "revoked"));
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullTokenSecret() throws Exception {
+        cache.get("api secret", null);
+    }
+
+    private static String sign(final Mac mac, final String baseString) {
+        return Base64.getEncoder().encodeToString(mac.doFinal(baseString.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -4,7 +4,7 @@ import static org.junit.Assert.*;
 
 import org.junit.*;
 
-import javax.xml.bind.DatatypeConverter;
+import java.util.Base64;
 import java.security.*;
 import java.security.spec.*;
 
@@ -56,7 +56,7 @@ public class RSASha1SignatureServiceTest
     try
     {
       KeyFactory fac = KeyFactory.getInstance("RSA");
-      PKCS8EncodedKeySpec privKeySpec = new PKCS8EncodedKeySpec(DatatypeConverter.parseBase64Binary(str));
+      PKCS8EncodedKeySpec privKeySpec = new PKCS8EncodedKeySpec(Base64.getMimeDecoder().decode(str));
       return fac.generatePrivate(privKeySpec);
     }
     catch (Exception e)
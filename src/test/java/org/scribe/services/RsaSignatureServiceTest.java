@@ -0,0 +1,99 @@
+package org.scribe.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.scribe.exceptions.OAuthSignatureException;
+
+public class RsaSignatureServiceTest {
+
+    private static KeyPair keys;
+
+    @BeforeClass
+    public static void generateKeys() throws Exception {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        keys = generator.generateKeyPair();
+    }
+
+    @Test
+    public void shouldSignWithSha256() throws Exception {
+        final SignatureService service = new RSASha256SignatureService(keys.getPrivate());
+        assertEquals("RSA-SHA256", service.getSignatureMethod());
+        final String signature = service.getSignature("base string", "api secret", "token secret");
+        final Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(keys.getPublic());
+        verifier.update("base string".getBytes(StandardCharsets.UTF_8));
+        assertTrue(verifier.verify(Base64.getDecoder().decode(signature)));
+    }
+
+    @Test
+    public void shouldReuseSignaturesOfKey() {
+        final RsaSignatureService first = new RSASha1SignatureService(keys.getPrivate());
+        final RsaSignatureService second = new RSASha1SignatureService(keys.getPrivate());
+        final SignaturePool pool = first.getSignaturePool();
+        assertSame(pool, second.getSignaturePool());
+        assertEquals("SHA1withRSA", pool.getAlgorithm());
+
+        final long created = pool.getCreated();
+        final long reused = pool.getReused();
+        assertEquals(first.getSignature("base string", "", ""), second.getSignature("base string", "", ""));
+        // the first may have been created, the second reuses it
+        assertTrue(pool.getCreated() - created <= 1);
+        assertTrue(pool.getReused() - reused >= 1);
+        assertTrue(pool.getIdle() >= 1);
+    }
+
+    @Test
+    public void shouldKeepPoolsPerAlgorithm() {
+        final PrivateKey key = keys.getPrivate();
+        final RsaSignatureService sha1 = new RSASha1SignatureService(key);
+        final RsaSignatureService sha256 = new RSASha256SignatureService(key);
+        assertEquals("SHA256withRSA", sha256.getSignaturePool().getAlgorithm());
+        assertNotEquals(sha1.getSignature("base string", "", ""), sha256.getSignature("base string", "", ""));
+    }
+
+    @Test
+    public void shouldSignBatchInOrder() {
+        final RsaSignatureService service = new RSASha256SignatureService(keys.getPrivate());
+        final List<String> baseStrings = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            baseStrings.add("GET&http%3A%2F%2Fexample.com%2F&oauth_nonce%3D" + i);
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final List<String> signatures = service.getSignatures(baseStrings, pool);
+            assertEquals(baseStrings.size(), signatures.size());
+            for (int i = 0; i < baseStrings.size(); i++) {
+                // PKCS #1 v1.5 signatures are deterministic
+                assertEquals(service.getSignature(baseStrings.get(i), "", ""), signatures.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(service.getSignatures(new ArrayList<String>()).isEmpty());
+    }
+
+    @Test(expected = OAuthSignatureException.class)
+    public void shouldFailBatchWithUnsignableBaseString() {
+        new RSASha256SignatureService(keys.getPrivate()).getSignatures(Arrays.asList("base string", null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullKey() {
+        new RSASha256SignatureService(null);
+    }
+}
@@ -0,0 +1,106 @@
+package org.scribe.test.helpers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for a provider, serving:
+ * <ul>
+ * <li>/echo: "METHOD Content-Type body" of the request</li>
+ * <li>/chunked: same as /echo, with a chunked response</li>
+ * <li>/redirect: 302 to /echo</li>
+ * <li>/framing: "Content-Length Transfer-Encoding body" of the request, to tell how the body was sent</li>
+ * </ul>
+ * More contexts can be added with {@link #handle(String, HttpHandler)}.
+ */
+public class LocalServer {
+
+    private final HttpServer server;
+
+    public LocalServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        handle("/echo", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                respond(exchange, 200, echo(exchange));
+            }
+        });
+        handle("/chunked", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final byte[] bytes = echo(exchange).getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes, 0, bytes.length / 2);
+                    out.flush();
+                    out.write(bytes, bytes.length / 2, bytes.length - bytes.length / 2);
+                }
+            }
+        });
+        handle("/redirect", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                read(exchange.getRequestBody());
+                exchange.getResponseHeaders().add("Location", "/echo");
+                respond(exchange, 302, "");
+            }
+        });
+        handle("/framing", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+                final String transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+                respond(exchange, 200, contentLength + ' ' + transferEncoding + ' ' + read(exchange.getRequestBody()));
+            }
+        });
+        server.start();
+    }
+
+    public void handle(final String path, final HttpHandler handler) {
+        server.createContext(path, handler);
+    }
+
+    public String getUrl(final String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public static String echo(final HttpExchange exchange) throws IOException {
+        final String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        return exchange.getRequestMethod() + ' ' + contentType + ' ' + read(exchange.getRequestBody());
+    }
+
+    public static String read(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toString("UTF-8");
+    }
+
+    public static void respond(final HttpExchange exchange, final int code, final String body) throws IOException {
+        final byte[] bytes = body.getBytes("UTF-8");
+        if (bytes.length == 0) {
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.scribe.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.exceptions.OAuthConnectionException;
+import org.scribe.model.Request;
+import org.scribe.model.Verb;
+import org.scribe.test.helpers.LocalServer;
+
+public class AdaptiveTimeoutsTest {
+
+    private static final String ENDPOINT = "POST http://localhost/oauth/access_token";
+
+    private AdaptiveTimeouts timeouts;
+
+    @Before
+    public void setup() {
+        timeouts = new AdaptiveTimeouts();
+    }
+
+    @Test
+    public void shouldBucketValuesWithinThreePercent() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            final long micros = (long) Math.pow(10, random.nextDouble() * 10);
+            final long upper = LatencyHistogram.getUpperBound(LatencyHistogram.getIndex(micros));
+            assertTrue(upper >= micros);
+            assertTrue(upper - micros <= micros / (LatencyHistogram.SUB_BUCKETS - 1) + 1);
+        }
+    }
+
+    @Test
+    public void shouldComputePercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        assertEquals(50, TimeUnit.NANOSECONDS.toMillis(LatencyHistogram.getValueAtPercentile(50, histogram)), 2);
+        assertEquals(99, TimeUnit.NANOSECONDS.toMillis(LatencyHistogram.getValueAtPercentile(99, histogram)), 3);
+        assertEquals(-1, LatencyHistogram.getValueAtPercentile(99, new LatencyHistogram()));
+    }
+
+    @Test
+    public void shouldUseInitialTimeoutUntilEnoughSamples() {
+        timeouts.setSamples(10, 100);
+        for (int i = 0; i < 9; i++) {
+            timeouts.record(ENDPOINT, TimeUnit.MILLISECONDS.toNanos(200));
+        }
+        assertEquals(AdaptiveTimeouts.DEFAULT_INITIAL_MILLIS, timeouts.getTimeout(ENDPOINT, TimeUnit.MILLISECONDS));
+        timeouts.record(ENDPOINT, TimeUnit.MILLISECONDS.toNanos(200));
+        // 200 ms plus half of it, give or take the bucket width
+        assertEquals(300, timeouts.getTimeout(ENDPOINT, TimeUnit.MILLISECONDS), 10);
+        assertEquals(Long.valueOf(timeouts.getTimeout(ENDPOINT, TimeUnit.MILLISECONDS)),
+                timeouts.getTimeouts().get(ENDPOINT));
+    }
+
+    @Test
+    public void shouldKeepTimeoutWithinBounds() {
+        timeouts.setSamples(1, 100);
+        timeouts.setBounds(50, 500, TimeUnit.MILLISECONDS);
+        timeouts.record(ENDPOINT, TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(50, timeouts.getTimeout(ENDPOINT, TimeUnit.MILLISECONDS));
+        timeouts.record("GET http://localhost/slow", TimeUnit.SECONDS.toNanos(3));
+        assertEquals(500, timeouts.getTimeout("GET http://localhost/slow", TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldForgetOldSamples() {
+        timeouts.setSamples(1, 10);
+        timeouts.setPercentile(100, 0);
+        for (int i = 0; i < 10; i++) {
+            timeouts.record(ENDPOINT, TimeUnit.SECONDS.toNanos(1));
+        }
+        for (int i = 0; i < 20; i++) {
+            timeouts.record(ENDPOINT, TimeUnit.MILLISECONDS.toNanos(200));
+        }
+        assertEquals(200, timeouts.getLatency(ENDPOINT, 100, TimeUnit.MILLISECONDS), 10);
+    }
+
+    @Test
+    public void shouldTimeOutCallsMuchSlowerThanUsual() throws Exception {
+        final LocalServer server = new LocalServer();
+        try {
+            server.handle("/token", new HttpHandler() {
+                @Override
+                public void handle(final HttpExchange exchange) throws IOException {
+                    if (exchange.getRequestURI().getQuery() != null) {
+                        try {
+                            Thread.sleep(500);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    LocalServer.respond(exchange, 200, "ok");
+                }
+            });
+            timeouts.setSamples(5, 100);
+            timeouts.setBounds(100, 1000, TimeUnit.MILLISECONDS);
+            final AdaptiveTimeoutTransport transport = new AdaptiveTimeoutTransport(new PooledHttpTransport(
+                    new ConnectionPool()), timeouts);
+            for (int i = 0; i < 5; i++) {
+                final Request request = new Request(Verb.GET, server.getUrl("/token"));
+                request.setTransport(transport);
+                assertEquals("ok", request.send().getBody());
+            }
+            final String endpoint = "GET " + server.getUrl("/token");
+            assertEquals(100, timeouts.getTimeout(endpoint, TimeUnit.MILLISECONDS));
+
+            final Request slow = new Request(Verb.GET, server.getUrl("/token?slow"));
+            slow.setTransport(transport);
+            try {
+                slow.send();
+                fail("the call is much slower than the previous ones");
+            } catch (OAuthConnectionException e) {
+                assertEquals(Long.valueOf(100), slow.getReadTimeout());
+            }
+            // the timed out call counts as a call of 100 ms
+            assertEquals(100, timeouts.getLatency(endpoint, 100, TimeUnit.MILLISECONDS), 4);
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.scribe.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DropBoxApi;
+import org.scribe.exceptions.CircuitOpenException;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Request;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+import org.scribe.test.helpers.LocalServer;
+
+public class CircuitBreakerTest {
+
+    private LocalServer server;
+    private CircuitBreaker breaker;
+    private CircuitBreakerTransport transport;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<String> transitions = new CopyOnWriteArrayList<>();
+    private volatile int status = 500;
+    private volatile long delay;
+
+    @Before
+    public void setup() throws Exception {
+        server = new LocalServer();
+        server.handle("/provider", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                calls.incrementAndGet();
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                LocalServer.respond(exchange, status, "body");
+            }
+        });
+        breaker = new CircuitBreaker();
+        breaker.setWindow(4, 4);
+        breaker.setOpenDuration(100, TimeUnit.MILLISECONDS);
+        breaker.setHalfOpenCalls(2);
+        breaker.addListener((host, from, to) -> transitions.add(from + ">" + to));
+        transport = new CircuitBreakerTransport(new HttpClientTransport(), breaker);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldOpenOnFailureRateAndFailFast() {
+        sendTimes(4);
+        final String host = CircuitBreaker.getHost(createRequest());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(host));
+        assertOpen(createRequest());
+        assertEquals(4, calls.get());
+
+        final CircuitStats stats = breaker.getStats(host);
+        assertEquals(1, stats.getRejected());
+        assertEquals(1, stats.getOpened());
+        assertEquals("[CLOSED>OPEN]", transitions.toString());
+    }
+
+    @Test
+    public void shouldStayClosedBelowMinimumCalls() {
+        sendTimes(3);
+        final CircuitStats stats = breaker.getStats(CircuitBreaker.getHost(createRequest()));
+        assertEquals(CircuitBreaker.State.CLOSED, stats.getState());
+        assertEquals(3, stats.getBufferedCalls());
+        assertEquals(100f, stats.getFailureRate(), 0);
+    }
+
+    @Test
+    public void shouldOpenOnSlowCallRate() {
+        status = 200;
+        delay = 60;
+        breaker.setSlowCallRateThreshold(50, 50, TimeUnit.MILLISECONDS);
+        sendTimes(4);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(CircuitBreaker.getHost(createRequest())));
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessfulTrialCalls() throws Exception {
+        sendTimes(4);
+        Thread.sleep(150);
+        status = 200;
+        sendTimes(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(CircuitBreaker.getHost(createRequest())));
+        assertEquals("[CLOSED>OPEN, OPEN>HALF_OPEN, HALF_OPEN>CLOSED]", transitions.toString());
+    }
+
+    @Test
+    public void shouldOpenAgainWhenTrialCallFails() throws Exception {
+        sendTimes(4);
+        Thread.sleep(150);
+        sendTimes(1);
+        assertOpen(createRequest());
+        assertEquals("[CLOSED>OPEN, OPEN>HALF_OPEN, HALF_OPEN>OPEN]", transitions.toString());
+        assertEquals(2, breaker.getStats(CircuitBreaker.getHost(createRequest())).getOpened());
+    }
+
+    @Test
+    public void shouldKeepOneCircuitPerHost() {
+        sendTimes(4);
+        status = 200;
+        final Request other = new Request(Verb.GET, server.getUrl("/provider").replace("127.0.0.1", "localhost"));
+        other.setTransport(transport);
+        assertEquals(200, other.send().getCode());
+        assertEquals(2, breaker.getHosts().size());
+    }
+
+    @Test
+    public void shouldFailAsyncRequestsFast() throws Exception {
+        sendTimes(4);
+        try {
+            createRequest().sendAsync().get();
+            fail("circuit is open");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CircuitOpenException);
+        }
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void shouldNotRetryOnceOpen() {
+        status = 503;
+        // longer than the backoff, which would otherwise let half-open calls through
+        breaker.setOpenDuration(1, TimeUnit.MINUTES);
+        final OAuthService service = new ServiceBuilder().provider(DropBoxApi.class).apiKey("key").apiSecret("secret")
+                .circuitBreaker(breaker).retryPolicy(new RetryPolicy()).build();
+        for (int i = 0; i < 2; i++) {
+            final OAuthRequest request = new OAuthRequest(Verb.GET, server.getUrl("/provider"));
+            service.signRequest(new Token("token", "secret"), request);
+            try {
+                request.send();
+            } catch (CircuitOpenException e) {
+                assertEquals(1, i);
+            }
+        }
+        // the first request was tried three times, the second one once before the breaker opened
+        assertEquals(4, calls.get());
+    }
+
+    private void sendTimes(final int times) {
+        for (int i = 0; i < times; i++) {
+            createRequest().send();
+        }
+    }
+
+    private void assertOpen(final Request request) {
+        try {
+            request.send();
+            fail("circuit is open");
+        } catch (CircuitOpenException e) {
+            assertEquals(CircuitBreaker.getHost(request), e.getHost());
+        }
+    }
+
+    private Request createRequest() {
+        final Request request = new Request(Verb.GET, server.getUrl("/provider"));
+        request.setTransport(transport);
+        return request;
+    }
+}
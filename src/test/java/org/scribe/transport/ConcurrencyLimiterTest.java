@@ -0,0 +1,144 @@
+package org.scribe.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DropBoxApi;
+import org.scribe.builder.api.TwitterApi;
+import org.scribe.exceptions.ConcurrencyLimitExceededException;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Response;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+import org.scribe.test.helpers.LocalServer;
+
+public class ConcurrencyLimiterTest {
+
+    private static final String PROVIDER = "provider";
+
+    private ConcurrencyLimiter limiter;
+
+    @Before
+    public void setup() {
+        limiter = new ConcurrencyLimiter();
+        limiter.setLimits(4, 1, 10);
+    }
+
+    @Test
+    public void shouldRaiseLimitWhenInUse() {
+        // calls of the same duration, none of them slow
+        final long start = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(10);
+        limiter.acquire(PROVIDER);
+        limiter.acquire(PROVIDER);
+        limiter.release(PROVIDER, start, false);
+        limiter.release(PROVIDER, start, false);
+        assertEquals(5, limiter.getLimit(PROVIDER));
+
+        // a single call does not use a limit of 5
+        limiter.acquire(PROVIDER);
+        limiter.release(PROVIDER, start, false);
+        assertEquals(5, limiter.getLimit(PROVIDER));
+    }
+
+    @Test
+    public void shouldCutLimitOnSlowCall() {
+        limiter.acquire(PROVIDER);
+        limiter.release(PROVIDER, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(10), false);
+        limiter.acquire(PROVIDER);
+        limiter.release(PROVIDER, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(100), false);
+        assertEquals(3, limiter.getLimit(PROVIDER));
+
+        final ConcurrencyLimiterStats stats = limiter.getStats(PROVIDER);
+        assertEquals(1, stats.getDecreases());
+        assertEquals(0, stats.getInFlight());
+        assertTrue(stats.getBaselineMillis() >= 10);
+    }
+
+    @Test
+    public void shouldCutLimitOnFailedCallDownToMin() {
+        for (int i = 0; i < 20; i++) {
+            limiter.release(PROVIDER, limiter.acquire(PROVIDER), true);
+        }
+        assertEquals(1, limiter.getLimit(PROVIDER));
+    }
+
+    @Test
+    public void shouldRejectCallsOverLimit() throws Exception {
+        final LocalServer server = new LocalServer();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch arrived = new CountDownLatch(4);
+        try {
+            server.handle("/slow", new HttpHandler() {
+                @Override
+                public void handle(final HttpExchange exchange) throws IOException {
+                    arrived.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    LocalServer.respond(exchange, 200, "ok");
+                }
+            });
+            final OAuthService twitter = new ServiceBuilder().provider(TwitterApi.class).apiKey("key")
+                    .apiSecret("secret").concurrencyLimiter(limiter).build();
+            final OAuthService dropBox = new ServiceBuilder().provider(DropBoxApi.class).apiKey("key")
+                    .apiSecret("secret").concurrencyLimiter(limiter).build();
+            final String twitterName = TwitterApi.class.getName();
+
+            final List<CompletableFuture<Response>> inFlight = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                inFlight.add(createRequest(twitter, server).sendAsync());
+            }
+            assertTrue(arrived.await(5, TimeUnit.SECONDS));
+            try {
+                createRequest(twitter, server).send();
+                fail("Twitter calls are at the limit");
+            } catch (ConcurrencyLimitExceededException e) {
+                // rejected without waiting
+            }
+            try {
+                createRequest(twitter, server).sendAsync().get();
+                fail("Twitter calls are at the limit");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof ConcurrencyLimitExceededException);
+            }
+            // the other provider has its own limit
+            final CompletableFuture<Response> other = createRequest(dropBox, server).sendAsync();
+
+            final ConcurrencyLimiterStats stats = limiter.getStats(twitterName);
+            assertEquals(4, stats.getInFlight());
+            assertEquals(2, stats.getRejected());
+            assertEquals(2, limiter.getProviders().size());
+
+            release.countDown();
+            for (final CompletableFuture<Response> response : inFlight) {
+                assertEquals("ok", response.get().getBody());
+            }
+            assertEquals("ok", other.get().getBody());
+            assertEquals(0, limiter.getStats(twitterName).getInFlight());
+        } finally {
+            release.countDown();
+            server.stop();
+        }
+    }
+
+    private static OAuthRequest createRequest(final OAuthService service, final LocalServer server) {
+        final OAuthRequest request = new OAuthRequest(Verb.GET, server.getUrl("/slow"));
+        service.signRequest(new Token("token", "secret"), request);
+        return request;
+    }
+}
@@ -0,0 +1,185 @@
+package org.scribe.transport;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DropBoxApi;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+import org.scribe.test.helpers.LocalServer;
+
+public class DnsCacheTest {
+
+    private static final String HOST = "api.example.com";
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private volatile InetAddress[] addresses;
+    private volatile boolean failing;
+    private DnsCache cache;
+
+    @Before
+    public void setup() throws Exception {
+        addresses = new InetAddress[] { address(1), address(2), address(3) };
+        cache = new DnsCache(new DnsCache.Resolver() {
+            @Override
+            public InetAddress[] resolve(final String host) throws UnknownHostException {
+                lookups.incrementAndGet();
+                if (failing) {
+                    throw new UnknownHostException(host);
+                }
+                return addresses;
+            }
+        });
+        cache.setExecutor(Runnable::run);
+    }
+
+    @Test
+    public void shouldServeLookupsFromCache() throws Exception {
+        cache.lookup(HOST);
+        cache.lookup(HOST.toUpperCase());
+        cache.lookup(HOST);
+        assertEquals(1, lookups.get());
+
+        final DnsCacheStats stats = cache.getStats();
+        assertEquals(1, stats.getSize());
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(2.0 / 3, stats.getHitRatio(), 0.001);
+    }
+
+    @Test
+    public void shouldRotateAcrossAddresses() throws Exception {
+        assertArrayEquals(new InetAddress[] { address(1), address(2), address(3) }, cache.lookup(HOST));
+        assertArrayEquals(new InetAddress[] { address(2), address(3), address(1) }, cache.lookup(HOST));
+        assertArrayEquals(new InetAddress[] { address(3), address(1), address(2) }, cache.lookup(HOST));
+        assertEquals(address(1), cache.lookup(HOST)[0]);
+    }
+
+    @Test
+    public void shouldResolveAgainOnceExpired() throws Exception {
+        cache.setTtl(HOST, 50, TimeUnit.MILLISECONDS);
+        cache.setRefreshRatio(1);
+        cache.lookup(HOST);
+        cache.lookup("other.example.com");
+        Thread.sleep(100);
+        addresses = new InetAddress[] { address(4) };
+        assertArrayEquals(new InetAddress[] { address(4) }, cache.lookup(HOST));
+        cache.lookup("other.example.com");
+        assertEquals(3, lookups.get());
+        assertEquals(3, cache.getStats().getMisses());
+        assertEquals(1, cache.getStats().getHits());
+    }
+
+    @Test
+    public void shouldRefreshInBackgroundBeforeExpiry() throws Exception {
+        cache.setTtl(200, TimeUnit.MILLISECONDS);
+        cache.setRefreshRatio(0.25);
+        cache.lookup(HOST);
+        Thread.sleep(100);
+        addresses = new InetAddress[] { address(4) };
+        // served from the cache, resolved again for the next lookups
+        assertEquals(address(2), cache.lookup(HOST)[0]);
+        assertArrayEquals(new InetAddress[] { address(4) }, cache.lookup(HOST));
+        assertEquals(2, lookups.get());
+        assertEquals(1, cache.getStats().getRefreshes());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    public void shouldServeStaleAddressesWhileResolverFails() throws Exception {
+        cache.setTtl(50, TimeUnit.MILLISECONDS);
+        cache.setMaxStale(150, TimeUnit.MILLISECONDS);
+        cache.lookup(HOST);
+        failing = true;
+        Thread.sleep(100);
+        assertEquals(address(2), cache.lookup(HOST)[0]);
+        assertEquals(1, cache.getStats().getStaleHits());
+        assertEquals(1, cache.getStats().getFailures());
+
+        Thread.sleep(150);
+        try {
+            cache.lookup(HOST);
+            fail("the addresses have been stale for too long");
+        } catch (UnknownHostException e) {
+            assertEquals(HOST, e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldWaitForSingleResolutionOfHost() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final DnsCache slow = new DnsCache(new DnsCache.Resolver() {
+            @Override
+            public InetAddress[] resolve(final String host) throws UnknownHostException {
+                lookups.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return addresses;
+            }
+        });
+        final Thread first = new Thread(() -> {
+            try {
+                slow.lookup(HOST);
+            } catch (UnknownHostException e) {
+                throw new AssertionError(e);
+            }
+        });
+        first.start();
+        started.await();
+        final Thread second = new Thread(() -> {
+            try {
+                slow.lookup(HOST);
+            } catch (UnknownHostException e) {
+                throw new AssertionError(e);
+            }
+        });
+        second.start();
+        Thread.sleep(50);
+        release.countDown();
+        first.join();
+        second.join();
+        assertEquals(1, lookups.get());
+        assertEquals(2, slow.getStats().getMisses());
+    }
+
+    @Test
+    public void shouldConnectToNextAddressWhenOneRefuses() throws Exception {
+        final LocalServer server = new LocalServer();
+        try {
+            // nothing listens on 127.0.0.2 at the port of the server
+            addresses = new InetAddress[] { InetAddress.getByName("127.0.0.2"), InetAddress.getByName("127.0.0.1") };
+            final ConnectionPool pool = new ConnectionPool();
+            final OAuthService service = new ServiceBuilder().provider(DropBoxApi.class).apiKey("key")
+                    .apiSecret("secret").connectionPool(pool).dnsCache(cache).build();
+            for (int i = 0; i < 2; i++) {
+                final OAuthRequest request = new OAuthRequest(Verb.GET, server.getUrl("/echo"));
+                request.setConnectionKeepAlive(false);
+                service.signRequest(new Token("token", "secret"), request);
+                assertEquals(200, request.send().getCode());
+            }
+            assertEquals(1, lookups.get());
+            assertEquals(2, pool.getStats().getCreated());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static InetAddress address(final int last) throws UnknownHostException {
+        return InetAddress.getByAddress(HOST, new byte[] { 10, 0, 0, (byte) last });
+    }
+}
@@ -0,0 +1,247 @@
+package org.scribe.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DropBoxApi;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+import org.scribe.test.helpers.LocalServer;
+
+public class HedgingTransportTest {
+
+    private static final long SLOW_MILLIS = 2000;
+
+    private LocalServer server;
+    private HedgingPolicy policy;
+    private HedgingTransport transport;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicBoolean slowNext = new AtomicBoolean();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() throws Exception {
+        server = new LocalServer();
+        server.handle("/token", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                calls.incrementAndGet();
+                authorizations.add(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+                LocalServer.read(exchange.getRequestBody());
+                if (slowNext.getAndSet(false)) {
+                    try {
+                        Thread.sleep(SLOW_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                LocalServer.respond(exchange, 200, "token");
+            }
+        });
+        policy = new HedgingPolicy();
+        policy.setSamples(5, 100);
+        policy.setMinDelay(0, TimeUnit.MILLISECONDS);
+        transport = new HedgingTransport(new HttpClientTransport(), policy);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldHedgeSlowRequest() throws Exception {
+        warmUp(Verb.GET);
+        assertTrue(policy.getDelay("GET " + server.getUrl("/token"), TimeUnit.MILLISECONDS) < SLOW_MILLIS);
+
+        slowNext.set(true);
+        final long start = System.nanoTime();
+        assertEquals("token", createRequest(Verb.GET).sendAsync().get().getBody());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS));
+        assertEquals(7, calls.get());
+
+        final HedgingStats stats = policy.getStats();
+        assertEquals(6, stats.getRequests());
+        assertEquals(1, stats.getHedged());
+        assertEquals(1, stats.getHedgeWins());
+        assertEquals(1.0, stats.getWinRate(), 0);
+    }
+
+    @Test
+    public void shouldHedgeSynchronousRequest() {
+        warmUp(Verb.GET);
+        slowNext.set(true);
+        final long start = System.nanoTime();
+        assertEquals("token", createRequest(Verb.GET).send().getBody());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS));
+        assertEquals(1, policy.getStats().getHedgeWins());
+    }
+
+    @Test
+    public void shouldStreamBodyOfSynchronousRequest() throws Exception {
+        final CountDownLatch bodyReleased = new CountDownLatch(1);
+        server.handle("/feed", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write("head ".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    bodyReleased.await(SLOW_MILLIS, TimeUnit.MILLISECONDS);
+                    out.write("tail".getBytes(StandardCharsets.UTF_8));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final Request request = new Request(Verb.GET, server.getUrl("/feed"));
+        request.setTransport(transport);
+        final long start = System.nanoTime();
+        final Response response = request.send();
+        // the response came with its headers, before the rest of the body was sent
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS / 2));
+        bodyReleased.countDown();
+        assertEquals("head tail", response.getBody());
+    }
+
+    @Test
+    public void shouldNotHedgeBeforeEnoughSamples() {
+        slowNext.set(true);
+        createRequest(Verb.GET).send();
+        assertEquals(1, calls.get());
+        assertEquals(0, policy.getStats().getHedged());
+    }
+
+    @Test
+    public void shouldOnlyHedgeAllowedNonIdempotentEndpoints() {
+        warmUp(Verb.POST);
+        assertEquals(0, policy.getStats().getRequests());
+
+        policy.allowEndpoint(server.getUrl("/token"));
+        warmUp(Verb.POST);
+        slowNext.set(true);
+        createRequest(Verb.POST).send();
+        assertEquals(1, policy.getStats().getHedgeWins());
+    }
+
+    @Test
+    public void shouldStayWithinBudget() {
+        policy.setBudget(0.1, 1);
+        warmUp(Verb.GET);
+        slowNext.set(true);
+        createRequest(Verb.GET).send();
+        assertEquals(1, policy.getStats().getHedged());
+
+        // the five warm up requests and this one earned less than a new hedge
+        slowNext.set(true);
+        createRequest(Verb.GET).send();
+        assertEquals(1, policy.getStats().getHedged());
+        assertEquals(1, policy.getStats().getOverBudget());
+    }
+
+    @Test
+    public void shouldSignHedgeAgain() {
+        final OAuthService service = new ServiceBuilder().provider(DropBoxApi.class).apiKey("key").apiSecret("secret")
+                .hedgingPolicy(policy).build();
+        for (int i = 0; i < 5; i++) {
+            createSignedRequest(service).send();
+        }
+        authorizations.clear();
+        slowNext.set(true);
+        assertEquals("token", createSignedRequest(service).send().getBody());
+        assertEquals(2, authorizations.size());
+        assertNotEquals(authorizations.get(0), authorizations.get(1));
+    }
+
+    @Test
+    public void shouldReleaseConnectionOfLosingCall() throws Exception {
+        final ConnectionPool pool = new ConnectionPool(2, 30, 0, TimeUnit.SECONDS);
+        transport = new HedgingTransport(new PooledHttpTransport(pool), policy);
+        warmUp(Verb.GET);
+        slowNext.set(true);
+        assertEquals("token", createRequest(Verb.GET).send().getBody());
+        assertEquals(1, policy.getStats().getHedgeWins());
+
+        // the slow call completes after losing, its response is discarded
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS + 3000);
+        while (pool.getStats().getLeased() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, pool.getStats().getLeased());
+        assertEquals("token", createRequest(Verb.GET).send().getBody());
+    }
+
+    @Test
+    public void shouldRecordLatencyOfLosingCall() throws Exception {
+        warmUp(Verb.GET);
+        final String endpoint = "GET " + server.getUrl("/token");
+        slowNext.set(true);
+        createRequest(Verb.GET).send();
+        assertTrue(policy.getDelay(endpoint, TimeUnit.MILLISECONDS) < SLOW_MILLIS / 2);
+
+        // the slow call is a sample of its own once it completes, not the hedge that beat it
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS + 3000);
+        while (policy.getDelay(endpoint, TimeUnit.MILLISECONDS) < SLOW_MILLIS / 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(policy.getDelay(endpoint, TimeUnit.MILLISECONDS) >= SLOW_MILLIS / 2);
+    }
+
+    @Test
+    public void shouldLeaveRequestUntouched() {
+        final OAuthService service = new ServiceBuilder().provider(DropBoxApi.class).apiKey("key").apiSecret("secret")
+                .hedgingPolicy(policy).build();
+        for (int i = 0; i < 5; i++) {
+            createSignedRequest(service).send();
+        }
+        final OAuthRequest request = createSignedRequest(service);
+        final String authorization = request.getHeaders().get("Authorization");
+        authorizations.clear();
+        slowNext.set(true);
+        request.send();
+        assertEquals(2, authorizations.size());
+        // the hedge signed a copy of its own
+        assertEquals(authorization, request.getHeaders().get("Authorization"));
+        assertEquals(authorization, authorizations.get(0));
+    }
+
+    private void warmUp(final Verb verb) {
+        for (int i = 0; i < 5; i++) {
+            createRequest(verb).send().getBody();
+        }
+    }
+
+    private Request createRequest(final Verb verb) {
+        final Request request = new Request(verb, server.getUrl("/token"));
+        if (verb == Verb.POST) {
+            request.addBodyParameter("grant_type", "authorization_code");
+        }
+        request.setTransport(transport);
+        return request;
+    }
+
+    private OAuthRequest createSignedRequest(final OAuthService service) {
+        final OAuthRequest request = new OAuthRequest(Verb.GET, server.getUrl("/token"));
+        service.signRequest(new Token("token", "secret"), request);
+        return request;
+    }
+}
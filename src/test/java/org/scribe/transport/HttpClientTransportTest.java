@@ -0,0 +1,209 @@
+package org.scribe.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CookieManager;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import org.junit.After;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.exceptions.OAuthConnectionException;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.model.Verb;
+import org.scribe.test.helpers.LocalServer;
+
+public class HttpClientTransportTest {
+
+    private LocalServer server;
+    private HttpClientTransport transport;
+
+    @Before
+    public void setup() throws Exception {
+        server = new LocalServer();
+        transport = new HttpClientTransport();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldSendGetRequest() {
+        final Request request = new Request(Verb.GET, server.getUrl("/echo"));
+        request.setTransport(transport);
+        final Response response = request.send();
+        assertEquals(200, response.getCode());
+        assertEquals("GET null ", response.getBody());
+    }
+
+    @Test
+    public void shouldSendBodyWithDefaultContentType() {
+        final Request request = new Request(Verb.POST, server.getUrl("/echo"));
+        request.addBodyParameter("param", "value");
+        request.setTransport(transport);
+        assertEquals("POST " + Request.DEFAULT_CONTENT_TYPE + " param=value", request.send().getBody());
+    }
+
+    @Test
+    public void shouldStreamPayloads() throws Exception {
+        final Request chunked = new Request(Verb.POST, server.getUrl("/framing"));
+        chunked.addPayload(new ByteArrayInputStream("streamed".getBytes(StandardCharsets.UTF_8)));
+        chunked.setTransport(transport);
+        assertEquals("null chunked streamed", chunked.send().getBody());
+
+        final Request fixed = new Request(Verb.PUT, server.getUrl("/framing"));
+        fixed.addPayload(new ByteArrayInputStream("streamed".getBytes(StandardCharsets.UTF_8)), 8);
+        fixed.setExpectContinue(true);
+        fixed.setTransport(transport);
+        assertEquals("8 null streamed", fixed.sendAsync().get().getBody());
+    }
+
+    @Test
+    public void shouldHonourConnectionKeepAlive() throws Exception {
+        server.handle("/connection", exchange -> LocalServer.respond(exchange, 200,
+                exchange.getRequestHeaders().getFirst("Connection") + " " + exchange.getRemoteAddress().getPort()));
+        final String[] kept = sendToConnection(null).split(" ");
+        assertEquals("null", kept[0]);
+        assertEquals(kept[1], sendToConnection(null).split(" ")[1]);
+
+        final String[] closed = sendToConnection(false).split(" ");
+        assertEquals("close", closed[0]);
+        assertNotEquals(kept[1], closed[1]);
+        final Request async = new Request(Verb.GET, server.getUrl("/connection"));
+        async.setConnectionKeepAlive(false);
+        async.setTransport(transport);
+        assertEquals("close", async.sendAsync().get().getBody().split(" ")[0]);
+        // the client kept its own connection
+        assertEquals(kept[1], sendToConnection(true).split(" ")[1]);
+    }
+
+    @Test
+    public void shouldCarryClientSettingsToClosingConnections() throws Exception {
+        final SSLParameters parameters = SSLContext.getDefault().getDefaultSSLParameters();
+        parameters.setProtocols(new String[] { "TLSv1.2" });
+        final HttpClientTransport configured = new HttpClientTransport(HttpClient.newBuilder()
+                .sslParameters(parameters));
+        final SSLParameters closing = configured.getClosingTransport().getTlsConfig().getParameters();
+        assertArrayEquals(new String[] { "TLSv1.2" }, closing.getProtocols());
+        assertArrayEquals(SSLContext.getDefault().getDefaultSSLParameters().getCipherSuites(),
+                closing.getCipherSuites());
+    }
+
+    @Test
+    public void shouldKeepClosingRequestsOnClientWithCookieHandler() {
+        server.handle("/connection", exchange -> LocalServer.respond(exchange, 200,
+                exchange.getRequestHeaders().getFirst("Connection") + " " + exchange.getRemoteAddress().getPort()));
+        transport = new HttpClientTransport(HttpClient.newBuilder().cookieHandler(new CookieManager()));
+        assertEquals("null", sendToConnection(false).split(" ")[0]);
+    }
+
+    private String sendToConnection(final Boolean keepAlive) {
+        final Request request = new Request(Verb.GET, server.getUrl("/connection"));
+        if (keepAlive != null) {
+            request.setConnectionKeepAlive(keepAlive);
+        }
+        request.setTransport(transport);
+        return request.send().getBody();
+    }
+
+    @Test
+    public void shouldTimeOutStalledBody() throws Exception {
+        final CountDownLatch stalled = new CountDownLatch(1);
+        server.handle("/stall", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("head".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                stalled.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        final Request request = new Request(Verb.GET, server.getUrl("/stall"));
+        request.setReadTimeout(300, TimeUnit.MILLISECONDS);
+        request.setTransport(transport);
+        final long start = System.nanoTime();
+        try (InputStream body = request.send().getStream()) {
+            assertEquals('h', body.read());
+            body.readAllBytes();
+            fail("the body stalled");
+        } catch (SocketTimeoutException e) {
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        } finally {
+            stalled.countDown();
+        }
+    }
+
+    @Test
+    public void shouldLookUpHeadersIgnoringCase() {
+        final Request request = new Request(Verb.GET, server.getUrl("/echo"));
+        request.setTransport(transport);
+        final Response response = request.send();
+        assertEquals(response.getHeader("content-length"), response.getHeader("Content-Length"));
+    }
+
+    @Test
+    public void shouldFollowRedirectsSwitchingToGet() {
+        final Request request = new Request(Verb.POST, server.getUrl("/redirect"));
+        request.addBodyParameter("param", "value");
+        request.setTransport(transport);
+        final Response response = request.send();
+        assertEquals(200, response.getCode());
+        assertEquals("GET null ", response.getBody());
+    }
+
+    @Test
+    public void shouldNotFollowRedirectsWhenDisabled() {
+        final Request request = new Request(Verb.GET, server.getUrl("/redirect"));
+        request.setFollowRedirects(false);
+        request.setTransport(transport);
+        final Response response = request.send();
+        assertEquals(302, response.getCode());
+        assertEquals("/echo", response.getHeader("Location"));
+    }
+
+    @Test
+    public void shouldSendAsync() throws Exception {
+        final Request request = new Request(Verb.POST, server.getUrl("/echo"));
+        request.addBodyParameter("param", "value");
+        request.setTransport(transport);
+        final Response response = request.sendAsync().get(5, TimeUnit.SECONDS);
+        assertEquals(200, response.getCode());
+        assertEquals("POST " + Request.DEFAULT_CONTENT_TYPE + " param=value", response.getBody());
+    }
+
+    @Test
+    public void shouldFollowRedirectsAsync() throws Exception {
+        final Request request = new Request(Verb.GET, server.getUrl("/redirect"));
+        request.setTransport(transport);
+        assertEquals("GET null ", request.sendAsync().get(5, TimeUnit.SECONDS).getBody());
+    }
+
+    @Test
+    public void shouldFailAsyncWithConnectionException() throws Exception {
+        server.stop();
+        final Request request = new Request(Verb.GET, server.getUrl("/echo"));
+        request.setTransport(transport);
+        try {
+            request.sendAsync().get(5, TimeUnit.SECONDS);
+            fail("the server is down");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof OAuthConnectionException);
+        }
+    }
+}
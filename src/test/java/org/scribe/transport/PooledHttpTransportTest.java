@@ -0,0 +1,400 @@
+package org.scribe.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ProtocolException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.scribe.exceptions.OAuthConnectionException;
+import org.scribe.model.MultipartPayload;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.model.TransferStats;
+import org.scribe.model.Verb;
+import org.scribe.test.helpers.LocalServer;
+
+public class PooledHttpTransportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LocalServer server;
+    private ConnectionPool pool;
+    private PooledHttpTransport transport;
+
+    @Before
+    public void setup() throws Exception {
+        server = new LocalServer();
+        pool = new ConnectionPool();
+        transport = new PooledHttpTransport(pool);
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+        server.stop();
+    }
+
+    @Test
+    public void shouldSendBodyWithDefaultContentType() {
+        final Request request = createRequest(Verb.POST, "/echo");
+        request.addBodyParameter("param", "value");
+        final Response response = request.send();
+        assertEquals(200, response.getCode());
+        assertEquals("OK", response.getMessage());
+        assertEquals("POST " + Request.DEFAULT_CONTENT_TYPE + " param=value", response.getBody());
+    }
+
+    @Test
+    public void shouldReuseConnectionOnceBodyIsRead() {
+        assertEquals("GET null ", createRequest(Verb.GET, "/echo").send().getBody());
+        assertEquals("GET null ", createRequest(Verb.GET, "/chunked").send().getBody());
+        assertEquals("GET null ", createRequest(Verb.GET, "/echo").send().getBody());
+
+        final PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getCreated());
+        assertEquals(3, stats.getLeases());
+        assertEquals(2, stats.getReused());
+        assertEquals(2.0 / 3, stats.getReuseRatio(), 0.001);
+        assertEquals(0, stats.getLeased());
+        assertEquals(1, stats.getIdle());
+    }
+
+    @Test
+    public void shouldNotReuseConnectionWithoutKeepAlive() {
+        pool.setKeepAlive(false);
+        createRequest(Verb.GET, "/echo").send().getBody();
+        createRequest(Verb.GET, "/echo").send().getBody();
+
+        final PoolStats stats = pool.getStats();
+        assertEquals(2, stats.getCreated());
+        assertEquals(0, stats.getReused());
+        assertEquals(0, stats.getIdle());
+    }
+
+    @Test
+    public void shouldLetRequestOptOutOfKeepAlive() {
+        final Request request = createRequest(Verb.GET, "/echo");
+        request.setConnectionKeepAlive(false);
+        request.send().getBody();
+        assertEquals(0, pool.getStats().getIdle());
+    }
+
+    @Test
+    public void shouldCloseIdleConnectionsPastIdleTimeout() throws Exception {
+        pool.setIdleTimeout(1, TimeUnit.MILLISECONDS);
+        createRequest(Verb.GET, "/echo").send().getBody();
+        Thread.sleep(5);
+        pool.closeExpired();
+        assertEquals(0, pool.getStats().getIdle());
+        createRequest(Verb.GET, "/echo").send().getBody();
+        assertEquals(2, pool.getStats().getCreated());
+    }
+
+    @Test
+    public void shouldDiscardConnectionClosedBeforeEndOfBody() throws Exception {
+        createRequest(Verb.GET, "/echo").send().getStream().close();
+        final PoolStats stats = pool.getStats();
+        assertEquals(0, stats.getLeased());
+        assertEquals(0, stats.getIdle());
+        assertEquals(1, stats.getClosed());
+    }
+
+    @Test
+    public void shouldWaitForAFreeConnectionWhenHostIsAtItsLimit() {
+        pool.setMaxPerHost(1);
+        final Response leased = createRequest(Verb.GET, "/echo").send();
+        final Request request = createRequest(Verb.GET, "/echo");
+        request.setConnectTimeout(50, TimeUnit.MILLISECONDS);
+        try {
+            request.send();
+            fail("the only connection is leased");
+        } catch (OAuthConnectionException e) {
+            assertEquals(1, pool.getStats().getLeased());
+        }
+        leased.getBody();
+        assertEquals("GET null ", request.send().getBody());
+    }
+
+    @Test
+    public void shouldFollowRedirectsOverPooledConnections() {
+        final Request request = createRequest(Verb.POST, "/redirect");
+        request.addBodyParameter("param", "value");
+        assertEquals("GET null ", request.send().getBody());
+        assertEquals(1, pool.getStats().getCreated());
+    }
+
+    @Test
+    public void shouldResendRequestWhenProviderClosedIdleConnection() throws Exception {
+        // answers a single request per connection, without telling the client it is about to close
+        try (ServerSocket closingServer = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"))) {
+            final Thread acceptor = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 3; i++) {
+                            try (Socket socket = closingServer.accept()) {
+                                final InputStream in = socket.getInputStream();
+                                while (Http11Codec.readLine(in).length() > 0) {
+                                    // skip the request head
+                                }
+                                socket.getOutputStream().write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok".
+                                        getBytes("ISO-8859-1"));
+                                socket.getOutputStream().flush();
+                            }
+                        }
+                    } catch (IOException e) {
+                        // test is over
+                    }
+                }
+            });
+            acceptor.start();
+            final String url = "http://127.0.0.1:" + closingServer.getLocalPort() + "/";
+            for (int i = 0; i < 3; i++) {
+                final Request request = new Request(Verb.GET, url);
+                request.setTransport(transport);
+                assertEquals("ok", request.send().getBody());
+                Thread.sleep(20);
+            }
+            acceptor.join(1000);
+        }
+        assertEquals(3, pool.getStats().getCreated());
+        assertEquals(2, pool.getStats().getReused());
+    }
+
+    @Test
+    public void shouldStreamPayloadOfUnknownLengthChunked() {
+        final Request request = createRequest(Verb.POST, "/framing");
+        request.addPayload(new ByteArrayInputStream("streamed".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("null chunked streamed", request.send().getBody());
+
+        final Request next = createRequest(Verb.PUT, "/framing");
+        next.addPayload(ByteBuffer.wrap("buffered".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("8 null buffered", next.send().getBody());
+        assertEquals(1, pool.getStats().getCreated());
+    }
+
+    @Test
+    public void shouldStreamFilePayloadWithItsLength() throws Exception {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), "from a file".getBytes(StandardCharsets.UTF_8));
+        final Request request = createRequest(Verb.PUT, "/framing");
+        request.addPayload(file.toPath());
+        assertEquals("11 null from a file", request.send().getBody());
+    }
+
+    @Test
+    public void shouldSendBodyOnceProviderAcceptsExpectation() {
+        final Request request = createRequest(Verb.POST, "/echo");
+        request.addPayload("payload");
+        request.setExpectContinue(true);
+        assertEquals("POST " + Request.DEFAULT_CONTENT_TYPE + " payload", request.send().getBody());
+    }
+
+    @Test
+    public void shouldNotSendBodyWhenProviderRejectsExpectation() throws Exception {
+        // rejects the request as soon as it has read its head
+        try (ServerSocket rejectingServer = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"))) {
+            final Thread acceptor = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try (Socket socket = rejectingServer.accept()) {
+                        final InputStream in = socket.getInputStream();
+                        while (Http11Codec.readLine(in).length() > 0) {
+                            // skip the request head
+                        }
+                        socket.getOutputStream().write("HTTP/1.1 401 Unauthorized\r\nContent-Length: 0\r\n\r\n".
+                                getBytes("ISO-8859-1"));
+                        socket.getOutputStream().flush();
+                        in.read();
+                    } catch (IOException e) {
+                        // test is over
+                    }
+                }
+            });
+            acceptor.start();
+            final AtomicBoolean bodyRead = new AtomicBoolean();
+            final Request request = new Request(Verb.POST, "http://127.0.0.1:" + rejectingServer.getLocalPort() + "/");
+            request.setTransport(transport);
+            request.setExpectContinue(true);
+            request.addPayload(new InputStream() {
+                @Override
+                public int read() {
+                    bodyRead.set(true);
+                    return -1;
+                }
+            }, 1024);
+            final Response response = request.send();
+            assertEquals(401, response.getCode());
+            assertEquals("", response.getBody());
+            assertFalse(bodyRead.get());
+            assertEquals(0, pool.getStats().getIdle());
+            acceptor.join(1000);
+        }
+    }
+
+    @Test
+    public void shouldNotFollowRedirectKeepingMethodWithStreamedPayload() {
+        server.handle("/temporary", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                LocalServer.read(exchange.getRequestBody());
+                exchange.getResponseHeaders().add("Location", "/echo");
+                LocalServer.respond(exchange, 307, "");
+            }
+        });
+        final Request request = createRequest(Verb.POST, "/temporary");
+        request.addPayload(new ByteArrayInputStream("once".getBytes(StandardCharsets.UTF_8)), 4);
+        assertEquals(307, request.send().getCode());
+    }
+
+    @Test
+    public void shouldStreamMultipartBody() throws Exception {
+        final File file = folder.newFile("photo.jpg");
+        Files.write(file.toPath(), "jpeg".getBytes(StandardCharsets.UTF_8));
+        final Request request = createRequest(Verb.POST, "/echo");
+        final MultipartPayload multipart = request.addMultipartPayload().addField("title", "photo").addFile("photo",
+                file.toPath(), "image/jpeg");
+        final String body = request.send().getBody();
+        assertTrue(body.startsWith("POST " + multipart.getContentType() + " --"));
+        assertTrue(body.contains("filename=\"photo.jpg\"\r\nContent-Type: image/jpeg\r\n\r\njpeg\r\n"));
+
+        final Request chunked = createRequest(Verb.POST, "/framing");
+        chunked.addMultipartPayload().addStream("data", null, null, new ByteArrayInputStream(new byte[3]), -1);
+        assertTrue(chunked.send().getBody().startsWith("null chunked --"));
+    }
+
+    @Test
+    public void shouldDownloadBodyToFileAndReleaseConnection() throws Exception {
+        final byte[] bytes = new byte[200000];
+        new Random(42).nextBytes(bytes);
+        server.handle("/download", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        });
+        final File file = folder.newFile();
+        final TransferStats stats = createRequest(Verb.GET, "/download").send().writeTo(file.toPath());
+        assertEquals(bytes.length, stats.getBytes());
+        assertArrayEquals(bytes, Files.readAllBytes(file.toPath()));
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    @Test
+    public void shouldRejectHeadersBreakingTheHead() {
+        for (final String[] header : new String[][] { { "X-Note", "a\r\nX-Injected: 1" }, { "X-Note", "a\nb" },
+                { "X-Note", "nul\0" }, { "X-Note", "\u20ac" }, { "X-Note\r\nX-Injected", "1" } }) {
+            final Request request = createRequest(Verb.GET, "/echo");
+            request.addHeader(header[0], header[1]);
+            try {
+                request.send();
+                fail("Header " + header[0] + " sent");
+            } catch (OAuthConnectionException e) {
+                assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+        }
+        assertEquals(0, pool.getStats().getLeased());
+        // Latin-1 is fine
+        final Request request = createRequest(Verb.GET, "/echo");
+        request.addHeader("X-Note", "caf\u00e9");
+        assertEquals(200, request.send().getCode());
+    }
+
+    @Test
+    public void shouldRejectNegativeOrAmbiguousContentLength() throws Exception {
+        for (final String head : new String[] { "HTTP/1.1 200 OK\r\nContent-Length: -5\r\n\r\n",
+                "HTTP/1.1 200 OK\r\nContent-Length: 2\r\nTransfer-Encoding: chunked\r\n\r\n2\r\nok\r\n0\r\n\r\n" }) {
+            try (ServerSocket rawServer = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"))) {
+                final Thread acceptor = serveRaw(rawServer, head);
+                final Request request = new Request(Verb.GET, "http://127.0.0.1:" + rawServer.getLocalPort() + "/");
+                request.setTransport(transport);
+                try {
+                    request.send();
+                    fail("Response framed by " + head);
+                } catch (OAuthConnectionException e) {
+                    assertTrue(e.getCause() instanceof ProtocolException);
+                }
+                acceptor.join(1000);
+            }
+        }
+        assertEquals(0, pool.getStats().getLeased());
+        assertEquals(0, pool.getStats().getIdle());
+    }
+
+    @Test
+    public void shouldRejectInvalidChunks() throws Exception {
+        final String head = "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n";
+        for (final String chunks : new String[] { "-1\r\nok\r\n0\r\n\r\n", "+2\r\nok\r\n0\r\n\r\n",
+                "\r\nok\r\n0\r\n\r\n", "2\r\nokX\r\n0\r\n\r\n", "2\r\nok0\r\n\r\n" }) {
+            try (ServerSocket rawServer = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"))) {
+                final Thread acceptor = serveRaw(rawServer, head + chunks);
+                final Request request = new Request(Verb.GET, "http://127.0.0.1:" + rawServer.getLocalPort() + "/");
+                request.setTransport(transport);
+                try (InputStream body = request.send().getStream()) {
+                    body.readAllBytes();
+                    fail("Chunks " + chunks);
+                } catch (ProtocolException e) {
+                    // not a chunk size, or no CRLF after the chunk data
+                }
+                acceptor.join(1000);
+            }
+        }
+        assertEquals(0, pool.getStats().getLeased());
+        assertEquals(0, pool.getStats().getIdle());
+    }
+
+    /**
+     * Answers the first request to the server with the raw response.
+     */
+    private static Thread serveRaw(final ServerSocket rawServer, final String response) {
+        final Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try (Socket socket = rawServer.accept()) {
+                    final InputStream in = socket.getInputStream();
+                    while (Http11Codec.readLine(in).length() > 0) {
+                        // skip the request head
+                    }
+                    socket.getOutputStream().write(response.getBytes("ISO-8859-1"));
+                    socket.getOutputStream().flush();
+                } catch (IOException e) {
+                    // test is over
+                }
+            }
+        });
+        acceptor.start();
+        return acceptor;
+    }
+
+    private Request createRequest(final Verb verb, final String path) {
+        final Request request = new Request(verb, server.getUrl(path));
+        request.setTransport(transport);
+        return request;
+    }
+}
@@ -0,0 +1,152 @@
+package org.scribe.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DropBoxApi;
+import org.scribe.exceptions.RateLimitExceededException;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+import org.scribe.test.helpers.LocalServer;
+
+public class RateLimiterTest {
+
+    private RateLimiter limiter;
+
+    @Before
+    public void setup() {
+        limiter = new RateLimiter();
+    }
+
+    @Test
+    public void shouldAllowBurstThenRefuse() {
+        limiter.setApplicationLimit(3, 1, TimeUnit.MINUTES);
+        assertTrue(limiter.tryAcquire("app", null));
+        assertTrue(limiter.tryAcquire("app", null));
+        assertTrue(limiter.tryAcquire("app", null));
+        assertFalse(limiter.tryAcquire("app", null));
+        assertTrue(limiter.tryAcquire("other app", null));
+
+        final RateLimiterStats stats = limiter.getStats();
+        assertEquals(4, stats.getAcquired());
+        assertEquals(1, stats.getRejected());
+        assertEquals(2, stats.getApplications());
+    }
+
+    @Test
+    public void shouldLimitEveryTokenOnItsOwn() {
+        limiter.setTokenLimit(1, 1, TimeUnit.MINUTES);
+        assertTrue(limiter.tryAcquire("app", "token"));
+        assertFalse(limiter.tryAcquire("app", "token"));
+        assertTrue(limiter.tryAcquire("app", "other token"));
+        // calls without a token are only counted against the application
+        assertTrue(limiter.tryAcquire("app", null));
+    }
+
+    @Test
+    public void shouldGiveTokenPermitBackWhenApplicationRefuses() {
+        limiter.setApplicationLimit(1, 1, TimeUnit.MINUTES);
+        limiter.setTokenLimit(1, 1, TimeUnit.MINUTES);
+        assertTrue(limiter.tryAcquire("app", "token"));
+        assertFalse(limiter.tryAcquire("app", "other token"));
+        assertTrue(limiter.tryAcquire("other app", "other token"));
+    }
+
+    @Test
+    public void shouldWaitForRefill() throws Exception {
+        limiter.setApplicationLimit(1, 100, TimeUnit.MILLISECONDS);
+        limiter.acquire("app", null);
+        final long start = System.nanoTime();
+        limiter.acquire("app", null);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(80));
+        assertEquals(1, limiter.getStats().getDelayed());
+
+        assertFalse(limiter.tryAcquire("app", null, 10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldNotHandOutMorePermitsThanTheBurstAcrossThreads() throws Exception {
+        limiter.setApplicationLimit(100, 1, TimeUnit.HOURS);
+        final AtomicInteger granted = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int call = 0; call < 50; call++) {
+                    if (limiter.tryAcquire("app", null)) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100, granted.get());
+        assertEquals(300, limiter.getStats().getRejected());
+    }
+
+    @Test
+    public void shouldLimitSignedRequestsByToken() throws Exception {
+        final LocalServer server = new LocalServer();
+        try {
+            server.handle("/api", new HttpHandler() {
+                @Override
+                public void handle(final HttpExchange exchange) throws IOException {
+                    LocalServer.respond(exchange, 200, "ok");
+                }
+            });
+            limiter.setTokenLimit(1, 1, TimeUnit.MINUTES);
+            limiter.setMaxWait(0, TimeUnit.MILLISECONDS);
+            final OAuthService service = new ServiceBuilder().provider(DropBoxApi.class).apiKey("key")
+                    .apiSecret("secret").rateLimiter(limiter).build();
+
+            assertEquals(200, createRequest(service, server, "token").send().getCode());
+            try {
+                createRequest(service, server, "token").send();
+                fail("the token has no permit left");
+            } catch (RateLimitExceededException e) {
+                // no wait allowed
+            }
+            try {
+                createRequest(service, server, "token").sendAsync().get();
+                fail("the token has no permit left");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RateLimitExceededException);
+            }
+            assertEquals("ok", createRequest(service, server, "other token").sendAsync().get().getBody());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static OAuthRequest createRequest(final OAuthService service, final LocalServer server,
+            final String token) {
+        final OAuthRequest request = new OAuthRequest(Verb.GET, server.getUrl("/api"));
+        service.signRequest(new Token(token, "secret"), request);
+        return request;
+    }
+}
@@ -0,0 +1,200 @@
+package org.scribe.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DropBoxApi;
+import org.scribe.exceptions.OAuthConnectionException;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Request;
+import org.scribe.model.Response;
+import org.scribe.model.SignatureType;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+import org.scribe.test.helpers.LocalServer;
+
+public class RetryingTransportTest {
+
+    private static final Pattern NONCE_PATTERN = Pattern.compile("oauth_nonce=\"?([^\"&]*)");
+
+    private LocalServer server;
+    private RetryPolicy policy;
+    private RetryingTransport transport;
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+    private volatile String retryAfter;
+
+    @Before
+    public void setup() throws Exception {
+        server = new LocalServer();
+        server.handle("/flaky", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                calls.incrementAndGet();
+                authorizations.add(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+                queries.add(String.valueOf(exchange.getRequestURI().getRawQuery()));
+                LocalServer.read(exchange.getRequestBody());
+                if (failures.getAndDecrement() > 0) {
+                    if (retryAfter != null) {
+                        exchange.getResponseHeaders().add("Retry-After", retryAfter);
+                    }
+                    LocalServer.respond(exchange, 503, "unavailable");
+                } else {
+                    LocalServer.respond(exchange, 200, "ok");
+                }
+            }
+        });
+        policy = new RetryPolicy();
+        policy.setBackoff(1, 10, TimeUnit.MILLISECONDS);
+        transport = new RetryingTransport(new HttpClientTransport(), policy);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldRetryIdempotentRequestUntilItSucceeds() {
+        failures.set(2);
+        final Response response = createRequest(Verb.GET).send();
+        assertEquals(200, response.getCode());
+        assertEquals("ok", response.getBody());
+        assertEquals(3, calls.get());
+
+        final RetryStats stats = policy.getStats();
+        assertEquals(1, stats.getRequests());
+        assertEquals(2, stats.getRetries());
+        assertEquals(1, stats.getRecovered());
+        assertEquals(0, stats.getExhausted());
+        assertEquals(1, stats.getAttempts(3));
+    }
+
+    @Test
+    public void shouldGiveUpAfterMaxAttempts() {
+        failures.set(5);
+        assertEquals(503, createRequest(Verb.GET).send().getCode());
+        assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS, calls.get());
+        assertEquals(1, policy.getStats().getExhausted());
+    }
+
+    @Test
+    public void shouldNotRetryNonIdempotentRequestUnlessEndpointIsAllowed() {
+        failures.set(1);
+        assertEquals(503, createRequest(Verb.POST).send().getCode());
+        assertEquals(1, calls.get());
+
+        failures.set(1);
+        policy.allowEndpoint(server.getUrl("/flaky"));
+        assertEquals(200, createRequest(Verb.POST).send().getCode());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void shouldWaitForRetryAfter() {
+        failures.set(1);
+        retryAfter = "1";
+        final long start = System.nanoTime();
+        assertEquals(200, createRequest(Verb.GET).send().getCode());
+        assertTrue(System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(1));
+        assertTrue(policy.getStats().getBackoffMillis() >= 1000);
+    }
+
+    @Test
+    public void shouldNotWaitForRetryAfterLongerThanAllowed() {
+        failures.set(1);
+        retryAfter = "120";
+        assertEquals(503, createRequest(Verb.GET).send().getCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void shouldRetryConnectionFailures() throws Exception {
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"))) {
+            port = socket.getLocalPort();
+        }
+        final AtomicInteger attempts = new AtomicInteger();
+        policy.addListener((request, attempt, response, error, durationNanos, retryDelay) -> {
+            assertTrue(error instanceof IOException);
+            attempts.incrementAndGet();
+        });
+        final Request request = new Request(Verb.GET, "http://127.0.0.1:" + port + "/");
+        request.setTransport(transport);
+        try {
+            request.send();
+            fail("nothing listens on the port");
+        } catch (OAuthConnectionException e) {
+            assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS, attempts.get());
+        }
+    }
+
+    @Test
+    public void shouldRetryAsync() throws Exception {
+        failures.set(1);
+        assertEquals("ok", createRequest(Verb.GET).sendAsync().get().getBody());
+        assertEquals(2, calls.get());
+        assertEquals(1, policy.getStats().getRecovered());
+    }
+
+    @Test
+    public void shouldSignEachAttemptAgain() {
+        failures.set(1);
+        final OAuthService service = new ServiceBuilder().provider(DropBoxApi.class).apiKey("key").apiSecret("secret")
+                .retryPolicy(policy).build();
+        final OAuthRequest request = new OAuthRequest(Verb.GET, server.getUrl("/flaky"));
+        service.signRequest(new Token("token", "secret"), request);
+        assertEquals(200, request.send().getCode());
+        assertEquals(2, authorizations.size());
+        assertNotEquals(nonce(authorizations.get(0)), nonce(authorizations.get(1)));
+        assertEquals(1, count(authorizations.get(1), "oauth_signature="));
+    }
+
+    @Test
+    public void shouldSignQueryStringAttemptsAgain() {
+        failures.set(1);
+        final OAuthService service = new ServiceBuilder().provider(DropBoxApi.class).apiKey("key").apiSecret("secret")
+                .signatureType(SignatureType.QueryString).retryPolicy(policy).build();
+        final OAuthRequest request = new OAuthRequest(Verb.GET, server.getUrl("/flaky"));
+        service.signRequest(new Token("token", "secret"), request);
+        assertEquals(200, request.send().getCode());
+        assertNotEquals(nonce(queries.get(0)), nonce(queries.get(1)));
+        assertEquals(1, count(queries.get(1), "oauth_nonce="));
+        assertEquals(1, count(queries.get(1), "oauth_signature="));
+    }
+
+    private Request createRequest(final Verb verb) {
+        final Request request = new Request(verb, server.getUrl("/flaky"));
+        request.setTransport(transport);
+        return request;
+    }
+
+    private static String nonce(final String signed) {
+        final Matcher matcher = NONCE_PATTERN.matcher(signed);
+        assertTrue(matcher.find());
+        return matcher.group(1);
+    }
+
+    private static int count(final String text, final String part) {
+        return text.split(part, -1).length - 1;
+    }
+}
@@ -0,0 +1,144 @@
+package org.scribe.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DropBoxApi;
+import org.scribe.exceptions.OAuthConnectionException;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+import org.scribe.test.helpers.LocalServer;
+
+public class TlsConfigTest {
+
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    private HttpsServer server;
+    private TlsConfig config;
+    private String provider;
+
+    @Before
+    public void setup() throws Exception {
+        final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = getClass().getResourceAsStream("/localhost.p12")) {
+            keyStore.load(in, PASSWORD);
+        }
+        final KeyManagerFactory keys = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keys.init(keyStore, PASSWORD);
+        final SSLContext serverContext = SSLContext.getInstance("TLS");
+        serverContext.init(keys.getKeyManagers(), null, null);
+        server = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setHttpsConfigurator(new HttpsConfigurator(serverContext));
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/resource", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                LocalServer.respond(exchange, 200, "resource");
+            }
+        });
+        server.start();
+        provider = "127.0.0.1:" + server.getAddress().getPort();
+
+        final TrustManagerFactory trust = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trust.init(keyStore);
+        final SSLContext clientContext = SSLContext.getInstance("TLS");
+        clientContext.init(null, trust.getTrustManagers(), null);
+        config = new TlsConfig(clientContext);
+        config.setSessionCache(100, 1, TimeUnit.HOURS);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldResumeSessionsWithTls13() throws Exception {
+        config.setProtocols("TLSv1.3");
+        shouldResumeSessions();
+    }
+
+    @Test
+    public void shouldResumeSessionsWithTls12() throws Exception {
+        config.setProtocols("TLSv1.2");
+        config.setCipherSuites("TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256");
+        shouldResumeSessions();
+    }
+
+    @Test
+    public void shouldShareSessionsAcrossServices() throws Exception {
+        send(createService(), 1);
+        Thread.sleep(10);
+        send(createService(), 1);
+        assertEquals(2, config.getStats(provider).getHandshakes());
+        assertEquals(1, config.getStats(provider).getResumed());
+        assertEquals(Collections.singleton(provider), config.getProviders());
+    }
+
+    @Test
+    public void shouldCountFailedHandshakes() throws Exception {
+        // the server only has an EC key, for which no RSA suite can be negotiated
+        config.setProtocols("TLSv1.2");
+        config.setCipherSuites("TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256");
+        try {
+            send(createService(), 1);
+            fail("no cipher suite in common");
+        } catch (OAuthConnectionException e) {
+            assertEquals(1, config.getStats(provider).getFailures());
+            assertEquals(0, config.getStats(provider).getHandshakes());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsupportedCipherSuites() {
+        config.setCipherSuites("TLS_NOT_A_CIPHER_SUITE");
+    }
+
+    private void shouldResumeSessions() throws Exception {
+        final OAuthService service = createService();
+        send(service, 1);
+        // resumed sessions are told apart by their creation time
+        Thread.sleep(10);
+        send(service, 3);
+        final TlsStats stats = config.getStats(provider);
+        assertEquals(4, stats.getHandshakes());
+        assertEquals(3, stats.getResumed());
+        assertEquals(0.75, stats.getResumptionRate(), 0.001);
+        assertTrue(stats.getAverageMicros() > 0);
+    }
+
+    private OAuthService createService() {
+        return new ServiceBuilder().provider(DropBoxApi.class).apiKey("key").apiSecret("secret").tlsConfig(config)
+                .build();
+    }
+
+    private void send(final OAuthService service, final int requests) {
+        for (int i = 0; i < requests; i++) {
+            final OAuthRequest request = new OAuthRequest(Verb.GET, "https://" + provider + "/resource");
+            // a new connection, hence a new handshake, for every request
+            request.setConnectionKeepAlive(false);
+            service.signRequest(new Token("token", "secret"), request);
+            assertEquals("resource", request.send().getBody());
+        }
+    }
+}
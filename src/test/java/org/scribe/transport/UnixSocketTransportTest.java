@@ -0,0 +1,203 @@
+package org.scribe.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DropBoxApi;
+import org.scribe.exceptions.OAuthConnectionException;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Response;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+
+public class UnixSocketTransportTest {
+
+    private Path directory;
+    private Path socket;
+    private EchoProxy proxy;
+
+    @Before
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("subscribe");
+        socket = directory.resolve("proxy.sock");
+        proxy = new EchoProxy(socket);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        proxy.stop();
+        Files.deleteIfExists(socket);
+        Files.delete(directory);
+    }
+
+    @Test
+    public void shouldSendRequestsInAbsoluteFormOverOneConnection() {
+        final ConnectionPool pool = new ConnectionPool();
+        final OAuthService service = createService(pool);
+        assertEquals("GET https://api.dropbox.com/1/account/info?locale=en HTTP/1.1",
+                send(service, new OAuthRequest(Verb.GET, "https://api.dropbox.com/1/account/info?locale=en")));
+        // connections to the proxy carry requests to any host
+        assertEquals("GET http://api.example.com:8080/ HTTP/1.1",
+                send(service, new OAuthRequest(Verb.GET, "http://api.example.com:8080")));
+        assertEquals(1, proxy.accepted.get());
+        assertEquals(1, pool.getStats().getCreated());
+        assertEquals(1, pool.getStats().getReused());
+    }
+
+    @Test
+    public void shouldSendBodies() {
+        final OAuthRequest request = new OAuthRequest(Verb.POST, "https://api.dropbox.com/1/fileops/create_folder");
+        request.addBodyParameter("path", "/photos");
+        final String echo = send(createService(new ConnectionPool()), request);
+        assertTrue(echo, echo.startsWith("POST https://api.dropbox.com/1/fileops/create_folder HTTP/1.1\n"));
+        assertTrue(echo, echo.endsWith("\npath=%2Fphotos"));
+    }
+
+    @Test
+    public void shouldTimeOutReading() {
+        final OAuthRequest request = new OAuthRequest(Verb.GET, "https://api.dropbox.com/slow");
+        request.setReadTimeout(100, TimeUnit.MILLISECONDS);
+        try {
+            send(createService(new ConnectionPool()), request);
+            fail("the proxy does not answer");
+        } catch (OAuthConnectionException e) {
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+        }
+    }
+
+    @Test
+    public void shouldOpenNewConnectionWhenProxyClosedIdleOne() throws Exception {
+        final ConnectionPool pool = new ConnectionPool();
+        final OAuthService service = createService(pool);
+        send(service, new OAuthRequest(Verb.GET, "https://api.dropbox.com/close"));
+        Thread.sleep(50);
+        assertEquals("GET https://api.dropbox.com/ HTTP/1.1",
+                send(service, new OAuthRequest(Verb.GET, "https://api.dropbox.com/")));
+        assertEquals(2, proxy.accepted.get());
+        assertEquals(2, pool.getStats().getCreated());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotNegotiateTlsOverSocket() {
+        new ServiceBuilder().provider(DropBoxApi.class).apiKey("key").apiSecret("secret").unixSocket(socket)
+                .tlsConfig(new TlsConfig()).build();
+    }
+
+    private OAuthService createService(final ConnectionPool pool) {
+        return new ServiceBuilder().provider(DropBoxApi.class).apiKey("key").apiSecret("secret")
+                .connectionPool(pool).unixSocket(socket).build();
+    }
+
+    private static String send(final OAuthService service, final OAuthRequest request) {
+        service.signRequest(new Token("token", "secret"), request);
+        final Response response = request.send();
+        assertEquals(200, response.getCode());
+        return response.getBody();
+    }
+
+    /**
+     * Answers every request with its request line, followed by its body if any. Requests to /slow are not answered,
+     * and the connection is closed after answering requests to /close.
+     */
+    private static final class EchoProxy {
+
+        private final ServerSocketChannel server;
+        private final Thread acceptor;
+        private final AtomicInteger accepted = new AtomicInteger();
+
+        EchoProxy(final Path socket) throws IOException {
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(UnixDomainSocketAddress.of(socket));
+            acceptor = new Thread(() -> {
+                while (server.isOpen()) {
+                    try {
+                        final SocketChannel channel = server.accept();
+                        accepted.incrementAndGet();
+                        final Thread handler = new Thread(() -> serve(channel));
+                        handler.setDaemon(true);
+                        handler.start();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        void stop() throws Exception {
+            server.close();
+            acceptor.join();
+        }
+
+        private static void serve(final SocketChannel channel) {
+            try (SocketChannel client = channel) {
+                final InputStream in = Channels.newInputStream(client);
+                final OutputStream out = Channels.newOutputStream(client);
+                while (true) {
+                    final String requestLine = readLine(in);
+                    if (requestLine == null) {
+                        return;
+                    }
+                    int length = 0;
+                    for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {
+                        if (line.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                            length = Integer.parseInt(line.substring(15).trim());
+                        }
+                    }
+                    final byte[] body = in.readNBytes(length);
+                    if (requestLine.contains("/slow ")) {
+                        Thread.sleep(1000);
+                        return;
+                    }
+                    final String echo = length == 0 ? requestLine
+                            : requestLine + '\n' + new String(body, StandardCharsets.UTF_8);
+                    final byte[] bytes = echo.getBytes(StandardCharsets.UTF_8);
+                    out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + bytes.length + "\r\n\r\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+                    out.write(bytes);
+                    out.flush();
+                    if (requestLine.contains("/close ")) {
+                        return;
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // the client went away
+            }
+        }
+
+        private static String readLine(final InputStream in) throws IOException {
+            final ByteArrayOutputStream line = new ByteArrayOutputStream();
+            for (int b = in.read(); b != '\n'; b = in.read()) {
+                if (b == -1) {
+                    return null;
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return line.toString(StandardCharsets.US_ASCII);
+        }
+    }
+}
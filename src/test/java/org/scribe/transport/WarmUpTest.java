@@ -0,0 +1,127 @@
+package org.scribe.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DefaultApi10a;
+import org.scribe.model.Token;
+import org.scribe.model.WarmUpStats;
+import org.scribe.oauth.OAuthService;
+import org.scribe.test.helpers.LocalServer;
+
+public class WarmUpTest {
+
+    private LocalServer server;
+    private final AtomicInteger heads = new AtomicInteger();
+
+    @Before
+    public void setup() throws Exception {
+        server = new LocalServer();
+        server.handle("/oauth/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                if ("HEAD".equals(exchange.getRequestMethod())) {
+                    heads.incrementAndGet();
+                    LocalServer.respond(exchange, 405, "");
+                } else {
+                    LocalServer.respond(exchange, 200, "oauth_token=request&oauth_token_secret=secret");
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldParkIdleConnectionsWhenBuilt() {
+        final ConnectionPool pool = new ConnectionPool();
+        final OAuthService service = new ServiceBuilder().provider(new LocalApi(server.getUrl("/oauth/")))
+                .apiKey("key").apiSecret("secret").connectionPool(pool).warmUp(3).build();
+        final WarmUpStats stats = service.getWarmUpStats();
+        // both token endpoints are on the same host
+        assertEquals(1, stats.getHosts());
+        assertEquals(3, stats.getConnections());
+        assertTrue(stats.isComplete());
+        assertEquals(3, pool.getStats().getIdle());
+
+        assertEquals("request", service.getRequestToken().getToken());
+        assertEquals(3, pool.getStats().getCreated());
+        assertEquals(1, pool.getStats().getReused());
+    }
+
+    @Test
+    public void shouldOnlyOpenMissingConnections() {
+        final ConnectionPool pool = new ConnectionPool();
+        pool.setMaxPerHost(2);
+        final OAuthService service = new ServiceBuilder().provider(new LocalApi(server.getUrl("/oauth/")))
+                .apiKey("key").apiSecret("secret").connectionPool(pool).build();
+        assertNull(service.getWarmUpStats());
+        assertEquals(2, service.warmUp(5).getConnections());
+        assertEquals(0, service.warmUp(2).getConnections());
+        assertEquals(2, pool.getStats().getIdle());
+    }
+
+    @Test
+    public void shouldCountHostsThatCanNotBeReached() throws Exception {
+        final int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        final OAuthService service = new ServiceBuilder().provider(new LocalApi("http://127.0.0.1:" + closedPort
+                + "/oauth/")).apiKey("key").apiSecret("secret").connectionPool(new ConnectionPool()).warmUp(2)
+                .build();
+        final WarmUpStats stats = service.getWarmUpStats();
+        assertFalse(stats.isComplete());
+        assertEquals(1, stats.getFailures());
+        assertEquals(0, stats.getConnections());
+        assertTrue(stats.getDuration(TimeUnit.SECONDS) < 10);
+    }
+
+    @Test
+    public void shouldWarmUpDefaultTransportWithHeadRequests() {
+        final OAuthService service = new ServiceBuilder().provider(new LocalApi(server.getUrl("/oauth/")))
+                .apiKey("key").apiSecret("secret").transport(new HttpClientTransport()).build();
+        final WarmUpStats stats = service.warmUp(2);
+        assertEquals(2, stats.getConnections());
+        assertEquals(2, heads.get());
+        assertEquals("request", service.getRequestToken().getToken());
+    }
+
+    private static final class LocalApi extends DefaultApi10a {
+
+        private final String url;
+
+        LocalApi(final String url) {
+            this.url = url;
+        }
+
+        @Override
+        public String getRequestTokenEndpoint() {
+            return url + "request_token";
+        }
+
+        @Override
+        public String getAccessTokenEndpoint() {
+            return url + "access_token";
+        }
+
+        @Override
+        public String getAuthorizationUrl(final Token requestToken) {
+            return url + "authorize";
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.scribe.upload;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.After;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.DropBoxApi;
+import org.scribe.exceptions.UploadException;
+import org.scribe.model.Token;
+import org.scribe.oauth.OAuthService;
+import org.scribe.test.helpers.LocalServer;
+
+public class ChunkedUploaderTest {
+
+    private static final int CHUNK = 4 * 1024 * 1024;
+    private static final Pattern OFFSET_PATTERN = Pattern.compile("\"offset\": (\\d+)");
+    private static final Pattern NONCE_PATTERN = Pattern.compile("oauth_nonce=\"(.*?)\"");
+    private static final Pattern CLOSE_PATTERN = Pattern.compile("\"close\": true");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LocalServer server;
+    private ChunkedUploader uploader;
+    private final Map<Long, byte[]> chunks = new ConcurrentHashMap<>();
+    private final Set<String> nonces = ConcurrentHashMap.newKeySet();
+    private final Set<Long> failingOffsets = ConcurrentHashMap.newKeySet();
+    private final Set<Long> closingOffsets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger appends = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile byte[] committed;
+
+    @Before
+    public void setup() throws Exception {
+        server = new LocalServer();
+        server.handle("/2/files/upload_session/start", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                LocalServer.read(exchange.getRequestBody());
+                LocalServer.respond(exchange, 200, "{\"session_id\": \"session-1\"}");
+            }
+        });
+        server.handle("/2/files/upload_session/append_v2", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                appends.incrementAndGet();
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    final Matcher nonce = NONCE_PATTERN.matcher(exchange.getRequestHeaders().getFirst("Authorization"));
+                    assertTrue(nonce.find());
+                    nonces.add(nonce.group(1));
+                    final String argument = exchange.getRequestHeaders().getFirst("Dropbox-API-Arg");
+                    final Matcher offset = OFFSET_PATTERN.matcher(argument);
+                    assertTrue(offset.find());
+                    if (CLOSE_PATTERN.matcher(argument).find()) {
+                        closingOffsets.add(Long.parseLong(offset.group(1)));
+                    }
+                    final byte[] chunk = readBytes(exchange.getRequestBody());
+                    Thread.sleep(100);
+                    if (failingOffsets.remove(Long.parseLong(offset.group(1)))) {
+                        LocalServer.respond(exchange, 500, "{\"error\": \"internal\"}");
+                        return;
+                    }
+                    chunks.put(Long.parseLong(offset.group(1)), chunk);
+                    LocalServer.respond(exchange, 200, "null");
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+        server.handle("/2/files/upload_session/finish", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                LocalServer.read(exchange.getRequestBody());
+                final ByteArrayOutputStream file = new ByteArrayOutputStream();
+                for (long offset = 0; chunks.containsKey(offset) && chunks.get(offset).length > 0;
+                        offset += chunks.get(offset).length) {
+                    file.write(chunks.get(offset));
+                }
+                committed = file.toByteArray();
+                LocalServer.respond(exchange, 200, "{\"name\": \"file.bin\"}");
+            }
+        });
+        final OAuthService service = new ServiceBuilder().provider(DropBoxApi.class).apiKey("key").apiSecret("secret")
+                .build();
+        uploader = new ChunkedUploader(service, new Token("token", "secret"),
+                new DropBoxUploadProtocol(server.getUrl("/2/files/upload_session/"), "/file.bin"));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldUploadChunksInParallel() throws Exception {
+        final byte[] bytes = createFile(2 * CHUNK + 1000);
+        final UploadSession session = uploader.setChunkSize(CHUNK).setParallelism(3).upload(file().toPath());
+        assertTrue(session.isFinished());
+        assertEquals("session-1", session.getSessionId());
+        assertArrayEquals(bytes, committed);
+        assertEquals(3, appends.get());
+        assertTrue("chunks were sent one at a time", maxInFlight.get() > 1);
+        assertEquals(Set.of(2L * CHUNK), closingOffsets);
+    }
+
+    @Test
+    public void shouldCloseSessionOfEmptyFile() throws Exception {
+        createFile(0);
+        final UploadSession session = uploader.setChunkSize(CHUNK).upload(file().toPath());
+        assertTrue(session.isFinished());
+        assertArrayEquals(new byte[0], committed);
+        assertEquals(1, appends.get());
+        assertEquals(Set.of(0L), closingOffsets);
+    }
+
+    @Test
+    public void shouldResumeFromAcknowledgedChunks() throws Exception {
+        final byte[] bytes = createFile(2 * CHUNK + 1000);
+        failingOffsets.add((long) CHUNK);
+        uploader.setChunkSize(CHUNK).setParallelism(3);
+        UploadSession session = null;
+        try {
+            uploader.upload(file().toPath());
+            fail("the second chunk is rejected");
+        } catch (UploadException e) {
+            session = e.getSession();
+        }
+        assertEquals(CHUNK, session.getAcknowledgedOffset());
+        assertEquals(CHUNK + 1000, session.getAcknowledgedBytes());
+
+        uploader.resume(session);
+        assertTrue(session.isFinished());
+        assertArrayEquals(bytes, committed);
+        assertEquals(4, appends.get());
+        // every attempt was signed on its own
+        assertEquals(4, nonces.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnalignedChunkSize() {
+        uploader.setChunkSize(CHUNK + 1);
+    }
+
+    private File file() {
+        return new File(folder.getRoot(), "file.bin");
+    }
+
+    private byte[] createFile(final int length) throws IOException {
+        final byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        Files.write(file().toPath(), bytes);
+        return bytes;
+    }
+
+    private static byte[] readBytes(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        in.transferTo(out);
+        return out.toByteArray();
+    }
+}
@@ -1,5 +1,9 @@
 package org.scribe.utils;
 
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
 import org.junit.*;
 import static org.junit.Assert.*;
 
@@ -67,4 +71,62 @@ public class OAuthEncoderTest
       Assert.assertEquals(encoded[i], OAuthEncoder.encode(sources[i]));
     }
   }
+
+  @Test
+  public void shouldReturnSameStringWhenNothingToEscape()
+  {
+    String plain = "oauth_nonce";
+    assertSame(plain, OAuthEncoder.encode(plain));
+    assertSame(plain, OAuthEncoder.decode(plain));
+  }
+
+  @Test
+  public void shouldEncodeUtf8Bytes()
+  {
+    assertEquals("caf%C3%A9%20%E2%82%AC%20%F0%9F%98%80", OAuthEncoder.encode("caf\u00e9 \u20ac \ud83d\ude00"));
+    // an unpaired surrogate is encoded as the '?' it is replaced with in UTF-8
+    assertEquals("a%3Fb", OAuthEncoder.encode("a\ud83db"));
+  }
+
+  @Test
+  public void shouldAppendToBuilder()
+  {
+    StringBuilder builder = new StringBuilder("GET&");
+    assertSame(builder, OAuthEncoder.encode(new StringBuilder("a b"), builder).append('&'));
+    OAuthEncoder.encode("plain", builder);
+    assertEquals("GET&a%20b&plain", builder.toString());
+  }
+
+  @Test
+  public void shouldPutToByteBuffer()
+  {
+    ByteBuffer buffer = ByteBuffer.allocate(32);
+    OAuthEncoder.encode("Dogs, Cats", buffer);
+    buffer.flip();
+    assertEquals("Dogs%2C%20Cats", StandardCharsets.US_ASCII.decode(buffer).toString());
+  }
+
+  @Test
+  public void shouldDecodePlusWithoutEscapes()
+  {
+    assertEquals("a b c", OAuthEncoder.decode("a+b+c"));
+    assertEquals("a b\u00e9", OAuthEncoder.decode("a+b%C3%A9"));
+  }
+
+  @Test
+  public void shouldEncodeAsUrlEncoderWithOAuthRules() throws Exception
+  {
+    Random random = new Random(42);
+    for (int i = 0; i < 2000; i++)
+    {
+      StringBuilder plain = new StringBuilder();
+      for (int length = random.nextInt(20); length > 0; length--)
+      {
+        plain.append((char) (random.nextBoolean() ? random.nextInt(128) : random.nextInt(0xd800)));
+      }
+      String expected = URLEncoder.encode(plain.toString(), "UTF-8").replace("*", "%2A").replace("+", "%20")
+          .replace("%7E", "~");
+      assertEquals(expected, OAuthEncoder.encode(plain.toString()));
+    }
+  }
 }
@@ -2,6 +2,7 @@ package org.scribe.utils;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -26,4 +27,34 @@ public class StreamUtilsTest
     StreamUtils.getStreamContents(is);
     fail("Must throw exception before getting here");
   }
+
+  @Test
+  public void shouldReadStreamOfUnknownLengthLargerThanABuffer()
+  {
+    byte[] bytes = new byte[BufferPool.BUFFER_SIZE * 2 + 3];
+    new Random(42).nextBytes(bytes);
+    assertArrayEquals(bytes, StreamUtils.getStreamBytes(new ByteArrayInputStream(bytes), -1));
+  }
+
+  @Test
+  public void shouldReadStreamOfExactlyOneBuffer()
+  {
+    byte[] bytes = new byte[BufferPool.BUFFER_SIZE];
+    new Random(42).nextBytes(bytes);
+    assertArrayEquals(bytes, StreamUtils.getStreamBytes(new ByteArrayInputStream(bytes), -1));
+  }
+
+  @Test
+  public void shouldReadStreamLongerThanExpected()
+  {
+    byte[] bytes = new byte[BufferPool.BUFFER_SIZE + 10];
+    new Random(42).nextBytes(bytes);
+    assertArrayEquals(bytes, StreamUtils.getStreamBytes(new ByteArrayInputStream(bytes), 5));
+  }
+
+  @Test
+  public void shouldReadStreamShorterThanExpected()
+  {
+    assertArrayEquals("short".getBytes(), StreamUtils.getStreamBytes(new ByteArrayInputStream("short".getBytes()), 64));
+  }
 }